@@ -0,0 +1,129 @@
+package com.example.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.CharBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The line pre-filter on text-heavy pages, where few lines hold a price: the filter alone, and
+ * the filter followed by a scan of the lines it lets through. With {@code filter=NONE} every
+ * line is scanned. Scores are per line. Run with
+ * {@code ./gradlew jmh -PjmhArgs="CandidateLineFilterBenchmark"}, adding e.g.
+ * {@code -p priceLinePercent=1,5,25} to vary the share of lines holding a price.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class CandidateLineFilterBenchmark {
+
+    private static final int LINES = 200_000;
+
+    private static final String[] WORDS = {"the", "catalogue", "lists", "delivery", "terms", "for",
+            "wholesale", "orders", "placed", "before", "shipping", "and", "handling", "apply", "to",
+            "all", "regions", "unless", "otherwise", "agreed", "Product:", "Widget", "SKU:", "ABC-XYZ"};
+
+    public enum Filter {
+        NONE, SCALAR, VECTOR
+    }
+
+    @Param({"NONE", "SCALAR", "VECTOR"})
+    public Filter filter;
+
+    @Param({"5"})
+    public int priceLinePercent;
+
+    private char[] chars;
+
+    private int[] starts;
+
+    private int[] ends;
+
+    private CharSequence text;
+
+    private CandidateLineFilter lineFilter;
+
+    private PriceLineScanner scanner;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        chars = new char[LINES * 96];
+        starts = new int[LINES];
+        ends = new int[LINES];
+        text = CharBuffer.wrap(chars, 0, buildText(new Random(42)));
+        scanner = new PriceLineScanner();
+
+        if (filter == Filter.NONE) {
+            lineFilter = CandidateLineFilter.NONE;
+        } else if (filter == Filter.SCALAR) {
+            lineFilter = CandidateLineFilter.SCALAR;
+        } else {
+            lineFilter = CandidateLineFilter.select(true, true);
+            if (lineFilter == CandidateLineFilter.SCALAR) {
+                throw new IllegalStateException("The Vector API is not available to this JVM");
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public long filterOnly() {
+        long accepted = 0;
+        for (int i = 0; i < LINES; i++) {
+            if (lineFilter.mayContainPrice(chars, starts[i], ends[i])) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public long filterAndScan() {
+        long prices = 0;
+        for (int i = 0; i < LINES; i++) {
+            if (lineFilter.mayContainPrice(chars, starts[i], ends[i])) {
+                scanner.scan(text, starts[i], ends[i]);
+                prices += scanner.getPriceCount();
+            }
+        }
+        return prices;
+    }
+
+    private int buildText(Random random) {
+        int length = 0;
+        for (int line = 0; line < LINES; line++) {
+            StringBuilder sb = new StringBuilder(96);
+            int words = 6 + random.nextInt(8);
+            for (int w = 0; w < words; w++) {
+                sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            if (random.nextInt(100) < priceLinePercent) {
+                sb.append('$').append(random.nextInt(1000)).append('.').append(10 + random.nextInt(90));
+            }
+            int lineLength = Math.min(sb.length(), 95);
+            sb.getChars(0, lineLength, chars, length);
+            starts[line] = length;
+            ends[line] = length + lineLength;
+            length += lineLength + 1;
+            chars[length - 1] = '\n';
+        }
+        return length;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.util;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary results shared by the extraction benchmarks, reported by JMH next to the score.
+ */
+public final class ExtractionCounters {
+
+    private ExtractionCounters() {
+    }
+
+    /**
+     * Pages and rows processed, reported as rates per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Throughput {
+
+        public long pages;
+
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            pages = 0;
+            rows = 0;
+        }
+
+        void record(int pageCount, long rowCount) {
+            pages += pageCount;
+            rows += rowCount;
+        }
+    }
+
+    /**
+     * Heap bytes the benchmark thread allocated per row over the iteration, or -1 when the JVM
+     * cannot measure it. The value is assigned rather than summed, so it reads as an average.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Allocation {
+
+        public long bytesPerRow;
+
+        private long allocatedBytes;
+
+        private long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesPerRow = 0;
+            allocatedBytes = 0;
+            rows = 0;
+        }
+
+        long start() {
+            return AllocationCounter.currentThreadAllocatedBytes();
+        }
+
+        void record(long start, long rowCount) {
+            long end = AllocationCounter.currentThreadAllocatedBytes();
+            if (start < 0 || end < 0) {
+                bytesPerRow = -1;
+                return;
+            }
+            allocatedBytes += end - start;
+            rows += rowCount;
+            bytesPerRow = rows == 0 ? 0 : allocatedBytes / rows;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.util;
+
+import com.example.data.PriceInfo;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the text and layout extraction modes on a synthetic tabular catalogue whose rows
+ * are known. Besides documents and pages per second, each result lists the share of extracted
+ * rows that carry their catalogue row's price ({@code precision}), the share of catalogue rows
+ * found that way ({@code recall}), and the share whose product code was read too
+ * ({@code codes}), all in percent. Descriptions and quantities contain figures, as real price
+ * lists do. Run with {@code ./gradlew jmh -PjmhArgs="ExtractionModeBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ExtractionModeBenchmark {
+
+    private static final int ROWS_PER_PAGE = 40;
+
+    private static final Pattern CODE = Pattern.compile("WC-\\d{5}");
+
+    private static final float[] COLUMNS = {40, 110, 360, 420};
+
+    private static final String[] DESCRIPTIONS = {"HDMI cable 2m", "USB-C hub 4 port", "Desk lamp",
+            "Cable ties pack of 100", "Office chair", "SSD 512 GB", "Monitor arm", "AA batteries x 8",
+            "Notebook A5", "Laser printer 30 ppm", "Toner 2.5k pages", "Label tape 12mm"};
+
+    @Param({"TEXT", "LAYOUT"})
+    public ExtractionMode mode;
+
+    @Param({"100"})
+    public int pages;
+
+    private byte[] pdf;
+
+    private PdfPriceExtractor extractor;
+
+    // Scored once per trial, since every extraction of the same document gives the same rows
+    private double precision;
+
+    private double recall;
+
+    private double codes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Map<String, BigDecimal> expected = new HashMap<>();
+        pdf = buildCatalogue(expected, new Random(42));
+        extractor = new PdfPriceExtractor();
+        Field extractionMode = PdfPriceExtractor.class.getDeclaredField("extractionMode");
+        extractionMode.setAccessible(true);
+        extractionMode.set(extractor, mode);
+        score(extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "catalogue.pdf"), expected);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        extractor.shutdown();
+    }
+
+    @Benchmark
+    public List<PriceInfo> extractPricesFromPdf(ExtractionCounters.Throughput throughput, Accuracy accuracy)
+            throws Exception {
+        List<PriceInfo> rows = extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "catalogue.pdf");
+        throughput.record(pages, rows.size());
+        return rows;
+    }
+
+    /**
+     * Accuracy of the mode on the catalogue, in percent, reported next to the score.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Accuracy {
+
+        public double precision;
+
+        public double recall;
+
+        public double codes;
+
+        @Setup(Level.Iteration)
+        public void copy(ExtractionModeBenchmark benchmark) {
+            precision = benchmark.precision;
+            recall = benchmark.recall;
+            codes = benchmark.codes;
+        }
+    }
+
+    // A row is right if it came from a catalogue row and carries that row's price;
+    // the code column is scored on its own, as text mode only finds labelled codes
+    private void score(List<PriceInfo> rows, Map<String, BigDecimal> expected) {
+        int correct = 0;
+        int codeCount = 0;
+        for (PriceInfo row : rows) {
+            Matcher code = CODE.matcher(row.getRawText());
+            BigDecimal price = code.find() ? expected.get(code.group()) : null;
+            if (price != null && price.compareTo(row.getPrice()) == 0) {
+                correct++;
+                if (code.group().equals(row.getProductCode())) {
+                    codeCount++;
+                }
+            }
+        }
+        precision = rows.isEmpty() ? 0 : 100.0 * correct / rows.size();
+        recall = 100.0 * correct / expected.size();
+        codes = 100.0 * codeCount / expected.size();
+    }
+
+    private byte[] buildCatalogue(Map<String, BigDecimal> expected, Random random) throws IOException {
+        PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (int p = 0; p < pages; p++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    float y = 740;
+                    drawRow(content, font, y, "Wholesale catalogue 2024, page " + (p + 1) + " of " + pages);
+                    y -= 14;
+                    drawRow(content, font, y, "Item #", "Description", "Qty", "Unit Price");
+                    for (int r = 0; r < ROWS_PER_PAGE; r++) {
+                        String code = String.format("WC-%05d", p * ROWS_PER_PAGE + r);
+                        BigDecimal price = BigDecimal.valueOf(100 + random.nextInt(99_900), 2);
+                        expected.put(code, price);
+                        y -= 14;
+                        drawRow(content, font, y, code, DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)],
+                                String.valueOf(1 + random.nextInt(50)), "$" + price);
+                    }
+                    y -= 14;
+                    drawRow(content, font, y, "Orders over $250.00 ship free. Call 555-0100 before 5pm.");
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static void drawRow(PDPageContentStream content, PDType1Font font, float y, String... cells)
+            throws IOException {
+        for (int c = 0; c < cells.length; c++) {
+            content.beginText();
+            content.setFont(font, 10);
+            content.newLineAtOffset(COLUMNS[c], y);
+            content.showText(cells[c]);
+            content.endText();
+        }
+    }
+}
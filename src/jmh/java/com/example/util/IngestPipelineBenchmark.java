@@ -0,0 +1,114 @@
+package com.example.util;
+
+import com.example.data.PriceInfo;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end ingest of a synthetic table catalog against a live MongoDB. With
+ * {@code writesInFlight=0} the whole document is parsed and then every row inserted at once,
+ * as uploads did before; otherwise {@link PriceBulkWriter} writes unordered chunks while
+ * parsing goes on, with that many chunks in flight. Rows go to a scratch database that is
+ * dropped afterwards. Run with
+ * {@code ./gradlew jmh -PjmhArgs="IngestPipelineBenchmark -p mongoUri=mongodb://localhost:27017"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class IngestPipelineBenchmark {
+
+    private static final String DATABASE = "ingest_benchmark";
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @Param({"mongodb://localhost:27017"})
+    public String mongoUri;
+
+    @Param({"500"})
+    public int pages;
+
+    @Param({"0", "1", "4"})
+    public int writesInFlight;
+
+    private byte[] pdf;
+
+    private PdfPriceExtractor extractor;
+
+    private ExecutorService writers;
+
+    private MongoClient client;
+
+    private MongoTemplate mongoTemplate;
+
+    private ExtractionMetrics metrics;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        pdf = SyntheticCatalog.TABLE.generate(pages);
+        extractor = new PdfPriceExtractor();
+        writers = Executors.newCachedThreadPool(Thread.ofPlatform().name("price-writer-", 0).daemon(true).factory());
+        client = MongoClients.create(mongoUri);
+        mongoTemplate = new MongoTemplate(client, DATABASE);
+        metrics = new ExtractionMetrics();
+    }
+
+    // Each ingest takes well over a second, so emptying the collection before each one does not skew it
+    @Setup(Level.Invocation)
+    public void dropRows() {
+        mongoTemplate.dropCollection(PriceInfo.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        try {
+            mongoTemplate.getDb().drop();
+            client.close();
+        } finally {
+            writers.shutdown();
+            extractor.shutdown();
+        }
+    }
+
+    @Benchmark
+    public ExtractionSummary ingest(ExtractionCounters.Throughput throughput) throws Exception {
+        ExtractionSummary summary;
+        if (writesInFlight == 0) {
+            List<PriceInfo> rows = new ArrayList<>();
+            summary = extractor.extractPrices(new ByteArrayInputStream(pdf), "catalogue.pdf",
+                    (page, pageRows) -> rows.addAll(pageRows));
+            mongoTemplate.insert(rows, PriceInfo.class);
+        } else {
+            try (PriceBulkWriter writer = new PriceBulkWriter(mongoTemplate, writers, CHUNK_SIZE, writesInFlight,
+                    metrics)) {
+                summary = extractor.extractPrices(new ByteArrayInputStream(pdf), "catalogue.pdf", writer);
+                writer.finish();
+            }
+        }
+        throughput.record(pages, summary.getExtractedCount());
+        return summary;
+    }
+}
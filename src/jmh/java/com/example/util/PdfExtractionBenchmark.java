@@ -0,0 +1,82 @@
+package com.example.util;
+
+import com.example.data.PriceInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of {@link PdfPriceExtractor#extractPricesFromPdf}: spooling, PDF decoding,
+ * text stripping and parsing, on synthetic catalogs of 1 to 5,000 pages. Besides documents
+ * per second it reports pages/s and rows/s, and the heap bytes allocated per row on the
+ * calling thread (add {@code -prof gc} for the whole JVM). Run with {@code ./gradlew jmh};
+ * pass e.g. {@code -p pages=100 -p catalog=TABLE} through {@code -PjmhArgs} to narrow it down,
+ * or {@code -p skipImages=false,true} to compare text-only content stream processing with the
+ * plain PDFBox one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class PdfExtractionBenchmark {
+
+    @Param({"TEXT", "TABLE", "IMAGE", "GALLERY"})
+    public SyntheticCatalog catalog;
+
+    @Param({"1", "100", "1000", "5000"})
+    public int pages;
+
+    @Param({"TEXT"})
+    public ExtractionMode mode;
+
+    @Param({"true"})
+    public boolean skipImages;
+
+    private byte[] pdf;
+
+    private PdfPriceExtractor extractor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        pdf = catalog.generate(pages);
+        extractor = new PdfPriceExtractor();
+        Field extractionMode = PdfPriceExtractor.class.getDeclaredField("extractionMode");
+        extractionMode.setAccessible(true);
+        extractionMode.set(extractor, mode);
+        Field skipImagesField = PdfPriceExtractor.class.getDeclaredField("skipImages");
+        skipImagesField.setAccessible(true);
+        skipImagesField.set(extractor, skipImages);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        extractor.shutdown();
+    }
+
+    @Benchmark
+    public List<PriceInfo> extractPricesFromPdf(ExtractionCounters.Throughput throughput,
+                                                ExtractionCounters.Allocation allocation) throws Exception {
+        long start = allocation.start();
+        List<PriceInfo> rows = extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "catalog.pdf");
+        allocation.record(start, rows.size());
+        throughput.record(pages, rows.size());
+        return rows;
+    }
+}
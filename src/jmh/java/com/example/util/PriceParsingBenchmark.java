@@ -0,0 +1,70 @@
+package com.example.util;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The text-parsing stage on its own: the catalog is stripped once during setup, and each
+ * operation turns its page text into rows without touching PDFBox. Compare with
+ * {@link PdfExtractionBenchmark} to see how much of an extraction is spent parsing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class PriceParsingBenchmark {
+
+    @Param({"TEXT", "TABLE", "IMAGE"})
+    public SyntheticCatalog catalog;
+
+    @Param({"100"})
+    public int pages;
+
+    private List<PageLineTextStripper.PageText> pageTexts;
+
+    private PdfPriceExtractor extractor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        pageTexts = new ArrayList<>(pages);
+        try (PDDocument document = Loader.loadPDF(catalog.generate(pages))) {
+            // The stripper reuses its page buffer, so each page is copied out line by line
+            new PageLineTextStripper((page, pageText) -> {
+                StringBuilder text = new StringBuilder(pageText.length() + pageText.lineCount());
+                for (int i = 0; i < pageText.lineCount(); i++) {
+                    text.append(pageText, pageText.lineStart(i), pageText.lineEnd(i)).append('\n');
+                }
+                pageTexts.add(PageLineTextStripper.PageText.of(text));
+            }).process(document);
+        }
+        extractor = new PdfPriceExtractor();
+    }
+
+    @Benchmark
+    public long parsePages(ExtractionCounters.Throughput throughput, ExtractionCounters.Allocation allocation)
+            throws Exception {
+        long start = allocation.start();
+        long rows = extractor.parsePages(pageTexts, "catalog.pdf", (page, pageRows) -> { });
+        allocation.record(start, rows);
+        throughput.record(pages, rows);
+        return rows;
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.util;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Generates price catalogs with PDFBox for the extraction benchmarks. Every layout is built
+ * from the same seed, so a benchmark sees the same document on every run.
+ */
+public enum SyntheticCatalog {
+
+    /**
+     * Running prose with labelled price lines mixed in, one in four lines holding a price.
+     */
+    TEXT {
+        @Override
+        void drawPage(PDDocument document, PDPageContentStream content, int page, Random random) throws IOException {
+            content.beginText();
+            content.setFont(FONT, 9);
+            content.setLeading(12);
+            content.newLineAtOffset(40, 760);
+            for (int line = 0; line < 60; line++) {
+                if (line % 4 == 3) {
+                    content.showText("Product: " + DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)]
+                            + "  SKU: " + code(page, line) + "  Price " + price(random));
+                } else {
+                    content.showText(prose(random));
+                }
+                content.newLine();
+            }
+            content.endText();
+        }
+    },
+
+    /**
+     * A price table drawn cell by cell under a header row, with figures in the description and
+     * quantity columns.
+     */
+    TABLE {
+        @Override
+        void drawPage(PDDocument document, PDPageContentStream content, int page, Random random) throws IOException {
+            float y = 760;
+            drawRow(content, y, "Item #", "Description", "Qty", "Unit Price");
+            for (int row = 0; row < 45; row++) {
+                y -= 15;
+                drawRow(content, y, code(page, row), DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)],
+                        String.valueOf(1 + random.nextInt(50)), price(random));
+            }
+        }
+
+        private void drawRow(PDPageContentStream content, float y, String... cells) throws IOException {
+            for (int c = 0; c < cells.length; c++) {
+                content.beginText();
+                content.setFont(FONT, 9);
+                content.newLineAtOffset(COLUMNS[c], y);
+                content.showText(cells[c]);
+                content.endText();
+            }
+        }
+    },
+
+    /**
+     * A product photo per page with a few price lines under it, as in a brochure.
+     */
+    IMAGE {
+        @Override
+        void drawPage(PDDocument document, PDPageContentStream content, int page, Random random) throws IOException {
+            PDImageXObject photo = LosslessFactory.createFromImage(document, photo(random));
+            content.drawImage(photo, 40, 380, 520, 390);
+
+            content.beginText();
+            content.setFont(FONT, 10);
+            content.setLeading(14);
+            content.newLineAtOffset(40, 350);
+            for (int line = 0; line < 8; line++) {
+                content.showText(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)] + "  SKU: " + code(page, line)
+                        + "  " + price(random));
+                content.newLine();
+            }
+            content.endText();
+        }
+    },
+
+    /**
+     * A grid of framed product thumbnails with a caption and price under each, as in a product
+     * gallery, so that most of the content stream draws images and rules rather than text.
+     */
+    GALLERY {
+        @Override
+        void drawPage(PDDocument document, PDPageContentStream content, int page, Random random) throws IOException {
+            PDImageXObject photo = LosslessFactory.createFromImage(document, photo(random));
+            for (int row = 0; row < 4; row++) {
+                for (int column = 0; column < 3; column++) {
+                    float x = 40 + column * 180;
+                    float y = 580 - row * 180;
+                    content.saveGraphicsState();
+                    content.setStrokingColor(0.8f, 0.8f, 0.8f);
+                    content.addRect(x - 2, y - 2, 164, 124);
+                    content.stroke();
+                    content.restoreGraphicsState();
+                    content.drawImage(photo, x, y, 160, 120);
+
+                    content.beginText();
+                    content.setFont(FONT, 8);
+                    content.newLineAtOffset(x, y - 14);
+                    content.showText(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)] + "  " + price(random));
+                    content.endText();
+                }
+            }
+        }
+    };
+
+    private static final PDType1Font FONT = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+
+    private static final float[] COLUMNS = {40, 110, 360, 420};
+
+    private static final String[] DESCRIPTIONS = {"HDMI cable 2m", "USB-C hub 4 port", "Desk lamp",
+            "Cable ties pack of 100", "Office chair", "SSD 512 GB", "Monitor arm", "AA batteries x 8",
+            "Notebook A5", "Laser printer 30 ppm", "Toner 2.5k pages", "Label tape 12mm"};
+
+    private static final String[] WORDS = {"the", "catalogue", "lists", "delivery", "terms", "for",
+            "wholesale", "orders", "placed", "before", "shipping", "and", "handling", "apply", "to",
+            "all", "regions", "unless", "otherwise", "agreed", "in", "writing", "with", "our", "team"};
+
+    /**
+     * A catalog of {@code pages} pages in this layout.
+     */
+    public byte[] generate(int pages) throws IOException {
+        Random random = new Random(42);
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (int p = 0; p < pages; p++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    drawPage(document, content, p, random);
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    abstract void drawPage(PDDocument document, PDPageContentStream content, int page, Random random)
+            throws IOException;
+
+    private static String code(int page, int row) {
+        return String.format("WC-%05d", page * 100 + row);
+    }
+
+    private static String price(Random random) {
+        int cents = 100 + random.nextInt(99_900);
+        return "$" + cents / 100 + "." + String.format("%02d", cents % 100);
+    }
+
+    private static String prose(Random random) {
+        StringBuilder sb = new StringBuilder(96);
+        int words = 8 + random.nextInt(8);
+        for (int w = 0; w < words; w++) {
+            sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return sb.toString();
+    }
+
+    // A smooth gradient with some noise, which compresses about as well as a product shot
+    private static BufferedImage photo(Random random) {
+        BufferedImage image = new BufferedImage(160, 120, BufferedImage.TYPE_INT_RGB);
+        int tint = random.nextInt(0x1000000);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int shade = (x + y) & 0xff;
+                int noise = random.nextInt(8);
+                image.setRGB(x, y, (tint ^ (shade << 16 | shade << 8 | shade)) + noise);
+            }
+        }
+        return image;
+    }
+}
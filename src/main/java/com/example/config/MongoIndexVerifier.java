@@ -0,0 +1,173 @@
+package com.example.config;
+
+import com.example.data.PriceInfo;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Compares the indexes declared on the entities with {@code @Indexed} and
+ * {@code @CompoundIndex} against those the collections actually have, once the application has
+ * started. Missing indexes are created and any drift is logged; the check runs on a
+ * background thread, so requests are served while indexes build.
+ * <p>
+ * Indexes are compared by their key pattern, so a declared index that exists under another
+ * name counts as present. Spring Data's own {@code auto-index-creation} stays off.
+ */
+@Component
+public class MongoIndexVerifier {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexVerifier.class);
+
+    // Entities whose declared indexes are verified
+    private static final List<Class<?>> ENTITIES = List.of(PriceInfo.class);
+
+    private static final String ID_INDEX = "_id_1";
+
+    /**
+     * Declared indexes a collection lacked and indexes it has that nothing declares, by key
+     * pattern such as {@code category_1_price_1}.
+     */
+    static final class IndexDrift {
+
+        private final String collection;
+
+        private final List<String> missing;
+
+        private final List<String> unexpected;
+
+        IndexDrift(String collection, List<String> missing, List<String> unexpected) {
+            this.collection = collection;
+            this.missing = missing;
+            this.unexpected = unexpected;
+        }
+
+        String getCollection() {
+            return collection;
+        }
+
+        List<String> getMissing() {
+            return missing;
+        }
+
+        List<String> getUnexpected() {
+            return unexpected;
+        }
+
+        boolean isEmpty() {
+            return missing.isEmpty() && unexpected.isEmpty();
+        }
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Check the collections' indexes once the application is ready
+    @Value("${mongo.indexes.verify-on-startup:true}")
+    private boolean verifyOnStartup = true;
+
+    // Create declared indexes a collection lacks; false only logs them
+    @Value("${mongo.indexes.create-missing:true}")
+    private boolean createMissing = true;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (verifyOnStartup) {
+            Thread.ofPlatform().name("mongo-index-verifier").daemon(true).start(this::verifyAll);
+        }
+    }
+
+    /**
+     * Verifies every entity, logging rather than failing when a collection cannot be checked.
+     */
+    void verifyAll() {
+        for (Class<?> entity : ENTITIES) {
+            try {
+                verify(entity);
+            } catch (RuntimeException e) {
+                log.warn("Could not verify the indexes of {}: {}", entity.getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Compares the declared and actual indexes of {@code entity}'s collection, creating the
+     * missing ones unless {@code mongo.indexes.create-missing} is off.
+     */
+    IndexDrift verify(Class<?> entity) {
+        String collection = mongoTemplate.getCollectionName(entity);
+        IndexOperations indexOps = mongoTemplate.indexOps(entity);
+
+        Map<String, IndexDefinition> declared = new LinkedHashMap<>();
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        for (IndexDefinition definition : resolver.resolveIndexFor(entity)) {
+            declared.put(keyPattern(definition.getIndexKeys()), definition);
+        }
+
+        Set<String> actual = new LinkedHashSet<>();
+        for (IndexInfo index : indexOps.getIndexInfo()) {
+            actual.add(keyPattern(index.getIndexFields()));
+        }
+
+        List<String> missing = new ArrayList<>();
+        for (Map.Entry<String, IndexDefinition> entry : declared.entrySet()) {
+            if (actual.contains(entry.getKey())) {
+                continue;
+            }
+            missing.add(entry.getKey());
+            if (createMissing) {
+                log.info("Creating missing index {} on {}", entry.getKey(), collection);
+                indexOps.ensureIndex(entry.getValue());
+            } else {
+                log.warn("Index {} declared on {} does not exist", entry.getKey(), collection);
+            }
+        }
+
+        List<String> unexpected = new ArrayList<>();
+        for (String pattern : actual) {
+            if (!ID_INDEX.equals(pattern) && !declared.containsKey(pattern)) {
+                unexpected.add(pattern);
+                log.warn("Index {} on {} is not declared by {}", pattern, collection, entity.getSimpleName());
+            }
+        }
+        return new IndexDrift(collection, missing, unexpected);
+    }
+
+    private static String keyPattern(Document keys) {
+        StringJoiner pattern = new StringJoiner("_");
+        for (Map.Entry<String, Object> key : keys.entrySet()) {
+            pattern.add(key.getKey()).add(String.valueOf(key.getValue()));
+        }
+        return pattern.toString();
+    }
+
+    private static String keyPattern(List<IndexField> fields) {
+        StringJoiner pattern = new StringJoiner("_");
+        for (IndexField field : fields) {
+            Sort.Direction direction = field.getDirection();
+            String kind = direction == null ? "special" : direction == Sort.Direction.ASC ? "1" : "-1";
+            pattern.add(field.getKey()).add(kind);
+        }
+        return pattern.toString();
+    }
+}
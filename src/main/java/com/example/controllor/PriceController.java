@@ -1,28 +1,88 @@
 package com.example.controllor;
 
+import com.example.data.ExtractionTemplate;
 import com.example.data.PriceInfo;
+import com.example.service.ExtractionTemplateService;
+import com.example.service.PdfBatchService;
+import com.example.service.PdfJobService;
 import com.example.service.PriceService;
+import com.example.util.AdmittedUpload;
+import com.example.util.BatchFileResult;
+import com.example.util.ExtractionBudgetExceededException;
+import com.example.util.ExtractionRejectedException;
+import com.example.util.ExtractionSummary;
+import com.example.util.PageRange;
+import com.example.util.PdfExtractionJob;
+import com.example.util.PriceFields;
+import com.example.util.PricePage;
+import com.example.util.PriceView;
+import com.example.util.UploadCacheStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/prices")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = PriceController.NEXT_CURSOR_HEADER)
 public class PriceController {
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    // Carries the cursor of the next page of a listing; absent on the last page. Exposed to
+    // cross-origin callers, who could not page past the first page otherwise
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private PriceService priceService;
 
+    @Autowired
+    private PdfJobService pdfJobService;
+
+    @Autowired
+    private PdfBatchService pdfBatchService;
+
+    @Autowired
+    private ExtractionTemplateService extractionTemplateService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Extracts and stores the prices of an uploaded PDF. {@code pages} limits extraction to a
+     * range such as {@code 1-5}, {@code 7} or {@code 10-}. With {@code preview=true} only the
+     * range (by default the first few pages) is parsed and nothing is stored, so a file can be
+     * checked before a full ingest. When concurrent parses have used up the heap budget the
+     * upload is refused with {@code 503} and a {@code Retry-After} header; a document that runs
+     * out of its time budget is answered with {@code 422}, since retrying it would only time
+     * out again.
+     * <p>
+     * {@code fields} selects the fields of the returned rows, as on the listing endpoints. With
+     * {@code summary=true} only the counts are returned, and a whole-document upload no longer
+     * holds its rows in memory for the response.
+     */
     @PostMapping("/upload-pdf")
-    public ResponseEntity<?> uploadPdfAndExtractPrices(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> uploadPdfAndExtractPrices(@RequestParam("file") MultipartFile file,
+                                                       @RequestParam(value = "pages", required = false) String pages,
+                                                       @RequestParam(value = "preview", defaultValue = "false") boolean preview,
+                                                       @RequestParam(value = "fields", required = false) String fields,
+                                                       @RequestParam(value = "summary", defaultValue = "false") boolean summary) {
         try {
             if (file.isEmpty()) {
                 return ResponseEntity.badRequest().body(createErrorResponse("File is empty"));
@@ -32,20 +92,276 @@ public class PriceController {
                 return ResponseEntity.badRequest().body(createErrorResponse("Only PDF files are supported"));
             }
 
-            List<PriceInfo> extractedPrices = priceService.extractPricesFromPdf(file);
+            PageRange pageRange = PageRange.parse(pages);
+            PriceFields priceFields = PriceFields.parse(fields);
+            if (preview) {
+                return ResponseEntity.ok(createPreviewResponse(file, pageRange, priceFields, summary));
+            }
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "PDF processed successfully");
-            response.put("extractedCount", extractedPrices.size());
-            response.put("prices", extractedPrices);
+            if (summary && pageRange.isAll()) {
+                // Rows are stored as they are parsed and not collected for the response
+                ExtractionSummary extraction = priceService.streamPricesFromPdf(file, (page, rows) -> { });
+                response.put("pageCount", extraction.getPageCount());
+                response.put("extractedCount", extraction.getExtractedCount());
+            } else {
+                List<PriceInfo> extractedPrices = priceService.extractPricesFromPdf(file, pageRange);
+                response.put("extractedCount", extractedPrices.size());
+                if (!summary) {
+                    response.put("prices", toViews(extractedPrices, priceFields));
+                }
+            }
+            if (!pageRange.isAll()) {
+                response.put("pages", pageRange.toString());
+            }
 
             return ResponseEntity.ok(response);
 
+        } catch (ExtractionRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(createErrorResponse(e.getMessage() + ", please retry later"));
+        } catch (ExtractionBudgetExceededException e) {
+            return ResponseEntity.unprocessableEntity().body(createErrorResponse(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error processing PDF: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Streams extracted rows as newline-delimited JSON while the PDF is parsed. Each row is
+     * written as soon as its page has been saved, followed by one {@code "type":"summary"}
+     * record (or a {@code "type":"error"} record if extraction fails part-way). {@code fields}
+     * selects the fields of each row, as on the listing endpoints. The upload is admitted before
+     * the stream starts, so a busy server answers 503 with Retry-After as {@code /upload-pdf} does.
+     */
+    @PostMapping("/upload-pdf/stream")
+    public ResponseEntity<?> uploadPdfAndStreamPrices(@RequestParam("file") MultipartFile file,
+                                                      @RequestParam(value = "fields", required = false) String fields) {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(createErrorResponse("File is empty"));
+        }
+
+        if (!"application/pdf".equals(file.getContentType())) {
+            return ResponseEntity.badRequest().body(createErrorResponse("Only PDF files are supported"));
+        }
+
+        PriceFields priceFields;
+        try {
+            priceFields = PriceFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        }
+
+        // Admitted before the body is returned, so a refusal can still answer with a status code
+        AdmittedUpload upload;
+        try {
+            upload = priceService.admitUpload(file);
+        } catch (ExtractionRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(createErrorResponse(e.getMessage() + ", please retry later"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse("Error processing PDF: " + e.getMessage()));
         }
+
+        StreamingResponseBody body = out -> {
+            try (upload) {
+                ExtractionSummary summary = priceService.streamPrices(upload, (page, rows) -> {
+                    for (PriceInfo row : rows) {
+                        writeRecord(out, PriceView.of(row, priceFields));
+                    }
+                    out.flush();
+                });
+
+                Map<String, Object> record = new HashMap<>();
+                record.put("type", "summary");
+                record.put("success", true);
+                record.put("fileName", summary.getFileName());
+                record.put("pageCount", summary.getPageCount());
+                record.put("extractedCount", summary.getExtractedCount());
+                writeRecord(out, record);
+            } catch (Exception e) {
+                Map<String, Object> record = createErrorResponse("Error processing PDF: " + e.getMessage());
+                record.put("type", "error");
+                writeRecord(out, record);
+            }
+            out.flush();
+        };
+
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Extracts several PDFs in one request. Each part may be a PDF or a ZIP archive of PDFs;
+     * documents are extracted concurrently and reported individually, so one bad file does not
+     * fail the batch.
+     */
+    @PostMapping("/upload-pdf/batch")
+    public ResponseEntity<?> uploadPdfBatch(@RequestParam("files") List<MultipartFile> files) {
+        try {
+            if (files == null || files.isEmpty()) {
+                return ResponseEntity.badRequest().body(createErrorResponse("At least one file is required"));
+            }
+
+            List<BatchFileResult> results = pdfBatchService.extractPricesFromBatch(files);
+
+            long extractedCount = 0;
+            int failedCount = 0;
+            for (BatchFileResult result : results) {
+                extractedCount += result.getExtractedCount();
+                if (!result.isSuccess()) {
+                    failedCount++;
+                }
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", failedCount == 0);
+            response.put("message", "Batch processed");
+            response.put("fileCount", results.size());
+            response.put("failedCount", failedCount);
+            response.put("extractedCount", extractedCount);
+            response.put("files", results);
+
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error processing batch: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Queues the PDF for background extraction and returns {@code 202 Accepted} with the job id
+     * right away. When the job queue is full the upload is refused with {@code 429} and a
+     * {@code Retry-After} header instead of tying up the request thread.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitPdfJob(@RequestParam("file") MultipartFile file) {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(createErrorResponse("File is empty"));
+        }
+
+        if (!"application/pdf".equals(file.getContentType())) {
+            return ResponseEntity.badRequest().body(createErrorResponse("Only PDF files are supported"));
+        }
+
+        try {
+            PdfExtractionJob job = pdfJobService.submitPdfJob(file);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/prices/jobs/" + job.getId()))
+                    .body(createJobResponse(job));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(pdfJobService.getRetryAfterSeconds()))
+                    .body(createErrorResponse("Too many PDF jobs in progress, please retry later"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error submitting PDF job: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Status of a background extraction job, with one page of the extracted rows once it has
+     * completed. The rows are paged and projected like {@link #getAllPriceInfo}: pass the
+     * {@code X-Next-Cursor} header of a response as {@code cursor} to fetch the page after it, and
+     * {@code fields} to select the fields returned.
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getPdfJob(@PathVariable String jobId,
+                                       @RequestParam(value = "cursor", required = false) String cursor,
+                                       @RequestParam(value = "limit", defaultValue = "0") int limit,
+                                       @RequestParam(value = "fields", required = false) String fields) {
+        try {
+            PriceFields priceFields = PriceFields.parse(fields);
+            Optional<PdfExtractionJob> job = pdfJobService.getJob(jobId);
+            if (job.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(createErrorResponse("Job not found with id: " + jobId));
+            }
+
+            Map<String, Object> response = createJobResponse(job.get());
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+            if (job.get().getStatus() == PdfExtractionJob.Status.COMPLETED) {
+                PricePage page = pdfJobService.getJobResults(job.get(), cursor, limit, priceFields);
+                if (page.getNextCursor() != null) {
+                    builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+                }
+                response.put("prices", toViews(page.getItems(), priceFields));
+            }
+            return builder.body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error retrieving PDF job: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Hit and miss counts for uploads answered from an earlier extraction of the same file.
+     */
+    @GetMapping("/upload-pdf/cache-stats")
+    public ResponseEntity<?> getUploadCacheStats() {
+        try {
+            UploadCacheStats stats = priceService.getUploadCacheStats();
+            return ResponseEntity.ok(stats);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error retrieving upload cache stats: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/templates")
+    public ResponseEntity<?> getAllTemplates() {
+        try {
+            List<ExtractionTemplate> templates = extractionTemplateService.getAllTemplates();
+            return ResponseEntity.ok(templates);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error retrieving templates: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Stores a supplier template. PDFs uploaded afterwards whose metadata and first page match
+     * it are read by its columns instead of the generic extraction.
+     */
+    @PostMapping("/templates")
+    public ResponseEntity<?> createTemplate(@RequestBody ExtractionTemplate template) {
+        try {
+            ExtractionTemplate saved = extractionTemplateService.saveTemplate(template);
+            return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error creating template: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/templates/{id}")
+    public ResponseEntity<?> deleteTemplate(@PathVariable String id) {
+        try {
+            extractionTemplateService.deleteTemplate(id);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Template deleted successfully");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error deleting template: " + e.getMessage()));
+        }
     }
 
     @PostMapping
@@ -59,11 +375,21 @@ public class PriceController {
         }
     }
 
+    /**
+     * One page of all stored prices in id order. {@code limit} is capped by the server; pass the
+     * {@code X-Next-Cursor} header of a response as {@code cursor} to fetch the page after it.
+     * {@code fields}, e.g. {@code productName,price}, selects the fields read and returned; by
+     * default every field but {@code rawText}. The search endpoints below work the same way.
+     */
     @GetMapping
-    public ResponseEntity<?> getAllPriceInfo() {
+    public ResponseEntity<?> getAllPriceInfo(@RequestParam(value = "cursor", required = false) String cursor,
+                                             @RequestParam(value = "limit", defaultValue = "0") int limit,
+                                             @RequestParam(value = "fields", required = false) String fields) {
         try {
-            List<PriceInfo> priceInfoList = priceService.getAllPriceInfo();
-            return ResponseEntity.ok(priceInfoList);
+            PriceFields priceFields = PriceFields.parse(fields);
+            return pageResponse(priceService.getAllPriceInfo(cursor, limit, priceFields), priceFields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse("Error retrieving price info: " + e.getMessage()));
@@ -113,10 +439,15 @@ public class PriceController {
     }
 
     @GetMapping("/search/product-name")
-    public ResponseEntity<?> searchByProductName(@RequestParam String name) {
+    public ResponseEntity<?> searchByProductName(@RequestParam String name,
+                                                 @RequestParam(value = "cursor", required = false) String cursor,
+                                                 @RequestParam(value = "limit", defaultValue = "0") int limit,
+                                                 @RequestParam(value = "fields", required = false) String fields) {
         try {
-            List<PriceInfo> results = priceService.findByProductName(name);
-            return ResponseEntity.ok(results);
+            PriceFields priceFields = PriceFields.parse(fields);
+            return pageResponse(priceService.findByProductName(name, cursor, limit, priceFields), priceFields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse("Error searching by product name: " + e.getMessage()));
@@ -124,10 +455,15 @@ public class PriceController {
     }
 
     @GetMapping("/search/product-code")
-    public ResponseEntity<?> searchByProductCode(@RequestParam String code) {
+    public ResponseEntity<?> searchByProductCode(@RequestParam String code,
+                                                 @RequestParam(value = "cursor", required = false) String cursor,
+                                                 @RequestParam(value = "limit", defaultValue = "0") int limit,
+                                                 @RequestParam(value = "fields", required = false) String fields) {
         try {
-            List<PriceInfo> results = priceService.findByProductCode(code);
-            return ResponseEntity.ok(results);
+            PriceFields priceFields = PriceFields.parse(fields);
+            return pageResponse(priceService.findByProductCode(code, cursor, limit, priceFields), priceFields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse("Error searching by product code: " + e.getMessage()));
@@ -135,10 +471,15 @@ public class PriceController {
     }
 
     @GetMapping("/search/category")
-    public ResponseEntity<?> searchByCategory(@RequestParam String category) {
+    public ResponseEntity<?> searchByCategory(@RequestParam String category,
+                                              @RequestParam(value = "cursor", required = false) String cursor,
+                                              @RequestParam(value = "limit", defaultValue = "0") int limit,
+                                              @RequestParam(value = "fields", required = false) String fields) {
         try {
-            List<PriceInfo> results = priceService.findByCategory(category);
-            return ResponseEntity.ok(results);
+            PriceFields priceFields = PriceFields.parse(fields);
+            return pageResponse(priceService.findByCategory(category, cursor, limit, priceFields), priceFields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse("Error searching by category: " + e.getMessage()));
@@ -146,10 +487,15 @@ public class PriceController {
     }
 
     @GetMapping("/search/supplier")
-    public ResponseEntity<?> searchBySupplier(@RequestParam String supplier) {
+    public ResponseEntity<?> searchBySupplier(@RequestParam String supplier,
+                                              @RequestParam(value = "cursor", required = false) String cursor,
+                                              @RequestParam(value = "limit", defaultValue = "0") int limit,
+                                              @RequestParam(value = "fields", required = false) String fields) {
         try {
-            List<PriceInfo> results = priceService.findBySupplier(supplier);
-            return ResponseEntity.ok(results);
+            PriceFields priceFields = PriceFields.parse(fields);
+            return pageResponse(priceService.findBySupplier(supplier, cursor, limit, priceFields), priceFields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse("Error searching by supplier: " + e.getMessage()));
@@ -157,10 +503,15 @@ public class PriceController {
     }
 
     @GetMapping("/search/price-range")
-    public ResponseEntity<?> searchByPriceRange(@RequestParam BigDecimal minPrice, @RequestParam BigDecimal maxPrice) {
+    public ResponseEntity<?> searchByPriceRange(@RequestParam BigDecimal minPrice, @RequestParam BigDecimal maxPrice,
+                                                @RequestParam(value = "cursor", required = false) String cursor,
+                                                @RequestParam(value = "limit", defaultValue = "0") int limit,
+                                                @RequestParam(value = "fields", required = false) String fields) {
         try {
-            List<PriceInfo> results = priceService.findByPriceRange(minPrice, maxPrice);
-            return ResponseEntity.ok(results);
+            PriceFields priceFields = PriceFields.parse(fields);
+            return pageResponse(priceService.findByPriceRange(minPrice, maxPrice, cursor, limit, priceFields), priceFields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse("Error searching by price range: " + e.getMessage()));
@@ -168,16 +519,84 @@ public class PriceController {
     }
 
     @GetMapping("/search/keyword")
-    public ResponseEntity<?> searchByKeyword(@RequestParam String keyword) {
+    public ResponseEntity<?> searchByKeyword(@RequestParam String keyword,
+                                             @RequestParam(value = "cursor", required = false) String cursor,
+                                             @RequestParam(value = "limit", defaultValue = "0") int limit,
+                                             @RequestParam(value = "fields", required = false) String fields) {
         try {
-            List<PriceInfo> results = priceService.searchByKeyword(keyword);
-            return ResponseEntity.ok(results);
+            PriceFields priceFields = PriceFields.parse(fields);
+            return pageResponse(priceService.searchByKeyword(keyword, cursor, limit, priceFields), priceFields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse("Error searching by keyword: " + e.getMessage()));
         }
     }
 
+    private ResponseEntity<?> pageResponse(PricePage page, PriceFields fields) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(toViews(page.getItems(), fields));
+    }
+
+    private List<PriceView> toViews(List<PriceInfo> rows, PriceFields fields) {
+        List<PriceView> views = new ArrayList<>(rows.size());
+        for (PriceInfo row : rows) {
+            views.add(PriceView.of(row, fields));
+        }
+        return views;
+    }
+
+    private void writeRecord(OutputStream out, Object record) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(record));
+        out.write('\n');
+    }
+
+    private Map<String, Object> createPreviewResponse(MultipartFile file, PageRange pageRange, PriceFields fields,
+                                                      boolean summaryOnly) throws Exception {
+        List<PriceView> previewPrices = new ArrayList<>();
+        ExtractionSummary summary = priceService.previewPricesFromPdf(file, pageRange, (page, rows) -> {
+            if (!summaryOnly) {
+                previewPrices.addAll(toViews(rows, fields));
+            }
+        });
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "PDF previewed, nothing was stored");
+        response.put("preview", true);
+        response.put("pages", priceService.resolvePreviewRange(pageRange).toString());
+        response.put("pageCount", summary.getPageCount());
+        if (summaryOnly) {
+            response.put("extractedCount", summary.getExtractedCount());
+        } else {
+            response.put("extractedCount", previewPrices.size());
+            response.put("prices", previewPrices);
+        }
+        return response;
+    }
+
+    private Map<String, Object> createJobResponse(PdfExtractionJob job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", job.getId());
+        response.put("status", job.getStatus());
+        response.put("fileName", job.getFileName());
+        response.put("submittedDate", job.getSubmittedDate());
+        response.put("startedDate", job.getStartedDate());
+        response.put("finishedDate", job.getFinishedDate());
+        if (job.getSummary() != null) {
+            response.put("pageCount", job.getSummary().getPageCount());
+            response.put("extractedCount", job.getSummary().getExtractedCount());
+        }
+        if (job.getError() != null) {
+            response.put("error", job.getError());
+        }
+        return response;
+    }
+
     private Map<String, Object> createErrorResponse(String message) {
         Map<String, Object> error = new HashMap<>();
         error.put("success", false);
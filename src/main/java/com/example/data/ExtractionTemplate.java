@@ -0,0 +1,166 @@
+package com.example.data;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Describes how one supplier lays out its price lists, so their documents can be read by
+ * column without the generic heuristics. A document uses the template when its Producer and
+ * Creator metadata match the patterns and its first page contains the marker; each of the
+ * three is optional, but at least one must be given.
+ */
+@Document(collection = "extraction_template")
+public class ExtractionTemplate {
+
+    @Id
+    private String id;
+
+    private String supplier;
+
+    // Regular expressions matched against the whole PDF Producer / Creator entries
+    private String producerPattern;
+
+    private String creatorPattern;
+
+    // Text that must appear on the first page, e.g. the supplier's name in the letterhead
+    private String firstPageMarker;
+
+    // X positions, in page units, at which the second and later columns begin
+    private List<Float> columnBounds;
+
+    // Zero-based column indexes; the price column is required
+    private Integer codeColumn;
+
+    private Integer nameColumn;
+
+    private Integer priceColumn;
+
+    // Applied to prices written without a currency
+    private String currency;
+
+    // Regular expression a row's code cell must match for the row to be read
+    private String codePattern;
+
+    private LocalDateTime createdDate;
+
+    public ExtractionTemplate() {
+        this.createdDate = LocalDateTime.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getSupplier() {
+        return supplier;
+    }
+
+    public void setSupplier(String supplier) {
+        this.supplier = supplier;
+    }
+
+    public String getProducerPattern() {
+        return producerPattern;
+    }
+
+    public void setProducerPattern(String producerPattern) {
+        this.producerPattern = producerPattern;
+    }
+
+    public String getCreatorPattern() {
+        return creatorPattern;
+    }
+
+    public void setCreatorPattern(String creatorPattern) {
+        this.creatorPattern = creatorPattern;
+    }
+
+    public String getFirstPageMarker() {
+        return firstPageMarker;
+    }
+
+    public void setFirstPageMarker(String firstPageMarker) {
+        this.firstPageMarker = firstPageMarker;
+    }
+
+    public List<Float> getColumnBounds() {
+        return columnBounds;
+    }
+
+    public void setColumnBounds(List<Float> columnBounds) {
+        this.columnBounds = columnBounds;
+    }
+
+    public Integer getCodeColumn() {
+        return codeColumn;
+    }
+
+    public void setCodeColumn(Integer codeColumn) {
+        this.codeColumn = codeColumn;
+    }
+
+    public Integer getNameColumn() {
+        return nameColumn;
+    }
+
+    public void setNameColumn(Integer nameColumn) {
+        this.nameColumn = nameColumn;
+    }
+
+    public Integer getPriceColumn() {
+        return priceColumn;
+    }
+
+    public void setPriceColumn(Integer priceColumn) {
+        this.priceColumn = priceColumn;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public String getCodePattern() {
+        return codePattern;
+    }
+
+    public void setCodePattern(String codePattern) {
+        this.codePattern = codePattern;
+    }
+
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(LocalDateTime createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    @Override
+    public String toString() {
+        return "ExtractionTemplate{" +
+                "id='" + id + '\'' +
+                ", supplier='" + supplier + '\'' +
+                ", producerPattern='" + producerPattern + '\'' +
+                ", creatorPattern='" + creatorPattern + '\'' +
+                ", firstPageMarker='" + firstPageMarker + '\'' +
+                ", columnBounds=" + columnBounds +
+                ", codeColumn=" + codeColumn +
+                ", nameColumn=" + nameColumn +
+                ", priceColumn=" + priceColumn +
+                ", currency='" + currency + '\'' +
+                ", codePattern='" + codePattern + '\'' +
+                ", createdDate=" + createdDate +
+                '}';
+    }
+}
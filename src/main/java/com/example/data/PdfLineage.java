@@ -0,0 +1,113 @@
+package com.example.data;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The latest ingested revision of a document, keyed by its lineage: the supplier of the
+ * template it matched plus its file name. Its page hashes decide which pages of the next
+ * revision have to be parsed again.
+ */
+@Document(collection = "pdf_lineage")
+public class PdfLineage {
+
+    @Id
+    private String id;
+
+    private String supplier;
+
+    private String fileName;
+
+    // SHA-256 of the revision's content; the rows of the pages it changed carry the same sourceHash
+    private String contentHash;
+
+    // SHA-256 of each page's content, in page order
+    private List<String> pageHashes;
+
+    // The sourceHash of each page's rows, in page order; unchanged pages keep that of an earlier revision
+    private List<String> pageSources;
+
+    private LocalDateTime updatedDate;
+
+    public PdfLineage() {
+        this.updatedDate = LocalDateTime.now();
+    }
+
+    /**
+     * The lineage key of a document; documents without a matched supplier are keyed by file name.
+     */
+    public static String key(String supplier, String fileName) {
+        return supplier != null ? supplier + "/" + fileName : fileName;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getSupplier() {
+        return supplier;
+    }
+
+    public void setSupplier(String supplier) {
+        this.supplier = supplier;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public List<String> getPageHashes() {
+        return pageHashes;
+    }
+
+    public void setPageHashes(List<String> pageHashes) {
+        this.pageHashes = pageHashes;
+    }
+
+    public List<String> getPageSources() {
+        return pageSources;
+    }
+
+    public void setPageSources(List<String> pageSources) {
+        this.pageSources = pageSources;
+    }
+
+    public LocalDateTime getUpdatedDate() {
+        return updatedDate;
+    }
+
+    public void setUpdatedDate(LocalDateTime updatedDate) {
+        this.updatedDate = updatedDate;
+    }
+
+    @Override
+    public String toString() {
+        return "PdfLineage{" +
+                "id='" + id + '\'' +
+                ", supplier='" + supplier + '\'' +
+                ", fileName='" + fileName + '\'' +
+                ", contentHash='" + contentHash + '\'' +
+                ", pageCount=" + (pageHashes != null ? pageHashes.size() : 0) +
+                ", updatedDate=" + updatedDate +
+                '}';
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.data;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records a PDF that has been extracted, keyed by the SHA-256 of its content. The rows it
+ * produced are the {@link PriceInfo} documents with the same {@code sourceHash}, or, for a
+ * revision extracted incrementally, the rows its {@link PdfLineage} lists page by page.
+ */
+@Document(collection = "pdf_upload")
+public class PdfUpload {
+
+    @Id
+    private String contentHash;
+
+    private String fileName;
+
+    // The lineage whose pages make up the rows, or null when they all carry the content hash
+    private String lineageId;
+
+    private Long fileSize;
+
+    private Integer pageCount;
+
+    private Long extractedCount;
+
+    private LocalDateTime uploadedDate;
+
+    public PdfUpload() {
+        this.uploadedDate = LocalDateTime.now();
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getLineageId() {
+        return lineageId;
+    }
+
+    public void setLineageId(String lineageId) {
+        this.lineageId = lineageId;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public Integer getPageCount() {
+        return pageCount;
+    }
+
+    public void setPageCount(Integer pageCount) {
+        this.pageCount = pageCount;
+    }
+
+    public Long getExtractedCount() {
+        return extractedCount;
+    }
+
+    public void setExtractedCount(Long extractedCount) {
+        this.extractedCount = extractedCount;
+    }
+
+    public LocalDateTime getUploadedDate() {
+        return uploadedDate;
+    }
+
+    public void setUploadedDate(LocalDateTime uploadedDate) {
+        this.uploadedDate = uploadedDate;
+    }
+
+    @Override
+    public String toString() {
+        return "PdfUpload{" +
+                "contentHash='" + contentHash + '\'' +
+                ", fileName='" + fileName + '\'' +
+                ", fileSize=" + fileSize +
+                ", pageCount=" + pageCount +
+                ", extractedCount=" + extractedCount +
+                ", uploadedDate=" + uploadedDate +
+                '}';
+    }
+}
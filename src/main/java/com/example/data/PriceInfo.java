@@ -1,12 +1,32 @@
 package com.example.data;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+/**
+ * One extracted or manually entered price. The indexes serve the repository's finders: field
+ * lookups paged by {@code _id}, price ranges paged by price and {@code _id}, price ranges
+ * within a category or supplier, and the rows of one upload in page order. They are created at
+ * startup by {@code MongoIndexVerifier}.
+ */
 @Document(collection = "price_info")
+@CompoundIndexes({
+        @CompoundIndex(name = "productName_id", def = "{'productName': 1, '_id': 1}"),
+        @CompoundIndex(name = "productCode_id", def = "{'productCode': 1, '_id': 1}"),
+        @CompoundIndex(name = "category_id", def = "{'category': 1, '_id': 1}"),
+        @CompoundIndex(name = "supplier_id", def = "{'supplier': 1, '_id': 1}"),
+        @CompoundIndex(name = "price_id", def = "{'price': 1, '_id': 1}"),
+        @CompoundIndex(name = "category_price", def = "{'category': 1, 'price': 1}"),
+        @CompoundIndex(name = "supplier_category", def = "{'supplier': 1, 'category': 1}"),
+        @CompoundIndex(name = "supplier_price", def = "{'supplier': 1, 'price': 1}"),
+        @CompoundIndex(name = "sourceHash_page", def = "{'sourceHash': 1, 'pageNumber': 1, '_id': 1}")
+})
 public class PriceInfo {
 
     @Id
@@ -28,16 +48,24 @@ public class PriceInfo {
 
     private LocalDateTime extractedDate;
 
+    @Indexed(name = "pdfFileName")
     private String pdfFileName;
 
     private Integer pageNumber;
 
     private String rawText;
 
+    // SHA-256 of the uploaded PDF the row was extracted from
+    private String sourceHash;
+
     public PriceInfo() {
         this.extractedDate = LocalDateTime.now();
     }
 
+    public PriceInfo(LocalDateTime extractedDate) {
+        this.extractedDate = extractedDate;
+    }
+
     public String getId() {
         return id;
     }
@@ -134,6 +162,14 @@ public class PriceInfo {
         this.rawText = rawText;
     }
 
+    public String getSourceHash() {
+        return sourceHash;
+    }
+
+    public void setSourceHash(String sourceHash) {
+        this.sourceHash = sourceHash;
+    }
+
     @Override
     public String toString() {
         return "PriceInfo{" +
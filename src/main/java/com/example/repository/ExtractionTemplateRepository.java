@@ -0,0 +1,9 @@
+package com.example.repository;
+
+import com.example.data.ExtractionTemplate;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExtractionTemplateRepository extends MongoRepository<ExtractionTemplate, String> {
+}
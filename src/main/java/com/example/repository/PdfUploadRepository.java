@@ -0,0 +1,9 @@
+package com.example.repository;
+
+import com.example.data.PdfUpload;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PdfUploadRepository extends MongoRepository<PdfUpload, String> {
+}
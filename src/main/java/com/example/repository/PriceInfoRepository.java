@@ -23,4 +23,6 @@ public interface PriceInfoRepository extends MongoRepository<PriceInfo, String>
     List<PriceInfo> findByPdfFileName(String pdfFileName);
 
     List<PriceInfo> findByProductNameContaining(String keyword);
+
+    List<PriceInfo> findBySourceHashOrderByPageNumberAscIdAsc(String sourceHash);
 }
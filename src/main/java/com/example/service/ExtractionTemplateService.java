@@ -0,0 +1,26 @@
+package com.example.service;
+
+import com.example.data.ExtractionTemplate;
+import com.example.util.CompiledTemplate;
+
+import java.util.List;
+
+public interface ExtractionTemplateService {
+
+    List<ExtractionTemplate> getAllTemplates();
+
+    /**
+     * Validates and stores the template; documents extracted afterwards can match it.
+     *
+     * @throws IllegalArgumentException if the template cannot be compiled
+     */
+    ExtractionTemplate saveTemplate(ExtractionTemplate template);
+
+    void deleteTemplate(String id);
+
+    /**
+     * The compiled templates whose Producer and Creator patterns match a document's metadata,
+     * those with a first page marker first. The first page check is left to the caller.
+     */
+    List<CompiledTemplate> findCandidates(String producer, String creator);
+}
@@ -0,0 +1,18 @@
+package com.example.service;
+
+import com.example.util.BatchFileResult;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+public interface PdfBatchService {
+
+    /**
+     * Extracts and saves every PDF in {@code files}, expanding ZIP archives, and reports one
+     * result per document in upload order. A document that fails does not stop the others.
+     *
+     * @throws com.example.util.ExtractionLimitException if an archive has too many entries or
+     *                                                   expands to too many bytes
+     */
+    List<BatchFileResult> extractPricesFromBatch(List<MultipartFile> files) throws Exception;
+}
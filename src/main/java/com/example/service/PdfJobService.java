@@ -0,0 +1,31 @@
+package com.example.service;
+
+import com.example.util.PdfExtractionJob;
+import com.example.util.PriceFields;
+import com.example.util.PricePage;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.Optional;
+
+public interface PdfJobService {
+
+    /**
+     * Queues the upload for background extraction.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the job queue is full
+     */
+    PdfExtractionJob submitPdfJob(MultipartFile pdfFile) throws IOException;
+
+    Optional<PdfExtractionJob> getJob(String jobId);
+
+    /**
+     * One page of the rows a completed job extracted, or an empty page while it is still running.
+     */
+    PricePage getJobResults(PdfExtractionJob job, String cursor, int limit, PriceFields fields);
+
+    /**
+     * How long clients should wait before retrying a rejected submission.
+     */
+    int getRetryAfterSeconds();
+}
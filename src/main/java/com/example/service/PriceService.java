@@ -1,6 +1,14 @@
 package com.example.service;
 
 import com.example.data.PriceInfo;
+import com.example.util.AdmittedUpload;
+import com.example.util.ExtractionSummary;
+import com.example.util.PageRange;
+import com.example.util.PdfSpoolFile;
+import com.example.util.PriceFields;
+import com.example.util.PricePage;
+import com.example.util.PriceRowSink;
+import com.example.util.UploadCacheStats;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
@@ -12,21 +20,55 @@ public interface PriceService {
 
     List<PriceInfo> extractPricesFromPdf(MultipartFile pdfFile) throws Exception;
 
+    List<PriceInfo> extractPricesFromPdf(MultipartFile pdfFile, PageRange pages) throws Exception;
+
+    ExtractionSummary previewPricesFromPdf(MultipartFile pdfFile, PageRange pages, PriceRowSink sink) throws Exception;
+
+    PageRange resolvePreviewRange(PageRange pages);
+
+    ExtractionSummary streamPricesFromPdf(MultipartFile pdfFile, PriceRowSink sink) throws Exception;
+
+    /**
+     * Spools the upload and reserves its extraction budget before anything is extracted, so a
+     * caller that commits its response first can still refuse it. An upload that will be answered
+     * from an earlier extraction reserves nothing. The caller must close the result.
+     *
+     * @throws com.example.util.ExtractionRejectedException if the budget could not be reserved in time
+     */
+    AdmittedUpload admitUpload(MultipartFile pdfFile) throws Exception;
+
+    ExtractionSummary streamPrices(AdmittedUpload upload, PriceRowSink sink) throws Exception;
+
+    ExtractionSummary extractPrices(PdfSpoolFile spoolFile, String fileName, PriceRowSink sink) throws Exception;
+
+    UploadCacheStats getUploadCacheStats();
+
+    /**
+     * One page of the stored rows of the upload with {@code contentHash} in id order, including
+     * those of pages an incremental re-upload kept from earlier revisions, reading only {@code fields}.
+     */
+    PricePage getUploadRows(String contentHash, String cursor, int limit, PriceFields fields);
+
     PriceInfo getPriceInfoById(String id);
 
-    List<PriceInfo> getAllPriceInfo();
+    // Listings are keyset-paginated: cursor is null or a previous page's next cursor, limit <= 0 uses
+    // the default page size and larger limits are cut to the maximum. Only the given fields are
+    // read from the database; the others are left null in the rows returned
+
+    PricePage getAllPriceInfo(String cursor, int limit, PriceFields fields);
 
-    List<PriceInfo> findByProductName(String productName);
+    PricePage findByProductName(String productName, String cursor, int limit, PriceFields fields);
 
-    List<PriceInfo> findByProductCode(String productCode);
+    PricePage findByProductCode(String productCode, String cursor, int limit, PriceFields fields);
 
-    List<PriceInfo> findByCategory(String category);
+    PricePage findByCategory(String category, String cursor, int limit, PriceFields fields);
 
-    List<PriceInfo> findBySupplier(String supplier);
+    PricePage findBySupplier(String supplier, String cursor, int limit, PriceFields fields);
 
-    List<PriceInfo> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice);
+    PricePage findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, String cursor, int limit,
+                               PriceFields fields);
 
-    List<PriceInfo> searchByKeyword(String keyword);
+    PricePage searchByKeyword(String keyword, String cursor, int limit, PriceFields fields);
 
     void deletePriceInfo(String id);
 
@@ -0,0 +1,117 @@
+package com.example.serviceimpl;
+
+import com.example.data.ExtractionTemplate;
+import com.example.repository.ExtractionTemplateRepository;
+import com.example.service.ExtractionTemplateService;
+import com.example.util.CompiledTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class ExtractionTemplateServiceImpl implements ExtractionTemplateService {
+
+    @Autowired
+    private ExtractionTemplateRepository extractionTemplateRepository;
+
+    // Distinct Producer/Creator pairs whose matching templates are remembered
+    @Value("${pdf.templates.cache-size:256}")
+    private int cacheSize = 256;
+
+    // Replaced as a whole when templates change, so a lookup racing a change cannot put a
+    // stale entry into the cache of the new set
+    private volatile TemplateSet templateSet;
+
+    @Override
+    public List<ExtractionTemplate> getAllTemplates() {
+        return extractionTemplateRepository.findAll();
+    }
+
+    @Override
+    public ExtractionTemplate saveTemplate(ExtractionTemplate template) {
+        if (template == null) {
+            throw new IllegalArgumentException("Template is required");
+        }
+        CompiledTemplate.compile(template);
+        ExtractionTemplate saved = extractionTemplateRepository.save(template);
+        templateSet = null;
+        return saved;
+    }
+
+    @Override
+    public void deleteTemplate(String id) {
+        extractionTemplateRepository.deleteById(id);
+        templateSet = null;
+    }
+
+    @Override
+    public List<CompiledTemplate> findCandidates(String producer, String creator) {
+        TemplateSet set = getTemplateSet();
+        if (set.templates.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String fingerprint = producer + '\u0000' + creator;
+        synchronized (set.candidatesByFingerprint) {
+            List<CompiledTemplate> cached = set.candidatesByFingerprint.get(fingerprint);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        List<CompiledTemplate> candidates = new ArrayList<>();
+        for (CompiledTemplate template : set.templates) {
+            if (template.matchesMetadata(producer, creator)) {
+                candidates.add(template);
+            }
+        }
+        // A template that also checks the first page is more specific than one that does not
+        candidates.sort((a, b) -> Boolean.compare(b.hasFirstPageMarker(), a.hasFirstPageMarker()));
+        candidates = Collections.unmodifiableList(candidates);
+
+        synchronized (set.candidatesByFingerprint) {
+            set.candidatesByFingerprint.put(fingerprint, candidates);
+        }
+        return candidates;
+    }
+
+    // Templates are compiled once when first needed after a change
+    private TemplateSet getTemplateSet() {
+        TemplateSet set = templateSet;
+        if (set == null) {
+            List<CompiledTemplate> templates = new ArrayList<>();
+            for (ExtractionTemplate template : extractionTemplateRepository.findAll()) {
+                try {
+                    templates.add(CompiledTemplate.compile(template));
+                } catch (IllegalArgumentException ignored) {
+                    // stored before validation or edited directly in the database; never matches
+                }
+            }
+            set = new TemplateSet(templates, cacheSize);
+            templateSet = set;
+        }
+        return set;
+    }
+
+    private static final class TemplateSet {
+        private final List<CompiledTemplate> templates;
+        private final Map<String, List<CompiledTemplate>> candidatesByFingerprint;
+
+        private TemplateSet(List<CompiledTemplate> templates, int cacheSize) {
+            this.templates = templates;
+            // Access-ordered, so the least recently seen fingerprint is evicted first
+            this.candidatesByFingerprint = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, List<CompiledTemplate>> eldest) {
+                    return size() > cacheSize;
+                }
+            };
+        }
+    }
+}
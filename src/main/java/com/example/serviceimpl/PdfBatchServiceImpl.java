@@ -0,0 +1,278 @@
+package com.example.serviceimpl;
+
+import com.example.service.PdfBatchService;
+import com.example.service.PriceService;
+import com.example.util.BatchFileResult;
+import com.example.util.ExtractionLimitException;
+import com.example.util.ExtractionSummary;
+import com.example.util.PdfPriceExtractor;
+import com.example.util.PdfSpoolFile;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+@Service
+public class PdfBatchServiceImpl implements PdfBatchService {
+
+    @Autowired
+    private PriceService priceService;
+
+    @Autowired
+    private PdfPriceExtractor pdfPriceExtractor;
+
+    // Documents extracted at the same time across all batches; 0 means "use the available cores"
+    @Value("${pdf.batch.max-concurrent-files:0}")
+    private int maxConcurrentFiles;
+
+    // Largest archive entry spooled, decompressed; matches the multipart max-file-size by default
+    @Value("${pdf.batch.max-entry-bytes:536870912}")
+    private long maxEntryBytes = 536870912L;
+
+    // Archive entries a batch may expand to, across all its archives
+    @Value("${pdf.batch.max-archive-entries:1000}")
+    private int maxArchiveEntries = 1000;
+
+    // Decompressed bytes a batch's archives may expand to in total
+    @Value("${pdf.batch.max-archive-bytes:2147483648}")
+    private long maxArchiveBytes = 2147483648L;
+
+    private volatile ExecutorService batchExecutor;
+
+    @Override
+    public List<BatchFileResult> extractPricesFromBatch(List<MultipartFile> files) throws Exception {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("At least one file is required");
+        }
+
+        // Each document is spooled to disk and handed to a worker while the next one is read.
+        // The semaphore stops a large archive from being spooled far ahead of the workers.
+        Batch batch = new Batch(new Semaphore(resolveConcurrency() * 2));
+        List<Future<BatchFileResult>> results = new ArrayList<>();
+
+        try {
+            for (MultipartFile file : files) {
+                String fileName = file.getOriginalFilename();
+                if (file.isEmpty()) {
+                    results.add(CompletableFuture.completedFuture(
+                            BatchFileResult.failure(null, fileName, "File is empty")));
+                } else if (isZip(file)) {
+                    submitArchive(file, batch, results);
+                } else if (isPdf(file.getContentType(), fileName)) {
+                    try (InputStream in = file.getInputStream()) {
+                        results.add(submit(in, null, fileName, batch));
+                    }
+                } else {
+                    results.add(CompletableFuture.completedFuture(
+                            BatchFileResult.failure(null, fileName, "Only PDF and ZIP files are supported")));
+                }
+            }
+        } catch (ExtractionLimitException e) {
+            // Queued documents are skipped; those already being extracted finish before the batch is refused
+            batch.rejected = true;
+            for (Future<BatchFileResult> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException ignored) {
+                    // The batch is refused either way
+                }
+            }
+            throw e;
+        }
+
+        List<BatchFileResult> batchResults = new ArrayList<>(results.size());
+        for (Future<BatchFileResult> result : results) {
+            batchResults.add(result.get());
+        }
+        return batchResults;
+    }
+
+    /**
+     * Reads the archive entry by entry; only one entry's bytes are in flight on this thread.
+     * Entries are counted and their decompressed bytes metered as they are read, so an archive
+     * that expands past the limits is refused before it fills the spool directory.
+     *
+     * @throws ExtractionLimitException if the batch's archives break one of the expansion limits
+     */
+    private void submitArchive(MultipartFile archive, Batch batch, List<Future<BatchFileResult>> results)
+            throws InterruptedException {
+        String archiveName = archive.getOriginalFilename();
+        try (ZipInputStream zip = new ZipInputStream(archive.getInputStream())) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                if (++batch.entries > maxArchiveEntries) {
+                    throw new ExtractionLimitException(
+                            "Archives of the batch have more than " + maxArchiveEntries + " entries");
+                }
+                if (isPdf(null, entry.getName())) {
+                    results.add(submit(new EntryInputStream(zip, batch, archiveName, entry.getName()),
+                            archiveName, entry.getName(), batch));
+                } else {
+                    results.add(CompletableFuture.completedFuture(
+                            BatchFileResult.failure(archiveName, entry.getName(), "Not a PDF file")));
+                }
+            }
+        } catch (IOException e) {
+            results.add(CompletableFuture.completedFuture(
+                    BatchFileResult.failure(archiveName, null, "Error reading archive: " + e.getMessage())));
+        }
+    }
+
+    private Future<BatchFileResult> submit(InputStream in, String archiveName, String fileName, Batch batch)
+            throws IOException, InterruptedException {
+        batch.spooled.acquire();
+        PdfSpoolFile spoolFile;
+        try {
+            spoolFile = PdfSpoolFile.spool(in, pdfPriceExtractor.resolveSpoolDirectory());
+        } catch (IOException | RuntimeException e) {
+            batch.spooled.release();
+            throw e;
+        }
+
+        return getBatchExecutor().submit(() -> {
+            try (spoolFile) {
+                if (batch.rejected) {
+                    return BatchFileResult.failure(archiveName, fileName, "Batch rejected");
+                }
+                // Rows are saved page by page with saveAll, as for single uploads
+                ExtractionSummary summary = priceService.extractPrices(spoolFile, fileName, (page, rows) -> { });
+                return BatchFileResult.success(archiveName, summary);
+            } catch (Exception e) {
+                return BatchFileResult.failure(archiveName, fileName, "Error processing PDF: " + e.getMessage());
+            } finally {
+                batch.spooled.release();
+            }
+        });
+    }
+
+    // State shared by the documents of one batch request
+    private static final class Batch {
+
+        private final Semaphore spooled;
+
+        // Archive entries read and decompressed bytes spooled from them so far
+        private int entries;
+
+        private long expandedBytes;
+
+        private volatile boolean rejected;
+
+        private Batch(Semaphore spooled) {
+            this.spooled = spooled;
+        }
+    }
+
+    // One archive entry's decompressed bytes, refused once they exceed the entry or batch limit
+    private final class EntryInputStream extends FilterInputStream {
+
+        private final Batch batch;
+
+        private final String archiveName;
+
+        private final String entryName;
+
+        private long bytes;
+
+        private EntryInputStream(InputStream in, Batch batch, String archiveName, String entryName) {
+            super(in);
+            this.batch = batch;
+            this.archiveName = archiveName;
+            this.entryName = entryName;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(int read) {
+            bytes += read;
+            batch.expandedBytes += read;
+            if (bytes > maxEntryBytes) {
+                throw new ExtractionLimitException("Entry " + entryName + " of archive " + archiveName
+                        + " expands to more than " + maxEntryBytes + " bytes");
+            }
+            if (batch.expandedBytes > maxArchiveBytes) {
+                throw new ExtractionLimitException(
+                        "Archives of the batch expand to more than " + maxArchiveBytes + " bytes");
+            }
+        }
+
+        // The archive stream stays open for the next entry
+        @Override
+        public void close() {
+        }
+    }
+
+    private static boolean isZip(MultipartFile file) {
+        String contentType = file.getContentType();
+        String fileName = file.getOriginalFilename();
+        return "application/zip".equals(contentType)
+                || "application/x-zip-compressed".equals(contentType)
+                || (fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(".zip"));
+    }
+
+    private static boolean isPdf(String contentType, String fileName) {
+        return "application/pdf".equals(contentType)
+                || (fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(".pdf"));
+    }
+
+    int resolveConcurrency() {
+        return maxConcurrentFiles > 0 ? maxConcurrentFiles : Runtime.getRuntime().availableProcessors();
+    }
+
+    private ExecutorService getBatchExecutor() {
+        ExecutorService executor = batchExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = batchExecutor;
+                if (executor == null) {
+                    executor = Executors.newFixedThreadPool(resolveConcurrency(),
+                            Thread.ofPlatform().name("pdf-batch-", 0).daemon(true).factory());
+                    batchExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ExecutorService executor = batchExecutor;
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
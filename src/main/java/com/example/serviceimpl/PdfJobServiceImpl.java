@@ -0,0 +1,143 @@
+package com.example.serviceimpl;
+
+import com.example.service.PdfJobService;
+import com.example.service.PriceService;
+import com.example.util.ExtractionSummary;
+import com.example.util.PdfExtractionJob;
+import com.example.util.PdfPriceExtractor;
+import com.example.util.PdfSpoolFile;
+import com.example.util.PriceFields;
+import com.example.util.PricePage;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class PdfJobServiceImpl implements PdfJobService {
+
+    @Autowired
+    private PriceService priceService;
+
+    @Autowired
+    private PdfPriceExtractor pdfPriceExtractor;
+
+    // A fixed number of workers behind a bounded queue; submissions beyond that are rejected
+    @Value("${pdf.jobs.workers:2}")
+    private int workers = 2;
+
+    @Value("${pdf.jobs.queue-capacity:16}")
+    private int queueCapacity = 16;
+
+    @Value("${pdf.jobs.retry-after-seconds:30}")
+    private int retryAfterSeconds = 30;
+
+    // Finished jobs are forgotten after this long
+    @Value("${pdf.jobs.retention-minutes:60}")
+    private long retentionMinutes = 60;
+
+    private final Map<String, PdfExtractionJob> jobs = new ConcurrentHashMap<>();
+
+    private volatile ThreadPoolExecutor jobExecutor;
+
+    @Override
+    public PdfExtractionJob submitPdfJob(MultipartFile pdfFile) throws IOException {
+        if (pdfFile == null || pdfFile.isEmpty()) {
+            throw new IllegalArgumentException("PDF file is required");
+        }
+
+        ThreadPoolExecutor executor = getJobExecutor();
+        // Reject before copying the upload when there is clearly no room for it
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw new RejectedExecutionException("PDF job queue is full");
+        }
+        evictFinishedJobs();
+
+        // The multipart upload does not outlive the request, so it is spooled before queueing
+        PdfSpoolFile spoolFile = PdfSpoolFile.spool(pdfFile.getInputStream(), pdfPriceExtractor.resolveSpoolDirectory());
+        PdfExtractionJob job = new PdfExtractionJob(UUID.randomUUID().toString(),
+                pdfFile.getOriginalFilename(), spoolFile.getSha256());
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> runJob(job, spoolFile));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            spoolFile.close();
+            throw e;
+        }
+        return job;
+    }
+
+    @Override
+    public Optional<PdfExtractionJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    @Override
+    public PricePage getJobResults(PdfExtractionJob job, String cursor, int limit, PriceFields fields) {
+        if (job.getStatus() != PdfExtractionJob.Status.COMPLETED) {
+            return new PricePage(Collections.emptyList(), null);
+        }
+        return priceService.getUploadRows(job.getContentHash(), cursor, limit, fields);
+    }
+
+    @Override
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    private void runJob(PdfExtractionJob job, PdfSpoolFile spoolFile) {
+        ExtractionSummary summary;
+        try (spoolFile) {
+            job.markRunning();
+            // Rows are saved page by page; results are read back by content hash when requested
+            summary = priceService.extractPrices(spoolFile, job.getFileName(), (page, rows) -> { });
+        } catch (Exception e) {
+            job.markFailed("Error processing PDF: " + e.getMessage());
+            return;
+        }
+        job.markCompleted(summary);
+    }
+
+    private void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedDate().isBefore(cutoff));
+    }
+
+    private ThreadPoolExecutor getJobExecutor() {
+        ThreadPoolExecutor executor = jobExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = jobExecutor;
+                if (executor == null) {
+                    executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                            Thread.ofPlatform().name("pdf-job-", 0).daemon(true).factory());
+                    jobExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ThreadPoolExecutor executor = jobExecutor;
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
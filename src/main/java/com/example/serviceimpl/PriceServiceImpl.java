@@ -1,25 +1,125 @@
 package com.example.serviceimpl;
 
+import com.example.data.PdfLineage;
+import com.example.data.PdfUpload;
 import com.example.data.PriceInfo;
+import com.example.repository.PdfLineageRepository;
+import com.example.repository.PdfUploadRepository;
 import com.example.repository.PriceInfoRepository;
 import com.example.service.PriceService;
+import com.example.util.AdmittedUpload;
+import com.example.util.ExtractionAdmission;
+import com.example.util.ExtractionMetrics;
+import com.example.util.ExtractionSummary;
+import com.example.util.PageRange;
+import com.example.util.PdfFingerprint;
 import com.example.util.PdfPriceExtractor;
+import com.example.util.PdfSpoolFile;
+import com.example.util.PriceBulkWriter;
+import com.example.util.PriceCursor;
+import com.example.util.PriceFields;
+import com.example.util.PricePage;
+import com.example.util.PriceRowSink;
+import com.example.util.UploadCacheStats;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.MongoRegexCreator;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class PriceServiceImpl implements PriceService {
 
+    // Upload locks are keyed by content hash; lineage keys get a prefix so the two never collide
+    private static final String LINEAGE_LOCK_PREFIX = "lineage:";
+
     @Autowired
     private PriceInfoRepository priceInfoRepository;
 
     @Autowired
     private PdfPriceExtractor pdfPriceExtractor;
 
+    @Autowired
+    private PdfUploadRepository pdfUploadRepository;
+
+    @Autowired
+    private PdfLineageRepository pdfLineageRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Every parse reserves its estimated heap cost first, so large uploads cannot pile up at once
+    @Autowired
+    private ExtractionAdmission extractionAdmission;
+
+    // Times every write of extracted rows as the "save" stage of an extraction
+    @Autowired(required = false)
+    private ExtractionMetrics extractionMetrics = new ExtractionMetrics();
+
+    // Answer re-sent or retried uploads from the rows already extracted from the same content
+    @Value("${pdf.extraction.deduplicate:true}")
+    private boolean deduplicate = true;
+
+    // Previews parse at most this many pages, starting from the first page unless a range is given
+    @Value("${pdf.extraction.preview.max-pages:5}")
+    private int previewMaxPages = 5;
+
+    // Re-parse only the pages that changed since the last revision of the same supplier and file name
+    @Value("${pdf.extraction.incremental:true}")
+    private boolean incremental = true;
+
+    // Store rows in unordered bulk chunks while extraction goes on, instead of once it has ended
+    @Value("${pdf.persistence.pipelined:true}")
+    private boolean pipelinedWrites = true;
+
+    @Value("${pdf.persistence.chunk-size:1000}")
+    private int writeChunkSize = 1000;
+
+    // Chunks of one extraction written at the same time; the extractor waits beyond that
+    @Value("${pdf.persistence.max-in-flight:4}")
+    private int maxWritesInFlight = 4;
+
+    private volatile ExecutorService writeExecutor;
+
+    // Rows per page of a listing when the request gives no limit
+    @Value("${prices.page.default-size:100}")
+    private int defaultPageSize = 100;
+
+    // Largest page a request may ask for; larger limits are cut to it
+    @Value("${prices.page.max-size:1000}")
+    private int maxPageSize = 1000;
+
+    private final LongAdder uploadCacheHits = new LongAdder();
+
+    private final LongAdder uploadCacheMisses = new LongAdder();
+
+    private final Map<String, UploadLock> uploadLocks = new ConcurrentHashMap<>();
+
     @Override
     public PriceInfo savePriceInfo(PriceInfo priceInfo) {
         return priceInfoRepository.save(priceInfo);
@@ -27,17 +127,544 @@ public class PriceServiceImpl implements PriceService {
 
     @Override
     public List<PriceInfo> extractPricesFromPdf(MultipartFile pdfFile) throws Exception {
+        return extractPricesFromPdf(pdfFile, PageRange.ALL);
+    }
+
+    /**
+     * Extracts and stores the rows of {@code pages}. Only a whole-document extraction is recorded
+     * as an upload, so a later full upload of the same file is still parsed in full; the rows a
+     * range stored earlier for the same content are replaced, not duplicated. For a revision of a
+     * document ingested before, only its changed pages are parsed and the rows returned are theirs.
+     */
+    @Override
+    public List<PriceInfo> extractPricesFromPdf(MultipartFile pdfFile, PageRange pages) throws Exception {
         if (pdfFile == null || pdfFile.isEmpty()) {
             throw new IllegalArgumentException("PDF file is required");
         }
 
         String fileName = pdfFile.getOriginalFilename();
-        List<PriceInfo> extractedPrices = pdfPriceExtractor.extractPricesFromPdf(
-                pdfFile.getInputStream(),
-                fileName
-        );
+        try (PdfSpoolFile spoolFile = spool(pdfFile)) {
+            String contentHash = spoolFile.getSha256();
+            return withUploadLock(contentHash, () -> {
+                Optional<PdfUpload> previous = findPreviousUpload(contentHash);
+                if (previous.isPresent()) {
+                    List<PriceInfo> stored = findUploadRows(previous.get());
+                    return pages.isAll() ? stored : selectPages(stored, pages);
+                }
+
+                try (ExtractionAdmission.Permit permit = admit(spoolFile, pages)) {
+                    List<PriceInfo> saved = new ArrayList<>();
+                    if (pages.isAll()) {
+                        extractRevision(spoolFile, fileName, (page, rows) -> saved.addAll(rows),
+                                () -> extractAndStore(spoolFile, fileName, pages, saved));
+                    } else {
+                        extractAndStore(spoolFile, fileName, pages, saved);
+                    }
+                    return saved;
+                }
+            });
+        }
+    }
+
+    /**
+     * Extracts {@code pages} without touching the database: no rows are stored, no upload is
+     * recorded and the deduplication cache is not consulted. The range is cut to the preview
+     * page limit.
+     */
+    @Override
+    public ExtractionSummary previewPricesFromPdf(MultipartFile pdfFile, PageRange pages, PriceRowSink sink)
+            throws Exception {
+        if (pdfFile == null || pdfFile.isEmpty()) {
+            throw new IllegalArgumentException("PDF file is required");
+        }
+
+        PageRange previewRange = resolvePreviewRange(pages);
+        try (PdfSpoolFile spoolFile = spool(pdfFile);
+             ExtractionAdmission.Permit permit = admit(spoolFile, previewRange)) {
+            return pdfPriceExtractor.extractPrices(spoolFile, pdfFile.getOriginalFilename(), previewRange, sink);
+        }
+    }
+
+    @Override
+    public PageRange resolvePreviewRange(PageRange pages) {
+        return (pages != null ? pages : PageRange.ALL).limit(previewMaxPages);
+    }
+
+    @Override
+    public ExtractionSummary streamPricesFromPdf(MultipartFile pdfFile, PriceRowSink sink) throws Exception {
+        if (pdfFile == null || pdfFile.isEmpty()) {
+            throw new IllegalArgumentException("PDF file is required");
+        }
+
+        try (PdfSpoolFile spoolFile = spool(pdfFile)) {
+            return extractPrices(spoolFile, pdfFile.getOriginalFilename(), sink);
+        }
+    }
+
+    @Override
+    public AdmittedUpload admitUpload(MultipartFile pdfFile) throws Exception {
+        if (pdfFile == null || pdfFile.isEmpty()) {
+            throw new IllegalArgumentException("PDF file is required");
+        }
+
+        PdfSpoolFile spoolFile = spool(pdfFile);
+        try {
+            boolean replayed = deduplicate && pdfUploadRepository.existsById(spoolFile.getSha256());
+            ExtractionAdmission.Permit permit = replayed ? null : admit(spoolFile, PageRange.ALL);
+            return new AdmittedUpload(spoolFile, pdfFile.getOriginalFilename(), permit);
+        } catch (Exception e) {
+            spoolFile.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public ExtractionSummary streamPrices(AdmittedUpload upload, PriceRowSink sink) throws Exception {
+        return extractPrices(upload.getSpoolFile(), upload.getFileName(), upload.getPermit(), sink);
+    }
+
+    @Override
+    public ExtractionSummary extractPrices(PdfSpoolFile spoolFile, String fileName, PriceRowSink sink)
+            throws Exception {
+        return extractPrices(spoolFile, fileName, null, sink);
+    }
+
+    // Parses under the admitted permit when one was reserved up front, otherwise admits here
+    private ExtractionSummary extractPrices(PdfSpoolFile spoolFile, String fileName,
+                                            ExtractionAdmission.Permit admitted, PriceRowSink sink)
+            throws Exception {
+        String contentHash = spoolFile.getSha256();
+        return withUploadLock(contentHash, () -> {
+            Optional<PdfUpload> previous = findPreviousUpload(contentHash);
+            if (previous.isPresent()) {
+                return replayUpload(previous.get(), fileName, sink);
+            }
+
+            try (ExtractionAdmission.Permit permit = admitted != null ? admitted : admit(spoolFile, PageRange.ALL)) {
+                return extractRevision(spoolFile, fileName, sink, () -> extractAndStream(spoolFile, fileName, sink));
+            }
+        });
+    }
+
+    @Override
+    public UploadCacheStats getUploadCacheStats() {
+        return new UploadCacheStats(uploadCacheHits.sum(), uploadCacheMisses.sum());
+    }
+
+    /**
+     * Reserves heap budget for parsing {@code pages} of the spooled document, waiting if other
+     * parses hold it. Only the file size is known before the document is loaded, so the pages
+     * are added to the permit once it is; the load is kept for the extraction that follows.
+     */
+    private ExtractionAdmission.Permit admit(PdfSpoolFile spoolFile, PageRange pages) throws Exception {
+        ExtractionAdmission.Permit permit = extractionAdmission.admit(spoolFile.getSize(), 0);
+        try {
+            int pageCount = pdfPriceExtractor.countPages(spoolFile);
+            permit.addPages(Math.max(0, pages.getLastPage(pageCount) - pages.getFirstPage() + 1));
+            return permit;
+        } catch (Exception e) {
+            permit.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Extracts {@code pages} and stores their rows, adding them to {@code saved} in page order.
+     * With pipelined writes the rows are stored chunk by chunk while parsing goes on; otherwise
+     * they are saved together once the extraction has ended. A failed extraction deletes the
+     * rows it stored before rethrowing.
+     */
+    private ExtractionSummary extractAndStore(PdfSpoolFile spoolFile, String fileName, PageRange pages,
+                                              List<PriceInfo> saved) throws Exception {
+        String contentHash = spoolFile.getSha256();
+        discardRows(contentHash, pages);
+        try {
+            if (!pipelinedWrites) {
+                List<PriceInfo> extractedPrices = new ArrayList<>();
+                ExtractionSummary summary = pdfPriceExtractor.extractPrices(spoolFile, fileName, pages,
+                        (page, rows) -> extractedPrices.addAll(rows));
+                extractedPrices.forEach(row -> row.setSourceHash(contentHash));
+                saved.addAll(saveRows(extractedPrices));
+                return summary;
+            }
+
+            try (PriceBulkWriter writer = newBulkWriter()) {
+                ExtractionSummary summary = pdfPriceExtractor.extractPrices(spoolFile, fileName, pages,
+                        (page, rows) -> {
+                            rows.forEach(row -> row.setSourceHash(contentHash));
+                            writer.onPage(page, rows);
+                            saved.addAll(rows);
+                        });
+                writer.finish();
+                return summary;
+            }
+        } catch (Exception e) {
+            throw discardFailedRows(contentHash, pages, e);
+        }
+    }
+
+    /**
+     * Extracts every page, stores its rows and forwards them to {@code sink}. With pipelined
+     * writes the rows are forwarded once queued for writing, and a failed write fails the
+     * extraction; otherwise each page is saved before it is forwarded. Either way a failed
+     * extraction deletes the rows it stored before rethrowing.
+     */
+    private ExtractionSummary extractAndStream(PdfSpoolFile spoolFile, String fileName, PriceRowSink sink)
+            throws Exception {
+        String contentHash = spoolFile.getSha256();
+        discardRows(contentHash, PageRange.ALL);
+        try {
+            if (!pipelinedWrites) {
+                // Persist and forward each page as it completes, so only one page of rows is held at a time
+                return pdfPriceExtractor.extractPrices(spoolFile, fileName, (page, rows) -> {
+                    if (!rows.isEmpty()) {
+                        rows.forEach(row -> row.setSourceHash(contentHash));
+                        sink.onPage(page, saveRows(rows));
+                    }
+                });
+            }
+
+            try (PriceBulkWriter writer = newBulkWriter()) {
+                ExtractionSummary summary = pdfPriceExtractor.extractPrices(spoolFile, fileName, (page, rows) -> {
+                    if (!rows.isEmpty()) {
+                        rows.forEach(row -> row.setSourceHash(contentHash));
+                        writer.onPage(page, rows);
+                        sink.onPage(page, rows);
+                    }
+                });
+                writer.finish();
+                return summary;
+            }
+        } catch (Exception e) {
+            throw discardFailedRows(contentHash, PageRange.ALL, e);
+        }
+    }
+
+    private PriceBulkWriter newBulkWriter() {
+        return new PriceBulkWriter(mongoTemplate, getWriteExecutor(), writeChunkSize, maxWritesInFlight,
+                extractionMetrics);
+    }
+
+    private ExecutorService getWriteExecutor() {
+        ExecutorService executor = writeExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = writeExecutor;
+                if (executor == null) {
+                    // Each extraction bounds its own writes in flight, so the pool itself need not be bounded
+                    executor = Executors.newCachedThreadPool(
+                            Thread.ofPlatform().name("price-writer-", 0).daemon(true).factory());
+                    writeExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ExecutorService executor = writeExecutor;
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private PdfSpoolFile spool(MultipartFile pdfFile) throws IOException {
+        return PdfSpoolFile.spool(pdfFile.getInputStream(), pdfPriceExtractor.resolveSpoolDirectory());
+    }
+
+    /**
+     * Extracts a whole document and records the upload. When an earlier revision of the same
+     * document is known, only the pages whose content changed are parsed and their rows pushed
+     * to {@code sink}; otherwise {@code extractAll} stores and forwards every row.
+     */
+    private ExtractionSummary extractRevision(PdfSpoolFile spoolFile, String fileName, PriceRowSink sink,
+                                              Callable<ExtractionSummary> extractAll) throws Exception {
+        if (!incremental || fileName == null) {
+            ExtractionSummary summary = extractAll.call();
+            recordUpload(spoolFile, summary, null);
+            return summary;
+        }
+
+        PdfFingerprint fingerprint = pdfPriceExtractor.fingerprint(spoolFile);
+        String lineageKey = PdfLineage.key(fingerprint.getSupplier(), fileName);
+        return withUploadLock(LINEAGE_LOCK_PREFIX + lineageKey, () -> {
+            Optional<PdfLineage> lineage = pdfLineageRepository.findById(lineageKey);
+            if (lineage.isPresent()) {
+                return extractChangedPages(spoolFile, lineageKey, fileName, fingerprint, lineage.get(), sink);
+            }
+            ExtractionSummary summary = extractAll.call();
+            saveLineage(lineageKey, fileName, spoolFile.getSha256(), fingerprint,
+                    Collections.nCopies(fingerprint.getPageCount(), spoolFile.getSha256()));
+            recordUpload(spoolFile, summary, lineageKey);
+            return summary;
+        });
+    }
 
-        return priceInfoRepository.saveAll(extractedPrices);
+    /**
+     * Parses the pages that differ from the previous revision and, in one ordered bulk write,
+     * deletes the rows of changed and removed pages and inserts the new rows. Rows of unchanged
+     * pages are not touched: they keep the source hash of the revision they were parsed from,
+     * and the lineage records which hash each page's rows carry.
+     */
+    private ExtractionSummary extractChangedPages(PdfSpoolFile spoolFile, String lineageKey, String fileName,
+                                                  PdfFingerprint fingerprint, PdfLineage previous, PriceRowSink sink)
+            throws Exception {
+        String contentHash = spoolFile.getSha256();
+        List<Integer> changedPages = fingerprint.changedPages(previous.getPageHashes());
+
+        List<PriceInfo> rows = new ArrayList<>();
+        if (!changedPages.isEmpty()) {
+            pdfPriceExtractor.extractPrices(spoolFile, fileName, PageRange.runsOf(changedPages),
+                    (page, pageRows) -> rows.addAll(pageRows));
+        }
+        for (PriceInfo row : rows) {
+            // Bulk inserts do not write generated ids back, so they are assigned up front
+            row.setId(new ObjectId().toHexString());
+            row.setSourceHash(contentHash);
+        }
+
+        List<String> previousSources = pageSources(previous);
+        List<Integer> replacedPages = new ArrayList<>(changedPages);
+        for (int page = fingerprint.getPageCount() + 1; page <= previousSources.size(); page++) {
+            replacedPages.add(page);
+        }
+        Set<Integer> changed = new HashSet<>(changedPages);
+        List<String> sources = new ArrayList<>(fingerprint.getPageCount());
+        for (int page = 1; page <= fingerprint.getPageCount(); page++) {
+            sources.add(page > previousSources.size() || changed.contains(page)
+                    ? contentHash : previousSources.get(page - 1));
+        }
+        boolean newRevision = !contentHash.equals(previous.getContentHash());
+
+        if (!replacedPages.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, PriceInfo.class);
+            if (newRevision && !changedPages.isEmpty()) {
+                // Rows a range upload of this revision already stored for its changed pages
+                bulk.remove(new Query(Criteria.where("sourceHash").is(contentHash)
+                        .and("pageNumber").in(changedPages)));
+            }
+            Map<String, List<Integer>> replacedRows = pagesBySource(previousSources, replacedPages);
+            if (!replacedRows.isEmpty()) {
+                bulk.remove(new Query(pageRows(fileName, replacedRows)));
+            }
+            if (!rows.isEmpty()) {
+                bulk.insert(rows);
+            }
+            extractionMetrics.timeStage(ExtractionMetrics.STAGE_SAVE, bulk::execute);
+        }
+
+        // Rows of the previous revision's changed pages are gone, so its upload record can no longer replay it
+        if (newRevision && previous.getContentHash() != null) {
+            pdfUploadRepository.deleteById(previous.getContentHash());
+        }
+        PdfLineage lineage = saveLineage(lineageKey, fileName, contentHash, fingerprint, sources);
+        recordUpload(spoolFile, new ExtractionSummary(fileName, fingerprint.getPageCount(),
+                mongoTemplate.count(new Query(lineageRows(lineage)), PriceInfo.class)), lineage.getId());
+
+        forwardByPage(rows, sink);
+        return new ExtractionSummary(fileName, fingerprint.getPageCount(), rows.size());
+    }
+
+    /**
+     * The source hash of each page's rows; lineages saved before this was recorded had every row
+     * retagged with their own hash.
+     */
+    private List<String> pageSources(PdfLineage lineage) {
+        if (lineage.getPageSources() != null) {
+            return lineage.getPageSources();
+        }
+        int pageCount = lineage.getPageHashes() != null ? lineage.getPageHashes().size() : 0;
+        return Collections.nCopies(pageCount, lineage.getContentHash());
+    }
+
+    // The given 1-based pages grouped by the source hash their rows carry; pages without a source are left out
+    private Map<String, List<Integer>> pagesBySource(List<String> sources, List<Integer> pages) {
+        Map<String, List<Integer>> grouped = new LinkedHashMap<>();
+        for (int page : pages) {
+            if (page <= sources.size()) {
+                grouped.computeIfAbsent(sources.get(page - 1), key -> new ArrayList<>()).add(page);
+            }
+        }
+        return grouped;
+    }
+
+    // The rows every page of the lineage's current revision holds
+    private Criteria lineageRows(PdfLineage lineage) {
+        List<String> sources = pageSources(lineage);
+        List<Integer> pages = new ArrayList<>(sources.size());
+        for (int page = 1; page <= sources.size(); page++) {
+            pages.add(page);
+        }
+        return pageRows(lineage.getFileName(), pagesBySource(sources, pages));
+    }
+
+    // The rows of fileName stored for the given pages, each matched by the source hash its page's rows carry
+    private Criteria pageRows(String fileName, Map<String, List<Integer>> pagesBySource) {
+        Criteria criteria = Criteria.where("pdfFileName").is(fileName);
+        if (pagesBySource.isEmpty()) {
+            return criteria.and("pageNumber").in(Collections.emptyList());
+        }
+        if (pagesBySource.size() == 1) {
+            Map.Entry<String, List<Integer>> source = pagesBySource.entrySet().iterator().next();
+            return criteria.and("sourceHash").is(source.getKey()).and("pageNumber").in(source.getValue());
+        }
+        List<Criteria> bySource = new ArrayList<>();
+        pagesBySource.forEach((sourceHash, pages) ->
+                bySource.add(Criteria.where("sourceHash").is(sourceHash).and("pageNumber").in(pages)));
+        return criteria.orOperator(bySource);
+    }
+
+    /**
+     * Deletes the rows stored for {@code pages} of the same content by an earlier range upload,
+     * which is not recorded as an upload, so extracting them again replaces instead of
+     * duplicating them.
+     */
+    private void discardRows(String contentHash, PageRange pages) {
+        Criteria criteria = Criteria.where("sourceHash").is(contentHash);
+        if (!pages.isAll()) {
+            criteria.and("pageNumber").gte(pages.getFirstPage()).lte(pages.getLastPage(Integer.MAX_VALUE));
+        }
+        mongoTemplate.remove(new Query(criteria), PriceInfo.class);
+    }
+
+    /**
+     * Deletes the rows a failed extraction of {@code pages} stored before it failed, once its
+     * writes in flight have ended, and returns {@code failure} to be rethrown. No upload is
+     * recorded for it, so a retry parses the file again and would otherwise find them twice.
+     */
+    private Exception discardFailedRows(String contentHash, PageRange pages, Exception failure) {
+        try {
+            discardRows(contentHash, pages);
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+        return failure;
+    }
+
+    private List<PriceInfo> saveRows(List<PriceInfo> rows) {
+        return extractionMetrics.timeStage(ExtractionMetrics.STAGE_SAVE, () -> priceInfoRepository.saveAll(rows));
+    }
+
+    private PdfLineage saveLineage(String lineageKey, String fileName, String contentHash, PdfFingerprint fingerprint,
+                                   List<String> pageSources) {
+        PdfLineage lineage = new PdfLineage();
+        lineage.setId(lineageKey);
+        lineage.setSupplier(fingerprint.getSupplier());
+        lineage.setFileName(fileName);
+        lineage.setContentHash(contentHash);
+        lineage.setPageHashes(fingerprint.getPageHashes());
+        lineage.setPageSources(pageSources);
+        pdfLineageRepository.save(lineage);
+        return lineage;
+    }
+
+    private Optional<PdfUpload> findPreviousUpload(String contentHash) {
+        if (!deduplicate) {
+            return Optional.empty();
+        }
+        Optional<PdfUpload> previous = pdfUploadRepository.findById(contentHash);
+        if (previous.isPresent()) {
+            uploadCacheHits.increment();
+        } else {
+            uploadCacheMisses.increment();
+        }
+        return previous;
+    }
+
+    // Written after the rows, so an upload that fails part-way leaves no record and is parsed again on retry
+    private void recordUpload(PdfSpoolFile spoolFile, ExtractionSummary summary, String lineageId) {
+        PdfUpload upload = new PdfUpload();
+        upload.setContentHash(spoolFile.getSha256());
+        upload.setLineageId(lineageId);
+        upload.setFileName(summary.getFileName());
+        upload.setFileSize(spoolFile.getSize());
+        upload.setPageCount(summary.getPageCount());
+        upload.setExtractedCount(summary.getExtractedCount());
+        pdfUploadRepository.save(upload);
+    }
+
+    private List<PriceInfo> selectPages(List<PriceInfo> rows, PageRange pages) {
+        List<PriceInfo> selected = new ArrayList<>();
+        for (PriceInfo row : rows) {
+            Integer pageNumber = row.getPageNumber();
+            if (pageNumber != null && pageNumber >= pages.getFirstPage()
+                    && pageNumber <= pages.getLastPage(Integer.MAX_VALUE)) {
+                selected.add(row);
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    public PricePage getUploadRows(String contentHash, String cursor, int limit, PriceFields fields) {
+        PdfLineage lineage = pdfUploadRepository.findById(contentHash).map(this::currentLineage).orElse(null);
+        Criteria criteria = lineage != null ? lineageRows(lineage) : Criteria.where("sourceHash").is(contentHash);
+        return findPage(criteria, cursor, limit, fields);
+    }
+
+    /**
+     * The stored rows of an upload in page order. A revision of an incrementally extracted
+     * document is resolved through its lineage, since the rows of its unchanged pages carry the
+     * hash of the revision they were parsed from; any other upload's rows carry its own hash.
+     */
+    private List<PriceInfo> findUploadRows(PdfUpload upload) {
+        PdfLineage lineage = currentLineage(upload);
+        if (lineage != null) {
+            Query query = new Query(lineageRows(lineage)).with(Sort.by("pageNumber", "id"));
+            return mongoTemplate.find(query, PriceInfo.class);
+        }
+        return priceInfoRepository.findBySourceHashOrderByPageNumberAscIdAsc(upload.getContentHash());
+    }
+
+    // The lineage whose current revision the upload is, or null if it is not one
+    private PdfLineage currentLineage(PdfUpload upload) {
+        if (upload.getLineageId() == null) {
+            return null;
+        }
+        return pdfLineageRepository.findById(upload.getLineageId())
+                .filter(lineage -> upload.getContentHash().equals(lineage.getContentHash()))
+                .orElse(null);
+    }
+
+    // Pushes the stored rows of a previous upload to the sink, one page at a time
+    private ExtractionSummary replayUpload(PdfUpload upload, String fileName, PriceRowSink sink) throws IOException {
+        List<PriceInfo> rows = findUploadRows(upload);
+        forwardByPage(rows, sink);
+
+        int pageCount = upload.getPageCount() != null ? upload.getPageCount() : 0;
+        return new ExtractionSummary(fileName, pageCount, rows.size());
+    }
+
+    // Pushes rows that are in page order to the sink, one page at a time
+    private void forwardByPage(List<PriceInfo> rows, PriceRowSink sink) throws IOException {
+        int pageStart = 0;
+        for (int i = 1; i <= rows.size(); i++) {
+            Integer pageNumber = rows.get(pageStart).getPageNumber();
+            if (i == rows.size() || !Objects.equals(pageNumber, rows.get(i).getPageNumber())) {
+                sink.onPage(pageNumber != null ? pageNumber : 0, rows.subList(pageStart, i));
+                pageStart = i;
+            }
+        }
+    }
+
+    /**
+     * Runs {@code work} while holding a lock for {@code contentHash}, so two concurrent uploads
+     * of the same file cannot both miss the cache and store the rows twice.
+     */
+    private <T> T withUploadLock(String contentHash, Callable<T> work) throws Exception {
+        UploadLock lock = uploadLocks.compute(contentHash, (key, existing) -> {
+            UploadLock held = existing != null ? existing : new UploadLock();
+            held.holders++;
+            return held;
+        });
+        lock.lock();
+        try {
+            return work.call();
+        } finally {
+            lock.unlock();
+            uploadLocks.compute(contentHash, (key, existing) -> --existing.holders == 0 ? null : existing);
+        }
     }
 
     @Override
@@ -47,38 +674,82 @@ public class PriceServiceImpl implements PriceService {
     }
 
     @Override
-    public List<PriceInfo> getAllPriceInfo() {
-        return priceInfoRepository.findAll();
+    public PricePage getAllPriceInfo(String cursor, int limit, PriceFields fields) {
+        return findPage(new Criteria(), cursor, limit, fields);
     }
 
     @Override
-    public List<PriceInfo> findByProductName(String productName) {
-        return priceInfoRepository.findByProductName(productName);
+    public PricePage findByProductName(String productName, String cursor, int limit, PriceFields fields) {
+        return findPage(Criteria.where("productName").is(productName), cursor, limit, fields);
     }
 
     @Override
-    public List<PriceInfo> findByProductCode(String productCode) {
-        return priceInfoRepository.findByProductCode(productCode);
+    public PricePage findByProductCode(String productCode, String cursor, int limit, PriceFields fields) {
+        return findPage(Criteria.where("productCode").is(productCode), cursor, limit, fields);
     }
 
     @Override
-    public List<PriceInfo> findByCategory(String category) {
-        return priceInfoRepository.findByCategory(category);
+    public PricePage findByCategory(String category, String cursor, int limit, PriceFields fields) {
+        return findPage(Criteria.where("category").is(category), cursor, limit, fields);
     }
 
     @Override
-    public List<PriceInfo> findBySupplier(String supplier) {
-        return priceInfoRepository.findBySupplier(supplier);
+    public PricePage findBySupplier(String supplier, String cursor, int limit, PriceFields fields) {
+        return findPage(Criteria.where("supplier").is(supplier), cursor, limit, fields);
     }
 
+    /**
+     * Pages through a price range in price order; the first page starts after
+     * ({@code minPrice}, lowest id), which the exclusive lower bound already rules out.
+     */
     @Override
-    public List<PriceInfo> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        return priceInfoRepository.findByPriceBetween(minPrice, maxPrice);
+    public PricePage findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, String cursor, int limit,
+                                      PriceFields fields) {
+        int size = resolvePageSize(limit);
+        PriceCursor after = PriceCursor.decode(cursor);
+        BigDecimal afterPrice = after.getPrice() != null ? after.getPrice() : minPrice;
+        Criteria criteria = Criteria.where("price").gt(minPrice).lt(maxPrice).orOperator(
+                Criteria.where("price").gt(afterPrice),
+                Criteria.where("price").is(afterPrice).and("id").gt(after.getId()));
+        // The price is read even when not asked for, since the next cursor carries it
+        Query query = fields.applyTo(new Query(criteria), "price")
+                .with(Sort.by("price", "id"))
+                .limit(size + 1);
+        return toPage(mongoTemplate.find(query, PriceInfo.class), size, true);
     }
 
     @Override
-    public List<PriceInfo> searchByKeyword(String keyword) {
-        return priceInfoRepository.findByProductNameContaining(keyword);
+    public PricePage searchByKeyword(String keyword, String cursor, int limit, PriceFields fields) {
+        // Same match as findByProductNameContaining: the keyword anywhere in the name, taken literally
+        String regex = MongoRegexCreator.INSTANCE.toRegularExpression(keyword != null ? keyword : "",
+                MongoRegexCreator.MatchMode.CONTAINING);
+        return findPage(Criteria.where("productName").regex(regex), cursor, limit, fields);
+    }
+
+    /**
+     * One page of the rows matching {@code criteria} in id order, reading only {@code fields}.
+     */
+    private PricePage findPage(Criteria criteria, String cursor, int limit, PriceFields fields) {
+        int size = resolvePageSize(limit);
+        String afterId = PriceCursor.decode(cursor).getId();
+        Query query = fields.applyTo(new Query(criteria.and("id").gt(afterId)))
+                .with(Sort.by("id"))
+                .limit(size + 1);
+        return toPage(mongoTemplate.find(query, PriceInfo.class), size, false);
+    }
+
+    private int resolvePageSize(int limit) {
+        int size = limit > 0 ? limit : defaultPageSize;
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+
+    // One row more than the page holds was fetched, to tell whether another page follows
+    private PricePage toPage(List<PriceInfo> rows, int size, boolean byPrice) {
+        if (rows.size() <= size) {
+            return new PricePage(rows, null);
+        }
+        List<PriceInfo> items = new ArrayList<>(rows.subList(0, size));
+        return new PricePage(items, PriceCursor.after(items.get(size - 1), byPrice).encode());
     }
 
     @Override
@@ -114,4 +785,9 @@ public class PriceServiceImpl implements PriceService {
 
         return priceInfoRepository.save(existing);
     }
+
+    private static final class UploadLock extends ReentrantLock {
+        // Threads holding or waiting for the lock; only changed inside ConcurrentHashMap.compute
+        private int holders;
+    }
 }
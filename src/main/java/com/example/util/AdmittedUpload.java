@@ -0,0 +1,47 @@
+package com.example.util;
+
+import java.io.IOException;
+
+/**
+ * An upload spooled to disk together with the extraction budget reserved for it, so a response
+ * that is committed before extraction starts can still be refused while nothing has been
+ * written. Closing it releases the budget and deletes the spooled file.
+ */
+public class AdmittedUpload implements AutoCloseable {
+
+    private final PdfSpoolFile spoolFile;
+
+    private final String fileName;
+
+    // Null when the upload will be answered from an earlier extraction and is not parsed
+    private final ExtractionAdmission.Permit permit;
+
+    public AdmittedUpload(PdfSpoolFile spoolFile, String fileName, ExtractionAdmission.Permit permit) {
+        this.spoolFile = spoolFile;
+        this.fileName = fileName;
+        this.permit = permit;
+    }
+
+    public PdfSpoolFile getSpoolFile() {
+        return spoolFile;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public ExtractionAdmission.Permit getPermit() {
+        return permit;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (permit != null) {
+                permit.close();
+            }
+        } finally {
+            spoolFile.close();
+        }
+    }
+}
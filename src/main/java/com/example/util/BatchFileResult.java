@@ -0,0 +1,66 @@
+package com.example.util;
+
+/**
+ * Outcome for one document of a batch upload: a PDF uploaded directly, or a PDF entry of an
+ * uploaded ZIP archive.
+ */
+public class BatchFileResult {
+
+    private final String archiveName;
+
+    private final String fileName;
+
+    private final boolean success;
+
+    private final int pageCount;
+
+    private final long extractedCount;
+
+    private final String error;
+
+    private BatchFileResult(String archiveName, String fileName, boolean success, int pageCount,
+                            long extractedCount, String error) {
+        this.archiveName = archiveName;
+        this.fileName = fileName;
+        this.success = success;
+        this.pageCount = pageCount;
+        this.extractedCount = extractedCount;
+        this.error = error;
+    }
+
+    public static BatchFileResult success(String archiveName, ExtractionSummary summary) {
+        return new BatchFileResult(archiveName, summary.getFileName(), true, summary.getPageCount(),
+                summary.getExtractedCount(), null);
+    }
+
+    public static BatchFileResult failure(String archiveName, String fileName, String error) {
+        return new BatchFileResult(archiveName, fileName, false, 0, 0, error);
+    }
+
+    /**
+     * The ZIP archive the document came from, or null if it was uploaded directly.
+     */
+    public String getArchiveName() {
+        return archiveName;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    public long getExtractedCount() {
+        return extractedCount;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.util;
+
+import io.micrometer.core.instrument.Counter;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.pdmodel.ResourceCache;
+import org.apache.pdfbox.pdmodel.documentinterchange.markedcontent.PDPropertyList;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.pdmodel.graphics.pattern.PDAbstractPattern;
+import org.apache.pdfbox.pdmodel.graphics.shading.PDShading;
+import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of the fonts, form XObjects and other resources a document's pages
+ * share, replacing PDFBox's unbounded soft-reference cache. Each worker's document gets its own
+ * instance, so a font parsed for one page is reused by every later page that worker reads
+ * without the cache growing with the document. Images are not kept: text extraction does not
+ * draw them, and a decoded image can outweigh every other entry together.
+ * <p>
+ * PDFBox keys resources by their indirect object, which only identifies them within one
+ * document. Fonts missing here are looked up in the worker's {@link SharedFontCache}, which
+ * carries them over from the documents it read before. Not thread-safe; a {@code PDDocument} is
+ * only ever used by one thread.
+ */
+final class BoundedResourceCache implements ResourceCache {
+
+    static final String TYPE_FONT = "font";
+    static final String TYPE_XOBJECT = "xobject";
+    static final String TYPE_OTHER = "other";
+    static final String TYPE_SHARED_FONT = "shared-font";
+
+    private final Map<COSObject, Object> resources;
+
+    private final SharedFontCache sharedFonts;
+
+    // Resolved once per document rather than looked up in the registry on every fetch
+    private final Counter fontHits;
+    private final Counter fontMisses;
+    private final Counter xObjectHits;
+    private final Counter xObjectMisses;
+    private final Counter otherHits;
+    private final Counter otherMisses;
+
+    BoundedResourceCache(int maxEntries, ExtractionMetrics metrics) {
+        this(maxEntries, null, metrics);
+    }
+
+    /**
+     * @param sharedFonts fonts kept from earlier documents, or null to parse every font again
+     */
+    BoundedResourceCache(int maxEntries, SharedFontCache sharedFonts, ExtractionMetrics metrics) {
+        this.resources = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<COSObject, Object> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.sharedFonts = sharedFonts;
+        this.fontHits = metrics.resourceCacheCounter(TYPE_FONT, true);
+        this.fontMisses = metrics.resourceCacheCounter(TYPE_FONT, false);
+        this.xObjectHits = metrics.resourceCacheCounter(TYPE_XOBJECT, true);
+        this.xObjectMisses = metrics.resourceCacheCounter(TYPE_XOBJECT, false);
+        this.otherHits = metrics.resourceCacheCounter(TYPE_OTHER, true);
+        this.otherMisses = metrics.resourceCacheCounter(TYPE_OTHER, false);
+    }
+
+    SharedFontCache getSharedFonts() {
+        return sharedFonts;
+    }
+
+    int size() {
+        return resources.size();
+    }
+
+    @Override
+    public PDFont getFont(COSObject indirect) {
+        PDFont font = get(indirect, PDFont.class, fontHits, fontMisses);
+        if (font == null && sharedFonts != null && indirect.getObject() instanceof COSDictionary) {
+            font = sharedFonts.get((COSDictionary) indirect.getObject());
+            if (font != null) {
+                resources.put(indirect, font);
+            }
+        }
+        return font;
+    }
+
+    @Override
+    public PDXObject getXObject(COSObject indirect) {
+        return get(indirect, PDXObject.class, xObjectHits, xObjectMisses);
+    }
+
+    @Override
+    public PDColorSpace getColorSpace(COSObject indirect) {
+        return get(indirect, PDColorSpace.class, otherHits, otherMisses);
+    }
+
+    @Override
+    public PDExtendedGraphicsState getExtGState(COSObject indirect) {
+        return get(indirect, PDExtendedGraphicsState.class, otherHits, otherMisses);
+    }
+
+    @Override
+    public PDShading getShading(COSObject indirect) {
+        return get(indirect, PDShading.class, otherHits, otherMisses);
+    }
+
+    @Override
+    public PDAbstractPattern getPattern(COSObject indirect) {
+        return get(indirect, PDAbstractPattern.class, otherHits, otherMisses);
+    }
+
+    @Override
+    public PDPropertyList getProperties(COSObject indirect) {
+        return get(indirect, PDPropertyList.class, otherHits, otherMisses);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDFont font) {
+        resources.put(indirect, font);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDXObject xobject) {
+        if (!(xobject instanceof PDImageXObject)) {
+            resources.put(indirect, xobject);
+        }
+    }
+
+    @Override
+    public void put(COSObject indirect, PDColorSpace colorSpace) {
+        resources.put(indirect, colorSpace);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDExtendedGraphicsState extGState) {
+        resources.put(indirect, extGState);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDShading shading) {
+        resources.put(indirect, shading);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDAbstractPattern pattern) {
+        resources.put(indirect, pattern);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDPropertyList propertyList) {
+        resources.put(indirect, propertyList);
+    }
+
+    private <T> T get(COSObject indirect, Class<T> resourceType, Counter hits, Counter misses) {
+        Object resource = resources.get(indirect);
+        T cached = resourceType.isInstance(resource) ? resourceType.cast(resource) : null;
+        (cached != null ? hits : misses).increment();
+        return cached;
+    }
+}
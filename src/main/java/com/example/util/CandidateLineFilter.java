@@ -0,0 +1,87 @@
+package com.example.util;
+
+/**
+ * Cheap check run over a line before it is handed to {@link PriceLineScanner}.
+ * <p>
+ * Every price the scanner reports starts with an ASCII digit, so a line without one can never
+ * produce a row and its full scan is skipped. The check is a plain range test per character,
+ * which the Vector API can evaluate many characters at a time; that implementation is used
+ * when the {@code jdk.incubator.vector} module has been added to the JVM, and the scalar loop
+ * otherwise.
+ */
+interface CandidateLineFilter {
+
+    String VECTOR_MODULE = "jdk.incubator.vector";
+
+    String VECTOR_IMPLEMENTATION = "com.example.util.VectorCandidateLineFilter";
+
+    /**
+     * Lets every line through, for when pre-filtering is turned off.
+     */
+    CandidateLineFilter NONE = new CandidateLineFilter() {
+        @Override
+        public boolean mayContainPrice(char[] chars, int from, int to) {
+            return true;
+        }
+
+        @Override
+        public String name() {
+            return "none";
+        }
+    };
+
+    CandidateLineFilter SCALAR = new CandidateLineFilter() {
+        @Override
+        public boolean mayContainPrice(char[] chars, int from, int to) {
+            return containsDigit(chars, from, to);
+        }
+
+        @Override
+        public String name() {
+            return "scalar";
+        }
+    };
+
+    /**
+     * Returns false only if {@code chars[from, to)} cannot contain a price.
+     */
+    boolean mayContainPrice(char[] chars, int from, int to);
+
+    String name();
+
+    /**
+     * Picks the filter to use: none when disabled, the Vector API one when it is preferred and
+     * available, and the scalar one otherwise.
+     */
+    static CandidateLineFilter select(boolean enabled, boolean preferVector) {
+        if (!enabled) {
+            return NONE;
+        }
+        if (preferVector && isVectorApiAvailable()) {
+            try {
+                // Loaded reflectively so that nothing links against the incubator module
+                // unless it is actually present
+                return (CandidateLineFilter) Class.forName(VECTOR_IMPLEMENTATION)
+                        .getDeclaredConstructor()
+                        .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return SCALAR;
+            }
+        }
+        return SCALAR;
+    }
+
+    static boolean isVectorApiAvailable() {
+        return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+    }
+
+    static boolean containsDigit(char[] chars, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
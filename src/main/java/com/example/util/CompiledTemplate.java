@@ -0,0 +1,163 @@
+package com.example.util;
+
+import com.example.data.ExtractionTemplate;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * An {@link ExtractionTemplate} with its patterns compiled and its columns checked, ready to
+ * be matched against documents and to drive a {@link TableLayoutReader}.
+ */
+public final class CompiledTemplate {
+
+    private final String id;
+
+    private final String supplier;
+
+    private final Pattern producerPattern;
+
+    private final Pattern creatorPattern;
+
+    private final String firstPageMarker;
+
+    private final Pattern codePattern;
+
+    private final float[] columnBounds;
+
+    private final int codeColumn;
+
+    private final int nameColumn;
+
+    private final int priceColumn;
+
+    private final String currency;
+
+    private CompiledTemplate(ExtractionTemplate template) {
+        this.id = template.getId();
+        this.supplier = template.getSupplier();
+        this.producerPattern = compile(template.getProducerPattern());
+        this.creatorPattern = compile(template.getCreatorPattern());
+        this.firstPageMarker = isBlank(template.getFirstPageMarker()) ? null : template.getFirstPageMarker();
+        this.codePattern = compile(template.getCodePattern());
+        this.currency = isBlank(template.getCurrency()) ? null : template.getCurrency();
+
+        List<Float> bounds = template.getColumnBounds();
+        this.columnBounds = new float[bounds == null ? 0 : bounds.size()];
+        for (int i = 0; i < columnBounds.length; i++) {
+            if (bounds.get(i) == null || (i > 0 && bounds.get(i) <= columnBounds[i - 1])) {
+                throw new IllegalArgumentException("Column bounds must be increasing");
+            }
+            columnBounds[i] = bounds.get(i);
+        }
+        if (columnBounds.length + 1 > TableLayoutReader.MAX_COLUMNS) {
+            throw new IllegalArgumentException("At most " + TableLayoutReader.MAX_COLUMNS + " columns are supported");
+        }
+
+        if (template.getPriceColumn() == null) {
+            throw new IllegalArgumentException("Price column is required");
+        }
+        this.priceColumn = column(template.getPriceColumn());
+        this.codeColumn = template.getCodeColumn() == null ? -1 : column(template.getCodeColumn());
+        this.nameColumn = template.getNameColumn() == null ? -1 : column(template.getNameColumn());
+
+        if (producerPattern == null && creatorPattern == null && firstPageMarker == null) {
+            throw new IllegalArgumentException("A producer pattern, creator pattern or first page marker is required");
+        }
+    }
+
+    /**
+     * Compiles and validates the template.
+     *
+     * @throws IllegalArgumentException if a pattern is invalid or the columns do not fit
+     */
+    public static CompiledTemplate compile(ExtractionTemplate template) {
+        return new CompiledTemplate(template);
+    }
+
+    /**
+     * Whether the document's Producer and Creator entries match; a missing entry only matches
+     * a template without a pattern for it.
+     */
+    public boolean matchesMetadata(String producer, String creator) {
+        return matches(producerPattern, producer) && matches(creatorPattern, creator);
+    }
+
+    public boolean hasFirstPageMarker() {
+        return firstPageMarker != null;
+    }
+
+    /**
+     * Whether the first page's text contains the marker, if the template has one.
+     */
+    public boolean matchesFirstPage(CharSequence text) {
+        if (firstPageMarker == null) {
+            return true;
+        }
+        int last = text.length() - firstPageMarker.length();
+        for (int i = 0; i <= last; i++) {
+            int k = 0;
+            while (k < firstPageMarker.length() && text.charAt(i + k) == firstPageMarker.charAt(k)) {
+                k++;
+            }
+            if (k == firstPageMarker.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether a row with this code cell is a product row.
+     */
+    public boolean acceptsCode(String code) {
+        return codePattern == null || (code != null && codePattern.matcher(code).matches());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getSupplier() {
+        return supplier;
+    }
+
+    float[] getColumnBounds() {
+        return columnBounds;
+    }
+
+    int getCodeColumn() {
+        return codeColumn;
+    }
+
+    int getNameColumn() {
+        return nameColumn;
+    }
+
+    int getPriceColumn() {
+        return priceColumn;
+    }
+
+    String getCurrency() {
+        return currency;
+    }
+
+    private int column(int index) {
+        if (index < 0 || index > columnBounds.length) {
+            throw new IllegalArgumentException("Column " + index + " does not exist");
+        }
+        return index;
+    }
+
+    private static boolean matches(Pattern pattern, String value) {
+        return pattern == null || (value != null && pattern.matcher(value).matches());
+    }
+
+    private static Pattern compile(String regex) {
+        return isBlank(regex) ? null : Pattern.compile(regex);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits how much heap concurrent PDF parses may claim. Each extraction reserves an estimate
+ * of its cost out of a global budget before the document is loaded: the file-size share is
+ * reserved up front, and the share for the pages it parses is added once the loaded document
+ * tells how many there are. Extractions that do not fit wait in arrival order, and are
+ * rejected when the wait queue is full or they have waited too long.
+ */
+@Component
+public class ExtractionAdmission {
+
+    // Budget for all parses at once; 0 derives it from heap-fraction of the maximum heap
+    @Value("${pdf.admission.budget-bytes:0}")
+    private long budgetBytes;
+
+    @Value("${pdf.admission.heap-fraction:0.5}")
+    private double heapFraction = 0.5;
+
+    // Cost estimate: parsed objects grow with the file, decoded content and rows with the pages
+    @Value("${pdf.admission.file-size-factor:1.0}")
+    private double fileSizeFactor = 1.0;
+
+    @Value("${pdf.admission.bytes-per-page:262144}")
+    private long bytesPerPage = 256 * 1024;
+
+    // Extractions waiting beyond these limits are rejected with 503 and Retry-After
+    @Value("${pdf.admission.max-queued:16}")
+    private int maxQueued = 16;
+
+    @Value("${pdf.admission.max-wait-ms:10000}")
+    private long maxWaitMillis = 10_000;
+
+    @Value("${pdf.admission.retry-after-seconds:30}")
+    private int retryAfterSeconds = 30;
+
+    @Autowired(required = false)
+    private ExtractionMetrics extractionMetrics = new ExtractionMetrics();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition released = lock.newCondition();
+
+    // Waiting extractions in arrival order; only the head may take budget that frees up
+    private final Deque<Object> waiting = new ArrayDeque<>();
+
+    private long usedBytes;
+
+    private volatile boolean metricsRegistered;
+
+    /**
+     * Estimated heap cost of parsing {@code pages} pages of a {@code fileSize}-byte document.
+     */
+    public long estimateCost(long fileSize, int pages) {
+        return (long) (fileSize * fileSizeFactor) + Math.max(0, pages) * bytesPerPage;
+    }
+
+    /**
+     * Reserves the estimated cost of an extraction, waiting for budget if necessary. A cost
+     * larger than the whole budget is cut to it, so such a document runs on its own rather
+     * than never.
+     *
+     * @throws ExtractionRejectedException if too many extractions are already waiting or the
+     *                                     budget did not free up in time
+     */
+    public Permit admit(long fileSize, int pages) throws InterruptedException {
+        registerMetrics();
+        long capacity = getBudgetBytes();
+        long cost = Math.min(capacity, estimateCost(fileSize, pages));
+
+        lock.lock();
+        try {
+            if (waiting.isEmpty() && usedBytes + cost <= capacity) {
+                usedBytes += cost;
+                return new Permit(cost);
+            }
+            if (waiting.size() >= maxQueued) {
+                throw reject("Too many PDF extractions waiting for memory");
+            }
+
+            Object ticket = new Object();
+            waiting.addLast(ticket);
+            try {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+                while (waiting.peekFirst() != ticket || usedBytes + cost > capacity) {
+                    if (remaining <= 0) {
+                        throw reject("Not enough memory to parse the PDF now");
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                usedBytes += cost;
+                return new Permit(cost);
+            } finally {
+                waiting.remove(ticket);
+                // The next in line may fit in what is left
+                released.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes > 0 ? budgetBytes : (long) (Runtime.getRuntime().maxMemory() * heapFraction);
+    }
+
+    public long getUsedBytes() {
+        lock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueuedCount() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ExtractionRejectedException reject(String message) {
+        extractionMetrics.recordAdmissionRejected();
+        return new ExtractionRejectedException(message, retryAfterSeconds);
+    }
+
+    private long reserve(long cost, long extra) {
+        lock.lock();
+        try {
+            long added = Math.max(0, Math.min(getBudgetBytes(), cost + extra) - cost);
+            usedBytes += added;
+            return added;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long cost) {
+        lock.lock();
+        try {
+            usedBytes -= cost;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void registerMetrics() {
+        if (!metricsRegistered) {
+            synchronized (this) {
+                if (!metricsRegistered) {
+                    extractionMetrics.registerAdmission(this);
+                    metricsRegistered = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Budget held by one extraction, returned on {@link #close()}.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private long cost;
+
+        private boolean closed;
+
+        private Permit(long cost) {
+            this.cost = cost;
+        }
+
+        public long getCost() {
+            return cost;
+        }
+
+        /**
+         * Adds the cost of parsing {@code pages} pages, once the document is loaded and its page
+         * count known. This does not wait: the document is already in memory, and extractions
+         * admitted later wait for this share instead. The total stays capped at the budget.
+         */
+        public void addPages(int pages) {
+            if (!closed) {
+                cost += reserve(cost, estimateCost(0, pages));
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(cost);
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.util;
+
+/**
+ * Thrown when a well-formed document is abandoned because its extraction used up the wall-clock
+ * or CPU time budget. Unlike {@link ExtractionLimitException} the file itself is not at fault,
+ * so it is not reported as a bad request.
+ */
+public class ExtractionBudgetExceededException extends RuntimeException {
+
+    public ExtractionBudgetExceededException(String message) {
+        super(message);
+    }
+}
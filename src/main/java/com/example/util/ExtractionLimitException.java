@@ -0,0 +1,13 @@
+package com.example.util;
+
+/**
+ * Thrown when a document is refused or abandoned because it breaks one of the structural
+ * extraction limits: it is not a well-formed PDF, has too many pages or objects, or has an
+ * oversized page. Running out of time is reported by {@link ExtractionBudgetExceededException}.
+ */
+public class ExtractionLimitException extends IllegalArgumentException {
+
+    public ExtractionLimitException(String message) {
+        super(message);
+    }
+}
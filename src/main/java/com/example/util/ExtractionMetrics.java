@@ -0,0 +1,125 @@
+package com.example.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers for each stage of an extraction and counters for the pages, lines, candidate lines
+ * and rows it went through, all tagged by outcome, plus resource cache hits and misses and the
+ * heap budget of concurrent parses. Published through Actuator, e.g. as
+ * {@code pdf_extraction_stage_seconds} and {@code pdf_extraction_rows_total} on
+ * {@code /actuator/prometheus}.
+ */
+@Component
+public class ExtractionMetrics {
+
+    public static final String STAGE_LOAD = "load";
+    public static final String STAGE_STRIP = "strip";
+    public static final String STAGE_PARSE = "parse";
+    public static final String STAGE_SAVE = "save";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_FAILURE = "failure";
+
+    private static final String STAGE_TIMER = "pdf.extraction.stage";
+
+    private final MeterRegistry registry;
+
+    /**
+     * Records to the global registry, for extractors and services created outside Spring.
+     */
+    public ExtractionMetrics() {
+        this(Metrics.globalRegistry);
+    }
+
+    @Autowired
+    public ExtractionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Adds one sample of {@code nanos} to the timer of {@code stage}.
+     */
+    public void recordStage(String stage, String outcome, long nanos) {
+        Timer.builder(STAGE_TIMER)
+                .description("Time spent in each stage of a PDF extraction")
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Runs {@code work} and records its duration as one sample of {@code stage}, with a
+     * failure outcome if it throws.
+     */
+    public <T> T timeStage(String stage, Supplier<T> work) {
+        long start = System.nanoTime();
+        String outcome = OUTCOME_FAILURE;
+        try {
+            T result = work.get();
+            outcome = OUTCOME_SUCCESS;
+            return result;
+        } finally {
+            recordStage(stage, outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Adds the volumes of one extraction to the page, line, candidate line and row counters.
+     */
+    public void recordVolumes(String outcome, long pages, long lines, long candidateLines, long rows) {
+        registry.counter("pdf.extraction.pages", "outcome", outcome).increment(pages);
+        registry.counter("pdf.extraction.lines", "outcome", outcome).increment(lines);
+        registry.counter("pdf.extraction.candidate.lines", "outcome", outcome).increment(candidateLines);
+        registry.counter("pdf.extraction.rows", "outcome", outcome).increment(rows);
+    }
+
+    /**
+     * Adds the image, shading and graphics-only operators one extraction did not hand to PDFBox.
+     */
+    public void recordSkippedOperators(String outcome, long count) {
+        registry.counter("pdf.extraction.skipped.operators", "outcome", outcome).increment(count);
+    }
+
+    /**
+     * The counter of hits or misses for {@code type} in the resource caches, for caches that
+     * count every lookup and so resolve their counters up front.
+     */
+    public Counter resourceCacheCounter(String type, boolean hit) {
+        return registry.counter("pdf.extraction.resource.cache", "type", type, "result", hit ? "hit" : "miss");
+    }
+
+    /**
+     * Publishes the heap budget of {@code admission}, the part of it in use and the number of
+     * extractions waiting for it.
+     */
+    public void registerAdmission(ExtractionAdmission admission) {
+        Gauge.builder("pdf.admission.budget", admission, ExtractionAdmission::getBudgetBytes)
+                .description("Heap budget for concurrent PDF parses")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("pdf.admission.used", admission, ExtractionAdmission::getUsedBytes)
+                .description("Heap budget reserved by running PDF parses")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("pdf.admission.queued", admission, ExtractionAdmission::getQueuedCount)
+                .description("PDF parses waiting for heap budget")
+                .register(registry);
+    }
+
+    /**
+     * Counts an extraction turned away for lack of heap budget.
+     */
+    public void recordAdmissionRejected() {
+        registry.counter("pdf.admission.rejected").increment();
+    }
+}
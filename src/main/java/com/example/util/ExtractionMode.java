@@ -0,0 +1,19 @@
+package com.example.util;
+
+/**
+ * How {@link PdfPriceExtractor} turns a page into rows.
+ */
+public enum ExtractionMode {
+
+    /**
+     * Scan each line of the page text for prices, taking the product code and name from the
+     * same line or the one before it.
+     */
+    TEXT,
+
+    /**
+     * Find the price table's header row by word position and read each row's cells by
+     * column. Pages without a recognisable header are read as {@link #TEXT}.
+     */
+    LAYOUT
+}
@@ -0,0 +1,21 @@
+package com.example.util;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Thrown when an extraction cannot be admitted because the heap budget for concurrent parses is
+ * used up, telling the client when to try again.
+ */
+public class ExtractionRejectedException extends RejectedExecutionException {
+
+    private final int retryAfterSeconds;
+
+    public ExtractionRejectedException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.util;
+
+/**
+ * Totals for one extracted document, reported once every page has been pushed to the sink.
+ */
+public class ExtractionSummary {
+
+    private final String fileName;
+
+    private final int pageCount;
+
+    private final long extractedCount;
+
+    private final long parseAllocatedBytes;
+
+    public ExtractionSummary(String fileName, int pageCount, long extractedCount) {
+        this(fileName, pageCount, extractedCount, -1);
+    }
+
+    public ExtractionSummary(String fileName, int pageCount, long extractedCount, long parseAllocatedBytes) {
+        this.fileName = fileName;
+        this.pageCount = pageCount;
+        this.extractedCount = extractedCount;
+        this.parseAllocatedBytes = parseAllocatedBytes;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    public long getExtractedCount() {
+        return extractedCount;
+    }
+
+    /**
+     * Heap bytes allocated while turning page text into rows, or -1 if the JVM cannot measure it.
+     */
+    public long getParseAllocatedBytes() {
+        return parseAllocatedBytes;
+    }
+
+    /**
+     * Average heap bytes allocated per extracted row by the parsing stage, or -1 if unknown.
+     */
+    public long getParseBytesPerRow() {
+        if (parseAllocatedBytes < 0) {
+            return -1;
+        }
+        return extractedCount == 0 ? 0 : parseAllocatedBytes / extractedCount;
+    }
+}
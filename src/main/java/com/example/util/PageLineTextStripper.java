@@ -0,0 +1,440 @@
+package com.example.util;
+
+import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.graphics.form.PDTransparencyGroup;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Text stripper that walks the selected page range in a single pass and hands each page to a
+ * {@link PageHandler} as soon as the page ends, instead of building one {@code String} per page.
+ * <p>
+ * Page text is collected into one reusable character buffer, and lines are described by
+ * offsets into it, so a page costs no per-line allocations.
+ * <p>
+ * With {@link #setCollectWords(boolean)} the stripper also records where each word sits on
+ * the page, for readers that work from the layout rather than the text alone.
+ * <p>
+ * With {@link #setSkipImages(boolean)} image and shading operators never reach PDFBox, and a
+ * {@code q ... Q} block that draws nothing but graphics is dropped as a whole, so the graphics
+ * state is not copied and transformed for every photo, rule and box on a page.
+ */
+class PageLineTextStripper extends PDFTextStripper {
+
+    /**
+     * Receives the text of one page. The {@link PageText} is reused for the next page, so
+     * handlers must not keep a reference to it after returning.
+     */
+    interface PageHandler {
+        void onPage(int pageNumber, PageText page) throws IOException;
+    }
+
+    /**
+     * Called before each page's content is parsed; throwing stops the extraction there.
+     */
+    interface PageGuard {
+        void beforePage(int pageNumber, PDPage page) throws IOException;
+    }
+
+    /**
+     * The lines of one page, as offsets into a shared character buffer. The buffer itself is
+     * exposed through {@link #buffer()} so that line filters can read it without copying.
+     */
+    static final class PageText implements CharSequence {
+
+        private char[] buffer = new char[4096];
+
+        private int length;
+
+        private int[] lineStarts = new int[64];
+
+        private int[] lineEnds = new int[64];
+
+        private int lineCount;
+
+        private int currentLineStart;
+
+        private int wordCount;
+
+        private int[] wordLines = new int[0];
+
+        private int[] wordStarts = new int[0];
+
+        private int[] wordEnds = new int[0];
+
+        private float[] wordXs = new float[0];
+
+        private float[] wordEndXs = new float[0];
+
+        /**
+         * A standalone copy of {@code text}, split into lines at {@code '\n'}; words are not
+         * recorded. Used to replay stripped pages without PDFBox.
+         */
+        static PageText of(CharSequence text) {
+            PageText page = new PageText();
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '\n') {
+                    page.endLine();
+                } else {
+                    page.append(c);
+                }
+            }
+            if (page.hasOpenLine()) {
+                page.endLine();
+            }
+            return page;
+        }
+
+        /**
+         * The backing buffer; only the first {@link #length()} characters are meaningful.
+         */
+        char[] buffer() {
+            return buffer;
+        }
+
+        int lineCount() {
+            return lineCount;
+        }
+
+        int lineStart(int line) {
+            return lineStarts[line];
+        }
+
+        int lineEnd(int line) {
+            return lineEnds[line];
+        }
+
+        /**
+         * Words recorded on this page, in line order; 0 unless words are collected. A word is
+         * a run of text PDFBox saw no gap in, so it may contain spaces drawn by the PDF itself.
+         */
+        int wordCount() {
+            return wordCount;
+        }
+
+        int wordLine(int word) {
+            return wordLines[word];
+        }
+
+        int wordStart(int word) {
+            return wordStarts[word];
+        }
+
+        int wordEnd(int word) {
+            return wordEnds[word];
+        }
+
+        /**
+         * Left edge of the word, in page units from the left of the page.
+         */
+        float wordX(int word) {
+            return wordXs[word];
+        }
+
+        float wordEndX(int word) {
+            return wordEndXs[word];
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index >= length) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return buffer[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+            }
+            return new String(buffer, start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(buffer, 0, length);
+        }
+
+        private void clear() {
+            length = 0;
+            lineCount = 0;
+            currentLineStart = 0;
+            wordCount = 0;
+        }
+
+        private void addWord(int start, int end, float x, float endX) {
+            if (wordCount == wordStarts.length) {
+                int capacity = Math.max(64, wordCount * 2);
+                wordLines = Arrays.copyOf(wordLines, capacity);
+                wordStarts = Arrays.copyOf(wordStarts, capacity);
+                wordEnds = Arrays.copyOf(wordEnds, capacity);
+                wordXs = Arrays.copyOf(wordXs, capacity);
+                wordEndXs = Arrays.copyOf(wordEndXs, capacity);
+            }
+            // The word belongs to the line that is still open
+            wordLines[wordCount] = lineCount;
+            wordStarts[wordCount] = start;
+            wordEnds[wordCount] = end;
+            wordXs[wordCount] = x;
+            wordEndXs[wordCount] = endX;
+            wordCount++;
+        }
+
+        private void append(char c) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, length * 2);
+            }
+            buffer[length++] = c;
+        }
+
+        private boolean hasOpenLine() {
+            return length > currentLineStart;
+        }
+
+        private void endLine() {
+            if (lineCount == lineStarts.length) {
+                lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+                lineEnds = Arrays.copyOf(lineEnds, lineCount * 2);
+            }
+            // Blank lines are kept so that "previous line" lookups see the same lines as before
+            lineStarts[lineCount] = currentLineStart;
+            lineEnds[lineCount] = length;
+            lineCount++;
+            currentLineStart = length;
+        }
+    }
+
+    private final PageHandler pageHandler;
+
+    private final PageText pageText = new PageText();
+
+    private boolean collectWords;
+
+    private PageGuard pageGuard;
+
+    // Operators that draw images or shadings, which carry no text
+    private static final Set<String> IMAGE_OPERATORS = Set.of("BI", "ID", "EI", "sh");
+
+    // Operators that can produce text or marked content, directly or through a form XObject;
+    // everything else inside a q ... Q block only changes graphics state the Q throws away
+    private static final Set<String> TEXT_OPERATORS = Set.of("BT", "ET", "Tj", "TJ", "'", "\"", "Do",
+            "BMC", "BDC", "EMC", "d0", "d1");
+
+    // Longest graphics-only block held back before it is replayed as is
+    private static final int MAX_HELD_OPERATORS = 64;
+
+    private boolean skipImages;
+
+    private final List<Operator> heldOperators = new ArrayList<>();
+
+    private final List<List<COSBase>> heldOperands = new ArrayList<>();
+
+    private int skippedOperators;
+
+    PageLineTextStripper(PageHandler pageHandler) {
+        this.pageHandler = pageHandler;
+        setLineSeparator("\n");
+    }
+
+    /**
+     * Records the position of every word. Text is then read in position order, so that the
+     * words of a table row end up on one line even if the PDF draws the table column by column.
+     */
+    void setCollectWords(boolean collectWords) {
+        this.collectWords = collectWords;
+        setSortByPosition(collectWords);
+    }
+
+    /**
+     * Checks each page before its content stream is parsed, e.g. against a time budget.
+     */
+    void setPageGuard(PageGuard pageGuard) {
+        this.pageGuard = pageGuard;
+    }
+
+    /**
+     * Ignores image and shading operators, and {@code q ... Q} blocks that contain only
+     * graphics, instead of handing them to PDFBox. The extracted text is the same either way.
+     */
+    void setSkipImages(boolean skipImages) {
+        this.skipImages = skipImages;
+    }
+
+    /**
+     * Operators ignored so far because of {@link #setSkipImages(boolean)}.
+     */
+    int getSkippedOperators() {
+        return skippedOperators;
+    }
+
+    /**
+     * Extracts the configured page range, calling the page handler once per page.
+     */
+    void process(PDDocument document) throws IOException {
+        writeText(document, new LineWriter());
+    }
+
+    @Override
+    protected void startPage(PDPage page) throws IOException {
+        if (pageGuard != null) {
+            pageGuard.beforePage(getCurrentPageNo(), page);
+        }
+        super.startPage(page);
+        pageText.clear();
+        // Left over from an unbalanced q on the previous page; nothing in it draws text
+        dropHeld();
+    }
+
+    @Override
+    protected void endPage(PDPage page) throws IOException {
+        super.endPage(page);
+        if (pageText.hasOpenLine()) {
+            pageText.endLine();
+        }
+        pageHandler.onPage(getCurrentPageNo(), pageText);
+        pageText.clear();
+    }
+
+    @Override
+    protected void processOperator(Operator operator, List<COSBase> operands) throws IOException {
+        if (!skipImages) {
+            super.processOperator(operator, operands);
+            return;
+        }
+
+        String name = operator.getName();
+        if (isImageOperator(name, operands)) {
+            skippedOperators++;
+            return;
+        }
+        if (!heldOperators.isEmpty()) {
+            if ("Q".equals(name)) {
+                // The block drew nothing but graphics, and Q would undo its state changes anyway
+                skippedOperators += heldOperators.size() + 1;
+                dropHeld();
+                return;
+            }
+            if (!TEXT_OPERATORS.contains(name) && !"q".equals(name) && heldOperators.size() < MAX_HELD_OPERATORS) {
+                hold(operator, operands);
+                return;
+            }
+            replayHeld();
+        }
+        if ("q".equals(name)) {
+            hold(operator, operands);
+            return;
+        }
+        super.processOperator(operator, operands);
+    }
+
+    @Override
+    public void showForm(PDFormXObject form) throws IOException {
+        super.showForm(form);
+        // A form is a content stream of its own; an unbalanced q in it must not reach the page
+        dropHeld();
+    }
+
+    @Override
+    public void showTransparencyGroup(PDTransparencyGroup form) throws IOException {
+        super.showTransparencyGroup(form);
+        dropHeld();
+    }
+
+    private boolean isImageOperator(String name, List<COSBase> operands) throws IOException {
+        if (IMAGE_OPERATORS.contains(name)) {
+            return true;
+        }
+        if (!"Do".equals(name) || operands.isEmpty() || !(operands.get(0) instanceof COSName)) {
+            return false;
+        }
+        PDResources resources = getResources();
+        return resources != null && resources.isImageXObject((COSName) operands.get(0));
+    }
+
+    private void hold(Operator operator, List<COSBase> operands) {
+        heldOperators.add(operator);
+        heldOperands.add(new ArrayList<>(operands));
+    }
+
+    private void replayHeld() throws IOException {
+        for (int i = 0; i < heldOperators.size(); i++) {
+            super.processOperator(heldOperators.get(i), heldOperands.get(i));
+        }
+        dropHeld();
+    }
+
+    private void dropHeld() {
+        heldOperators.clear();
+        heldOperands.clear();
+    }
+
+    @Override
+    protected void writeString(String text, List<TextPosition> textPositions) throws IOException {
+        if (!collectWords || textPositions.isEmpty()) {
+            super.writeString(text, textPositions);
+            return;
+        }
+
+        int start = pageText.length();
+        super.writeString(text, textPositions);
+        TextPosition first = textPositions.get(0);
+        TextPosition last = textPositions.get(textPositions.size() - 1);
+        pageText.addWord(start, pageText.length(), first.getXDirAdj(), last.getXDirAdj() + last.getWidthDirAdj());
+    }
+
+    /**
+     * Splits the stripper output into lines as it is written.
+     */
+    private final class LineWriter extends Writer {
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                accept(cbuf[i]);
+            }
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                accept(str.charAt(i));
+            }
+        }
+
+        private void accept(char c) {
+            if (c == '\n') {
+                pageText.endLine();
+            } else if (c != '\r') {
+                pageText.append(c);
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
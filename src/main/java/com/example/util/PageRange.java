@@ -0,0 +1,121 @@
+package com.example.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A contiguous range of 1-based page numbers to extract, such as {@code 1-5}, {@code 7} or
+ * {@code 10-} (page 10 to the end). Ranges past the end of a document are cut to its length.
+ */
+public final class PageRange {
+
+    public static final PageRange ALL = new PageRange(1, Integer.MAX_VALUE);
+
+    private final int firstPage;
+
+    private final int lastPage;
+
+    private PageRange(int firstPage, int lastPage) {
+        this.firstPage = firstPage;
+        this.lastPage = lastPage;
+    }
+
+    public static PageRange of(int firstPage, int lastPage) {
+        if (firstPage < 1 || lastPage < firstPage) {
+            throw new IllegalArgumentException("Invalid page range: " + firstPage + "-" + lastPage);
+        }
+        return firstPage == 1 && lastPage == Integer.MAX_VALUE ? ALL : new PageRange(firstPage, lastPage);
+    }
+
+    /**
+     * Groups ascending page numbers into as few contiguous ranges as possible.
+     */
+    public static List<PageRange> runsOf(List<Integer> pages) {
+        List<PageRange> runs = new ArrayList<>();
+        int i = 0;
+        while (i < pages.size()) {
+            int first = pages.get(i);
+            int last = first;
+            while (++i < pages.size() && pages.get(i) == last + 1) {
+                last++;
+            }
+            runs.add(of(first, last));
+        }
+        return runs;
+    }
+
+    /**
+     * Parses {@code N}, {@code N-M} or {@code N-}; a null or blank value means every page.
+     *
+     * @throws IllegalArgumentException if the value is not a valid range
+     */
+    public static PageRange parse(String value) {
+        if (value == null || value.isBlank()) {
+            return ALL;
+        }
+        String range = value.trim();
+        int dash = range.indexOf('-');
+        try {
+            if (dash < 0) {
+                int page = Integer.parseInt(range);
+                return of(page, page);
+            }
+            int first = Integer.parseInt(range.substring(0, dash).trim());
+            String last = range.substring(dash + 1).trim();
+            return of(first, last.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(last));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page range: " + value);
+        }
+    }
+
+    public int getFirstPage() {
+        return firstPage;
+    }
+
+    /**
+     * The last page to extract from a document with {@code numberOfPages} pages.
+     */
+    public int getLastPage(int numberOfPages) {
+        return Math.min(lastPage, numberOfPages);
+    }
+
+    /**
+     * This range cut to at most {@code maxPages} pages from its first page.
+     */
+    public PageRange limit(int maxPages) {
+        if (maxPages < 1 || lastPage - firstPage < maxPages) {
+            return this;
+        }
+        return of(firstPage, firstPage + maxPages - 1);
+    }
+
+    public boolean isAll() {
+        return this == ALL;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PageRange)) {
+            return false;
+        }
+        PageRange other = (PageRange) o;
+        return firstPage == other.firstPage && lastPage == other.lastPage;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(firstPage, lastPage);
+    }
+
+    @Override
+    public String toString() {
+        if (lastPage == Integer.MAX_VALUE) {
+            return firstPage + "-";
+        }
+        return firstPage == lastPage ? String.valueOf(firstPage) : firstPage + "-" + lastPage;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.util;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of a PDF upload that is extracted in the background. Fields are written by the worker
+ * running the job and read by status requests, so they are volatile.
+ */
+public class PdfExtractionJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+
+    private final String fileName;
+
+    private final String contentHash;
+
+    private final LocalDateTime submittedDate = LocalDateTime.now();
+
+    private volatile Status status = Status.QUEUED;
+
+    private volatile LocalDateTime startedDate;
+
+    private volatile LocalDateTime finishedDate;
+
+    private volatile ExtractionSummary summary;
+
+    private volatile String error;
+
+    public PdfExtractionJob(String id, String fileName, String contentHash) {
+        this.id = id;
+        this.fileName = fileName;
+        this.contentHash = contentHash;
+    }
+
+    public void markRunning() {
+        startedDate = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    public void markCompleted(ExtractionSummary summary) {
+        this.summary = summary;
+        finishedDate = LocalDateTime.now();
+        status = Status.COMPLETED;
+    }
+
+    public void markFailed(String error) {
+        this.error = error;
+        finishedDate = LocalDateTime.now();
+        status = Status.FAILED;
+    }
+
+    public boolean isFinished() {
+        Status current = status;
+        return current == Status.COMPLETED || current == Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * SHA-256 of the uploaded file, which identifies the upload whose rows the job produced.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public LocalDateTime getSubmittedDate() {
+        return submittedDate;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getStartedDate() {
+        return startedDate;
+    }
+
+    public LocalDateTime getFinishedDate() {
+        return finishedDate;
+    }
+
+    /**
+     * Page and row counts once the job has completed, otherwise null.
+     */
+    public ExtractionSummary getSummary() {
+        return summary;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.util;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Per-page content hashes of a document, plus the supplier of the template it matched (or
+ * null). Two revisions of a catalog can be compared page by page to find the pages that
+ * changed.
+ */
+public class PdfFingerprint {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private final String supplier;
+
+    private final List<String> pageHashes;
+
+    public PdfFingerprint(String supplier, List<String> pageHashes) {
+        this.supplier = supplier;
+        this.pageHashes = Collections.unmodifiableList(new ArrayList<>(pageHashes));
+    }
+
+    public String getSupplier() {
+        return supplier;
+    }
+
+    /**
+     * SHA-256 of each page in page order; page {@code n} is at index {@code n - 1}.
+     */
+    public List<String> getPageHashes() {
+        return pageHashes;
+    }
+
+    public int getPageCount() {
+        return pageHashes.size();
+    }
+
+    /**
+     * The 1-based numbers of the pages that differ from {@code previousHashes}, including pages
+     * the previous revision did not have, in ascending order.
+     */
+    public List<Integer> changedPages(List<String> previousHashes) {
+        List<Integer> changed = new ArrayList<>();
+        for (int i = 0; i < pageHashes.size(); i++) {
+            if (previousHashes == null || i >= previousHashes.size()
+                    || !Objects.equals(pageHashes.get(i), previousHashes.get(i))) {
+                changed.add(i + 1);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Hashes the page's decoded content stream and those of the forms it draws directly, which
+     * is where its text comes from. Images are not read.
+     */
+    static String hashPage(PDPage page) throws IOException {
+        MessageDigest digest = newDigest();
+        update(digest, page.getContents());
+
+        PDResources resources = page.getResources();
+        if (resources != null) {
+            for (COSName name : resources.getXObjectNames()) {
+                if (resources.isImageXObject(name)) {
+                    continue;
+                }
+                PDXObject xObject = resources.getXObject(name);
+                if (xObject instanceof PDFormXObject) {
+                    digest.update(name.getName().getBytes(StandardCharsets.UTF_8));
+                    update(digest, ((PDFormXObject) xObject).getContents());
+                }
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, InputStream contents) throws IOException {
+        try (InputStream in = contents) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", e);
+        }
+    }
+}
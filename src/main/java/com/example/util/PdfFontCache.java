@@ -0,0 +1,75 @@
+package com.example.util;
+
+import jakarta.annotation.PostConstruct;
+import org.apache.pdfbox.pdmodel.font.FontMappers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Loads PDFBox's system font mapping at startup instead of on the first upload.
+ * <p>
+ * The first time PDFBox needs a font a document does not embed, it scans every font installed
+ * on the machine and writes what it found to a cache file, which later JVMs read instead of
+ * scanning again. Pointing {@code pdf.fonts.cache-dir} at a directory that survives deploys, or
+ * at one filled at build time with {@code ./gradlew fontCache}, keeps the scan off the request
+ * path entirely.
+ */
+@Component
+public class PdfFontCache {
+
+    // System property PDFBox reads for the directory of its font cache file
+    static final String CACHE_DIR_PROPERTY = "pdfbox.fontcache";
+
+    // Directory of the persisted font mapping; empty leaves it in the user's home directory
+    @Value("${pdf.fonts.cache-dir:}")
+    private String cacheDir;
+
+    // Build or read the font mapping in the background at startup
+    @Value("${pdf.fonts.preload:true}")
+    private boolean preload = true;
+
+    @PostConstruct
+    public void initialize() throws IOException {
+        if (cacheDir != null && !cacheDir.isEmpty()) {
+            useDirectory(Paths.get(cacheDir));
+        }
+        if (preload) {
+            // Uploads arriving before it finishes wait for the same mapping rather than scanning again
+            Thread.ofPlatform().name("pdf-font-cache").daemon(true).start(PdfFontCache::warmUp);
+        }
+    }
+
+    /**
+     * Keeps the font cache file in {@code directory}. Must be called before PDFBox first maps a
+     * font.
+     */
+    static void useDirectory(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        System.setProperty(CACHE_DIR_PROPERTY, directory.toAbsolutePath().toString());
+    }
+
+    /**
+     * Makes PDFBox build its font mapping, from the cache file if there is one and by scanning
+     * the system fonts otherwise.
+     */
+    static void warmUp() {
+        FontMappers.instance().getFontBoxFont("Helvetica", null);
+    }
+
+    /**
+     * Builds the font cache file in the directory given as the only argument, e.g. while
+     * building a container image.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: PdfFontCache <cache-dir>");
+        }
+        useDirectory(Paths.get(args[0]));
+        warmUp();
+    }
+}
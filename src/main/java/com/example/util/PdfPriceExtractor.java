@@ -1,164 +1,922 @@
 package com.example.util;
 
 import com.example.data.PriceInfo;
+import com.example.service.ExtractionTemplateService;
+import jakarta.annotation.PreDestroy;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile;
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.pdmodel.PDDocumentInformation;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.math.BigDecimal;
+import java.io.InterruptedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Component
 public class PdfPriceExtractor {
 
-    // Regex patterns for price extraction
-    private static final Pattern PRICE_PATTERN = Pattern.compile(
-            "(?:[$£€¥₹]\\s*)?([0-9]{1,3}(?:,?[0-9]{3})*(?:\\.[0-9]{2})?)"
-    );
+    // Supplier templates; documents matching one are read by its columns
+    @Autowired(required = false)
+    private ExtractionTemplateService extractionTemplateService;
 
-    private static final Pattern CURRENCY_PATTERN = Pattern.compile(
-            "(USD|EUR|GBP|JPY|INR|\\$|£|€|¥|₹)"
-    );
+    // Stage timers and volume counters; extractors created outside Spring record to the global registry
+    @Autowired(required = false)
+    private ExtractionMetrics extractionMetrics = new ExtractionMetrics();
 
-    private static final Pattern PRODUCT_CODE_PATTERN = Pattern.compile(
-            "(?:SKU|Code|Item|Product\\s*#?)\\s*:?\\s*([A-Z0-9-]+)",
-            Pattern.CASE_INSENSITIVE
-    );
+    // TEXT scans every line; LAYOUT reads price tables by column position
+    @Value("${pdf.extraction.mode:TEXT}")
+    private ExtractionMode extractionMode = ExtractionMode.TEXT;
 
-    private static final Pattern PRODUCT_NAME_PATTERN = Pattern.compile(
-            "(?:Product|Item|Name)\\s*:?\\s*([A-Za-z0-9\\s\\-]+)",
-            Pattern.CASE_INSENSITIVE
-    );
+    // Parallel extraction settings; a parallelism of 0 means "use the available cores"
+    @Value("${pdf.extraction.parallel.enabled:false}")
+    private boolean parallelEnabled;
+
+    @Value("${pdf.extraction.parallel.max-threads:0}")
+    private int maxThreads;
+
+    @Value("${pdf.extraction.parallel.min-pages-per-worker:25}")
+    private int minPagesPerWorker = 25;
+
+    // Document loading settings; uploads are spooled to disk and parsed through file-backed access
+    @Value("${pdf.extraction.spool-dir:}")
+    private String spoolDir;
+
+    @Value("${pdf.extraction.memory-mapped:true}")
+    private boolean memoryMapped = true;
+
+    @Value("${pdf.extraction.scratch-memory-max-bytes:4194304}")
+    private long scratchMemoryMaxBytes = 4 * 1024 * 1024;
+
+    // Documents beyond these limits are refused before parsing or abandoned between pages; 0 disables a limit
+    @Value("${pdf.extraction.limits.max-pages:10000}")
+    private int maxPages = 10_000;
+
+    @Value("${pdf.extraction.limits.max-objects:2000000}")
+    private int maxObjects = 2_000_000;
+
+    @Value("${pdf.extraction.limits.max-page-content-bytes:67108864}")
+    private long maxPageContentBytes = 64 * 1024 * 1024;
+
+    // Files whose trailer has no startxref are scanned to rebuild it unless this refuses them
+    @Value("${pdf.extraction.limits.require-startxref:false}")
+    private boolean requireStartxref;
+
+    // Time budgets per document: wall-clock from load, and CPU summed over all its workers
+    @Value("${pdf.extraction.limits.max-duration-ms:300000}")
+    private long maxDurationMillis = 300_000;
+
+    @Value("${pdf.extraction.limits.max-cpu-ms:600000}")
+    private long maxCpuMillis = 600_000;
+
+    // Fonts and XObjects kept per loaded document; 0 keeps PDFBox's unbounded soft-reference cache
+    @Value("${pdf.extraction.resource-cache.max-entries:256}")
+    private int resourceCacheMaxEntries = 256;
+
+    // Font stream bytes each worker keeps for the documents it reads next; 0 parses every document's fonts
+    @Value("${pdf.extraction.shared-fonts.max-bytes:8388608}")
+    private long sharedFontsMaxBytes = 8 * 1024 * 1024;
+
+    // Image and shading operators, and q ... Q blocks holding only graphics, are not handed to PDFBox
+    @Value("${pdf.extraction.skip-images:true}")
+    private boolean skipImages = true;
+
+    // Lines without a digit are skipped before scanning, using the Vector API when it is available
+    @Value("${pdf.extraction.prefilter.enabled:true}")
+    private boolean prefilterEnabled = true;
+
+    @Value("${pdf.extraction.prefilter.vector:true}")
+    private boolean vectorPrefilter = true;
+
+    private volatile ExecutorService extractionExecutor;
+
+    private volatile CandidateLineFilter candidateLineFilter;
+
+    private volatile SharedFontCache.Pool sharedFontPool;
+
+    private final LongAdder totalParseAllocatedBytes = new LongAdder();
+
+    private final LongAdder totalParsedRows = new LongAdder();
 
     public List<PriceInfo> extractPricesFromPdf(InputStream pdfInputStream, String fileName) throws Exception {
         List<PriceInfo> priceInfoList = new ArrayList<>();
+        extractPrices(pdfInputStream, fileName, (page, rows) -> priceInfoList.addAll(rows));
+        return priceInfoList;
+    }
 
-        try (PDDocument document = PDDocument.load(pdfInputStream)) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            int numberOfPages = document.getNumberOfPages();
+    /**
+     * Extracts prices page by page and pushes each page's rows to the sink in page order, so
+     * callers can stream or persist them without holding the whole document's rows.
+     */
+    public ExtractionSummary extractPrices(InputStream pdfInputStream, String fileName, PriceRowSink sink)
+            throws Exception {
+        try (PdfSpoolFile spoolFile = PdfSpoolFile.spool(pdfInputStream, resolveSpoolDirectory())) {
+            return extractPrices(spoolFile, fileName, sink);
+        }
+    }
 
-            for (int page = 1; page <= numberOfPages; page++) {
-                stripper.setStartPage(page);
-                stripper.setEndPage(page);
-                String pageText = stripper.getText(document);
+    /**
+     * Same as {@link #extractPrices(InputStream, String, PriceRowSink)} for an upload that has
+     * already been spooled to disk.
+     */
+    public ExtractionSummary extractPrices(PdfSpoolFile spoolFile, String fileName, PriceRowSink sink)
+            throws Exception {
+        return extractPrices(spoolFile, fileName, PageRange.ALL, sink);
+    }
+
+    /**
+     * Extracts only the pages in {@code pages}; the others are never parsed. The summary still
+     * reports the document's full page count.
+     *
+     * @throws IllegalArgumentException if the range starts after the last page
+     */
+    public ExtractionSummary extractPrices(PdfSpoolFile spoolFile, String fileName, PageRange pages,
+                                           PriceRowSink sink) throws Exception {
+        return extractPrices(spoolFile, fileName, List.of(pages), sink);
+    }
 
-                List<PriceInfo> pageData = extractPricesFromText(pageText, fileName, page);
-                priceInfoList.addAll(pageData);
+    /**
+     * Extracts the pages of each range in turn from the spooled file's document, pushing them to
+     * the sink in the order the ranges are given.
+     *
+     * @throws IllegalArgumentException if a range starts after the last page
+     */
+    public ExtractionSummary extractPrices(PdfSpoolFile spoolFile, String fileName, List<PageRange> ranges,
+                                           PriceRowSink sink) throws Exception {
+        Path pdfPath = spoolFile.getPath();
+
+        PDDocument document = openDocument(spoolFile);
+        int numberOfPages = document.getNumberOfPages();
+        for (PageRange pages : ranges) {
+            if (pages.getFirstPage() > pages.getLastPage(numberOfPages) && !pages.isAll()) {
+                throw new IllegalArgumentException("Page range " + pages + " is outside the document's "
+                        + numberOfPages + " pages");
             }
         }
 
-        return priceInfoList;
+        ExtractionRun run = new ExtractionRun(fileName, findTemplate(document),
+                TimeUnit.MILLISECONDS.toNanos(maxDurationMillis), TimeUnit.MILLISECONDS.toNanos(maxCpuMillis));
+        long extractedCount = 0;
+        String outcome = ExtractionMetrics.OUTCOME_FAILURE;
+        try {
+            for (PageRange pages : ranges) {
+                int firstPage = pages.getFirstPage();
+                int lastPage = pages.getLastPage(numberOfPages);
+                int parallelism = resolveParallelism(lastPage - firstPage + 1);
+                if (parallelism > 1) {
+                    extractedCount += extractInParallel(document, pdfPath, run, firstPage, lastPage, parallelism, sink);
+                } else {
+                    extractedCount += extractPageRange(document, run, firstPage, lastPage, sink);
+                }
+            }
+            outcome = ExtractionMetrics.OUTCOME_SUCCESS;
+        } finally {
+            run.recordMetrics(extractionMetrics, outcome);
+        }
+
+        long parseAllocatedBytes = run.getParseAllocatedBytes();
+        if (parseAllocatedBytes >= 0) {
+            totalParseAllocatedBytes.add(parseAllocatedBytes);
+            totalParsedRows.add(extractedCount);
+        }
+        return new ExtractionSummary(fileName, numberOfPages, extractedCount, parseAllocatedBytes);
+    }
+
+    /**
+     * Hashes each page of the document without extracting any text, and names the supplier
+     * whose template the document matches. Comparing the hashes with an earlier revision
+     * tells which pages have to be parsed again.
+     */
+    public PdfFingerprint fingerprint(PdfSpoolFile spoolFile) throws IOException {
+        PDDocument document = openDocument(spoolFile);
+        CompiledTemplate template = findTemplate(document);
+        List<String> pageHashes = new ArrayList<>(document.getNumberOfPages());
+        for (PDPage page : document.getPages()) {
+            pageHashes.add(PdfFingerprint.hashPage(page));
+        }
+        return new PdfFingerprint(template != null ? template.getSupplier() : null, pageHashes);
+    }
+
+    /**
+     * Number of pages in the document. This loads the document like any other read of it, so
+     * callers that go on to extract it should count first and reuse the load, not count
+     * instead of loading.
+     */
+    public int countPages(PdfSpoolFile spoolFile) throws IOException {
+        return openDocument(spoolFile).getNumberOfPages();
+    }
+
+    /**
+     * Directory uploads are spooled to, or null to use the default temporary directory.
+     */
+    public Path resolveSpoolDirectory() {
+        return spoolDir == null || spoolDir.isEmpty() ? null : Paths.get(spoolDir);
+    }
+
+    /**
+     * Picks how many workers to split a document across, based on its page count and the
+     * number of available cores. Returns 1 when parallel extraction is disabled or the
+     * document is too small to be worth splitting.
+     */
+    int resolveParallelism(int numberOfPages) {
+        if (!parallelEnabled || numberOfPages < 2) {
+            return 1;
+        }
+        int threads = maxThreads > 0 ? maxThreads : Runtime.getRuntime().availableProcessors();
+        int byPages = numberOfPages / Math.max(1, minPagesPerWorker);
+        return Math.max(1, Math.min(threads, byPages));
     }
 
-    private List<PriceInfo> extractPricesFromText(String text, String fileName, int pageNumber) {
+    /**
+     * The supplier template the document matches, or null if none does. The first page is
+     * only read when a candidate template checks it for a marker.
+     */
+    CompiledTemplate findTemplate(PDDocument document) throws IOException {
+        if (extractionTemplateService == null || document.getNumberOfPages() == 0) {
+            return null;
+        }
+        PDDocumentInformation info = document.getDocumentInformation();
+        List<CompiledTemplate> candidates = extractionTemplateService.findCandidates(
+                info.getProducer(), info.getCreator());
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (!candidates.get(0).hasFirstPageMarker()) {
+            return candidates.get(0);
+        }
+
+        CompiledTemplate[] match = new CompiledTemplate[1];
+        PageLineTextStripper stripper = new PageLineTextStripper((page, pageText) -> {
+            for (CompiledTemplate candidate : candidates) {
+                if (candidate.matchesFirstPage(pageText)) {
+                    match[0] = candidate;
+                    return;
+                }
+            }
+        });
+        stripper.setSkipImages(skipImages);
+        stripper.setStartPage(1);
+        stripper.setEndPage(1);
+        stripper.process(document);
+        return match[0];
+    }
+
+    private long extractInParallel(PDDocument spooled, Path pdfPath, ExtractionRun run, int firstPage, int lastPage,
+                                   int parallelism, PriceRowSink sink) throws Exception {
+        int chunkPages = Math.max(1, minPagesPerWorker);
+        int chunkCount = (lastPage - firstPage + chunkPages) / chunkPages;
+        int workers = Math.min(parallelism, chunkCount);
+        ChunkWindow window = new ChunkWindow(chunkCount, workers * 2);
+
+        // Worker w handles chunks w, w + workers, ... on its own PDDocument opened over the spooled
+        // file, since PDDocument is not thread-safe; the first worker reuses the already loaded one,
+        // which this thread leaves alone until all workers are done. The window stops fast workers
+        // from running far ahead of the sink.
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            int firstChunk = w;
+            futures.add(getExtractionExecutor().submit(() -> {
+                try {
+                    PDDocument document = firstChunk == 0 ? spooled : loadDocument(pdfPath);
+                    try {
+                        for (int chunk = firstChunk; chunk < chunkCount; chunk += workers) {
+                            if (!window.awaitTurn(chunk)) {
+                                return null;
+                            }
+                            int chunkFirst = firstPage + chunk * chunkPages;
+                            int chunkLast = Math.min(lastPage, chunkFirst + chunkPages - 1);
+                            List<PageRows> pages = new ArrayList<>(chunkLast - chunkFirst + 1);
+                            extractPageRange(document, run, chunkFirst, chunkLast,
+                                    (page, rows) -> pages.add(new PageRows(page, rows)));
+                            window.complete(chunk, pages);
+                        }
+                    } finally {
+                        if (document != spooled) {
+                            closeDocument(document);
+                        }
+                    }
+                } catch (Exception e) {
+                    window.fail(e);
+                }
+                return null;
+            }));
+        }
+
+        long extractedCount = 0;
+        boolean completed = false;
+        try {
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                for (PageRows pageRows : window.take(chunk)) {
+                    sink.onPage(pageRows.pageNumber, pageRows.rows);
+                    extractedCount += pageRows.rows.size();
+                }
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                // Workers stop at their next page instead of finishing their chunk
+                run.cancel();
+            }
+            window.cancel();
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException ignored) {
+                    // failures are reported through the window
+                }
+            }
+        }
+
+        return extractedCount;
+    }
+
+    private long extractPageRange(PDDocument document, ExtractionRun run, int firstPage, int lastPage,
+                                  PriceRowSink sink) throws IOException {
+        long[] extractedCount = new long[1];
+
+        CompiledTemplate template = run.template;
+        boolean layout = template != null || extractionMode == ExtractionMode.LAYOUT;
+        TableLayoutReader layoutReader = layout ? new TableLayoutReader() : null;
+
+        // One pass over the range; each page's lines are parsed as soon as the page ends
+        // Time spent in the page callbacks: parsing, then handing the rows to the sink
+        long[] parseNanos = new long[1];
+        long[] callbackNanos = new long[1];
+        PageLineTextStripper stripper = new PageLineTextStripper((page, pageText) -> {
+            long parseStart = System.nanoTime();
+            long allocatedBefore = AllocationCounter.currentThreadAllocatedBytes();
+            List<PriceInfo> rows;
+            if (template != null) {
+                rows = extractPricesWithTemplate(pageText, layoutReader, template, run, page);
+            } else if (layout) {
+                rows = extractPricesFromLayout(pageText, layoutReader, run, page);
+            } else {
+                rows = extractPricesFromPage(pageText, run, page);
+            }
+            run.recordParseAllocation(allocatedBefore, AllocationCounter.currentThreadAllocatedBytes());
+            parseNanos[0] += System.nanoTime() - parseStart;
+            run.recordPage(pageText.lineCount(), rows.size());
+
+            sink.onPage(page, rows);
+            extractedCount[0] += rows.size();
+            callbackNanos[0] += System.nanoTime() - parseStart;
+        });
+        stripper.setCollectWords(layout);
+        stripper.setSkipImages(skipImages);
+        stripper.setStartPage(firstPage);
+        stripper.setEndPage(lastPage);
+
+        // Budgets and cancellation are checked between pages; CPU time is charged per worker thread
+        long[] cpuMark = {ExtractionRun.threadCpuNanos()};
+        stripper.setPageGuard((pageNumber, page) -> {
+            long cpuNow = ExtractionRun.threadCpuNanos();
+            run.checkBudget(cpuNow - cpuMark[0]);
+            cpuMark[0] = cpuNow;
+            PdfSanityCheck.checkPageContent(page, pageNumber, maxPageContentBytes);
+        });
+
+        // The callbacks run inside the stripper's pass, so stripping is what remains of it
+        long start = System.nanoTime();
+        try {
+            stripper.process(document);
+        } finally {
+            run.recordTimes(System.nanoTime() - start - callbackNanos[0], parseNanos[0]);
+            run.recordSkippedOperators(stripper.getSkippedOperators());
+        }
+
+        return extractedCount[0];
+    }
+
+    /**
+     * The document of {@code spoolFile}, loaded the first time it is read and closed with the
+     * file, so its page count, fingerprint and extraction share one load.
+     */
+    private PDDocument openDocument(PdfSpoolFile spoolFile) throws IOException {
+        PDDocument document = spoolFile.getDocument();
+        if (document == null) {
+            PDDocument loaded = loadDocument(spoolFile.getPath());
+            spoolFile.setDocument(loaded, () -> closeDocument(loaded));
+            document = loaded;
+        }
+        return document;
+    }
+
+    private PDDocument loadDocument(Path pdfPath) throws IOException {
+        PdfSanityCheck.checkFile(pdfPath, requireStartxref);
+
+        // Page content streams are decoded into a small in-memory scratch area that spills to disk
+        MemoryUsageSetting scratch = MemoryUsageSetting.setupMixed(scratchMemoryMaxBytes);
+        Path directory = resolveSpoolDirectory();
+        if (directory != null) {
+            scratch.setTempDir(directory.toFile());
+        }
+
+        // A single mapping is limited to 2GB, so larger files fall back to buffered reads
+        long start = System.nanoTime();
+        String outcome = ExtractionMetrics.OUTCOME_FAILURE;
+        try {
+            RandomAccessRead source = memoryMapped && Files.size(pdfPath) < Integer.MAX_VALUE
+                    ? new RandomAccessReadMemoryMappedFile(pdfPath)
+                    : new RandomAccessReadBufferedFile(pdfPath);
+            try {
+                PDDocument document = Loader.loadPDF(source, scratch.streamCache);
+                try {
+                    PdfSanityCheck.checkStructure(document, maxPages, maxObjects);
+                } catch (RuntimeException e) {
+                    document.close();
+                    throw e;
+                }
+                if (resourceCacheMaxEntries > 0) {
+                    SharedFontCache sharedFonts = sharedFontsMaxBytes > 0 ? getSharedFontPool().take() : null;
+                    document.setResourceCache(
+                            new BoundedResourceCache(resourceCacheMaxEntries, sharedFonts, extractionMetrics));
+                }
+                outcome = ExtractionMetrics.OUTCOME_SUCCESS;
+                return document;
+            } catch (IOException | RuntimeException e) {
+                source.close();
+                throw e;
+            }
+        } finally {
+            extractionMetrics.recordStage(ExtractionMetrics.STAGE_LOAD, outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Closes a document from {@link #loadDocument} and hands its shared font cache to the next
+     * document loaded.
+     */
+    private void closeDocument(PDDocument document) throws IOException {
+        try {
+            document.close();
+        } finally {
+            if (document.getResourceCache() instanceof BoundedResourceCache) {
+                SharedFontCache sharedFonts = ((BoundedResourceCache) document.getResourceCache()).getSharedFonts();
+                if (sharedFonts != null) {
+                    getSharedFontPool().release(sharedFonts);
+                }
+            }
+        }
+    }
+
+    private SharedFontCache.Pool getSharedFontPool() {
+        SharedFontCache.Pool pool = sharedFontPool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = sharedFontPool;
+                if (pool == null) {
+                    pool = new SharedFontCache.Pool(sharedFontsMaxBytes, extractionMetrics);
+                    sharedFontPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Runs only the text-mode parsing stage over pages whose text has already been stripped,
+     * numbering them from 1, so benchmarks can measure it apart from PDF decoding.
+     */
+    long parsePages(List<PageLineTextStripper.PageText> pages, String fileName, PriceRowSink sink)
+            throws IOException {
+        ExtractionRun run = new ExtractionRun(fileName, null);
+        long extractedCount = 0;
+        for (int i = 0; i < pages.size(); i++) {
+            List<PriceInfo> rows = extractPricesFromPage(pages.get(i), run, i + 1);
+            sink.onPage(i + 1, rows);
+            extractedCount += rows.size();
+        }
+        return extractedCount;
+    }
+
+    /**
+     * The pre-filter in use, resolved from the configuration on first use.
+     */
+    CandidateLineFilter getCandidateLineFilter() {
+        CandidateLineFilter filter = candidateLineFilter;
+        if (filter == null) {
+            filter = CandidateLineFilter.select(prefilterEnabled, vectorPrefilter);
+            candidateLineFilter = filter;
+        }
+        return filter;
+    }
+
+    private ExecutorService getExtractionExecutor() {
+        ExecutorService executor = extractionExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = extractionExecutor;
+                if (executor == null) {
+                    // Unbounded: workers block while waiting for their turn in the window, which
+                    // must not starve a fixed-size pool shared by concurrent uploads. Platform
+                    // threads, because the JVM reports no per-thread allocation for virtual ones.
+                    executor = Executors.newCachedThreadPool(
+                            Thread.ofPlatform().name("pdf-extractor-", 0).daemon(true).factory());
+                    extractionExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ExecutorService executor = extractionExecutor;
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private List<PriceInfo> extractPricesFromPage(PageLineTextStripper.PageText page, ExtractionRun run,
+                                                  int pageNumber) {
         List<PriceInfo> priceInfoList = new ArrayList<>();
+        char[] chars = page.buffer();
+        CandidateLineFilter filter = getCandidateLineFilter();
 
-        // Split text into lines for better parsing
-        String[] lines = text.split("\\r?\\n");
+        // Candidate lines are scanned once; the previous line's result is kept for fallbacks.
+        // Lines the filter rejects are only scanned if the next line needs them as a fallback.
+        PriceLineScanner current = new PriceLineScanner();
+        PriceLineScanner previous = new PriceLineScanner();
+        int previousStart = 0;
+        int previousEnd = 0;
+        boolean previousScanned = false;
+        int candidateLines = 0;
 
-        for (int i = 0; i < lines.length; i++) {
-            String line = lines[i].trim();
+        for (int i = 0; i < page.lineCount(); i++) {
+            // Trim as String.trim() would, but on offsets into the page buffer
+            int start = page.lineStart(i);
+            int end = page.lineEnd(i);
+            while (start < end && chars[start] <= ' ') {
+                start++;
+            }
+            while (end > start && chars[end - 1] <= ' ') {
+                end--;
+            }
 
-            if (line.isEmpty()) {
+            if (!filter.mayContainPrice(chars, start, end)) {
+                previousStart = start;
+                previousEnd = end;
+                previousScanned = false;
                 continue;
             }
 
-            // Check if line contains price information
-            Matcher priceMatcher = PRICE_PATTERN.matcher(line);
+            candidateLines++;
+            PriceLineScanner swap = previous;
+            previous = current;
+            current = swap;
+            current.scan(page, start, end);
+
+            if (current.getPriceCount() > 0 && i > 0 && !previousScanned
+                    && (current.getProductCode() == null || current.getProductName() == null)) {
+                previous.scan(page, previousStart, previousEnd);
+            }
+            previousStart = start;
+            previousEnd = end;
+            previousScanned = true;
 
-            while (priceMatcher.find()) {
-                PriceInfo priceInfo = new PriceInfo();
+            // Strings for the line are only built once it is known to hold a price
+            String rawText = null;
+            String lineName = null;
 
-                // Extract price
-                String priceStr = priceMatcher.group(1).replace(",", "");
-                try {
-                    BigDecimal price = new BigDecimal(priceStr);
-                    priceInfo.setPrice(price);
-                } catch (NumberFormatException e) {
-                    continue; // Skip if price is not valid
+            for (int p = 0; p < current.getPriceCount(); p++) {
+                if (rawText == null) {
+                    rawText = new String(chars, start, end - start);
                 }
 
-                // Extract currency
-                String currency = extractCurrency(line);
-                priceInfo.setCurrency(currency);
+                PriceInfo priceInfo = new PriceInfo(run.extractedDate);
+
+                priceInfo.setPrice(current.getPrice(p));
+                priceInfo.setCurrency(current.getCurrency());
 
-                // Extract product code
-                String productCode = extractProductCode(line);
+                // Extract product code, trying the previous line if needed
+                String productCode = current.getProductCode();
                 if (productCode == null && i > 0) {
-                    // Try previous line
-                    productCode = extractProductCode(lines[i - 1]);
+                    productCode = previous.getProductCode();
                 }
                 priceInfo.setProductCode(productCode);
 
-                // Extract product name
-                String productName = extractProductName(line);
+                // Extract product name, trying the previous line if needed
+                String productName = current.getProductName();
                 if (productName == null && i > 0) {
-                    // Try previous line
-                    productName = extractProductName(lines[i - 1]);
+                    productName = previous.getProductName();
                 }
-                if (productName == null && line.length() > 10) {
+                if (productName == null && rawText.length() > 10) {
                     // Use the line itself as product name if it's descriptive enough
-                    productName = line.substring(0, Math.min(100, line.length()));
+                    if (lineName == null) {
+                        lineName = rawText.length() <= 100 ? rawText : rawText.substring(0, 100);
+                    }
+                    productName = lineName;
                 }
                 priceInfo.setProductName(productName);
 
                 // Set metadata
-                priceInfo.setPdfFileName(fileName);
+                priceInfo.setPdfFileName(run.fileName);
                 priceInfo.setPageNumber(pageNumber);
-                priceInfo.setRawText(line);
-                priceInfo.setExtractedDate(LocalDateTime.now());
+                priceInfo.setRawText(rawText);
 
-                // Add to list if we have at least a price
-                if (priceInfo.getPrice() != null) {
-                    priceInfoList.add(priceInfo);
-                }
+                priceInfoList.add(priceInfo);
+            }
+        }
+
+        run.candidateLines.add(candidateLines);
+        return priceInfoList;
+    }
+
+    /**
+     * Reads the rows of the price table below the page's header row, cell by cell. Pages
+     * without a table header are read line by line as in text mode.
+     */
+    private List<PriceInfo> extractPricesFromLayout(PageLineTextStripper.PageText page, TableLayoutReader reader,
+                                                    ExtractionRun run, int pageNumber) {
+        if (!reader.findColumns(page)) {
+            return extractPricesFromPage(page, run, pageNumber);
+        }
+
+        List<PriceInfo> priceInfoList = new ArrayList<>();
+        for (int line = reader.getHeaderLine() + 1; line < page.lineCount(); line++) {
+            if (reader.readRow(line)) {
+                priceInfoList.add(createRow(reader, reader.getProductCode(), run, pageNumber));
             }
         }
+        run.candidateLines.add(priceInfoList.size());
+        return priceInfoList;
+    }
 
+    /**
+     * Reads every line of the page by the template's columns. Rows whose code cell does not
+     * have the supplier's code format are skipped; none of the text mode heuristics apply.
+     */
+    private List<PriceInfo> extractPricesWithTemplate(PageLineTextStripper.PageText page, TableLayoutReader reader,
+                                                      CompiledTemplate template, ExtractionRun run,
+                                                      int pageNumber) {
+        reader.useColumns(page, template);
+
+        List<PriceInfo> priceInfoList = new ArrayList<>();
+        int candidateLines = 0;
+        for (int line = 0; line < page.lineCount(); line++) {
+            if (!reader.readRow(line)) {
+                continue;
+            }
+            candidateLines++;
+            String productCode = reader.getProductCode();
+            if (!template.acceptsCode(productCode)) {
+                continue;
+            }
+            PriceInfo priceInfo = createRow(reader, productCode, run, pageNumber);
+            priceInfo.setSupplier(template.getSupplier());
+            priceInfoList.add(priceInfo);
+        }
+        run.candidateLines.add(candidateLines);
         return priceInfoList;
     }
 
-    private String extractCurrency(String text) {
-        Matcher matcher = CURRENCY_PATTERN.matcher(text);
-        if (matcher.find()) {
-            String currency = matcher.group(1);
-            // Convert symbols to currency codes
-            switch (currency) {
-                case "$":
-                    return "USD";
-                case "£":
-                    return "GBP";
-                case "€":
-                    return "EUR";
-                case "¥":
-                    return "JPY";
-                case "₹":
-                    return "INR";
-                default:
-                    return currency;
+    private static PriceInfo createRow(TableLayoutReader reader, String productCode, ExtractionRun run,
+                                       int pageNumber) {
+        PriceInfo priceInfo = new PriceInfo(run.extractedDate);
+        priceInfo.setPrice(reader.getPrice());
+        priceInfo.setCurrency(reader.getCurrency());
+        priceInfo.setProductCode(productCode);
+        priceInfo.setProductName(reader.getProductName());
+        priceInfo.setPdfFileName(run.fileName);
+        priceInfo.setPageNumber(pageNumber);
+        priceInfo.setRawText(reader.getRawText());
+        return priceInfo;
+    }
+
+    /**
+     * Total heap bytes allocated by the parsing stage across all documents, where measurable.
+     */
+    public long getTotalParseAllocatedBytes() {
+        return totalParseAllocatedBytes.sum();
+    }
+
+    /**
+     * Rows produced by the documents counted in {@link #getTotalParseAllocatedBytes()}.
+     */
+    public long getTotalParsedRows() {
+        return totalParsedRows.sum();
+    }
+
+    /**
+     * Per-document state shared by every worker extracting that document.
+     */
+    private static final class ExtractionRun {
+        private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+        private final String fileName;
+        // Supplier template the document matched, or null
+        private final CompiledTemplate template;
+        // One timestamp per document rather than one per row
+        private final LocalDateTime extractedDate = LocalDateTime.now();
+        private final LongAdder parseAllocatedBytes = new LongAdder();
+        private volatile boolean allocationUnknown;
+        // Totals across all workers, published once the document is done
+        private final LongAdder stripNanos = new LongAdder();
+        private final LongAdder parseNanos = new LongAdder();
+        private final LongAdder pages = new LongAdder();
+        private final LongAdder lines = new LongAdder();
+        private final LongAdder candidateLines = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder skippedOperators = new LongAdder();
+        // Time budgets in nanoseconds, 0 for none, and the CPU time charged so far
+        private final long startNanos = System.nanoTime();
+        private final long maxDurationNanos;
+        private final long maxCpuNanos;
+        private final LongAdder cpuNanos = new LongAdder();
+        private volatile boolean cancelled;
+
+        private ExtractionRun(String fileName, CompiledTemplate template) {
+            this(fileName, template, 0, 0);
+        }
+
+        private ExtractionRun(String fileName, CompiledTemplate template, long maxDurationNanos, long maxCpuNanos) {
+            this.fileName = fileName;
+            this.template = template;
+            this.maxDurationNanos = maxDurationNanos;
+            this.maxCpuNanos = maxCpuNanos;
+        }
+
+        /**
+         * CPU time of the current thread, or -1 when the JVM does not measure it.
+         */
+        private static long threadCpuNanos() {
+            return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+        }
+
+        private void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Charges {@code cpuDelta} to the document and stops the calling worker if the document
+         * has been cancelled, its thread interrupted, or a time budget used up.
+         */
+        private void checkBudget(long cpuDelta) throws IOException {
+            if (cancelled) {
+                throw new InterruptedIOException("Extraction of " + fileName + " was cancelled");
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Extraction of " + fileName + " was interrupted");
+            }
+            if (maxDurationNanos > 0 && System.nanoTime() - startNanos > maxDurationNanos) {
+                throw new ExtractionBudgetExceededException("PDF took longer than its time budget of "
+                        + TimeUnit.NANOSECONDS.toMillis(maxDurationNanos) + " ms");
+            }
+            if (cpuDelta > 0) {
+                cpuNanos.add(cpuDelta);
+            }
+            if (maxCpuNanos > 0 && cpuNanos.sum() > maxCpuNanos) {
+                throw new ExtractionBudgetExceededException("PDF used more than its CPU budget of "
+                        + TimeUnit.NANOSECONDS.toMillis(maxCpuNanos) + " ms");
+            }
+        }
+
+        private void recordParseAllocation(long before, long after) {
+            if (before < 0 || after < 0) {
+                allocationUnknown = true;
+            } else {
+                parseAllocatedBytes.add(after - before);
             }
         }
-        return "USD"; // Default currency
+
+        private long getParseAllocatedBytes() {
+            return allocationUnknown ? -1 : parseAllocatedBytes.sum();
+        }
+
+        private void recordPage(int lineCount, int rowCount) {
+            pages.increment();
+            lines.add(lineCount);
+            rows.add(rowCount);
+        }
+
+        private void recordTimes(long strip, long parse) {
+            stripNanos.add(strip);
+            parseNanos.add(parse);
+        }
+
+        private void recordSkippedOperators(long count) {
+            skippedOperators.add(count);
+        }
+
+        private void recordMetrics(ExtractionMetrics metrics, String outcome) {
+            metrics.recordStage(ExtractionMetrics.STAGE_STRIP, outcome, stripNanos.sum());
+            metrics.recordStage(ExtractionMetrics.STAGE_PARSE, outcome, parseNanos.sum());
+            metrics.recordVolumes(outcome, pages.sum(), lines.sum(), candidateLines.sum(), rows.sum());
+            metrics.recordSkippedOperators(outcome, skippedOperators.sum());
+        }
     }
 
-    private String extractProductCode(String text) {
-        Matcher matcher = PRODUCT_CODE_PATTERN.matcher(text);
-        if (matcher.find()) {
-            return matcher.group(1).trim();
+    private static final class PageRows {
+        private final int pageNumber;
+        private final List<PriceInfo> rows;
+
+        private PageRows(int pageNumber, List<PriceInfo> rows) {
+            this.pageNumber = pageNumber;
+            this.rows = rows;
         }
-        return null;
     }
 
-    private String extractProductName(String text) {
-        Matcher matcher = PRODUCT_NAME_PATTERN.matcher(text);
-        if (matcher.find()) {
-            return matcher.group(1).trim();
+    /**
+     * Hands finished chunks from the workers to the caller in chunk order, and keeps workers
+     * at most {@code lookahead} chunks ahead of the last chunk the caller has taken.
+     */
+    private static final class ChunkWindow {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private final List<List<PageRows>> chunks;
+        private final int lookahead;
+        private int taken;
+        private boolean cancelled;
+        private Exception failure;
+
+        private ChunkWindow(int chunkCount, int lookahead) {
+            this.chunks = new ArrayList<>(Collections.nCopies(chunkCount, null));
+            this.lookahead = lookahead;
+        }
+
+        private boolean awaitTurn(int chunk) throws InterruptedException {
+            lock.lock();
+            try {
+                while (!cancelled && failure == null && chunk >= taken + lookahead) {
+                    changed.await();
+                }
+                return !cancelled && failure == null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void complete(int chunk, List<PageRows> pages) {
+            lock.lock();
+            try {
+                chunks.set(chunk, pages);
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void fail(Exception e) {
+            lock.lock();
+            try {
+                if (failure == null) {
+                    failure = e;
+                }
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private List<PageRows> take(int chunk) throws Exception {
+            lock.lock();
+            try {
+                while (chunks.get(chunk) == null) {
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    changed.await();
+                }
+                List<PageRows> pages = chunks.set(chunk, null);
+                taken = chunk + 1;
+                changed.signalAll();
+                return pages;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
         }
-        return null;
     }
 }
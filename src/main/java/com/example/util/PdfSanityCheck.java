@@ -0,0 +1,106 @@
+package com.example.util;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+/**
+ * Cheap structural checks that turn away malformed or pathological PDFs before they are parsed,
+ * so a single bad upload cannot keep a worker busy.
+ */
+final class PdfSanityCheck {
+
+    private static final Logger log = LoggerFactory.getLogger(PdfSanityCheck.class);
+
+    // The header must start within the first KB; the last startxref sits near the end, though some
+    // generators pad the file or append data after %%EOF
+    private static final int HEADER_WINDOW = 1024;
+
+    private static final int TRAILER_WINDOW = 64 * 1024;
+
+    private PdfSanityCheck() {
+    }
+
+    /**
+     * Checks for the {@code %PDF-} header and a {@code startxref} offset near the end of the
+     * file, reading only those two windows. Without the offset PDFBox rebuilds the
+     * cross-reference table by scanning the whole file; PDF readers accept such files, so they
+     * are only logged unless {@code requireStartxref} is set.
+     *
+     * @throws ExtractionLimitException if the header is missing, or the offset is missing and
+     *                                  required
+     */
+    static void checkFile(Path path, boolean requireStartxref) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (!read(channel, 0, HEADER_WINDOW).contains("%PDF-")) {
+                throw new ExtractionLimitException("Not a PDF file: the %PDF- header is missing");
+            }
+            if (!read(channel, Math.max(0, size - TRAILER_WINDOW), TRAILER_WINDOW).contains("startxref")) {
+                if (requireStartxref) {
+                    throw new ExtractionLimitException(
+                            "Malformed PDF: no cross-reference offset at the end of the file");
+                }
+                log.warn("{} has no cross-reference offset in its last {} bytes; it will be scanned to rebuild it",
+                        path.getFileName(), TRAILER_WINDOW);
+            }
+        }
+    }
+
+    /**
+     * Checks the page and object counts of a loaded document; a limit of 0 is not checked.
+     *
+     * @throws ExtractionLimitException if either count is over its limit
+     */
+    static void checkStructure(PDDocument document, int maxPages, int maxObjects) {
+        int pages = document.getNumberOfPages();
+        if (maxPages > 0 && pages > maxPages) {
+            throw new ExtractionLimitException("PDF has " + pages + " pages, more than the limit of " + maxPages);
+        }
+        int objects = document.getDocument().getXrefTable().size();
+        if (maxObjects > 0 && objects > maxObjects) {
+            throw new ExtractionLimitException("PDF has " + objects + " objects, more than the limit of "
+                    + maxObjects);
+        }
+    }
+
+    /**
+     * Checks the encoded size of a page's content streams before they are decoded; a limit of 0
+     * is not checked.
+     *
+     * @throws ExtractionLimitException if the page is over the limit
+     */
+    static void checkPageContent(PDPage page, int pageNumber, long maxBytes) throws IOException {
+        if (maxBytes <= 0) {
+            return;
+        }
+        long bytes = 0;
+        Iterator<PDStream> streams = page.getContentStreams();
+        while (streams.hasNext()) {
+            bytes += streams.next().getCOSObject().getLength();
+        }
+        if (bytes > maxBytes) {
+            throw new ExtractionLimitException("Page " + pageNumber + " has " + bytes
+                    + " bytes of content, more than the limit of " + maxBytes);
+        }
+    }
+
+    private static String read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        int read;
+        do {
+            read = channel.read(buffer, position + buffer.position());
+        } while (read > 0 && buffer.hasRemaining());
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.ISO_8859_1);
+    }
+}
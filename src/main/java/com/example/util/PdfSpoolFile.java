@@ -0,0 +1,125 @@
+package com.example.util;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * An uploaded PDF copied to a temporary file, so it can be parsed through file-backed random
+ * access instead of being read into the heap. The file is deleted on {@link #close()}.
+ * <p>
+ * The content is hashed with SHA-256 while it is copied, so identical uploads can be
+ * recognised without reading the file a second time. The document parsed from the file is
+ * kept open until the file is closed, so counting its pages, fingerprinting it and extracting
+ * it load it only once.
+ */
+public class PdfSpoolFile implements AutoCloseable {
+
+    private static final String PREFIX = "pdf-upload-";
+
+    private static final String SUFFIX = ".pdf";
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private final Path path;
+
+    private final long size;
+
+    private final String sha256;
+
+    private PDDocument document;
+
+    private Closeable documentCloser;
+
+    private PdfSpoolFile(Path path, long size, String sha256) {
+        this.path = path;
+        this.size = size;
+        this.sha256 = sha256;
+    }
+
+    /**
+     * Copies the stream to a new temporary file in {@code directory}, or in the default
+     * temporary directory when {@code directory} is null.
+     */
+    public static PdfSpoolFile spool(InputStream inputStream, Path directory) throws IOException {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("PDF input stream is required");
+        }
+
+        Path path = directory != null
+                ? Files.createTempFile(directory, PREFIX, SUFFIX)
+                : Files.createTempFile(PREFIX, SUFFIX);
+        try {
+            MessageDigest digest = newDigest();
+            long size = Files.copy(new DigestInputStream(inputStream, digest), path,
+                    StandardCopyOption.REPLACE_EXISTING);
+            return new PdfSpoolFile(path, size, HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Lower-case hex SHA-256 of the file content.
+     */
+    public String getSha256() {
+        return sha256;
+    }
+
+    /**
+     * The document {@link PdfPriceExtractor} parsed from this file, or null if it has not been
+     * loaded yet.
+     */
+    PDDocument getDocument() {
+        return document;
+    }
+
+    /**
+     * Keeps {@code document} for later readers of this file; {@code closer} releases it when the
+     * file is closed.
+     */
+    void setDocument(PDDocument document, Closeable closer) {
+        this.document = document;
+        this.documentCloser = closer;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (documentCloser != null) {
+                documentCloser.close();
+            }
+        } finally {
+            document = null;
+            documentCloser = null;
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.util;
+
+import com.example.data.PriceInfo;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stores extracted rows while the extraction goes on. Pages are collected into chunks of
+ * {@code chunkSize} rows, and each full chunk is inserted as one unordered bulk write on
+ * {@code executor}, so parsing the next pages overlaps with the database round trips.
+ * <p>
+ * At most {@code maxInFlight} chunks are written at a time; beyond that {@link #onPage} blocks,
+ * so a slow database holds the extractor back instead of rows piling up in memory. Ids are
+ * assigned before the insert, since bulk inserts do not write generated ids back to the rows.
+ * <p>
+ * One writer serves one extraction and is fed from one thread, in page order.
+ * {@link #finish()} must be called once extraction ends: it writes the last partial chunk,
+ * waits for every write and rethrows the first write failure.
+ */
+public class PriceBulkWriter implements PriceRowSink, AutoCloseable {
+
+    private final MongoTemplate mongoTemplate;
+
+    private final Executor executor;
+
+    private final int chunkSize;
+
+    private final int maxInFlight;
+
+    private final Semaphore inFlight;
+
+    private final ExtractionMetrics metrics;
+
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    private List<PriceInfo> chunk;
+
+    private long writtenRows;
+
+    private boolean finished;
+
+    public PriceBulkWriter(MongoTemplate mongoTemplate, Executor executor, int chunkSize, int maxInFlight,
+                           ExtractionMetrics metrics) {
+        this.mongoTemplate = mongoTemplate;
+        this.executor = executor;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.inFlight = new Semaphore(this.maxInFlight);
+        this.metrics = metrics;
+        this.chunk = new ArrayList<>(this.chunkSize);
+    }
+
+    @Override
+    public void onPage(int pageNumber, List<PriceInfo> rows) throws InterruptedIOException {
+        throwIfFailed();
+        for (PriceInfo row : rows) {
+            if (row.getId() == null) {
+                row.setId(new ObjectId().toHexString());
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                submitChunk();
+            }
+        }
+    }
+
+    /**
+     * Writes the rows still buffered, waits until every chunk is stored and returns the number
+     * of rows written.
+     */
+    public long finish() throws InterruptedIOException {
+        if (!finished) {
+            if (!chunk.isEmpty() && failure.get() == null) {
+                submitChunk();
+            }
+            awaitWrites();
+            finished = true;
+        }
+        throwIfFailed();
+        return writtenRows;
+    }
+
+    /**
+     * Waits for the chunks already submitted without writing the buffered rows, so that a
+     * failed extraction leaves no writes running after it returns.
+     */
+    @Override
+    public void close() throws InterruptedIOException {
+        if (!finished) {
+            chunk.clear();
+            awaitWrites();
+            finished = true;
+        }
+    }
+
+    private void submitChunk() throws InterruptedIOException {
+        List<PriceInfo> rows = chunk;
+        chunk = new ArrayList<>(chunkSize);
+        acquire(1);
+        try {
+            executor.execute(() -> {
+                try {
+                    if (failure.get() == null) {
+                        write(rows);
+                    }
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            throw e;
+        }
+        writtenRows += rows.size();
+    }
+
+    private void write(List<PriceInfo> rows) {
+        // Unordered: the server applies the inserts in any order and does not stop at the first error
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PriceInfo.class);
+        bulk.insert(rows);
+        metrics.timeStage(ExtractionMetrics.STAGE_SAVE, bulk::execute);
+    }
+
+    private void awaitWrites() throws InterruptedIOException {
+        acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+    }
+
+    private void acquire(int permits) throws InterruptedIOException {
+        try {
+            inFlight.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for price rows to be written");
+        }
+    }
+
+    private void throwIfFailed() {
+        RuntimeException e = failure.get();
+        if (e != null) {
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.util;
+
+import com.example.data.PriceInfo;
+import org.bson.types.ObjectId;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a page, handed to clients as an opaque token. Listings are
+ * ordered by {@code _id}, price ranges by price and then {@code _id}, so the cursor holds the
+ * id of the last row and, for price ranges, its price. The next page starts strictly after it,
+ * which an index on the sort keys serves without skipping over earlier rows.
+ */
+public final class PriceCursor {
+
+    // Sorts before every ObjectId, so the first page starts at the beginning
+    private static final String FIRST_ID = "000000000000000000000000";
+
+    private static final PriceCursor FIRST = new PriceCursor(FIRST_ID, null);
+
+    private static final char SEPARATOR = '|';
+
+    private final String id;
+
+    private final BigDecimal price;
+
+    private PriceCursor(String id, BigDecimal price) {
+        this.id = id;
+        this.price = price;
+    }
+
+    /**
+     * The position after {@code row}, keeping its price when pages are ordered by price.
+     */
+    public static PriceCursor after(PriceInfo row, boolean byPrice) {
+        return new PriceCursor(row.getId(), byPrice ? row.getPrice() : null);
+    }
+
+    /**
+     * Reads a token from {@link #encode()}; a missing token is the start of the listing.
+     *
+     * @throws IllegalArgumentException if the token was not produced by this class
+     */
+    public static PriceCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return FIRST;
+        }
+        String id;
+        BigDecimal price;
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            id = separator < 0 ? value : value.substring(0, separator);
+            price = separator < 0 ? null : new BigDecimal(value.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            // Malformed Base64, or a NumberFormatException for the price
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+        if (!ObjectId.isValid(id)) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+        return new PriceCursor(id, price);
+    }
+
+    public String encode() {
+        String value = price != null ? id + SEPARATOR + price.toPlainString() : id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Id of the last row of the previous page; rows with a greater id come next.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Price of the last row of the previous page, or {@code null} outside price ranges and on
+     * the first page.
+     */
+    public BigDecimal getPrice() {
+        return price;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.util;
+
+import com.example.data.PriceInfo;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * Converts {@code price} values written as strings, before prices were stored as Decimal128,
+ * to Decimal128 in place. String prices compare as text and are skipped by numeric range
+ * queries, so older rows would otherwise be missing from {@code /search/price-range}.
+ * <p>
+ * Runs once the application is ready, on a background thread, as a single server-side update
+ * that only matches string prices; running it again after it finished changes nothing.
+ */
+@Component
+public class PriceDecimalMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceDecimalMigration.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Convert string prices left by earlier versions once the application is ready
+    @Value("${mongo.migrations.price-decimal128:true}")
+    private boolean enabled = true;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            Thread.ofPlatform().name("price-decimal-migration").daemon(true).start(() -> {
+                try {
+                    migrate();
+                } catch (RuntimeException e) {
+                    log.warn("Could not convert string prices to Decimal128: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Rewrites every string price as Decimal128 and returns the number of rows changed. Strings
+     * that do not parse as a number, such as {@code "N/A"} or {@code "1,299.00"}, are left as
+     * they are instead of failing the whole update, and their count is logged.
+     */
+    long migrate() {
+        Query stringPrices = new Query(Criteria.where("price").type(BsonType.STRING.getValue()));
+        AggregationUpdate toDecimal = AggregationUpdate.update()
+                .set("price").toValue(ConvertOperators.valueOf("price").convertTo("decimal")
+                        .onErrorReturnValueOf("price"));
+        UpdateResult result = mongoTemplate.updateMulti(stringPrices, toDecimal, PriceInfo.class);
+        if (result.getModifiedCount() > 0) {
+            log.info("Converted {} string prices to Decimal128", result.getModifiedCount());
+        }
+        long unconverted = mongoTemplate.count(stringPrices, PriceInfo.class);
+        if (unconverted > 0) {
+            log.warn("Left {} string prices that are not numbers unconverted", unconverted);
+        }
+        return result.getModifiedCount();
+    }
+}
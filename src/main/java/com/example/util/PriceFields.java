@@ -0,0 +1,105 @@
+package com.example.util;
+
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The fields of a price row a response should carry, such as {@code productName,price}. The
+ * id is always included, since clients need it to address a row. By default every field but
+ * {@code rawText} is returned; the raw line is only needed when checking an extraction and is
+ * usually the largest field of a row.
+ */
+public final class PriceFields {
+
+    // Every field of PriceInfo that can be asked for
+    private static final List<String> NAMES = List.of("id", "productName", "productCode", "price", "currency",
+            "description", "category", "supplier", "extractedDate", "pdfFileName", "pageNumber", "rawText",
+            "sourceHash");
+
+    public static final PriceFields ALL = new PriceFields(new LinkedHashSet<>(NAMES));
+
+    public static final PriceFields DEFAULT = ALL.without("rawText");
+
+    private final Set<String> names;
+
+    private PriceFields(Set<String> names) {
+        this.names = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Parses a comma-separated list of field names; a null or blank value means {@link #DEFAULT}.
+     *
+     * @throws IllegalArgumentException if a name is not a field of a price row
+     */
+    public static PriceFields parse(String value) {
+        if (value == null || value.isBlank()) {
+            return DEFAULT;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        names.add("id");
+        for (String name : value.split(",")) {
+            String field = name.trim();
+            if (field.isEmpty()) {
+                continue;
+            }
+            if (!NAMES.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field + ", expected some of " + NAMES);
+            }
+            names.add(field);
+        }
+        return new PriceFields(names);
+    }
+
+    public boolean contains(String name) {
+        return names.contains(name);
+    }
+
+    public Set<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Has MongoDB return only these fields for {@code query}, plus {@code required} ones the
+     * caller needs itself, such as the sort key of a page.
+     */
+    public Query applyTo(Query query, String... required) {
+        for (String name : names) {
+            query.fields().include(name);
+        }
+        for (String name : required) {
+            query.fields().include(name);
+        }
+        return query;
+    }
+
+    private PriceFields without(String name) {
+        Set<String> remaining = new LinkedHashSet<>(names);
+        remaining.remove(name);
+        return new PriceFields(remaining);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PriceFields)) {
+            return false;
+        }
+        return names.equals(((PriceFields) o).names);
+    }
+
+    @Override
+    public int hashCode() {
+        return names.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", names);
+    }
+}
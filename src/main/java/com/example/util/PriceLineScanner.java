@@ -0,0 +1,353 @@
+package com.example.util;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Hand-written scanner that classifies a line in one left-to-right pass, reporting every
+ * price span together with the line's currency, product code and product name.
+ * <p>
+ * It reproduces what the former {@code PRICE_PATTERN}, {@code CURRENCY_PATTERN},
+ * {@code PRODUCT_CODE_PATTERN} and {@code PRODUCT_NAME_PATTERN} regexes found, but without
+ * backtracking: every character is examined a bounded number of times. An instance keeps the
+ * result of its last {@link #scan(CharSequence, int, int)}, so the caller can hold on to the
+ * previous line's scanner instead of scanning that line again.
+ * <p>
+ * Scanning allocates nothing: the line is a range of a shared buffer, prices are accumulated
+ * into an unscaled {@code long} and a scale, and the code and name are kept as offsets until
+ * a caller asks for them.
+ */
+final class PriceLineScanner {
+
+    private static final String DEFAULT_CURRENCY = "USD";
+
+    private static final String[] CURRENCY_CODES = {"USD", "EUR", "GBP", "JPY", "INR"};
+
+    private static final String[] CODE_KEYWORDS = {"sku", "code", "item", "product"};
+
+    private static final String[] NAME_KEYWORDS = {"product", "item", "name"};
+
+    // More digits than this may not fit an unscaled long; such prices are parsed as BigDecimal
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private CharSequence text;
+
+    private int priceCount;
+
+    private int[] priceStarts = new int[8];
+
+    private int[] priceEnds = new int[8];
+
+    private long[] priceUnscaled = new long[8];
+
+    private int[] priceScales = new int[8];
+
+    private String currency;
+
+    private boolean currencyFound;
+
+    private int codeStart;
+
+    private int codeEnd;
+
+    private String productCode;
+
+    private int nameStart;
+
+    private int nameEnd;
+
+    private String productName;
+
+    /**
+     * Scans {@code text} from {@code from} (inclusive) to {@code to} (exclusive).
+     */
+    void scan(CharSequence text, int from, int to) {
+        this.text = text;
+        priceCount = 0;
+        currency = null;
+        codeStart = -1;
+        productCode = null;
+        nameStart = -1;
+        productName = null;
+
+        boolean codeDone = false;
+        boolean nameDone = false;
+        int priceResume = from;
+
+        for (int i = from; i < to; i++) {
+            if (currency == null) {
+                currency = matchCurrency(text, i, to);
+            }
+            if (!codeDone) {
+                codeDone = matchProductCode(text, i, to);
+            }
+            if (!nameDone) {
+                nameDone = matchProductName(text, i, to);
+            }
+            if (i >= priceResume && isDigit(text.charAt(i))) {
+                priceResume = matchPrice(text, i, to);
+            }
+        }
+
+        currencyFound = currency != null;
+        if (currency == null) {
+            currency = DEFAULT_CURRENCY;
+        }
+    }
+
+    void scan(CharSequence line) {
+        scan(line, 0, line.length());
+    }
+
+    int getPriceCount() {
+        return priceCount;
+    }
+
+    /**
+     * Returns the value of price {@code index}, with thousands separators removed.
+     */
+    BigDecimal getPrice(int index) {
+        if (priceScales[index] >= 0) {
+            return BigDecimal.valueOf(priceUnscaled[index], priceScales[index]);
+        }
+
+        int start = priceStarts[index];
+        int end = priceEnds[index];
+        char[] digits = new char[end - start];
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c != ',') {
+                digits[count++] = c;
+            }
+        }
+        return new BigDecimal(digits, 0, count);
+    }
+
+    String getCurrency() {
+        return currency;
+    }
+
+    /**
+     * Whether the line named its currency, rather than {@link #getCurrency()} falling back to USD.
+     */
+    boolean isCurrencyFound() {
+        return currencyFound;
+    }
+
+    String getProductCode() {
+        if (productCode == null && codeStart >= 0) {
+            productCode = text.subSequence(codeStart, codeEnd).toString();
+        }
+        return productCode;
+    }
+
+    String getProductName() {
+        if (productName == null && nameStart >= 0) {
+            productName = nameStart == nameEnd ? "" : text.subSequence(nameStart, nameEnd).toString();
+        }
+        return productName;
+    }
+
+    // [0-9]{1,3}(?:,?[0-9]{3})*(?:\.[0-9]{2})? taken greedily; the optional currency prefix
+    // never changes which digits match, so it is not consumed here
+    private int matchPrice(CharSequence text, int start, int limit) {
+        long unscaled = 0;
+        int digits = 0;
+        int end = start;
+        while (end < limit && end - start < 3 && isDigit(text.charAt(end))) {
+            unscaled = unscaled * 10 + (text.charAt(end) - '0');
+            digits++;
+            end++;
+        }
+
+        while (true) {
+            int next = end;
+            if (next < limit && text.charAt(next) == ',') {
+                next++;
+            }
+            if (next + 3 <= limit && isDigit(text.charAt(next))
+                    && isDigit(text.charAt(next + 1)) && isDigit(text.charAt(next + 2))) {
+                for (int k = next; k < next + 3; k++) {
+                    unscaled = unscaled * 10 + (text.charAt(k) - '0');
+                }
+                digits += 3;
+                end = next + 3;
+            } else {
+                break;
+            }
+        }
+
+        int scale = 0;
+        if (end + 2 < limit && text.charAt(end) == '.'
+                && isDigit(text.charAt(end + 1)) && isDigit(text.charAt(end + 2))) {
+            unscaled = unscaled * 100 + (text.charAt(end + 1) - '0') * 10 + (text.charAt(end + 2) - '0');
+            digits += 2;
+            scale = 2;
+            end += 3;
+        }
+
+        addPrice(start, end, unscaled, digits > MAX_LONG_DIGITS ? -1 : scale);
+        return end;
+    }
+
+    private void addPrice(int start, int end, long unscaled, int scale) {
+        if (priceCount == priceStarts.length) {
+            int capacity = priceCount * 2;
+            priceStarts = Arrays.copyOf(priceStarts, capacity);
+            priceEnds = Arrays.copyOf(priceEnds, capacity);
+            priceUnscaled = Arrays.copyOf(priceUnscaled, capacity);
+            priceScales = Arrays.copyOf(priceScales, capacity);
+        }
+        priceStarts[priceCount] = start;
+        priceEnds[priceCount] = end;
+        priceUnscaled[priceCount] = unscaled;
+        priceScales[priceCount] = scale;
+        priceCount++;
+    }
+
+    private static String matchCurrency(CharSequence text, int i, int limit) {
+        switch (text.charAt(i)) {
+            case '$':
+                return "USD";
+            case '£':
+                return "GBP";
+            case '€':
+                return "EUR";
+            case '¥':
+                return "JPY";
+            case '₹':
+                return "INR";
+            default:
+                break;
+        }
+        for (String code : CURRENCY_CODES) {
+            if (regionMatches(text, i, limit, code, false)) {
+                return code;
+            }
+        }
+        return null;
+    }
+
+    // (?:SKU|Code|Item|Product\s*#?)\s*:?\s*([A-Z0-9-]+), case-insensitive
+    private boolean matchProductCode(CharSequence text, int i, int limit) {
+        String keyword = matchKeyword(text, i, limit, CODE_KEYWORDS);
+        if (keyword == null) {
+            return false;
+        }
+
+        int j = i + keyword.length();
+        if ("product".equals(keyword)) {
+            j = skipWhitespace(text, j, limit);
+            if (j < limit && text.charAt(j) == '#') {
+                j++;
+            }
+        }
+        j = skipWhitespace(text, j, limit);
+        if (j < limit && text.charAt(j) == ':') {
+            j++;
+        }
+        j = skipWhitespace(text, j, limit);
+
+        int start = j;
+        while (j < limit && isCodeChar(text.charAt(j))) {
+            j++;
+        }
+        if (j == start) {
+            return false;
+        }
+        codeStart = start;
+        codeEnd = j;
+        return true;
+    }
+
+    // (?:Product|Item|Name)\s*:?\s*([A-Za-z0-9\s\-]+), case-insensitive, group trimmed
+    private boolean matchProductName(CharSequence text, int i, int limit) {
+        String keyword = matchKeyword(text, i, limit, NAME_KEYWORDS);
+        if (keyword == null) {
+            return false;
+        }
+
+        int afterKeyword = i + keyword.length();
+        int colon = skipWhitespace(text, afterKeyword, limit);
+        int start = colon;
+        if (colon < limit && text.charAt(colon) == ':') {
+            start = skipWhitespace(text, colon + 1, limit);
+        }
+
+        if (start < limit && isNameChar(text.charAt(start))) {
+            int end = start;
+            while (end < limit && isNameChar(text.charAt(end))) {
+                end++;
+            }
+            while (end > start && isWhitespace(text.charAt(end - 1))) {
+                end--;
+            }
+            nameStart = start;
+            nameEnd = end;
+            return true;
+        }
+
+        // The regex backtracks into the skipped whitespace, capturing a single blank character
+        if (colon > afterKeyword || start > colon + 1) {
+            nameStart = start;
+            nameEnd = start;
+            return true;
+        }
+        return false;
+    }
+
+    private static String matchKeyword(CharSequence text, int i, int limit, String[] keywords) {
+        for (String keyword : keywords) {
+            if (regionMatches(text, i, limit, keyword, true)) {
+                return keyword;
+            }
+        }
+        return null;
+    }
+
+    private static boolean regionMatches(CharSequence text, int offset, int limit, String word,
+                                         boolean ignoreCase) {
+        if (offset + word.length() > limit) {
+            return false;
+        }
+        for (int k = 0; k < word.length(); k++) {
+            char c = text.charAt(offset + k);
+            if (ignoreCase && c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (c != word.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipWhitespace(CharSequence text, int i, int limit) {
+        while (i < limit && isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    // Matches java.util.regex \s: [ \t\n\x0B\f\r]
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isCodeChar(char c) {
+        return isLetter(c) || isDigit(c) || c == '-';
+    }
+
+    private static boolean isNameChar(char c) {
+        return isCodeChar(c) || isWhitespace(c);
+    }
+}
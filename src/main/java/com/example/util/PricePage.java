@@ -0,0 +1,31 @@
+package com.example.util;
+
+import com.example.data.PriceInfo;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing, with the cursor that continues after its last row.
+ */
+public class PricePage {
+
+    private final List<PriceInfo> items;
+
+    private final String nextCursor;
+
+    public PricePage(List<PriceInfo> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<PriceInfo> getItems() {
+        return items;
+    }
+
+    /**
+     * Cursor for the next page, or {@code null} on the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.util;
+
+import com.example.data.PriceInfo;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives extracted rows one page at a time, in page order.
+ */
+@FunctionalInterface
+public interface PriceRowSink {
+
+    void onPage(int pageNumber, List<PriceInfo> rows) throws IOException;
+}
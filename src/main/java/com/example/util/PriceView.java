@@ -0,0 +1,115 @@
+package com.example.util;
+
+import com.example.data.PriceInfo;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A price row as returned by the listing, search and upload endpoints, carrying only the
+ * fields a request asked for. Fields that were not asked for, or have no value, are left out
+ * of the JSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PriceView {
+
+    private String id;
+
+    private String productName;
+
+    private String productCode;
+
+    private BigDecimal price;
+
+    private String currency;
+
+    private String description;
+
+    private String category;
+
+    private String supplier;
+
+    private LocalDateTime extractedDate;
+
+    private String pdfFileName;
+
+    private Integer pageNumber;
+
+    private String rawText;
+
+    private String sourceHash;
+
+    /**
+     * Copies the {@code fields} of {@code row}.
+     */
+    public static PriceView of(PriceInfo row, PriceFields fields) {
+        PriceView view = new PriceView();
+        view.id = fields.contains("id") ? row.getId() : null;
+        view.productName = fields.contains("productName") ? row.getProductName() : null;
+        view.productCode = fields.contains("productCode") ? row.getProductCode() : null;
+        view.price = fields.contains("price") ? row.getPrice() : null;
+        view.currency = fields.contains("currency") ? row.getCurrency() : null;
+        view.description = fields.contains("description") ? row.getDescription() : null;
+        view.category = fields.contains("category") ? row.getCategory() : null;
+        view.supplier = fields.contains("supplier") ? row.getSupplier() : null;
+        view.extractedDate = fields.contains("extractedDate") ? row.getExtractedDate() : null;
+        view.pdfFileName = fields.contains("pdfFileName") ? row.getPdfFileName() : null;
+        view.pageNumber = fields.contains("pageNumber") ? row.getPageNumber() : null;
+        view.rawText = fields.contains("rawText") ? row.getRawText() : null;
+        view.sourceHash = fields.contains("sourceHash") ? row.getSourceHash() : null;
+        return view;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public String getProductCode() {
+        return productCode;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getSupplier() {
+        return supplier;
+    }
+
+    public LocalDateTime getExtractedDate() {
+        return extractedDate;
+    }
+
+    public String getPdfFileName() {
+        return pdfFileName;
+    }
+
+    public Integer getPageNumber() {
+        return pageNumber;
+    }
+
+    public String getRawText() {
+        return rawText;
+    }
+
+    public String getSourceHash() {
+        return sourceHash;
+    }
+}
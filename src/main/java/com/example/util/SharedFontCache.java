@@ -0,0 +1,271 @@
+package com.example.util;
+
+import io.micrometer.core.instrument.Counter;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNull;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDFontFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fonts kept from one document to the next, so the embedded fonts of a supplier's template are
+ * parsed once per worker instead of once per upload. Fonts are keyed by a digest of their whole
+ * dictionary, font program included, since object numbers only identify them within one file.
+ * <p>
+ * A PDFBox font reads parts of its dictionary lazily, and nothing can be read from a document once
+ * it is closed, so a shared font is built from an in-memory copy of the dictionary rather than the
+ * document's own. Type 3 fonts draw their glyphs with the document's resources and are not shared.
+ * <p>
+ * Fonts are not thread-safe, so a cache serves one open document at a time: documents take one
+ * from a {@link Pool} when loaded and give it back when closed. Each cache is bounded by the bytes
+ * of font streams it holds.
+ */
+final class SharedFontCache {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    // Fonts are compared this deep at most; anything nested further is left to the document
+    private static final int MAX_DEPTH = 16;
+
+    // Charged on top of a font's streams for its parsed objects, so unembedded fonts count too
+    private static final long FONT_OVERHEAD_BYTES = 1024;
+
+    private final long maxBytes;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Map<String, CachedFont> fonts = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytes;
+
+    SharedFontCache(long maxBytes, ExtractionMetrics metrics) {
+        this.maxBytes = maxBytes;
+        this.hits = metrics.resourceCacheCounter(BoundedResourceCache.TYPE_SHARED_FONT, true);
+        this.misses = metrics.resourceCacheCounter(BoundedResourceCache.TYPE_SHARED_FONT, false);
+    }
+
+    int size() {
+        return fonts.size();
+    }
+
+    long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * The shared font with the same content as {@code dictionary}, built from a copy of it the
+     * first time. Returns null for fonts that are not shared, larger than the whole cache or
+     * that cannot be read, which PDFBox then loads from the document as usual.
+     */
+    PDFont get(COSDictionary dictionary) {
+        if (COSName.TYPE3.equals(dictionary.getCOSName(COSName.SUBTYPE))) {
+            return null;
+        }
+        try {
+            long[] streamBytes = new long[1];
+            MessageDigest digest = newDigest();
+            if (!update(digest, dictionary, streamBytes, Collections.newSetFromMap(new IdentityHashMap<>()), 0)) {
+                return null;
+            }
+            String key = HexFormat.of().formatHex(digest.digest());
+            CachedFont cached = fonts.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached.font;
+            }
+            misses.increment();
+
+            long weight = streamBytes[0] + FONT_OVERHEAD_BYTES;
+            if (weight > maxBytes) {
+                return null;
+            }
+            PDFont font = PDFontFactory.createFont((COSDictionary) copy(dictionary, new IdentityHashMap<>()));
+            fonts.put(key, new CachedFont(font, weight));
+            bytes += weight;
+            Iterator<CachedFont> eldest = fonts.values().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().weight;
+                eldest.remove();
+            }
+            return font;
+        } catch (IOException | RuntimeException e) {
+            // PDFBox reads the font from the document instead and reports what is wrong with it
+            return null;
+        }
+    }
+
+    /**
+     * Adds {@code base} to the digest, with the raw bytes of every stream it reaches, and
+     * returns false if it is nested too deeply to be compared.
+     */
+    private static boolean update(MessageDigest digest, COSBase base, long[] streamBytes, Set<COSBase> seen, int depth)
+            throws IOException {
+        if (base instanceof COSObject) {
+            base = ((COSObject) base).getObject();
+        }
+        if (depth > MAX_DEPTH) {
+            return false;
+        }
+        if (base instanceof COSDictionary) {
+            if (!seen.add(base)) {
+                update(digest, "^");
+                return true;
+            }
+            COSDictionary dictionary = (COSDictionary) base;
+            List<COSName> keys = new ArrayList<>(dictionary.keySet());
+            keys.sort(Comparator.comparing(COSName::getName));
+            update(digest, "<<");
+            for (COSName key : keys) {
+                update(digest, "/" + key.getName() + " ");
+                if (!update(digest, dictionary.getItem(key), streamBytes, seen, depth + 1)) {
+                    return false;
+                }
+            }
+            update(digest, ">>");
+            if (base instanceof COSStream) {
+                try (InputStream in = ((COSStream) base).createRawInputStream()) {
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                        streamBytes[0] += read;
+                    }
+                }
+            }
+        } else if (base instanceof COSArray) {
+            update(digest, "[");
+            for (COSBase item : (COSArray) base) {
+                if (!update(digest, item, streamBytes, seen, depth + 1)) {
+                    return false;
+                }
+            }
+            update(digest, "]");
+        } else if (base instanceof COSString) {
+            byte[] value = ((COSString) base).getBytes();
+            update(digest, "(" + value.length + ":");
+            digest.update(value);
+        } else {
+            // Names, numbers, booleans and null print their value
+            update(digest, String.valueOf(base) + " ");
+        }
+        return true;
+    }
+
+    /**
+     * Copies {@code base} and everything it refers to into memory, resolving indirect objects,
+     * so the copy no longer reads from its document.
+     */
+    private static COSBase copy(COSBase base, Map<COSBase, COSBase> copies) throws IOException {
+        if (base instanceof COSObject) {
+            base = ((COSObject) base).getObject();
+        }
+        if (!(base instanceof COSDictionary) && !(base instanceof COSArray)) {
+            // Names, strings, numbers and booleans hold their value directly
+            return base != null ? base : COSNull.NULL;
+        }
+        COSBase existing = copies.get(base);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (base instanceof COSArray) {
+            COSArray array = new COSArray();
+            copies.put(base, array);
+            for (COSBase item : (COSArray) base) {
+                array.add(copy(item, copies));
+            }
+            return array;
+        }
+
+        COSDictionary dictionary = base instanceof COSStream ? new COSStream() : new COSDictionary();
+        copies.put(base, dictionary);
+        for (Map.Entry<COSName, COSBase> entry : ((COSDictionary) base).entrySet()) {
+            // A stream's length is set again when its data is written
+            if (!(base instanceof COSStream && COSName.LENGTH.equals(entry.getKey()))) {
+                dictionary.setItem(entry.getKey(), copy(entry.getValue(), copies));
+            }
+        }
+        if (base instanceof COSStream) {
+            try (InputStream in = ((COSStream) base).createRawInputStream();
+                 OutputStream out = ((COSStream) dictionary).createRawOutputStream()) {
+                in.transferTo(out);
+            }
+        }
+        return dictionary;
+    }
+
+    private static void update(MessageDigest digest, String text) {
+        digest.update(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", e);
+        }
+    }
+
+    private static final class CachedFont {
+
+        private final PDFont font;
+
+        private final long weight;
+
+        private CachedFont(PDFont font, long weight) {
+            this.font = font;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * The caches of all documents open at once. A document takes a free cache when it is loaded
+     * and gives it back when it is closed, so consecutive documents share fonts while concurrent
+     * ones never use the same cache.
+     */
+    static final class Pool {
+
+        private final long maxBytes;
+
+        private final ExtractionMetrics metrics;
+
+        private final List<SharedFontCache> free = new ArrayList<>();
+
+        Pool(long maxBytes, ExtractionMetrics metrics) {
+            this.maxBytes = maxBytes;
+            this.metrics = metrics;
+        }
+
+        synchronized SharedFontCache take() {
+            return free.isEmpty() ? new SharedFontCache(maxBytes, metrics) : free.remove(free.size() - 1);
+        }
+
+        synchronized void release(SharedFontCache cache) {
+            free.add(cache);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.util;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Reads price rows from a page laid out as a table, using where words sit on the page rather
+ * than what the surrounding text looks like.
+ * <p>
+ * {@link #findColumns(PageLineTextStripper.PageText)} looks for the table's header row once
+ * per page: a line without digits whose cells name a price column and a code or name column.
+ * The header cells become column bands, split half-way between neighbouring cells.
+ * {@link #readRow(int)} then puts each word of a line into the band under which it is centred,
+ * and only the price cell is parsed. {@link #useColumns(PageLineTextStripper.PageText, CompiledTemplate)}
+ * takes the columns from a supplier template instead of a header. Like {@link PriceLineScanner}, cells are kept as offsets
+ * into the page buffer until a caller asks for them.
+ */
+final class TableLayoutReader {
+
+    static final int MAX_COLUMNS = 16;
+
+    // A gap wider than this many average character widths separates two header cells
+    private static final float CELL_GAP_CHARS = 1.5f;
+
+    // Checked in this order, so that "Product Code" is a code column and "Item Price" a price
+    private static final String[] CODE_LABELS = {"sku", "code", "part", "item #", "item no"};
+
+    private static final String[] PRICE_LABELS = {"price", "cost", "amount", "msrp"};
+
+    private static final String[] NAME_LABELS = {"name", "description", "product", "item", "article"};
+
+    private final PriceLineScanner priceScanner = new PriceLineScanner();
+
+    private final int[] cellStarts = new int[MAX_COLUMNS];
+
+    private final int[] cellEnds = new int[MAX_COLUMNS];
+
+    private final float[] cellXs = new float[MAX_COLUMNS];
+
+    private final float[] cellEndXs = new float[MAX_COLUMNS];
+
+    // Right edge of each column band but the last
+    private final float[] columnBounds = new float[MAX_COLUMNS];
+
+    private PageLineTextStripper.PageText page;
+
+    private int[] lineFirstWord = new int[64];
+
+    private int columnCount;
+
+    private int headerLine;
+
+    private int priceColumn;
+
+    private int codeColumn;
+
+    private int nameColumn;
+
+    private String headerCurrency;
+
+    private int rowStart;
+
+    private int rowEnd;
+
+    /**
+     * Looks for a table header on the page. Returns false if there is none, in which case the
+     * page cannot be read by layout.
+     */
+    boolean findColumns(PageLineTextStripper.PageText page) {
+        this.page = page;
+        indexWordsByLine();
+        for (int line = 0; line < page.lineCount(); line++) {
+            if (isHeader(line)) {
+                headerLine = line;
+                return true;
+            }
+        }
+        headerLine = -1;
+        return false;
+    }
+
+    /**
+     * Takes the columns from a supplier template; every line of the page is then a candidate
+     * row and {@link #getHeaderLine()} is -1.
+     */
+    void useColumns(PageLineTextStripper.PageText page, CompiledTemplate template) {
+        this.page = page;
+        indexWordsByLine();
+        float[] bounds = template.getColumnBounds();
+        System.arraycopy(bounds, 0, columnBounds, 0, bounds.length);
+        columnCount = bounds.length + 1;
+        priceColumn = template.getPriceColumn();
+        codeColumn = template.getCodeColumn();
+        nameColumn = template.getNameColumn();
+        headerCurrency = template.getCurrency();
+        headerLine = -1;
+    }
+
+    /**
+     * The line holding the table header; rows are read from the lines after it.
+     */
+    int getHeaderLine() {
+        return headerLine;
+    }
+
+    /**
+     * Splits {@code line} into cells. Returns true if its price cell holds a price.
+     */
+    boolean readRow(int line) {
+        int first = lineFirstWord[line];
+        int last = lineFirstWord[line + 1];
+        if (first == last) {
+            return false;
+        }
+
+        Arrays.fill(cellStarts, 0, columnCount, -1);
+        for (int w = first; w < last; w++) {
+            float center = (page.wordX(w) + page.wordEndX(w)) / 2;
+            int column = 0;
+            while (column < columnCount - 1 && center >= columnBounds[column]) {
+                column++;
+            }
+            if (cellStarts[column] < 0) {
+                cellStarts[column] = page.wordStart(w);
+            }
+            cellEnds[column] = page.wordEnd(w);
+        }
+
+        if (cellStarts[priceColumn] < 0) {
+            return false;
+        }
+        priceScanner.scan(page, cellStarts[priceColumn], cellEnds[priceColumn]);
+        if (priceScanner.getPriceCount() == 0) {
+            return false;
+        }
+
+        rowStart = page.wordStart(first);
+        rowEnd = page.wordEnd(last - 1);
+        return true;
+    }
+
+    BigDecimal getPrice() {
+        return priceScanner.getPrice(0);
+    }
+
+    /**
+     * The currency named in the price cell, else in the price column's header (or the
+     * template), else USD.
+     */
+    String getCurrency() {
+        if (!priceScanner.isCurrencyFound() && headerCurrency != null) {
+            return headerCurrency;
+        }
+        return priceScanner.getCurrency();
+    }
+
+    String getProductCode() {
+        return cellText(codeColumn);
+    }
+
+    String getProductName() {
+        return cellText(nameColumn);
+    }
+
+    String getRawText() {
+        return page.subSequence(rowStart, rowEnd).toString();
+    }
+
+    private String cellText(int column) {
+        if (column < 0 || cellStarts[column] < 0) {
+            return null;
+        }
+        return page.subSequence(cellStarts[column], cellEnds[column]).toString();
+    }
+
+    // Words are recorded in line order, so each line's words are one contiguous range
+    private void indexWordsByLine() {
+        int lineCount = page.lineCount();
+        if (lineFirstWord.length < lineCount + 1) {
+            lineFirstWord = new int[Math.max(lineCount + 1, lineFirstWord.length * 2)];
+        }
+        int word = 0;
+        for (int line = 0; line <= lineCount; line++) {
+            while (word < page.wordCount() && page.wordLine(word) < line) {
+                word++;
+            }
+            lineFirstWord[line] = word;
+        }
+    }
+
+    private boolean isHeader(int line) {
+        int first = lineFirstWord[line];
+        int last = lineFirstWord[line + 1];
+        if (last - first < 2) {
+            return false;
+        }
+
+        float width = 0;
+        int chars = 0;
+        for (int w = first; w < last; w++) {
+            for (int i = page.wordStart(w); i < page.wordEnd(w); i++) {
+                // Header labels do not contain figures; rows that do are data
+                if (page.charAt(i) >= '0' && page.charAt(i) <= '9') {
+                    return false;
+                }
+            }
+            width += page.wordEndX(w) - page.wordX(w);
+            chars += page.wordEnd(w) - page.wordStart(w);
+        }
+        float gap = chars == 0 ? 0 : CELL_GAP_CHARS * width / chars;
+
+        // Group the words into cells, split wherever the gap between two words is wide
+        columnCount = 0;
+        int cellFirst = first;
+        for (int w = first + 1; w <= last; w++) {
+            if (w == last || page.wordX(w) - page.wordEndX(w - 1) > gap) {
+                if (columnCount == MAX_COLUMNS) {
+                    return false;
+                }
+                cellStarts[columnCount] = page.wordStart(cellFirst);
+                cellEnds[columnCount] = page.wordEnd(w - 1);
+                cellXs[columnCount] = page.wordX(cellFirst);
+                cellEndXs[columnCount] = page.wordEndX(w - 1);
+                columnCount++;
+                cellFirst = w;
+            }
+        }
+
+        priceColumn = -1;
+        codeColumn = -1;
+        nameColumn = -1;
+        for (int c = 0; c < columnCount; c++) {
+            if (codeColumn < 0 && containsLabel(cellStarts[c], cellEnds[c], CODE_LABELS)) {
+                codeColumn = c;
+            } else if (priceColumn < 0 && containsLabel(cellStarts[c], cellEnds[c], PRICE_LABELS)) {
+                priceColumn = c;
+            } else if (nameColumn < 0 && containsLabel(cellStarts[c], cellEnds[c], NAME_LABELS)) {
+                nameColumn = c;
+            }
+        }
+        if (priceColumn < 0 || (codeColumn < 0 && nameColumn < 0)) {
+            return false;
+        }
+
+        for (int c = 0; c < columnCount - 1; c++) {
+            columnBounds[c] = (cellEndXs[c] + cellXs[c + 1]) / 2;
+        }
+
+        // A header such as "Price (EUR)" sets the currency for cells that only hold a number
+        priceScanner.scan(page, cellStarts[priceColumn], cellEnds[priceColumn]);
+        headerCurrency = priceScanner.isCurrencyFound() ? priceScanner.getCurrency() : null;
+        return true;
+    }
+
+    private boolean containsLabel(int start, int end, String[] labels) {
+        for (String label : labels) {
+            for (int i = start; i + label.length() <= end; i++) {
+                if (matchesIgnoreCase(i, label)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesIgnoreCase(int offset, String label) {
+        for (int k = 0; k < label.length(); k++) {
+            if (Character.toLowerCase(page.charAt(offset + k)) != label.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
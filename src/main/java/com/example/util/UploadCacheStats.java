@@ -0,0 +1,33 @@
+package com.example.util;
+
+/**
+ * Counts of uploads answered from a previous extraction of the same content (hits) and
+ * uploads that had to be parsed (misses).
+ */
+public class UploadCacheStats {
+
+    private final long hits;
+
+    private final long misses;
+
+    public UploadCacheStats(long hits, long misses) {
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Fraction of uploads that were hits, or 0 before any upload.
+     */
+    public double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
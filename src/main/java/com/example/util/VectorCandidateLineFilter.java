@@ -0,0 +1,36 @@
+package com.example.util;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link CandidateLineFilter} that tests a whole vector of characters per step: subtracting
+ * {@code '0'} maps the digits onto 0..9, so a single unsigned compare against 10 finds them.
+ * <p>
+ * Only referenced through {@link CandidateLineFilter#select(boolean, boolean)}, which loads it
+ * when the {@code jdk.incubator.vector} module is present.
+ */
+final class VectorCandidateLineFilter implements CandidateLineFilter {
+
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+    @Override
+    public boolean mayContainPrice(char[] chars, int from, int to) {
+        int i = from;
+        int upperBound = from + SPECIES.loopBound(to - from);
+        for (; i < upperBound; i += SPECIES.length()) {
+            ShortVector v = ShortVector.fromCharArray(SPECIES, chars, i);
+            if (v.sub((short) '0').compare(VectorOperators.UNSIGNED_LT, (short) 10).anyTrue()) {
+                return true;
+            }
+        }
+        // Lines shorter than a vector, and the tail of longer ones
+        return CandidateLineFilter.containsDigit(chars, i, to);
+    }
+
+    @Override
+    public String name() {
+        return "vector";
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.config;
+
+import com.example.data.PriceInfo;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MongoConfig.
+ * Tests that prices are written, read and queried as Decimal128.
+ */
+@DisplayName("MongoConfig Tests")
+class MongoConfigTest {
+
+    private MongoMappingContext mappingContext;
+
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+        mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+    }
+
+    @Test
+    @DisplayName("Should store prices as Decimal128 and read them back unchanged")
+    void testPriceRoundTrip() {
+        PriceInfo priceInfo = new PriceInfo();
+        priceInfo.setPrice(new BigDecimal("1299.90"));
+
+        Document document = new Document();
+        converter.write(priceInfo, document);
+
+        assertEquals(new Decimal128(new BigDecimal("1299.90")), document.get("price"));
+        assertEquals(new BigDecimal("1299.90"), converter.read(PriceInfo.class, document).getPrice());
+    }
+
+    @Test
+    @DisplayName("Should compare price range bounds as Decimal128")
+    void testPriceRangeQuery() {
+        Query query = new Query(Criteria.where("price").gt(new BigDecimal("10")).lt(new BigDecimal("100.50")));
+
+        Document mapped = new QueryMapper(converter).getMappedObject(query.getQueryObject(),
+                mappingContext.getPersistentEntity(PriceInfo.class));
+
+        Document range = mapped.get("price", Document.class);
+        assertEquals(new Decimal128(new BigDecimal("10")), range.get("$gt"));
+        assertEquals(new Decimal128(new BigDecimal("100.50")), range.get("$lt"));
+    }
+}
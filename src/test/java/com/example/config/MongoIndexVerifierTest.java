@@ -0,0 +1,121 @@
+package com.example.config;
+
+import com.example.data.PriceInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MongoIndexVerifier.
+ * Tests that declared indexes are matched by key pattern, created when missing, and that
+ * undeclared indexes are reported.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MongoIndexVerifier Tests")
+class MongoIndexVerifierTest {
+
+    private static final List<String> DECLARED = List.of("productName_1__id_1", "productCode_1__id_1",
+            "category_1__id_1", "supplier_1__id_1", "price_1__id_1", "pdfFileName_1", "category_1_price_1",
+            "supplier_1_category_1", "supplier_1_price_1", "sourceHash_1_pageNumber_1__id_1");
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations indexOps;
+
+    @InjectMocks
+    private MongoIndexVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.getCollectionName(PriceInfo.class)).thenReturn("price_info");
+        when(mongoTemplate.indexOps(PriceInfo.class)).thenReturn(indexOps);
+        // Mapped like the application does, so BigDecimal is a simple type rather than introspected
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoConfig().mongoCustomConversions().getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        when(mongoTemplate.getConverter())
+                .thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+    }
+
+    @Test
+    @DisplayName("Should create every declared index on an empty collection")
+    void testVerify_CreatesMissingIndexes() {
+        when(indexOps.getIndexInfo()).thenReturn(List.of(index("_id_", "_id")));
+
+        MongoIndexVerifier.IndexDrift drift = verifier.verify(PriceInfo.class);
+
+        assertEquals("price_info", drift.getCollection());
+        assertEquals(DECLARED.size(), drift.getMissing().size());
+        assertTrue(drift.getMissing().containsAll(DECLARED));
+        assertTrue(drift.getUnexpected().isEmpty());
+        ArgumentCaptor<IndexDefinition> created = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOps, times(DECLARED.size())).ensureIndex(created.capture());
+        List<String> names = new ArrayList<>();
+        for (IndexDefinition definition : created.getAllValues()) {
+            names.add(definition.getIndexOptions().getString("name"));
+        }
+        assertTrue(names.contains("category_price"));
+    }
+
+    @Test
+    @DisplayName("Should match existing indexes by keys and report undeclared ones")
+    void testVerify_ReportsDrift() {
+        List<IndexInfo> existing = new ArrayList<>();
+        existing.add(index("_id_", "_id"));
+        existing.add(index("legacy_name", "productName", "_id"));
+        existing.add(index("category_1_price_1", "category", "price"));
+        existing.add(index("currency_1", "currency"));
+        when(indexOps.getIndexInfo()).thenReturn(existing);
+
+        MongoIndexVerifier.IndexDrift drift = verifier.verify(PriceInfo.class);
+
+        assertFalse(drift.getMissing().contains("productName_1__id_1"));
+        assertFalse(drift.getMissing().contains("category_1_price_1"));
+        assertEquals(DECLARED.size() - 2, drift.getMissing().size());
+        assertEquals(List.of("currency_1"), drift.getUnexpected());
+    }
+
+    @Test
+    @DisplayName("Should only report missing indexes when creation is off")
+    void testVerify_CreationDisabled() {
+        ReflectionTestUtils.setField(verifier, "createMissing", false);
+        when(indexOps.getIndexInfo()).thenReturn(List.of(index("_id_", "_id")));
+
+        MongoIndexVerifier.IndexDrift drift = verifier.verify(PriceInfo.class);
+
+        assertFalse(drift.isEmpty());
+        verify(indexOps, never()).ensureIndex(any());
+    }
+
+    private static IndexInfo index(String name, String... keys) {
+        List<IndexField> fields = new ArrayList<>();
+        for (String key : keys) {
+            fields.add(IndexField.create(key, Sort.Direction.ASC));
+        }
+        return new IndexInfo(fields, name, false, false, null);
+    }
+}
@@ -1,10 +1,17 @@
 package com.example.config;
 
+import com.example.controllor.PriceController;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.cors.CorsConfiguration;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -47,4 +54,12 @@ public class WebSecurityConfigTest {
                 .andExpect(status().isOk())
                 .andExpect(header().exists("Access-Control-Allow-Origin"));
     }
+
+    @Test
+    public void testCorsConfiguration_ExposesNextCursor() {
+        CorsConfiguration configuration = new WebSecurityConfig().corsConfigurationSource()
+                .getCorsConfiguration(new MockHttpServletRequest("GET", "/api/prices"));
+
+        assertEquals(List.of(PriceController.NEXT_CURSOR_HEADER), configuration.getExposedHeaders());
+    }
 }
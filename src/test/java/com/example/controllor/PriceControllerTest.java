@@ -1,24 +1,49 @@
 package com.example.controllor;
 
+import com.example.data.ExtractionTemplate;
 import com.example.data.PriceInfo;
+import com.example.service.ExtractionTemplateService;
+import com.example.service.PdfBatchService;
+import com.example.service.PdfJobService;
 import com.example.service.PriceService;
+import com.example.util.AdmittedUpload;
+import com.example.util.BatchFileResult;
+import com.example.util.ExtractionBudgetExceededException;
+import com.example.util.ExtractionLimitException;
+import com.example.util.ExtractionRejectedException;
+import com.example.util.ExtractionSummary;
+import com.example.util.PageRange;
+import com.example.util.PdfExtractionJob;
+import com.example.util.PriceFields;
+import com.example.util.PricePage;
+import com.example.util.PriceRowSink;
+import com.example.util.UploadCacheStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -38,6 +63,18 @@ class PriceControllerTest {
     @Mock
     private MultipartFile multipartFile;
 
+    @Mock
+    private PdfJobService pdfJobService;
+
+    @Mock
+    private PdfBatchService pdfBatchService;
+
+    @Mock
+    private ExtractionTemplateService extractionTemplateService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     @InjectMocks
     private PriceController priceController;
 
@@ -72,9 +109,9 @@ class PriceControllerTest {
 
         when(multipartFile.isEmpty()).thenReturn(false);
         when(multipartFile.getContentType()).thenReturn("application/pdf");
-        when(priceService.extractPricesFromPdf(multipartFile)).thenReturn(extractedPrices);
+        when(priceService.extractPricesFromPdf(multipartFile, PageRange.ALL)).thenReturn(extractedPrices);
 
-        ResponseEntity<?> response = priceController.uploadPdfAndExtractPrices(multipartFile);
+        ResponseEntity<?> response = priceController.uploadPdfAndExtractPrices(multipartFile, null, false, null, false);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -85,15 +122,15 @@ class PriceControllerTest {
         assertEquals("PDF processed successfully", responseBody.get("message"));
         assertEquals(2, responseBody.get("extractedCount"));
 
-        verify(priceService, times(1)).extractPricesFromPdf(multipartFile);
+        verify(priceService, times(1)).extractPricesFromPdf(multipartFile, PageRange.ALL);
     }
 
     @Test
     @DisplayName("Should return bad request when file is empty")
-    void testUploadPdfAndExtractPrices_EmptyFile() {
+    void testUploadPdfAndExtractPrices_EmptyFile() throws Exception {
         when(multipartFile.isEmpty()).thenReturn(true);
 
-        ResponseEntity<?> response = priceController.uploadPdfAndExtractPrices(multipartFile);
+        ResponseEntity<?> response = priceController.uploadPdfAndExtractPrices(multipartFile, null, false, null, false);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
 
@@ -102,16 +139,16 @@ class PriceControllerTest {
         assertFalse((Boolean) responseBody.get("success"));
         assertEquals("File is empty", responseBody.get("error"));
 
-        verify(priceService, never()).extractPricesFromPdf(any());
+        verify(priceService, never()).extractPricesFromPdf(any(), any());
     }
 
     @Test
     @DisplayName("Should return bad request when file is not PDF")
-    void testUploadPdfAndExtractPrices_NotPdfFile() {
+    void testUploadPdfAndExtractPrices_NotPdfFile() throws Exception {
         when(multipartFile.isEmpty()).thenReturn(false);
         when(multipartFile.getContentType()).thenReturn("application/json");
 
-        ResponseEntity<?> response = priceController.uploadPdfAndExtractPrices(multipartFile);
+        ResponseEntity<?> response = priceController.uploadPdfAndExtractPrices(multipartFile, null, false, null, false);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
 
@@ -120,7 +157,7 @@ class PriceControllerTest {
         assertFalse((Boolean) responseBody.get("success"));
         assertEquals("Only PDF files are supported", responseBody.get("error"));
 
-        verify(priceService, never()).extractPricesFromPdf(any());
+        verify(priceService, never()).extractPricesFromPdf(any(), any());
     }
 
     @Test
@@ -128,10 +165,10 @@ class PriceControllerTest {
     void testUploadPdfAndExtractPrices_Exception() throws Exception {
         when(multipartFile.isEmpty()).thenReturn(false);
         when(multipartFile.getContentType()).thenReturn("application/pdf");
-        when(priceService.extractPricesFromPdf(multipartFile))
+        when(priceService.extractPricesFromPdf(multipartFile, PageRange.ALL))
                 .thenThrow(new RuntimeException("PDF processing error"));
 
-        ResponseEntity<?> response = priceController.uploadPdfAndExtractPrices(multipartFile);
+        ResponseEntity<?> response = priceController.uploadPdfAndExtractPrices(multipartFile, null, false, null, false);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
 
@@ -141,13 +178,515 @@ class PriceControllerTest {
         assertTrue(((String) responseBody.get("error")).contains("Error processing PDF"));
     }
 
+    @Test
+    @DisplayName("Should answer 503 with Retry-After when the heap budget is used up")
+    void testUploadPdfAndExtractPrices_OverBudget() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getContentType()).thenReturn("application/pdf");
+        when(priceService.extractPricesFromPdf(multipartFile, PageRange.ALL))
+                .thenThrow(new ExtractionRejectedException("Not enough memory to parse the PDF now", 30));
+
+        ResponseEntity<?> response = priceController.uploadPdfAndExtractPrices(multipartFile, null, false, null, false);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("30", response.getHeaders().getFirst("Retry-After"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> responseBody = (Map<String, Object>) response.getBody();
+        assertFalse((Boolean) responseBody.get("success"));
+    }
+
+    @Test
+    @DisplayName("Should answer 422 when the document runs out of its time budget")
+    void testUploadPdfAndExtractPrices_TimeBudget() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getContentType()).thenReturn("application/pdf");
+        when(priceService.extractPricesFromPdf(multipartFile, PageRange.ALL))
+                .thenThrow(new ExtractionBudgetExceededException("PDF took longer than its time budget of 20 ms"));
+
+        ResponseEntity<?> response = priceController.uploadPdfAndExtractPrices(multipartFile, null, false, null, false);
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> responseBody = (Map<String, Object>) response.getBody();
+        assertFalse((Boolean) responseBody.get("success"));
+        assertTrue(((String) responseBody.get("error")).contains("time budget"));
+    }
+
+    @Test
+    @DisplayName("Should answer 400 when the document breaks a structural limit")
+    void testUploadPdfAndExtractPrices_StructuralLimit() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getContentType()).thenReturn("application/pdf");
+        when(priceService.extractPricesFromPdf(multipartFile, PageRange.ALL))
+                .thenThrow(new ExtractionLimitException("PDF has 3 pages, more than the limit of 2"));
+
+        ResponseEntity<?> response = priceController.uploadPdfAndExtractPrices(multipartFile, null, false, null, false);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
     @Test
     @DisplayName("Should handle null file upload")
-    void testUploadPdfAndExtractPrices_NullFile() {
-        ResponseEntity<?> response = priceController.uploadPdfAndExtractPrices(null);
+    void testUploadPdfAndExtractPrices_NullFile() throws Exception {
+        ResponseEntity<?> response = priceController.uploadPdfAndExtractPrices(null, null, false, null, false);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        verify(priceService, never()).extractPricesFromPdf(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should extract and store only the requested pages")
+    void testUploadPdfAndExtractPrices_PageRange() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getContentType()).thenReturn("application/pdf");
+        when(priceService.extractPricesFromPdf(multipartFile, PageRange.of(2, 4)))
+                .thenReturn(Arrays.asList(samplePriceInfo));
+
+        ResponseEntity<?> response =
+                priceController.uploadPdfAndExtractPrices(multipartFile, "2-4", false, null, false);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> responseBody = (Map<String, Object>) response.getBody();
+        assertEquals("2-4", responseBody.get("pages"));
+        assertEquals(1, responseBody.get("extractedCount"));
+    }
+
+    @Test
+    @DisplayName("Should return bad request for an invalid page range")
+    void testUploadPdfAndExtractPrices_InvalidPageRange() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getContentType()).thenReturn("application/pdf");
+
+        ResponseEntity<?> response =
+                priceController.uploadPdfAndExtractPrices(multipartFile, "5-2", false, null, false);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(priceService, never()).extractPricesFromPdf(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should preview the requested pages without storing them")
+    void testUploadPdfAndExtractPrices_Preview() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getContentType()).thenReturn("application/pdf");
+        when(priceService.resolvePreviewRange(PageRange.ALL)).thenReturn(PageRange.of(1, 5));
+        when(priceService.previewPricesFromPdf(eq(multipartFile), eq(PageRange.ALL), any(PriceRowSink.class)))
+                .thenAnswer(invocation -> {
+                    PriceRowSink sink = invocation.getArgument(2);
+                    sink.onPage(1, Arrays.asList(samplePriceInfo, anotherPriceInfo));
+                    return new ExtractionSummary("catalog.pdf", 1000, 2);
+                });
+
+        ResponseEntity<?> response = priceController.uploadPdfAndExtractPrices(multipartFile, null, true, null, false);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> responseBody = (Map<String, Object>) response.getBody();
+        assertTrue((Boolean) responseBody.get("preview"));
+        assertEquals("1-5", responseBody.get("pages"));
+        assertEquals(1000, responseBody.get("pageCount"));
+        assertEquals(2, responseBody.get("extractedCount"));
+        verify(priceService, never()).extractPricesFromPdf(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should leave rawText out of uploaded rows unless asked for")
+    void testUploadPdfAndExtractPrices_DefaultFields() throws Exception {
+        samplePriceInfo.setRawText("Laptop LAP-001 999.99");
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getContentType()).thenReturn("application/pdf");
+        when(priceService.extractPricesFromPdf(multipartFile, PageRange.ALL))
+                .thenReturn(Arrays.asList(samplePriceInfo));
+
+        ResponseEntity<?> response = priceController.uploadPdfAndExtractPrices(multipartFile, null, false, null, false);
+
+        String json = objectMapper.writeValueAsString(response.getBody());
+        assertTrue(json.contains("\"productName\":\"Laptop\""));
+        assertFalse(json.contains("rawText"));
+    }
+
+    @Test
+    @DisplayName("Should return only the requested fields of uploaded rows")
+    void testUploadPdfAndExtractPrices_SelectedFields() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getContentType()).thenReturn("application/pdf");
+        when(priceService.extractPricesFromPdf(multipartFile, PageRange.ALL))
+                .thenReturn(Arrays.asList(samplePriceInfo));
+
+        ResponseEntity<?> response =
+                priceController.uploadPdfAndExtractPrices(multipartFile, null, false, "productName,price", false);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> responseBody = (Map<String, Object>) response.getBody();
+        String row = objectMapper.writeValueAsString(((List<?>) responseBody.get("prices")).get(0));
+        assertEquals(List.of("id", "productName", "price"),
+                iterableToList(objectMapper.readTree(row).fieldNames()));
+    }
+
+    @Test
+    @DisplayName("Should return only counts in summary mode, without collecting the rows")
+    void testUploadPdfAndExtractPrices_SummaryOnly() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getContentType()).thenReturn("application/pdf");
+        when(priceService.streamPricesFromPdf(eq(multipartFile), any(PriceRowSink.class)))
+                .thenReturn(new ExtractionSummary("catalog.pdf", 40, 2));
+
+        ResponseEntity<?> response = priceController.uploadPdfAndExtractPrices(multipartFile, null, false, null, true);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> responseBody = (Map<String, Object>) response.getBody();
+        assertEquals(2L, responseBody.get("extractedCount"));
+        assertEquals(40, responseBody.get("pageCount"));
+        assertFalse(responseBody.containsKey("prices"));
+        verify(priceService, never()).extractPricesFromPdf(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should return bad request for an unknown field")
+    void testUploadPdfAndExtractPrices_UnknownField() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getContentType()).thenReturn("application/pdf");
+
+        ResponseEntity<?> response =
+                priceController.uploadPdfAndExtractPrices(multipartFile, null, false, "productName,secret", false);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(priceService, never()).extractPricesFromPdf(any(), any());
+    }
+
+    // uploadPdfAndStreamPrices Tests
+    @Test
+    @DisplayName("Should stream extracted rows as NDJSON followed by a summary")
+    void testUploadPdfAndStreamPrices_Success() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getContentType()).thenReturn("application/pdf");
+        AdmittedUpload upload = mock(AdmittedUpload.class);
+        when(priceService.admitUpload(multipartFile)).thenReturn(upload);
+        when(priceService.streamPrices(eq(upload), any(PriceRowSink.class))).thenAnswer(invocation -> {
+            PriceRowSink sink = invocation.getArgument(1);
+            sink.onPage(1, Arrays.asList(samplePriceInfo));
+            sink.onPage(2, Arrays.asList(anotherPriceInfo));
+            return new ExtractionSummary("prices.pdf", 2, 2);
+        });
+
+        ResponseEntity<?> response = priceController.uploadPdfAndStreamPrices(multipartFile, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingResponseBody) response.getBody()).writeTo(out);
+        String[] lines = out.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("Laptop", objectMapper.readTree(lines[0]).get("productName").asText());
+        assertEquals("Mouse", objectMapper.readTree(lines[1]).get("productName").asText());
+        assertEquals("summary", objectMapper.readTree(lines[2]).get("type").asText());
+        assertEquals(2, objectMapper.readTree(lines[2]).get("extractedCount").asInt());
+        verify(upload).close();
+    }
+
+    @Test
+    @DisplayName("Should end the stream with an error record when extraction fails")
+    void testUploadPdfAndStreamPrices_ExtractionError() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getContentType()).thenReturn("application/pdf");
+        AdmittedUpload upload = mock(AdmittedUpload.class);
+        when(priceService.admitUpload(multipartFile)).thenReturn(upload);
+        when(priceService.streamPrices(eq(upload), any(PriceRowSink.class)))
+                .thenThrow(new RuntimeException("Corrupt PDF"));
+
+        ResponseEntity<?> response = priceController.uploadPdfAndStreamPrices(multipartFile, null);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingResponseBody) response.getBody()).writeTo(out);
+        String[] lines = out.toString().split("\n");
+        assertEquals(1, lines.length);
+        assertEquals("error", objectMapper.readTree(lines[0]).get("type").asText());
+        assertTrue(objectMapper.readTree(lines[0]).get("error").asText().contains("Corrupt PDF"));
+        verify(upload).close();
+    }
+
+    @Test
+    @DisplayName("Should answer 503 with Retry-After before streaming when admission rejects the upload")
+    void testUploadPdfAndStreamPrices_Rejected() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getContentType()).thenReturn("application/pdf");
+        when(priceService.admitUpload(multipartFile))
+                .thenThrow(new ExtractionRejectedException("Extraction capacity is exhausted", 5));
+
+        ResponseEntity<?> response = priceController.uploadPdfAndStreamPrices(multipartFile, null);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("5", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertFalse(response.getBody() instanceof StreamingResponseBody);
+        verify(priceService, never()).streamPrices(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject non-PDF uploads before streaming")
+    void testUploadPdfAndStreamPrices_NotPdfFile() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getContentType()).thenReturn("text/plain");
+
+        ResponseEntity<?> response = priceController.uploadPdfAndStreamPrices(multipartFile, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(priceService, never()).admitUpload(any());
+    }
+
+    // uploadPdfBatch Tests
+    @Test
+    @DisplayName("Should report per-file counts for a batch upload")
+    void testUploadPdfBatch_Success() throws Exception {
+        List<MultipartFile> files = Arrays.asList(multipartFile, multipartFile);
+        when(pdfBatchService.extractPricesFromBatch(files)).thenReturn(Arrays.asList(
+                BatchFileResult.success(null, new ExtractionSummary("a.pdf", 2, 5)),
+                BatchFileResult.success("feed.zip", new ExtractionSummary("b.pdf", 1, 3)),
+                BatchFileResult.failure("feed.zip", "notes.txt", "Not a PDF file")));
+
+        ResponseEntity<?> response = priceController.uploadPdfBatch(files);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertEquals(false, body.get("success"));
+        assertEquals(3, body.get("fileCount"));
+        assertEquals(1, body.get("failedCount"));
+        assertEquals(8L, body.get("extractedCount"));
+        assertEquals(3, ((List<?>) body.get("files")).size());
+    }
+
+    @Test
+    @DisplayName("Should reject a batch without files")
+    void testUploadPdfBatch_NoFiles() throws Exception {
+        ResponseEntity<?> response = priceController.uploadPdfBatch(Collections.emptyList());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(pdfBatchService, never()).extractPricesFromBatch(any());
+    }
+
+    @Test
+    @DisplayName("Should return 400 when a batch's archives expand past the limits")
+    void testUploadPdfBatch_ArchiveLimit() throws Exception {
+        List<MultipartFile> files = Arrays.asList(multipartFile);
+        when(pdfBatchService.extractPricesFromBatch(files))
+                .thenThrow(new ExtractionLimitException("Archives of the batch have more than 1000 entries"));
+
+        ResponseEntity<?> response = priceController.uploadPdfBatch(files);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should return 500 when the batch cannot be read")
+    void testUploadPdfBatch_Exception() throws Exception {
+        List<MultipartFile> files = Arrays.asList(multipartFile);
+        when(pdfBatchService.extractPricesFromBatch(files)).thenThrow(new RuntimeException("Disk full"));
+
+        ResponseEntity<?> response = priceController.uploadPdfBatch(files);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
-        verify(priceService, never()).extractPricesFromPdf(any());
+    }
+
+    // PDF job Tests
+    @Test
+    @DisplayName("Should accept a PDF job and point to its status")
+    void testSubmitPdfJob_Accepted() throws Exception {
+        PdfExtractionJob job = new PdfExtractionJob("job-1", "prices.pdf", "hash");
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getContentType()).thenReturn("application/pdf");
+        when(pdfJobService.submitPdfJob(multipartFile)).thenReturn(job);
+
+        ResponseEntity<?> response = priceController.submitPdfJob(multipartFile);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("/api/prices/jobs/job-1", response.getHeaders().getLocation().toString());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertEquals("job-1", body.get("jobId"));
+        assertEquals(PdfExtractionJob.Status.QUEUED, body.get("status"));
+    }
+
+    @Test
+    @DisplayName("Should answer 429 with Retry-After when the job queue is full")
+    void testSubmitPdfJob_QueueFull() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getContentType()).thenReturn("application/pdf");
+        when(pdfJobService.submitPdfJob(multipartFile)).thenThrow(new RejectedExecutionException("full"));
+        when(pdfJobService.getRetryAfterSeconds()).thenReturn(30);
+
+        ResponseEntity<?> response = priceController.submitPdfJob(multipartFile);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("30", response.getHeaders().getFirst("Retry-After"));
+    }
+
+    @Test
+    @DisplayName("Should reject non-PDF job uploads")
+    void testSubmitPdfJob_NotPdfFile() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getContentType()).thenReturn("text/plain");
+
+        ResponseEntity<?> response = priceController.submitPdfJob(multipartFile);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(pdfJobService, never()).submitPdfJob(any());
+    }
+
+    @Test
+    @DisplayName("Should return job status with prices once completed")
+    void testGetPdfJob_Completed() {
+        PdfExtractionJob job = new PdfExtractionJob("job-1", "prices.pdf", "hash");
+        job.markCompleted(new ExtractionSummary("prices.pdf", 2, 2));
+        when(pdfJobService.getJob("job-1")).thenReturn(Optional.of(job));
+        when(pdfJobService.getJobResults(job, "abc", 2, PriceFields.DEFAULT))
+                .thenReturn(new PricePage(Arrays.asList(samplePriceInfo, anotherPriceInfo), "def"));
+
+        ResponseEntity<?> response = priceController.getPdfJob("job-1", "abc", 2, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("def", response.getHeaders().getFirst(PriceController.NEXT_CURSOR_HEADER));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertEquals(PdfExtractionJob.Status.COMPLETED, body.get("status"));
+        assertEquals(2L, body.get("extractedCount"));
+        assertEquals(2, ((List<?>) body.get("prices")).size());
+    }
+
+    @Test
+    @DisplayName("Should return job status without prices while running")
+    void testGetPdfJob_Running() {
+        PdfExtractionJob job = new PdfExtractionJob("job-1", "prices.pdf", "hash");
+        job.markRunning();
+        when(pdfJobService.getJob("job-1")).thenReturn(Optional.of(job));
+
+        ResponseEntity<?> response = priceController.getPdfJob("job-1", null, 0, null);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertEquals(PdfExtractionJob.Status.RUNNING, body.get("status"));
+        assertFalse(body.containsKey("prices"));
+        verify(pdfJobService, never()).getJobResults(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Should return 400 for a job results cursor it did not issue")
+    void testGetPdfJob_InvalidCursor() {
+        PdfExtractionJob job = new PdfExtractionJob("job-1", "prices.pdf", "hash");
+        job.markCompleted(new ExtractionSummary("prices.pdf", 2, 2));
+        when(pdfJobService.getJob("job-1")).thenReturn(Optional.of(job));
+        when(pdfJobService.getJobResults(job, "bogus", 0, PriceFields.DEFAULT))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        ResponseEntity<?> response = priceController.getPdfJob("job-1", "bogus", 0, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should read and return only the requested fields of a job's rows")
+    void testGetPdfJob_SelectedFields() throws Exception {
+        PdfExtractionJob job = new PdfExtractionJob("job-1", "prices.pdf", "hash");
+        job.markCompleted(new ExtractionSummary("prices.pdf", 1, 1));
+        PriceFields fields = PriceFields.parse("productName,price");
+        when(pdfJobService.getJob("job-1")).thenReturn(Optional.of(job));
+        when(pdfJobService.getJobResults(job, null, 0, fields))
+                .thenReturn(new PricePage(Arrays.asList(samplePriceInfo), null));
+
+        ResponseEntity<?> response = priceController.getPdfJob("job-1", null, 0, "productName,price");
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        String row = objectMapper.writeValueAsString(((List<?>) body.get("prices")).get(0));
+        assertEquals(List.of("id", "productName", "price"),
+                iterableToList(objectMapper.readTree(row).fieldNames()));
+    }
+
+    @Test
+    @DisplayName("Should return bad request for an unknown field of a job's rows")
+    void testGetPdfJob_UnknownField() {
+        ResponseEntity<?> response = priceController.getPdfJob("job-1", null, 0, "productName,secret");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(pdfJobService, never()).getJobResults(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Should return 404 for an unknown job")
+    void testGetPdfJob_NotFound() {
+        when(pdfJobService.getJob("missing")).thenReturn(Optional.empty());
+
+        ResponseEntity<?> response = priceController.getPdfJob("missing", null, 0, null);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    // Template Tests
+    @Test
+    @DisplayName("Should create a supplier template")
+    void testCreateTemplate_Success() {
+        ExtractionTemplate template = new ExtractionTemplate();
+        template.setSupplier("Acme");
+        when(extractionTemplateService.saveTemplate(template)).thenReturn(template);
+
+        ResponseEntity<?> response = priceController.createTemplate(template);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertSame(template, response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should reject a template that cannot be compiled")
+    void testCreateTemplate_Invalid() {
+        ExtractionTemplate template = new ExtractionTemplate();
+        when(extractionTemplateService.saveTemplate(template))
+                .thenThrow(new IllegalArgumentException("Price column is required"));
+
+        ResponseEntity<?> response = priceController.createTemplate(template);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertEquals("Price column is required", body.get("error"));
+    }
+
+    @Test
+    @DisplayName("Should list supplier templates")
+    void testGetAllTemplates() {
+        List<ExtractionTemplate> templates = Collections.singletonList(new ExtractionTemplate());
+        when(extractionTemplateService.getAllTemplates()).thenReturn(templates);
+
+        ResponseEntity<?> response = priceController.getAllTemplates();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(templates, response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should delete a supplier template")
+    void testDeleteTemplate() {
+        ResponseEntity<?> response = priceController.deleteTemplate("t1");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(extractionTemplateService).deleteTemplate("t1");
+    }
+
+    // getUploadCacheStats Tests
+    @Test
+    @DisplayName("Should return upload cache hit and miss counts")
+    void testGetUploadCacheStats_Success() {
+        when(priceService.getUploadCacheStats()).thenReturn(new UploadCacheStats(3, 1));
+
+        ResponseEntity<?> response = priceController.getUploadCacheStats();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        UploadCacheStats stats = (UploadCacheStats) response.getBody();
+        assertEquals(3, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.75, stats.getHitRatio());
     }
 
     // createPriceInfo Tests
@@ -197,9 +736,9 @@ class PriceControllerTest {
     @DisplayName("Should get all price info successfully")
     void testGetAllPriceInfo_Success() {
         List<PriceInfo> allPriceInfo = Arrays.asList(samplePriceInfo, anotherPriceInfo);
-        when(priceService.getAllPriceInfo()).thenReturn(allPriceInfo);
+        when(priceService.getAllPriceInfo(null, 0, PriceFields.DEFAULT)).thenReturn(new PricePage(allPriceInfo, null));
 
-        ResponseEntity<?> response = priceController.getAllPriceInfo();
+        ResponseEntity<?> response = priceController.getAllPriceInfo(null, 0, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -208,15 +747,16 @@ class PriceControllerTest {
         List<PriceInfo> responseBody = (List<PriceInfo>) response.getBody();
         assertEquals(2, responseBody.size());
 
-        verify(priceService, times(1)).getAllPriceInfo();
+        verify(priceService, times(1)).getAllPriceInfo(null, 0, PriceFields.DEFAULT);
     }
 
     @Test
     @DisplayName("Should return empty list when no price info exists")
     void testGetAllPriceInfo_EmptyList() {
-        when(priceService.getAllPriceInfo()).thenReturn(Collections.emptyList());
+        when(priceService.getAllPriceInfo(null, 0, PriceFields.DEFAULT))
+                .thenReturn(new PricePage(Collections.emptyList(), null));
 
-        ResponseEntity<?> response = priceController.getAllPriceInfo();
+        ResponseEntity<?> response = priceController.getAllPriceInfo(null, 0, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
 
@@ -228,9 +768,10 @@ class PriceControllerTest {
     @Test
     @DisplayName("Should handle exception when getting all price info")
     void testGetAllPriceInfo_Exception() {
-        when(priceService.getAllPriceInfo()).thenThrow(new RuntimeException("Database error"));
+        when(priceService.getAllPriceInfo(null, 0, PriceFields.DEFAULT))
+                .thenThrow(new RuntimeException("Database error"));
 
-        ResponseEntity<?> response = priceController.getAllPriceInfo();
+        ResponseEntity<?> response = priceController.getAllPriceInfo(null, 0, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
 
@@ -239,6 +780,65 @@ class PriceControllerTest {
         assertFalse((Boolean) responseBody.get("success"));
     }
 
+    @Test
+    @DisplayName("Should return the next page cursor in a header")
+    void testGetAllPriceInfo_NextCursorHeader() {
+        when(priceService.getAllPriceInfo("abc", 2, PriceFields.DEFAULT))
+                .thenReturn(new PricePage(Arrays.asList(samplePriceInfo, anotherPriceInfo), "def"));
+
+        ResponseEntity<?> response = priceController.getAllPriceInfo("abc", 2, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("def", response.getHeaders().getFirst(PriceController.NEXT_CURSOR_HEADER));
+
+        @SuppressWarnings("unchecked")
+        List<PriceInfo> responseBody = (List<PriceInfo>) response.getBody();
+        assertEquals(2, responseBody.size());
+    }
+
+    @Test
+    @DisplayName("Should omit the cursor header on the last page")
+    void testGetAllPriceInfo_LastPage() {
+        when(priceService.getAllPriceInfo(null, 0, PriceFields.DEFAULT))
+                .thenReturn(new PricePage(Arrays.asList(samplePriceInfo), null));
+
+        ResponseEntity<?> response = priceController.getAllPriceInfo(null, 0, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertFalse(response.getHeaders().containsKey(PriceController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @DisplayName("Should return bad request for an invalid cursor")
+    void testGetAllPriceInfo_InvalidCursor() {
+        when(priceService.getAllPriceInfo("bogus", 0, PriceFields.DEFAULT))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: bogus"));
+
+        ResponseEntity<?> response = priceController.getAllPriceInfo("bogus", 0, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> responseBody = (Map<String, Object>) response.getBody();
+        assertEquals("Invalid cursor: bogus", responseBody.get("error"));
+    }
+
+    @Test
+    @DisplayName("Should read and return only the requested fields")
+    void testGetAllPriceInfo_SelectedFields() throws Exception {
+        PriceFields fields = PriceFields.parse("productName,price");
+        when(priceService.getAllPriceInfo(null, 0, fields))
+                .thenReturn(new PricePage(Arrays.asList(samplePriceInfo, anotherPriceInfo), null));
+
+        ResponseEntity<?> response = priceController.getAllPriceInfo(null, 0, "productName,price");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String json = objectMapper.writeValueAsString(response.getBody());
+        assertEquals(List.of("id", "productName", "price"),
+                iterableToList(objectMapper.readTree(json).get(0).fieldNames()));
+        verify(priceService, times(1)).getAllPriceInfo(null, 0, fields);
+    }
+
     // getPriceInfoById Tests
     @Test
     @DisplayName("Should get price info by id successfully")
@@ -361,10 +961,10 @@ class PriceControllerTest {
     @Test
     @DisplayName("Should search by product name successfully")
     void testSearchByProductName_Success() {
-        when(priceService.findByProductName("Laptop"))
-                .thenReturn(Collections.singletonList(samplePriceInfo));
+        when(priceService.findByProductName("Laptop", null, 0, PriceFields.DEFAULT))
+                .thenReturn(new PricePage(Collections.singletonList(samplePriceInfo), null));
 
-        ResponseEntity<?> response = priceController.searchByProductName("Laptop");
+        ResponseEntity<?> response = priceController.searchByProductName("Laptop", null, 0, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
 
@@ -372,15 +972,16 @@ class PriceControllerTest {
         List<PriceInfo> responseBody = (List<PriceInfo>) response.getBody();
         assertEquals(1, responseBody.size());
 
-        verify(priceService, times(1)).findByProductName("Laptop");
+        verify(priceService, times(1)).findByProductName("Laptop", null, 0, PriceFields.DEFAULT);
     }
 
     @Test
     @DisplayName("Should handle exception when searching by product name")
     void testSearchByProductName_Exception() {
-        when(priceService.findByProductName("Laptop")).thenThrow(new RuntimeException("Database error"));
+        when(priceService.findByProductName("Laptop", null, 0, PriceFields.DEFAULT))
+                .thenThrow(new RuntimeException("Database error"));
 
-        ResponseEntity<?> response = priceController.searchByProductName("Laptop");
+        ResponseEntity<?> response = priceController.searchByProductName("Laptop", null, 0, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
@@ -389,10 +990,10 @@ class PriceControllerTest {
     @Test
     @DisplayName("Should search by product code successfully")
     void testSearchByProductCode_Success() {
-        when(priceService.findByProductCode("LAP-001"))
-                .thenReturn(Collections.singletonList(samplePriceInfo));
+        when(priceService.findByProductCode("LAP-001", null, 0, PriceFields.DEFAULT))
+                .thenReturn(new PricePage(Collections.singletonList(samplePriceInfo), null));
 
-        ResponseEntity<?> response = priceController.searchByProductCode("LAP-001");
+        ResponseEntity<?> response = priceController.searchByProductCode("LAP-001", null, 0, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
 
@@ -400,15 +1001,16 @@ class PriceControllerTest {
         List<PriceInfo> responseBody = (List<PriceInfo>) response.getBody();
         assertEquals(1, responseBody.size());
 
-        verify(priceService, times(1)).findByProductCode("LAP-001");
+        verify(priceService, times(1)).findByProductCode("LAP-001", null, 0, PriceFields.DEFAULT);
     }
 
     @Test
     @DisplayName("Should handle exception when searching by product code")
     void testSearchByProductCode_Exception() {
-        when(priceService.findByProductCode("LAP-001")).thenThrow(new RuntimeException("Database error"));
+        when(priceService.findByProductCode("LAP-001", null, 0, PriceFields.DEFAULT))
+                .thenThrow(new RuntimeException("Database error"));
 
-        ResponseEntity<?> response = priceController.searchByProductCode("LAP-001");
+        ResponseEntity<?> response = priceController.searchByProductCode("LAP-001", null, 0, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
@@ -417,10 +1019,10 @@ class PriceControllerTest {
     @Test
     @DisplayName("Should search by category successfully")
     void testSearchByCategory_Success() {
-        when(priceService.findByCategory("Electronics"))
-                .thenReturn(Collections.singletonList(samplePriceInfo));
+        when(priceService.findByCategory("Electronics", null, 0, PriceFields.DEFAULT))
+                .thenReturn(new PricePage(Collections.singletonList(samplePriceInfo), null));
 
-        ResponseEntity<?> response = priceController.searchByCategory("Electronics");
+        ResponseEntity<?> response = priceController.searchByCategory("Electronics", null, 0, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
 
@@ -428,15 +1030,16 @@ class PriceControllerTest {
         List<PriceInfo> responseBody = (List<PriceInfo>) response.getBody();
         assertEquals(1, responseBody.size());
 
-        verify(priceService, times(1)).findByCategory("Electronics");
+        verify(priceService, times(1)).findByCategory("Electronics", null, 0, PriceFields.DEFAULT);
     }
 
     @Test
     @DisplayName("Should handle exception when searching by category")
     void testSearchByCategory_Exception() {
-        when(priceService.findByCategory("Electronics")).thenThrow(new RuntimeException("Database error"));
+        when(priceService.findByCategory("Electronics", null, 0, PriceFields.DEFAULT))
+                .thenThrow(new RuntimeException("Database error"));
 
-        ResponseEntity<?> response = priceController.searchByCategory("Electronics");
+        ResponseEntity<?> response = priceController.searchByCategory("Electronics", null, 0, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
@@ -445,10 +1048,10 @@ class PriceControllerTest {
     @Test
     @DisplayName("Should search by supplier successfully")
     void testSearchBySupplier_Success() {
-        when(priceService.findBySupplier("Tech Corp"))
-                .thenReturn(Collections.singletonList(samplePriceInfo));
+        when(priceService.findBySupplier("Tech Corp", null, 0, PriceFields.DEFAULT))
+                .thenReturn(new PricePage(Collections.singletonList(samplePriceInfo), null));
 
-        ResponseEntity<?> response = priceController.searchBySupplier("Tech Corp");
+        ResponseEntity<?> response = priceController.searchBySupplier("Tech Corp", null, 0, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
 
@@ -456,15 +1059,16 @@ class PriceControllerTest {
         List<PriceInfo> responseBody = (List<PriceInfo>) response.getBody();
         assertEquals(1, responseBody.size());
 
-        verify(priceService, times(1)).findBySupplier("Tech Corp");
+        verify(priceService, times(1)).findBySupplier("Tech Corp", null, 0, PriceFields.DEFAULT);
     }
 
     @Test
     @DisplayName("Should handle exception when searching by supplier")
     void testSearchBySupplier_Exception() {
-        when(priceService.findBySupplier("Tech Corp")).thenThrow(new RuntimeException("Database error"));
+        when(priceService.findBySupplier("Tech Corp", null, 0, PriceFields.DEFAULT))
+                .thenThrow(new RuntimeException("Database error"));
 
-        ResponseEntity<?> response = priceController.searchBySupplier("Tech Corp");
+        ResponseEntity<?> response = priceController.searchBySupplier("Tech Corp", null, 0, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
@@ -476,10 +1080,10 @@ class PriceControllerTest {
         BigDecimal minPrice = new BigDecimal("20.00");
         BigDecimal maxPrice = new BigDecimal("50.00");
 
-        when(priceService.findByPriceRange(minPrice, maxPrice))
-                .thenReturn(Collections.singletonList(anotherPriceInfo));
+        when(priceService.findByPriceRange(minPrice, maxPrice, null, 0, PriceFields.DEFAULT))
+                .thenReturn(new PricePage(Collections.singletonList(anotherPriceInfo), null));
 
-        ResponseEntity<?> response = priceController.searchByPriceRange(minPrice, maxPrice);
+        ResponseEntity<?> response = priceController.searchByPriceRange(minPrice, maxPrice, null, 0, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
 
@@ -487,7 +1091,7 @@ class PriceControllerTest {
         List<PriceInfo> responseBody = (List<PriceInfo>) response.getBody();
         assertEquals(1, responseBody.size());
 
-        verify(priceService, times(1)).findByPriceRange(minPrice, maxPrice);
+        verify(priceService, times(1)).findByPriceRange(minPrice, maxPrice, null, 0, PriceFields.DEFAULT);
     }
 
     @Test
@@ -496,10 +1100,10 @@ class PriceControllerTest {
         BigDecimal minPrice = new BigDecimal("20.00");
         BigDecimal maxPrice = new BigDecimal("50.00");
 
-        when(priceService.findByPriceRange(minPrice, maxPrice))
+        when(priceService.findByPriceRange(minPrice, maxPrice, null, 0, PriceFields.DEFAULT))
                 .thenThrow(new RuntimeException("Database error"));
 
-        ResponseEntity<?> response = priceController.searchByPriceRange(minPrice, maxPrice);
+        ResponseEntity<?> response = priceController.searchByPriceRange(minPrice, maxPrice, null, 0, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
@@ -508,10 +1112,10 @@ class PriceControllerTest {
     @Test
     @DisplayName("Should search by keyword successfully")
     void testSearchByKeyword_Success() {
-        when(priceService.searchByKeyword("Lap"))
-                .thenReturn(Collections.singletonList(samplePriceInfo));
+        when(priceService.searchByKeyword("Lap", null, 0, PriceFields.DEFAULT))
+                .thenReturn(new PricePage(Collections.singletonList(samplePriceInfo), null));
 
-        ResponseEntity<?> response = priceController.searchByKeyword("Lap");
+        ResponseEntity<?> response = priceController.searchByKeyword("Lap", null, 0, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
 
@@ -519,15 +1123,16 @@ class PriceControllerTest {
         List<PriceInfo> responseBody = (List<PriceInfo>) response.getBody();
         assertEquals(1, responseBody.size());
 
-        verify(priceService, times(1)).searchByKeyword("Lap");
+        verify(priceService, times(1)).searchByKeyword("Lap", null, 0, PriceFields.DEFAULT);
     }
 
     @Test
     @DisplayName("Should handle exception when searching by keyword")
     void testSearchByKeyword_Exception() {
-        when(priceService.searchByKeyword("Lap")).thenThrow(new RuntimeException("Database error"));
+        when(priceService.searchByKeyword("Lap", null, 0, PriceFields.DEFAULT))
+                .thenThrow(new RuntimeException("Database error"));
 
-        ResponseEntity<?> response = priceController.searchByKeyword("Lap");
+        ResponseEntity<?> response = priceController.searchByKeyword("Lap", null, 0, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
@@ -535,9 +1140,10 @@ class PriceControllerTest {
     @Test
     @DisplayName("Should return empty list for searches with no results")
     void testSearch_NoResults() {
-        when(priceService.searchByKeyword("xyz")).thenReturn(Collections.emptyList());
+        when(priceService.searchByKeyword("xyz", null, 0, PriceFields.DEFAULT))
+                .thenReturn(new PricePage(Collections.emptyList(), null));
 
-        ResponseEntity<?> response = priceController.searchByKeyword("xyz");
+        ResponseEntity<?> response = priceController.searchByKeyword("xyz", null, 0, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
 
@@ -545,4 +1151,10 @@ class PriceControllerTest {
         List<PriceInfo> responseBody = (List<PriceInfo>) response.getBody();
         assertEquals(0, responseBody.size());
     }
+
+    private static List<String> iterableToList(Iterator<String> names) {
+        List<String> list = new ArrayList<>();
+        names.forEachRemaining(list::add);
+        return list;
+    }
 }
@@ -0,0 +1,59 @@
+package com.example.data;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PdfUpload Data Model Tests")
+class PdfUploadTest {
+
+    private PdfUpload pdfUpload;
+
+    @BeforeEach
+    void setUp() {
+        pdfUpload = new PdfUpload();
+    }
+
+    @Test
+    @DisplayName("Should initialize with current timestamp when created")
+    void testConstructor_SetsUploadedDate() {
+        assertNotNull(pdfUpload.getUploadedDate());
+        assertFalse(pdfUpload.getUploadedDate().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("Should set and get all fields correctly")
+    void testSettersAndGetters() {
+        LocalDateTime uploaded = LocalDateTime.of(2024, 1, 20, 10, 30);
+
+        pdfUpload.setContentHash("ba7816bf");
+        pdfUpload.setFileName("prices.pdf");
+        pdfUpload.setFileSize(2048L);
+        pdfUpload.setPageCount(12);
+        pdfUpload.setExtractedCount(40L);
+        pdfUpload.setUploadedDate(uploaded);
+
+        assertEquals("ba7816bf", pdfUpload.getContentHash());
+        assertEquals("prices.pdf", pdfUpload.getFileName());
+        assertEquals(2048L, pdfUpload.getFileSize());
+        assertEquals(12, pdfUpload.getPageCount());
+        assertEquals(40L, pdfUpload.getExtractedCount());
+        assertEquals(uploaded, pdfUpload.getUploadedDate());
+    }
+
+    @Test
+    @DisplayName("Should include hash and file name in toString")
+    void testToString() {
+        pdfUpload.setContentHash("ba7816bf");
+        pdfUpload.setFileName("prices.pdf");
+
+        String result = pdfUpload.toString();
+
+        assertTrue(result.contains("contentHash='ba7816bf'"));
+        assertTrue(result.contains("fileName='prices.pdf'"));
+    }
+}
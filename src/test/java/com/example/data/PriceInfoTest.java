@@ -346,6 +346,14 @@ class PriceInfoTest {
         assertEquals("", priceInfo.getRawText());
     }
 
+    @Test
+    @DisplayName("Should set and get source hash correctly")
+    void testSetAndGetSourceHash() {
+        priceInfo.setSourceHash("ba7816bf");
+
+        assertEquals("ba7816bf", priceInfo.getSourceHash());
+    }
+
     // ToString Tests
     @Test
     @DisplayName("Should generate toString with all fields populated")
@@ -543,4 +543,16 @@ class PriceInfoRepositoryTest {
         assertFalse(result);
         verify(repository, times(1)).existsById("999");
     }
+
+    @Test
+    @DisplayName("Should find the rows extracted from an upload in page order")
+    void testFindBySourceHashOrderByPageNumberAscIdAsc_Success() {
+        when(repository.findBySourceHashOrderByPageNumberAscIdAsc("abc"))
+                .thenReturn(Arrays.asList(samplePriceInfo1, samplePriceInfo2));
+
+        List<PriceInfo> result = repository.findBySourceHashOrderByPageNumberAscIdAsc("abc");
+
+        assertEquals(2, result.size());
+        verify(repository, times(1)).findBySourceHashOrderByPageNumberAscIdAsc("abc");
+    }
 }
@@ -1,6 +1,10 @@
 package com.example.service;
 
 import com.example.data.PriceInfo;
+import com.example.util.PdfSpoolFile;
+import com.example.util.PriceFields;
+import com.example.util.PricePage;
+import com.example.util.PriceRowSink;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.web.multipart.MultipartFile;
@@ -40,6 +44,24 @@ class PriceServiceTest {
         assertNotNull(PriceService.class.getMethod("extractPricesFromPdf", MultipartFile.class));
     }
 
+    @Test
+    @DisplayName("Should have streamPricesFromPdf method")
+    void testPriceServiceInterface_HasStreamPricesFromPdfMethod() throws NoSuchMethodException {
+        assertNotNull(PriceService.class.getMethod("streamPricesFromPdf", MultipartFile.class, PriceRowSink.class));
+    }
+
+    @Test
+    @DisplayName("Should have extractPrices method for spooled uploads")
+    void testPriceServiceInterface_HasExtractPricesMethod() throws NoSuchMethodException {
+        assertNotNull(PriceService.class.getMethod("extractPrices", PdfSpoolFile.class, String.class, PriceRowSink.class));
+    }
+
+    @Test
+    @DisplayName("Should have getUploadCacheStats method")
+    void testPriceServiceInterface_HasGetUploadCacheStatsMethod() throws NoSuchMethodException {
+        assertNotNull(PriceService.class.getMethod("getUploadCacheStats"));
+    }
+
     @Test
     @DisplayName("Should have getPriceInfoById method")
     void testPriceServiceInterface_HasGetPriceInfoByIdMethod() throws NoSuchMethodException {
@@ -49,43 +71,49 @@ class PriceServiceTest {
     @Test
     @DisplayName("Should have getAllPriceInfo method")
     void testPriceServiceInterface_HasGetAllPriceInfoMethod() throws NoSuchMethodException {
-        assertNotNull(PriceService.class.getMethod("getAllPriceInfo"));
+        assertNotNull(PriceService.class.getMethod("getAllPriceInfo", String.class, int.class, PriceFields.class));
     }
 
     @Test
     @DisplayName("Should have findByProductName method")
     void testPriceServiceInterface_HasFindByProductNameMethod() throws NoSuchMethodException {
-        assertNotNull(PriceService.class.getMethod("findByProductName", String.class));
+        assertNotNull(PriceService.class.getMethod("findByProductName", String.class,
+                        String.class, int.class, PriceFields.class));
     }
 
     @Test
     @DisplayName("Should have findByProductCode method")
     void testPriceServiceInterface_HasFindByProductCodeMethod() throws NoSuchMethodException {
-        assertNotNull(PriceService.class.getMethod("findByProductCode", String.class));
+        assertNotNull(PriceService.class.getMethod("findByProductCode", String.class,
+                        String.class, int.class, PriceFields.class));
     }
 
     @Test
     @DisplayName("Should have findByCategory method")
     void testPriceServiceInterface_HasFindByCategoryMethod() throws NoSuchMethodException {
-        assertNotNull(PriceService.class.getMethod("findByCategory", String.class));
+        assertNotNull(PriceService.class.getMethod("findByCategory", String.class,
+                        String.class, int.class, PriceFields.class));
     }
 
     @Test
     @DisplayName("Should have findBySupplier method")
     void testPriceServiceInterface_HasFindBySupplierMethod() throws NoSuchMethodException {
-        assertNotNull(PriceService.class.getMethod("findBySupplier", String.class));
+        assertNotNull(PriceService.class.getMethod("findBySupplier", String.class,
+                        String.class, int.class, PriceFields.class));
     }
 
     @Test
     @DisplayName("Should have findByPriceRange method")
     void testPriceServiceInterface_HasFindByPriceRangeMethod() throws NoSuchMethodException {
-        assertNotNull(PriceService.class.getMethod("findByPriceRange", BigDecimal.class, BigDecimal.class));
+        assertNotNull(PriceService.class.getMethod("findByPriceRange", BigDecimal.class, BigDecimal.class,
+                        String.class, int.class, PriceFields.class));
     }
 
     @Test
     @DisplayName("Should have searchByKeyword method")
     void testPriceServiceInterface_HasSearchByKeywordMethod() throws NoSuchMethodException {
-        assertNotNull(PriceService.class.getMethod("searchByKeyword", String.class));
+        assertNotNull(PriceService.class.getMethod("searchByKeyword", String.class,
+                        String.class, int.class, PriceFields.class));
     }
 
     @Test
@@ -122,52 +150,58 @@ class PriceServiceTest {
     }
 
     @Test
-    @DisplayName("Should verify getAllPriceInfo returns List")
+    @DisplayName("Should verify getAllPriceInfo returns PricePage")
     void testGetAllPriceInfoMethod_ReturnType() throws NoSuchMethodException {
-        assertEquals(List.class,
-                PriceService.class.getMethod("getAllPriceInfo").getReturnType());
+        assertEquals(PricePage.class,
+                PriceService.class.getMethod("getAllPriceInfo", String.class, int.class, PriceFields.class).getReturnType());
     }
 
     @Test
-    @DisplayName("Should verify findByProductName returns List")
+    @DisplayName("Should verify findByProductName returns PricePage")
     void testFindByProductNameMethod_ReturnType() throws NoSuchMethodException {
-        assertEquals(List.class,
-                PriceService.class.getMethod("findByProductName", String.class).getReturnType());
+        assertEquals(PricePage.class,
+                PriceService.class.getMethod("findByProductName", String.class,
+                        String.class, int.class, PriceFields.class).getReturnType());
     }
 
     @Test
-    @DisplayName("Should verify findByProductCode returns List")
+    @DisplayName("Should verify findByProductCode returns PricePage")
     void testFindByProductCodeMethod_ReturnType() throws NoSuchMethodException {
-        assertEquals(List.class,
-                PriceService.class.getMethod("findByProductCode", String.class).getReturnType());
+        assertEquals(PricePage.class,
+                PriceService.class.getMethod("findByProductCode", String.class,
+                        String.class, int.class, PriceFields.class).getReturnType());
     }
 
     @Test
-    @DisplayName("Should verify findByCategory returns List")
+    @DisplayName("Should verify findByCategory returns PricePage")
     void testFindByCategoryMethod_ReturnType() throws NoSuchMethodException {
-        assertEquals(List.class,
-                PriceService.class.getMethod("findByCategory", String.class).getReturnType());
+        assertEquals(PricePage.class,
+                PriceService.class.getMethod("findByCategory", String.class,
+                        String.class, int.class, PriceFields.class).getReturnType());
     }
 
     @Test
-    @DisplayName("Should verify findBySupplier returns List")
+    @DisplayName("Should verify findBySupplier returns PricePage")
     void testFindBySupplierMethod_ReturnType() throws NoSuchMethodException {
-        assertEquals(List.class,
-                PriceService.class.getMethod("findBySupplier", String.class).getReturnType());
+        assertEquals(PricePage.class,
+                PriceService.class.getMethod("findBySupplier", String.class,
+                        String.class, int.class, PriceFields.class).getReturnType());
     }
 
     @Test
-    @DisplayName("Should verify findByPriceRange returns List")
+    @DisplayName("Should verify findByPriceRange returns PricePage")
     void testFindByPriceRangeMethod_ReturnType() throws NoSuchMethodException {
-        assertEquals(List.class,
-                PriceService.class.getMethod("findByPriceRange", BigDecimal.class, BigDecimal.class).getReturnType());
+        assertEquals(PricePage.class,
+                PriceService.class.getMethod("findByPriceRange", BigDecimal.class, BigDecimal.class,
+                        String.class, int.class, PriceFields.class).getReturnType());
     }
 
     @Test
-    @DisplayName("Should verify searchByKeyword returns List")
+    @DisplayName("Should verify searchByKeyword returns PricePage")
     void testSearchByKeywordMethod_ReturnType() throws NoSuchMethodException {
-        assertEquals(List.class,
-                PriceService.class.getMethod("searchByKeyword", String.class).getReturnType());
+        assertEquals(PricePage.class,
+                PriceService.class.getMethod("searchByKeyword", String.class,
+                        String.class, int.class, PriceFields.class).getReturnType());
     }
 
     @Test
@@ -202,11 +236,11 @@ class PriceServiceTest {
     }
 
     @Test
-    @DisplayName("Should verify interface has exactly 12 methods")
+    @DisplayName("Should verify interface has exactly 21 methods")
     void testPriceServiceInterface_MethodCount() {
         // Count all declared methods in the interface
         int methodCount = PriceService.class.getDeclaredMethods().length;
-        assertEquals(12, methodCount, "PriceService should have exactly 12 methods");
+        assertEquals(21, methodCount, "PriceService should have exactly 21 methods");
     }
 
     @Test
@@ -231,17 +265,18 @@ class PriceServiceTest {
     }
 
     @Test
-    @DisplayName("Should verify getAllPriceInfo has no parameters")
+    @DisplayName("Should verify getAllPriceInfo takes a cursor, limit and fields")
     void testGetAllPriceInfoMethod_ParameterCount() throws NoSuchMethodException {
-        assertEquals(0,
-                PriceService.class.getMethod("getAllPriceInfo").getParameterCount());
+        assertEquals(3,
+                PriceService.class.getMethod("getAllPriceInfo", String.class, int.class, PriceFields.class).getParameterCount());
     }
 
     @Test
-    @DisplayName("Should verify findByPriceRange has two parameters")
+    @DisplayName("Should verify findByPriceRange takes a range, cursor, limit and fields")
     void testFindByPriceRangeMethod_ParameterCount() throws NoSuchMethodException {
-        assertEquals(2,
-                PriceService.class.getMethod("findByPriceRange", BigDecimal.class, BigDecimal.class).getParameterCount());
+        assertEquals(5,
+                PriceService.class.getMethod("findByPriceRange", BigDecimal.class, BigDecimal.class,
+                        String.class, int.class, PriceFields.class).getParameterCount());
     }
 
     @Test
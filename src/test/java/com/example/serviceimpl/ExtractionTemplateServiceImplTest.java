@@ -0,0 +1,137 @@
+package com.example.serviceimpl;
+
+import com.example.data.ExtractionTemplate;
+import com.example.repository.ExtractionTemplateRepository;
+import com.example.util.CompiledTemplate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExtractionTemplateServiceImpl Tests")
+class ExtractionTemplateServiceImplTest {
+
+    @Mock
+    private ExtractionTemplateRepository extractionTemplateRepository;
+
+    @InjectMocks
+    private ExtractionTemplateServiceImpl extractionTemplateService;
+
+    @Test
+    @DisplayName("Should return the templates whose metadata patterns match, marker templates first")
+    void testFindCandidates_Matching() {
+        ExtractionTemplate any = template("t1", "Acme.*", null);
+        ExtractionTemplate marked = template("t2", "Acme.*", "Acme Ltd");
+        ExtractionTemplate other = template("t3", "Beta.*", null);
+        when(extractionTemplateRepository.findAll()).thenReturn(Arrays.asList(any, marked, other));
+
+        List<CompiledTemplate> candidates = extractionTemplateService.findCandidates("AcmeExport", "Word");
+
+        assertEquals(2, candidates.size());
+        assertEquals("t2", candidates.get(0).getId());
+        assertEquals("t1", candidates.get(1).getId());
+        assertTrue(extractionTemplateService.findCandidates("Other", "Word").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should compile templates once and remember lookups by fingerprint")
+    void testFindCandidates_Cached() {
+        when(extractionTemplateRepository.findAll()).thenReturn(Collections.singletonList(template("t1", "Acme.*", null)));
+
+        List<CompiledTemplate> first = extractionTemplateService.findCandidates("AcmeExport", null);
+        List<CompiledTemplate> second = extractionTemplateService.findCandidates("AcmeExport", null);
+
+        assertSame(first, second);
+        verify(extractionTemplateRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used fingerprint")
+    void testFindCandidates_Eviction() {
+        ReflectionTestUtils.setField(extractionTemplateService, "cacheSize", 2);
+        when(extractionTemplateRepository.findAll()).thenReturn(Collections.singletonList(template("t1", "Acme.*", null)));
+
+        List<CompiledTemplate> a = extractionTemplateService.findCandidates("AcmeA", null);
+        List<CompiledTemplate> b = extractionTemplateService.findCandidates("AcmeB", null);
+        assertSame(a, extractionTemplateService.findCandidates("AcmeA", null));
+        extractionTemplateService.findCandidates("AcmeC", null);
+
+        assertSame(a, extractionTemplateService.findCandidates("AcmeA", null));
+        assertNotSame(b, extractionTemplateService.findCandidates("AcmeB", null));
+    }
+
+    @Test
+    @DisplayName("Should skip stored templates that no longer compile")
+    void testFindCandidates_InvalidStoredTemplate() {
+        ExtractionTemplate broken = template("t1", "Acme.*", null);
+        broken.setPriceColumn(null);
+        when(extractionTemplateRepository.findAll()).thenReturn(Arrays.asList(broken, template("t2", "Acme.*", null)));
+
+        List<CompiledTemplate> candidates = extractionTemplateService.findCandidates("Acme", null);
+
+        assertEquals(1, candidates.size());
+        assertEquals("t2", candidates.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Should validate and save a template, then reload templates")
+    void testSaveTemplate() {
+        ExtractionTemplate template = template(null, "Acme.*", null);
+        when(extractionTemplateRepository.findAll())
+                .thenReturn(Collections.emptyList())
+                .thenReturn(Collections.singletonList(template));
+        when(extractionTemplateRepository.save(template)).thenReturn(template);
+
+        assertTrue(extractionTemplateService.findCandidates("Acme", null).isEmpty());
+        assertSame(template, extractionTemplateService.saveTemplate(template));
+
+        assertEquals(1, extractionTemplateService.findCandidates("Acme", null).size());
+    }
+
+    @Test
+    @DisplayName("Should not save a template that cannot be compiled")
+    void testSaveTemplate_Invalid() {
+        ExtractionTemplate template = template(null, "Acme(", null);
+
+        assertThrows(IllegalArgumentException.class, () -> extractionTemplateService.saveTemplate(template));
+        assertThrows(IllegalArgumentException.class, () -> extractionTemplateService.saveTemplate(null));
+        verify(extractionTemplateRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should delete a template and reload templates")
+    void testDeleteTemplate() {
+        when(extractionTemplateRepository.findAll())
+                .thenReturn(Collections.singletonList(template("t1", "Acme.*", null)))
+                .thenReturn(Collections.emptyList());
+
+        assertEquals(1, extractionTemplateService.findCandidates("Acme", null).size());
+        extractionTemplateService.deleteTemplate("t1");
+
+        verify(extractionTemplateRepository).deleteById("t1");
+        assertTrue(extractionTemplateService.findCandidates("Acme", null).isEmpty());
+    }
+
+    private static ExtractionTemplate template(String id, String producerPattern, String marker) {
+        ExtractionTemplate template = new ExtractionTemplate();
+        template.setId(id);
+        template.setProducerPattern(producerPattern);
+        template.setFirstPageMarker(marker);
+        template.setColumnBounds(List.of(120f, 300f));
+        template.setCodeColumn(0);
+        template.setPriceColumn(2);
+        return template;
+    }
+}
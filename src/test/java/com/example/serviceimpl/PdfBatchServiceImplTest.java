@@ -0,0 +1,263 @@
+package com.example.serviceimpl;
+
+import com.example.service.PriceService;
+import com.example.util.BatchFileResult;
+import com.example.util.ExtractionLimitException;
+import com.example.util.ExtractionSummary;
+import com.example.util.PdfPriceExtractor;
+import com.example.util.PdfSpoolFile;
+import com.example.util.PriceRowSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PdfBatchServiceImpl Tests")
+class PdfBatchServiceImplTest {
+
+    @Mock
+    private PriceService priceService;
+
+    @Mock
+    private PdfPriceExtractor pdfPriceExtractor;
+
+    @InjectMocks
+    private PdfBatchServiceImpl pdfBatchService;
+
+    @TempDir
+    Path spoolDir;
+
+    // Spooled content seen by the extraction, by document name
+    private final Map<String, String> extractedContent = new ConcurrentHashMap<>();
+
+    @AfterEach
+    void tearDown() {
+        pdfBatchService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should extract each uploaded PDF and report results in upload order")
+    void testExtractPricesFromBatch_MultiplePdfs() throws Exception {
+        mockExtraction();
+        List<MultipartFile> files = Arrays.asList(
+                new MockMultipartFile("files", "a.pdf", "application/pdf", "first".getBytes()),
+                new MockMultipartFile("files", "b.pdf", "application/pdf", "second".getBytes()));
+
+        List<BatchFileResult> results = pdfBatchService.extractPricesFromBatch(files);
+
+        assertEquals(2, results.size());
+        assertEquals("a.pdf", results.get(0).getFileName());
+        assertEquals("b.pdf", results.get(1).getFileName());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(5, results.get(0).getExtractedCount());
+        assertEquals("first", extractedContent.get("a.pdf"));
+        assertEquals("second", extractedContent.get("b.pdf"));
+        assertSpoolDirEmpty();
+    }
+
+    @Test
+    @DisplayName("Should stream the PDF entries of a ZIP archive")
+    void testExtractPricesFromBatch_ZipArchive() throws Exception {
+        mockExtraction();
+        byte[] zip = zip(new String[][] {
+                {"feed/a.pdf", "first"}, {"feed/", null}, {"feed/notes.txt", "hello"}, {"feed/B.PDF", "second"}});
+        List<MultipartFile> files = Collections.singletonList(
+                new MockMultipartFile("files", "feed.zip", "application/zip", zip));
+
+        List<BatchFileResult> results = pdfBatchService.extractPricesFromBatch(files);
+
+        assertEquals(3, results.size());
+        assertEquals("feed/a.pdf", results.get(0).getFileName());
+        assertEquals("feed.zip", results.get(0).getArchiveName());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("feed/notes.txt", results.get(1).getFileName());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("feed/B.PDF", results.get(2).getFileName());
+        assertTrue(results.get(2).isSuccess());
+        assertEquals("first", extractedContent.get("feed/a.pdf"));
+        assertEquals("second", extractedContent.get("feed/B.PDF"));
+        verify(priceService, times(2)).extractPrices(any(PdfSpoolFile.class), anyString(), any(PriceRowSink.class));
+        assertSpoolDirEmpty();
+    }
+
+    @Test
+    @DisplayName("Should report a failing document without failing the batch")
+    void testExtractPricesFromBatch_PartialFailure() throws Exception {
+        when(pdfPriceExtractor.resolveSpoolDirectory()).thenReturn(spoolDir);
+        when(priceService.extractPrices(any(PdfSpoolFile.class), anyString(), any(PriceRowSink.class)))
+                .thenAnswer(invocation -> {
+                    String fileName = invocation.getArgument(1);
+                    if (fileName.equals("bad.pdf")) {
+                        throw new RuntimeException("Corrupt PDF");
+                    }
+                    return new ExtractionSummary(fileName, 1, 2);
+                });
+        List<MultipartFile> files = Arrays.asList(
+                new MockMultipartFile("files", "bad.pdf", "application/pdf", "x".getBytes()),
+                new MockMultipartFile("files", "good.pdf", "application/pdf", "y".getBytes()),
+                new MockMultipartFile("files", "image.png", "image/png", "z".getBytes()),
+                new MockMultipartFile("files", "empty.pdf", "application/pdf", new byte[0]));
+
+        List<BatchFileResult> results = pdfBatchService.extractPricesFromBatch(files);
+
+        assertFalse(results.get(0).isSuccess());
+        assertTrue(results.get(0).getError().contains("Corrupt PDF"));
+        assertTrue(results.get(1).isSuccess());
+        assertEquals(2, results.get(1).getExtractedCount());
+        assertEquals("Only PDF and ZIP files are supported", results.get(2).getError());
+        assertEquals("File is empty", results.get(3).getError());
+        assertSpoolDirEmpty();
+    }
+
+    @Test
+    @DisplayName("Should extract documents concurrently")
+    void testExtractPricesFromBatch_Concurrent() throws Exception {
+        ReflectionTestUtils.setField(pdfBatchService, "maxConcurrentFiles", 2);
+        CyclicBarrier bothRunning = new CyclicBarrier(2);
+        when(pdfPriceExtractor.resolveSpoolDirectory()).thenReturn(spoolDir);
+        when(priceService.extractPrices(any(PdfSpoolFile.class), anyString(), any(PriceRowSink.class)))
+                .thenAnswer(invocation -> {
+                    // Only returns if the other document is being extracted at the same time
+                    bothRunning.await(5, TimeUnit.SECONDS);
+                    return new ExtractionSummary(invocation.getArgument(1), 1, 1);
+                });
+        List<MultipartFile> files = Arrays.asList(
+                new MockMultipartFile("files", "a.pdf", "application/pdf", "a".getBytes()),
+                new MockMultipartFile("files", "b.pdf", "application/pdf", "b".getBytes()));
+
+        List<BatchFileResult> results = pdfBatchService.extractPricesFromBatch(files);
+
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+    }
+
+    @Test
+    @DisplayName("Should refuse an archive entry that expands past the entry limit")
+    void testExtractPricesFromBatch_EntryTooLarge() throws Exception {
+        ReflectionTestUtils.setField(pdfBatchService, "maxEntryBytes", 4L);
+        when(pdfPriceExtractor.resolveSpoolDirectory()).thenReturn(spoolDir);
+        byte[] zip = zip(new String[][] {{"feed/big.pdf", "0123456789"}});
+        List<MultipartFile> files = Collections.singletonList(
+                new MockMultipartFile("files", "feed.zip", "application/zip", zip));
+
+        ExtractionLimitException e = assertThrows(ExtractionLimitException.class,
+                () -> pdfBatchService.extractPricesFromBatch(files));
+
+        assertTrue(e.getMessage().contains("feed/big.pdf"));
+        verify(priceService, never()).extractPrices(any(PdfSpoolFile.class), anyString(), any(PriceRowSink.class));
+        assertSpoolDirEmpty();
+    }
+
+    @Test
+    @DisplayName("Should refuse archives with more entries than the limit and skip queued documents")
+    void testExtractPricesFromBatch_TooManyEntries() throws Exception {
+        ReflectionTestUtils.setField(pdfBatchService, "maxConcurrentFiles", 1);
+        ReflectionTestUtils.setField(pdfBatchService, "maxArchiveEntries", 2);
+        when(pdfPriceExtractor.resolveSpoolDirectory()).thenReturn(spoolDir);
+        lenient().when(priceService.extractPrices(any(PdfSpoolFile.class), anyString(), any(PriceRowSink.class)))
+                .thenAnswer(invocation -> {
+                    // Holds the only worker, so b.pdf is still queued when c.pdf breaks the limit
+                    Thread.sleep(200);
+                    return new ExtractionSummary(invocation.getArgument(1), 1, 1);
+                });
+        byte[] zip = zip(new String[][] {{"a.pdf", "a"}, {"b.pdf", "b"}, {"c.pdf", "c"}});
+        List<MultipartFile> files = Collections.singletonList(
+                new MockMultipartFile("files", "feed.zip", "application/zip", zip));
+
+        assertThrows(ExtractionLimitException.class, () -> pdfBatchService.extractPricesFromBatch(files));
+
+        verify(priceService, never()).extractPrices(any(PdfSpoolFile.class), eq("b.pdf"), any(PriceRowSink.class));
+        verify(priceService, never()).extractPrices(any(PdfSpoolFile.class), eq("c.pdf"), any(PriceRowSink.class));
+        assertSpoolDirEmpty();
+    }
+
+    @Test
+    @DisplayName("Should refuse archives that together expand past the batch limit")
+    void testExtractPricesFromBatch_ArchivesTooLarge() throws Exception {
+        ReflectionTestUtils.setField(pdfBatchService, "maxArchiveBytes", 10L);
+        when(pdfPriceExtractor.resolveSpoolDirectory()).thenReturn(spoolDir);
+        List<MultipartFile> files = Arrays.asList(
+                new MockMultipartFile("files", "first.zip", "application/zip", zip(new String[][] {{"a.pdf", "aaaa"}})),
+                new MockMultipartFile("files", "second.zip", "application/zip", zip(new String[][] {{"c.pdf", "cccccccc"}})));
+
+        assertThrows(ExtractionLimitException.class, () -> pdfBatchService.extractPricesFromBatch(files));
+
+        verify(priceService, never()).extractPrices(any(PdfSpoolFile.class), eq("c.pdf"), any(PriceRowSink.class));
+        assertSpoolDirEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reject an empty batch")
+    void testExtractPricesFromBatch_NoFiles() {
+        assertThrows(IllegalArgumentException.class,
+                () -> pdfBatchService.extractPricesFromBatch(Collections.emptyList()));
+        assertThrows(IllegalArgumentException.class, () -> pdfBatchService.extractPricesFromBatch(null));
+    }
+
+    @Test
+    @DisplayName("Should use the available cores unless configured")
+    void testResolveConcurrency() {
+        assertEquals(Runtime.getRuntime().availableProcessors(), pdfBatchService.resolveConcurrency());
+
+        ReflectionTestUtils.setField(pdfBatchService, "maxConcurrentFiles", 3);
+
+        assertEquals(3, pdfBatchService.resolveConcurrency());
+    }
+
+    private void mockExtraction() throws Exception {
+        when(pdfPriceExtractor.resolveSpoolDirectory()).thenReturn(spoolDir);
+        when(priceService.extractPrices(any(PdfSpoolFile.class), anyString(), any(PriceRowSink.class)))
+                .thenAnswer(invocation -> {
+                    PdfSpoolFile spoolFile = invocation.getArgument(0);
+                    String fileName = invocation.getArgument(1);
+                    extractedContent.put(fileName, Files.readString(spoolFile.getPath()));
+                    return new ExtractionSummary(fileName, 1, 5);
+                });
+    }
+
+    private void assertSpoolDirEmpty() throws Exception {
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static byte[] zip(String[][] entries) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (String[] entry : entries) {
+                zip.putNextEntry(new ZipEntry(entry[0]));
+                if (entry[1] != null) {
+                    zip.write(entry[1].getBytes());
+                }
+                zip.closeEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+}
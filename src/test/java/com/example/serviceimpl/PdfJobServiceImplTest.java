@@ -0,0 +1,170 @@
+package com.example.serviceimpl;
+
+import com.example.data.PriceInfo;
+import com.example.service.PriceService;
+import com.example.util.ExtractionSummary;
+import com.example.util.PdfExtractionJob;
+import com.example.util.PdfPriceExtractor;
+import com.example.util.PdfSpoolFile;
+import com.example.util.PriceFields;
+import com.example.util.PricePage;
+import com.example.util.PriceRowSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PdfJobServiceImpl Tests")
+class PdfJobServiceImplTest {
+
+    @Mock
+    private PriceService priceService;
+
+    @Mock
+    private PdfPriceExtractor pdfPriceExtractor;
+
+    @Mock
+    private MultipartFile multipartFile;
+
+    @InjectMocks
+    private PdfJobServiceImpl pdfJobService;
+
+    @TempDir
+    Path spoolDir;
+
+    @AfterEach
+    void tearDown() {
+        pdfJobService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should run a submitted job in the background and complete it")
+    void testSubmitPdfJob_Completes() throws Exception {
+        mockUpload("prices.pdf");
+        when(priceService.extractPrices(any(PdfSpoolFile.class), eq("prices.pdf"), any(PriceRowSink.class)))
+                .thenReturn(new ExtractionSummary("prices.pdf", 3, 7));
+
+        PdfExtractionJob job = pdfJobService.submitPdfJob(multipartFile);
+        awaitFinished(job);
+
+        assertEquals(PdfExtractionJob.Status.COMPLETED, job.getStatus());
+        assertEquals(7, job.getSummary().getExtractedCount());
+        assertNotNull(job.getStartedDate());
+        assertNotNull(job.getFinishedDate());
+        assertSame(job, pdfJobService.getJob(job.getId()).orElseThrow());
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should mark the job failed when extraction throws")
+    void testSubmitPdfJob_Fails() throws Exception {
+        mockUpload("corrupt.pdf");
+        when(priceService.extractPrices(any(PdfSpoolFile.class), eq("corrupt.pdf"), any(PriceRowSink.class)))
+                .thenThrow(new RuntimeException("Corrupt PDF"));
+
+        PdfExtractionJob job = pdfJobService.submitPdfJob(multipartFile);
+        awaitFinished(job);
+
+        assertEquals(PdfExtractionJob.Status.FAILED, job.getStatus());
+        assertTrue(job.getError().contains("Corrupt PDF"));
+        assertNull(job.getSummary());
+    }
+
+    @Test
+    @DisplayName("Should reject submissions once the queue is full")
+    void testSubmitPdfJob_QueueFull() throws Exception {
+        ReflectionTestUtils.setField(pdfJobService, "workers", 1);
+        ReflectionTestUtils.setField(pdfJobService, "queueCapacity", 1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        mockUpload("big.pdf");
+        when(priceService.extractPrices(any(PdfSpoolFile.class), eq("big.pdf"), any(PriceRowSink.class)))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return new ExtractionSummary("big.pdf", 1, 0);
+                });
+
+        PdfExtractionJob running = pdfJobService.submitPdfJob(multipartFile);
+        PdfExtractionJob queued = pdfJobService.submitPdfJob(multipartFile);
+
+        assertThrows(RejectedExecutionException.class, () -> pdfJobService.submitPdfJob(multipartFile));
+
+        release.countDown();
+        awaitFinished(running);
+        awaitFinished(queued);
+        assertEquals(PdfExtractionJob.Status.COMPLETED, queued.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should reject a missing file")
+    void testSubmitPdfJob_NullFile() {
+        assertThrows(IllegalArgumentException.class, () -> pdfJobService.submitPdfJob(null));
+    }
+
+    @Test
+    @DisplayName("Should return no job for an unknown id")
+    void testGetJob_Unknown() {
+        assertTrue(pdfJobService.getJob("missing").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should read the rows of a completed job's upload")
+    void testGetJobResults_Completed() {
+        PdfExtractionJob job = new PdfExtractionJob("1", "prices.pdf", "hash");
+        job.markCompleted(new ExtractionSummary("prices.pdf", 1, 1));
+        PricePage page = new PricePage(Arrays.asList(new PriceInfo()), "next");
+        when(priceService.getUploadRows("hash", "cursor", 10, PriceFields.DEFAULT)).thenReturn(page);
+
+        assertSame(page, pdfJobService.getJobResults(job, "cursor", 10, PriceFields.DEFAULT));
+    }
+
+    @Test
+    @DisplayName("Should return no rows while a job is still running")
+    void testGetJobResults_Running() {
+        PdfExtractionJob job = new PdfExtractionJob("1", "prices.pdf", "hash");
+        job.markRunning();
+
+        PricePage page = pdfJobService.getJobResults(job, null, 0, PriceFields.DEFAULT);
+
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+        verify(priceService, never()).getUploadRows(anyString(), any(), anyInt(), any());
+    }
+
+    private void mockUpload(String fileName) throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn(fileName);
+        when(multipartFile.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream("%PDF".getBytes()));
+        when(pdfPriceExtractor.resolveSpoolDirectory()).thenReturn(spoolDir);
+    }
+
+    private static void awaitFinished(PdfExtractionJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!job.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.isFinished(), "job did not finish in time");
+    }
+}
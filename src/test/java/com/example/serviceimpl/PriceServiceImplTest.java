@@ -1,21 +1,48 @@
 package com.example.serviceimpl;
 
+import com.example.data.PdfLineage;
+import com.example.data.PdfUpload;
 import com.example.data.PriceInfo;
+import com.example.repository.PdfLineageRepository;
+import com.example.repository.PdfUploadRepository;
 import com.example.repository.PriceInfoRepository;
+import com.example.util.AdmittedUpload;
+import com.example.util.ExtractionAdmission;
+import com.example.util.ExtractionMetrics;
+import com.example.util.ExtractionRejectedException;
+import com.example.util.ExtractionSummary;
+import com.example.util.PageRange;
+import com.example.util.PdfFingerprint;
 import com.example.util.PdfPriceExtractor;
+import com.example.util.PdfSpoolFile;
+import com.example.util.PriceCursor;
+import com.example.util.PriceFields;
+import com.example.util.PricePage;
+import com.example.util.PriceRowSink;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -39,17 +66,44 @@ class PriceServiceImplTest {
     @Mock
     private PdfPriceExtractor pdfPriceExtractor;
 
+    @Mock
+    private PdfUploadRepository pdfUploadRepository;
+
+    @Mock
+    private PdfLineageRepository pdfLineageRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private ExtractionAdmission extractionAdmission;
+
+    @Mock
+    private ExtractionAdmission.Permit permit;
+
     @Mock
     private MultipartFile multipartFile;
 
     @InjectMocks
     private PriceServiceImpl priceService;
 
+    // SHA-256 of the "test" upload most tests spool
+    private static final String TEST_HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
     private PriceInfo samplePriceInfo;
     private PriceInfo anotherPriceInfo;
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws Exception {
+        lenient().when(pdfPriceExtractor.fingerprint(any(PdfSpoolFile.class)))
+                .thenReturn(new PdfFingerprint(null, Collections.emptyList()));
+        lenient().when(extractionAdmission.admit(anyLong(), anyInt())).thenReturn(permit);
+        // Most tests check rows saved through the repository; pipelined bulk writes have their own tests
+        ReflectionTestUtils.setField(priceService, "pipelinedWrites", false);
+
         samplePriceInfo = new PriceInfo();
         samplePriceInfo.setId("1");
         samplePriceInfo.setProductName("Laptop");
@@ -117,8 +171,12 @@ class PriceServiceImplTest {
         when(multipartFile.isEmpty()).thenReturn(false);
         when(multipartFile.getOriginalFilename()).thenReturn("prices.pdf");
         when(multipartFile.getInputStream()).thenReturn(inputStream);
-        when(pdfPriceExtractor.extractPricesFromPdf(any(InputStream.class), anyString()))
-                .thenReturn(extractedPrices);
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("prices.pdf"), eq(PageRange.ALL), any(PriceRowSink.class)))
+                .thenAnswer(invocation -> {
+                    PriceRowSink sink = invocation.getArgument(3);
+                    sink.onPage(1, extractedPrices);
+                    return new ExtractionSummary("prices.pdf", 1, 2);
+                });
         when(priceInfoRepository.saveAll(anyList())).thenReturn(extractedPrices);
 
         List<PriceInfo> result = priceService.extractPricesFromPdf(multipartFile);
@@ -126,24 +184,153 @@ class PriceServiceImplTest {
         assertNotNull(result);
         assertEquals(2, result.size());
         verify(multipartFile, times(1)).getInputStream();
-        verify(pdfPriceExtractor, times(1)).extractPricesFromPdf(any(InputStream.class), eq("prices.pdf"));
+        verify(pdfPriceExtractor, times(1)).extractPrices(any(PdfSpoolFile.class), eq("prices.pdf"), eq(PageRange.ALL),
+                any(PriceRowSink.class));
         verify(priceInfoRepository, times(1)).saveAll(extractedPrices);
+        verify(pdfUploadRepository, times(1)).save(any(PdfUpload.class));
+    }
+
+    @Test
+    @DisplayName("Should store rows in unordered bulk chunks while extracting")
+    void testExtractPricesFromPdf_PipelinedWrites() throws Exception {
+        ReflectionTestUtils.setField(priceService, "pipelinedWrites", true);
+        ReflectionTestUtils.setField(priceService, "writeChunkSize", 1);
+        PriceInfo unsaved = new PriceInfo();
+        unsaved.setProductCode("KEY-001");
+
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("prices.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("test".getBytes()));
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("prices.pdf"), eq(PageRange.ALL), any(PriceRowSink.class)))
+                .thenAnswer(invocation -> {
+                    PriceRowSink sink = invocation.getArgument(3);
+                    sink.onPage(1, Arrays.asList(samplePriceInfo, unsaved));
+                    sink.onPage(2, Arrays.asList(anotherPriceInfo));
+                    return new ExtractionSummary("prices.pdf", 2, 3);
+                });
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PriceInfo.class)).thenReturn(bulkOperations);
+
+        List<PriceInfo> result = priceService.extractPricesFromPdf(multipartFile);
+
+        try {
+            assertEquals(Arrays.asList(samplePriceInfo, unsaved, anotherPriceInfo), result);
+            assertNotNull(unsaved.getId());
+            assertNotNull(unsaved.getSourceHash());
+            verify(bulkOperations, times(3)).insert(anyList());
+            verify(bulkOperations, times(3)).execute();
+            verify(priceInfoRepository, never()).saveAll(anyList());
+            verify(pdfUploadRepository, times(1)).save(any(PdfUpload.class));
+        } finally {
+            priceService.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail the extraction and record no upload when a bulk write fails")
+    void testStreamPricesFromPdf_PipelinedWriteFailure() throws Exception {
+        ReflectionTestUtils.setField(priceService, "pipelinedWrites", true);
+        ReflectionTestUtils.setField(priceService, "writeChunkSize", 1);
+
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("prices.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("test".getBytes()));
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("prices.pdf"), any(PriceRowSink.class)))
+                .thenAnswer(invocation -> {
+                    PriceRowSink sink = invocation.getArgument(2);
+                    sink.onPage(1, Arrays.asList(samplePriceInfo));
+                    return new ExtractionSummary("prices.pdf", 1, 1);
+                });
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PriceInfo.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(new IllegalStateException("Mongo unavailable"));
+
+        try {
+            assertThrows(IllegalStateException.class,
+                    () -> priceService.streamPricesFromPdf(multipartFile, (page, rows) -> { }));
+            verify(pdfUploadRepository, never()).save(any(PdfUpload.class));
+        } finally {
+            priceService.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should delete the rows a pipelined range extraction stored before it failed")
+    void testExtractPricesFromPdf_FailureDeletesStoredRows() throws Exception {
+        ReflectionTestUtils.setField(priceService, "pipelinedWrites", true);
+        ReflectionTestUtils.setField(priceService, "writeChunkSize", 1);
+
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("prices.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("test".getBytes()));
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("prices.pdf"), eq(PageRange.parse("2-5")),
+                any(PriceRowSink.class)))
+                .thenAnswer(invocation -> {
+                    PriceRowSink sink = invocation.getArgument(3);
+                    sink.onPage(2, Arrays.asList(samplePriceInfo));
+                    throw new IOException("Damaged page 3");
+                });
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PriceInfo.class)).thenReturn(bulkOperations);
+
+        try {
+            assertThrows(IOException.class,
+                    () -> priceService.extractPricesFromPdf(multipartFile, PageRange.parse("2-5")));
+
+            ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+            InOrder inOrder = inOrder(mongoTemplate, bulkOperations);
+            inOrder.verify(mongoTemplate).remove(any(Query.class), eq(PriceInfo.class));
+            inOrder.verify(bulkOperations).execute();
+            inOrder.verify(mongoTemplate).remove(removed.capture(), eq(PriceInfo.class));
+            Document criteria = removed.getValue().getQueryObject();
+            assertEquals(TEST_HASH, criteria.get("sourceHash"));
+            assertEquals(new Document("$gte", 2).append("$lte", 5), criteria.get("pageNumber"));
+            verify(pdfUploadRepository, never()).save(any(PdfUpload.class));
+        } finally {
+            priceService.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should delete the pages a streamed extraction saved before it failed")
+    void testStreamPricesFromPdf_FailureDeletesSavedRows() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("prices.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("test".getBytes()));
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("prices.pdf"), any(PriceRowSink.class)))
+                .thenAnswer(invocation -> {
+                    PriceRowSink sink = invocation.getArgument(2);
+                    sink.onPage(1, Arrays.asList(samplePriceInfo));
+                    sink.onPage(2, Arrays.asList(anotherPriceInfo));
+                    return new ExtractionSummary("prices.pdf", 2, 2);
+                });
+        when(priceInfoRepository.saveAll(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new IllegalStateException("Mongo unavailable"));
+
+        assertThrows(IllegalStateException.class,
+                () -> priceService.streamPricesFromPdf(multipartFile, (page, rows) -> { }));
+
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        InOrder inOrder = inOrder(mongoTemplate, priceInfoRepository);
+        inOrder.verify(mongoTemplate).remove(any(Query.class), eq(PriceInfo.class));
+        inOrder.verify(priceInfoRepository, times(2)).saveAll(anyList());
+        inOrder.verify(mongoTemplate).remove(removed.capture(), eq(PriceInfo.class));
+        assertEquals(new Document("sourceHash", TEST_HASH), removed.getValue().getQueryObject());
+        verify(pdfUploadRepository, never()).save(any(PdfUpload.class));
     }
 
     @Test
     @DisplayName("Should throw exception when PDF file is null")
-    void testExtractPricesFromPdf_NullFile() {
+    void testExtractPricesFromPdf_NullFile() throws Exception {
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
             priceService.extractPricesFromPdf(null);
         });
 
         assertEquals("PDF file is required", exception.getMessage());
-        verify(pdfPriceExtractor, never()).extractPricesFromPdf(any(), any());
+        verify(pdfPriceExtractor, never()).extractPrices(any(PdfSpoolFile.class), any(), any(PageRange.class), any());
     }
 
     @Test
     @DisplayName("Should throw exception when PDF file is empty")
-    void testExtractPricesFromPdf_EmptyFile() {
+    void testExtractPricesFromPdf_EmptyFile() throws Exception {
         when(multipartFile.isEmpty()).thenReturn(true);
 
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -151,7 +338,7 @@ class PriceServiceImplTest {
         });
 
         assertEquals("PDF file is required", exception.getMessage());
-        verify(pdfPriceExtractor, never()).extractPricesFromPdf(any(), any());
+        verify(pdfPriceExtractor, never()).extractPrices(any(PdfSpoolFile.class), any(), any(PageRange.class), any());
     }
 
     @Test
@@ -176,8 +363,8 @@ class PriceServiceImplTest {
         when(multipartFile.isEmpty()).thenReturn(false);
         when(multipartFile.getOriginalFilename()).thenReturn("empty.pdf");
         when(multipartFile.getInputStream()).thenReturn(inputStream);
-        when(pdfPriceExtractor.extractPricesFromPdf(any(InputStream.class), anyString()))
-                .thenReturn(Collections.emptyList());
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), anyString(), eq(PageRange.ALL), any(PriceRowSink.class)))
+                .thenReturn(new ExtractionSummary("empty.pdf", 1, 0));
         when(priceInfoRepository.saveAll(anyList())).thenReturn(Collections.emptyList());
 
         List<PriceInfo> result = priceService.extractPricesFromPdf(multipartFile);
@@ -187,270 +374,799 @@ class PriceServiceImplTest {
         verify(priceInfoRepository, times(1)).saveAll(Collections.emptyList());
     }
 
-    // getPriceInfoById Tests
+    // streamPricesFromPdf Tests
     @Test
-    @DisplayName("Should get price info by id successfully")
-    void testGetPriceInfoById_Success() {
-        when(priceInfoRepository.findById("1")).thenReturn(Optional.of(samplePriceInfo));
+    @DisplayName("Should save and forward rows page by page")
+    void testStreamPricesFromPdf_SavesEachPage() throws Exception {
+        InputStream inputStream = new ByteArrayInputStream("test".getBytes());
+        List<PriceInfo> forwarded = new ArrayList<>();
 
-        PriceInfo result = priceService.getPriceInfoById("1");
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("prices.pdf");
+        when(multipartFile.getInputStream()).thenReturn(inputStream);
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("prices.pdf"), any(PriceRowSink.class)))
+                .thenAnswer(invocation -> {
+                    PriceRowSink sink = invocation.getArgument(2);
+                    sink.onPage(1, Arrays.asList(samplePriceInfo));
+                    sink.onPage(2, Collections.emptyList());
+                    sink.onPage(3, Arrays.asList(anotherPriceInfo));
+                    return new ExtractionSummary("prices.pdf", 3, 2);
+                });
+        when(priceInfoRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ExtractionSummary summary = priceService.streamPricesFromPdf(multipartFile, (page, rows) -> forwarded.addAll(rows));
+
+        assertEquals(3, summary.getPageCount());
+        assertEquals(2, summary.getExtractedCount());
+        assertEquals(Arrays.asList(samplePriceInfo, anotherPriceInfo), forwarded);
+        verify(priceInfoRepository, times(2)).saveAll(anyList());
+    }
 
-        assertNotNull(result);
-        assertEquals("1", result.getId());
-        assertEquals("Laptop", result.getProductName());
-        verify(priceInfoRepository, times(1)).findById("1");
+    @Test
+    @DisplayName("Should time every write of extracted rows as the save stage")
+    void testStreamPricesFromPdf_RecordsSaveTimes() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(priceService, "extractionMetrics", new ExtractionMetrics(registry));
+
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("prices.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("test".getBytes()));
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("prices.pdf"), any(PriceRowSink.class)))
+                .thenAnswer(invocation -> {
+                    PriceRowSink sink = invocation.getArgument(2);
+                    sink.onPage(1, Arrays.asList(samplePriceInfo));
+                    sink.onPage(2, Arrays.asList(anotherPriceInfo));
+                    return new ExtractionSummary("prices.pdf", 2, 2);
+                });
+        when(priceInfoRepository.saveAll(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new RuntimeException("Mongo unavailable"));
+
+        assertThrows(RuntimeException.class, () -> priceService.streamPricesFromPdf(multipartFile, (page, rows) -> { }));
+
+        assertEquals(1, registry.get("pdf.extraction.stage").tag("stage", ExtractionMetrics.STAGE_SAVE)
+                .tag("outcome", ExtractionMetrics.OUTCOME_SUCCESS).timer().count());
+        assertEquals(1, registry.get("pdf.extraction.stage").tag("stage", ExtractionMetrics.STAGE_SAVE)
+                .tag("outcome", ExtractionMetrics.OUTCOME_FAILURE).timer().count());
     }
 
     @Test
-    @DisplayName("Should throw exception when price info not found by id")
-    void testGetPriceInfoById_NotFound() {
-        when(priceInfoRepository.findById("999")).thenReturn(Optional.empty());
+    @DisplayName("Should reject a missing file when streaming")
+    void testStreamPricesFromPdf_NullFile() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> priceService.streamPricesFromPdf(null, (page, rows) -> { }));
+        verify(pdfPriceExtractor, never()).extractPrices(any(PdfSpoolFile.class), any(), any());
+    }
 
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            priceService.getPriceInfoById("999");
-        });
+    // Upload deduplication Tests
+    @Test
+    @DisplayName("Should tag extracted rows with the upload hash and record the upload")
+    void testExtractPricesFromPdf_RecordsUpload() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("prices.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abc".getBytes()));
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("prices.pdf"), eq(PageRange.ALL), any(PriceRowSink.class)))
+                .thenAnswer(invocation -> {
+                    PriceRowSink sink = invocation.getArgument(3);
+                    sink.onPage(1, Arrays.asList(samplePriceInfo));
+                    return new ExtractionSummary("prices.pdf", 4, 1);
+                });
+        when(priceInfoRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        priceService.extractPricesFromPdf(multipartFile);
+
+        String sha256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        assertEquals(sha256, samplePriceInfo.getSourceHash());
+        ArgumentCaptor<PdfUpload> upload = ArgumentCaptor.forClass(PdfUpload.class);
+        verify(pdfUploadRepository).save(upload.capture());
+        assertEquals(sha256, upload.getValue().getContentHash());
+        assertEquals(3L, upload.getValue().getFileSize());
+        assertEquals(4, upload.getValue().getPageCount());
+        assertEquals(1L, upload.getValue().getExtractedCount());
+        assertEquals(0, priceService.getUploadCacheStats().getHits());
+        assertEquals(1, priceService.getUploadCacheStats().getMisses());
+    }
 
-        assertTrue(exception.getMessage().contains("PriceInfo not found with id: 999"));
-        verify(priceInfoRepository, times(1)).findById("999");
+    @Test
+    @DisplayName("Should return the stored rows for a file that was already extracted")
+    void testExtractPricesFromPdf_DuplicateUpload() throws Exception {
+        PdfUpload previous = new PdfUpload();
+        previous.setContentHash("hash");
+
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("prices.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abc".getBytes()));
+        when(pdfUploadRepository.findById(anyString())).thenReturn(Optional.of(previous));
+        when(priceInfoRepository.findBySourceHashOrderByPageNumberAscIdAsc(anyString()))
+                .thenReturn(Arrays.asList(samplePriceInfo, anotherPriceInfo));
+
+        List<PriceInfo> result = priceService.extractPricesFromPdf(multipartFile);
+
+        assertEquals(Arrays.asList(samplePriceInfo, anotherPriceInfo), result);
+        verify(pdfPriceExtractor, never()).extractPrices(any(PdfSpoolFile.class), any(), any(PageRange.class), any());
+        verify(priceInfoRepository, never()).saveAll(anyList());
+        verify(pdfUploadRepository, never()).save(any(PdfUpload.class));
+        assertEquals(1, priceService.getUploadCacheStats().getHits());
+        assertEquals(0, priceService.getUploadCacheStats().getMisses());
     }
 
     @Test
-    @DisplayName("Should handle null id in getPriceInfoById")
-    void testGetPriceInfoById_NullId() {
-        when(priceInfoRepository.findById(null)).thenReturn(Optional.empty());
+    @DisplayName("Should replay stored rows page by page when streaming a duplicate upload")
+    void testStreamPricesFromPdf_DuplicateUpload() throws Exception {
+        PdfUpload previous = new PdfUpload();
+        previous.setContentHash("hash");
+        previous.setPageCount(5);
+        samplePriceInfo.setPageNumber(1);
+        anotherPriceInfo.setPageNumber(3);
+        PriceInfo thirdPriceInfo = new PriceInfo();
+        thirdPriceInfo.setPageNumber(3);
+        List<Integer> pages = new ArrayList<>();
+        List<PriceInfo> forwarded = new ArrayList<>();
 
-        assertThrows(RuntimeException.class, () -> {
-            priceService.getPriceInfoById(null);
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("again.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abc".getBytes()));
+        when(pdfUploadRepository.findById(anyString())).thenReturn(Optional.of(previous));
+        when(priceInfoRepository.findBySourceHashOrderByPageNumberAscIdAsc("hash"))
+                .thenReturn(Arrays.asList(samplePriceInfo, anotherPriceInfo, thirdPriceInfo));
+
+        ExtractionSummary summary = priceService.streamPricesFromPdf(multipartFile, (page, rows) -> {
+            pages.add(page);
+            forwarded.addAll(rows);
         });
 
-        verify(priceInfoRepository, times(1)).findById(null);
+        assertEquals(Arrays.asList(1, 3), pages);
+        assertEquals(Arrays.asList(samplePriceInfo, anotherPriceInfo, thirdPriceInfo), forwarded);
+        assertEquals("again.pdf", summary.getFileName());
+        assertEquals(5, summary.getPageCount());
+        assertEquals(3, summary.getExtractedCount());
+        verify(pdfPriceExtractor, never()).extractPrices(any(PdfSpoolFile.class), any(), any());
     }
 
-    // getAllPriceInfo Tests
     @Test
-    @DisplayName("Should get all price info successfully")
-    void testGetAllPriceInfo_Success() {
-        List<PriceInfo> allPriceInfo = Arrays.asList(samplePriceInfo, anotherPriceInfo);
-        when(priceInfoRepository.findAll()).thenReturn(allPriceInfo);
+    @DisplayName("Should parse every upload when deduplication is disabled")
+    void testExtractPricesFromPdf_DeduplicationDisabled() throws Exception {
+        ReflectionTestUtils.setField(priceService, "deduplicate", false);
 
-        List<PriceInfo> result = priceService.getAllPriceInfo();
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("prices.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abc".getBytes()));
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("prices.pdf"), eq(PageRange.ALL), any(PriceRowSink.class)))
+                .thenReturn(new ExtractionSummary("prices.pdf", 1, 0));
+        when(priceInfoRepository.saveAll(anyList())).thenReturn(Collections.emptyList());
 
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        verify(priceInfoRepository, times(1)).findAll();
+        priceService.extractPricesFromPdf(multipartFile);
+
+        verify(pdfUploadRepository, never()).findById(anyString());
+        verify(pdfPriceExtractor, times(1))
+                .extractPrices(any(PdfSpoolFile.class), eq("prices.pdf"), eq(PageRange.ALL), any(PriceRowSink.class));
+        assertEquals(0, priceService.getUploadCacheStats().getMisses());
     }
 
+    // Page range and preview Tests
     @Test
-    @DisplayName("Should return empty list when no price info exists")
-    void testGetAllPriceInfo_EmptyList() {
-        when(priceInfoRepository.findAll()).thenReturn(Collections.emptyList());
+    @DisplayName("Should store the rows of a page range without recording the upload")
+    void testExtractPricesFromPdf_PageRange() throws Exception {
+        PageRange pages = PageRange.of(2, 3);
 
-        List<PriceInfo> result = priceService.getAllPriceInfo();
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("prices.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abc".getBytes()));
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("prices.pdf"), eq(pages), any(PriceRowSink.class)))
+                .thenAnswer(invocation -> {
+                    PriceRowSink sink = invocation.getArgument(3);
+                    sink.onPage(2, Arrays.asList(samplePriceInfo));
+                    return new ExtractionSummary("prices.pdf", 10, 1);
+                });
+        when(priceInfoRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<PriceInfo> result = priceService.extractPricesFromPdf(multipartFile, pages);
+
+        assertEquals(Arrays.asList(samplePriceInfo), result);
+        verify(priceInfoRepository, times(1)).saveAll(anyList());
+        verify(pdfUploadRepository, never()).save(any(PdfUpload.class));
+    }
 
-        assertNotNull(result);
-        assertEquals(0, result.size());
-        verify(priceInfoRepository, times(1)).findAll();
+    @Test
+    @DisplayName("Should replace the rows a page range stored before instead of duplicating them")
+    void testExtractPricesFromPdf_PageRangeReplacesStoredRows() throws Exception {
+        PageRange pages = PageRange.of(2, 3);
+
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("prices.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abc".getBytes()));
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("prices.pdf"), eq(pages), any(PriceRowSink.class)))
+                .thenReturn(new ExtractionSummary("prices.pdf", 10, 0));
+        when(priceInfoRepository.saveAll(anyList())).thenReturn(Collections.emptyList());
+
+        priceService.extractPricesFromPdf(multipartFile, pages);
+
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq(PriceInfo.class));
+        Document criteria = removed.getValue().getQueryObject();
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", criteria.get("sourceHash"));
+        assertEquals(2, criteria.get("pageNumber", Document.class).get("$gte"));
+        assertEquals(3, criteria.get("pageNumber", Document.class).get("$lte"));
     }
 
-    // findByProductName Tests
     @Test
-    @DisplayName("Should find price info by product name successfully")
-    void testFindByProductName_Success() {
-        when(priceInfoRepository.findByProductName("Laptop"))
-                .thenReturn(Collections.singletonList(samplePriceInfo));
+    @DisplayName("Should drop the rows earlier page ranges stored before extracting the whole file")
+    void testExtractPricesFromPdf_FullUploadAfterPageRange() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("prices.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abc".getBytes()));
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("prices.pdf"), eq(PageRange.ALL),
+                any(PriceRowSink.class)))
+                .thenReturn(new ExtractionSummary("prices.pdf", 10, 0));
+        when(priceInfoRepository.saveAll(anyList())).thenReturn(Collections.emptyList());
 
-        List<PriceInfo> result = priceService.findByProductName("Laptop");
+        priceService.extractPricesFromPdf(multipartFile);
 
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals("Laptop", result.get(0).getProductName());
-        verify(priceInfoRepository, times(1)).findByProductName("Laptop");
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq(PriceInfo.class));
+        assertEquals(new Document("sourceHash", "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad"),
+                removed.getValue().getQueryObject());
+        verify(pdfUploadRepository).save(any(PdfUpload.class));
     }
 
     @Test
-    @DisplayName("Should return empty list when product name not found")
-    void testFindByProductName_NotFound() {
-        when(priceInfoRepository.findByProductName("NonExistent")).thenReturn(Collections.emptyList());
+    @DisplayName("Should return only the stored rows in the page range for a duplicate upload")
+    void testExtractPricesFromPdf_DuplicateUploadPageRange() throws Exception {
+        PdfUpload previous = new PdfUpload();
+        previous.setContentHash("hash");
+        samplePriceInfo.setPageNumber(1);
+        anotherPriceInfo.setPageNumber(3);
 
-        List<PriceInfo> result = priceService.findByProductName("NonExistent");
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("prices.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abc".getBytes()));
+        when(pdfUploadRepository.findById(anyString())).thenReturn(Optional.of(previous));
+        when(priceInfoRepository.findBySourceHashOrderByPageNumberAscIdAsc(anyString()))
+                .thenReturn(Arrays.asList(samplePriceInfo, anotherPriceInfo));
 
-        assertNotNull(result);
-        assertEquals(0, result.size());
-        verify(priceInfoRepository, times(1)).findByProductName("NonExistent");
+        List<PriceInfo> result = priceService.extractPricesFromPdf(multipartFile, PageRange.parse("2-"));
+
+        assertEquals(Arrays.asList(anotherPriceInfo), result);
+        verify(pdfPriceExtractor, never()).extractPrices(any(PdfSpoolFile.class), any(), any(PageRange.class), any());
     }
 
     @Test
-    @DisplayName("Should handle null product name")
-    void testFindByProductName_Null() {
-        when(priceInfoRepository.findByProductName(null)).thenReturn(Collections.emptyList());
+    @DisplayName("Should preview a page range without touching the database")
+    void testPreviewPricesFromPdf_NoWrites() throws Exception {
+        List<PriceInfo> previewed = new ArrayList<>();
 
-        List<PriceInfo> result = priceService.findByProductName(null);
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("catalog.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abc".getBytes()));
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("catalog.pdf"), eq(PageRange.of(1, 5)),
+                any(PriceRowSink.class)))
+                .thenAnswer(invocation -> {
+                    PriceRowSink sink = invocation.getArgument(3);
+                    sink.onPage(1, Arrays.asList(samplePriceInfo, anotherPriceInfo));
+                    return new ExtractionSummary("catalog.pdf", 1000, 2);
+                });
+
+        ExtractionSummary summary = priceService.previewPricesFromPdf(multipartFile, null,
+                (page, rows) -> previewed.addAll(rows));
+
+        assertEquals(1000, summary.getPageCount());
+        assertEquals(Arrays.asList(samplePriceInfo, anotherPriceInfo), previewed);
+        verifyNoInteractions(priceInfoRepository, pdfUploadRepository);
+    }
 
-        assertNotNull(result);
-        verify(priceInfoRepository, times(1)).findByProductName(null);
+    @Test
+    @DisplayName("Should reserve heap budget for the file before loading it and not load it when rejected")
+    void testExtractPricesFromPdf_AdmissionRejected() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("huge.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abcd".getBytes()));
+        when(extractionAdmission.admit(4L, 0))
+                .thenThrow(new ExtractionRejectedException("Not enough memory to parse the PDF now", 30));
+
+        assertThrows(ExtractionRejectedException.class,
+                () -> priceService.extractPricesFromPdf(multipartFile, PageRange.parse("30-")));
+
+        verify(pdfPriceExtractor, never()).countPages(any(PdfSpoolFile.class));
+        verify(pdfPriceExtractor, never()).extractPrices(any(PdfSpoolFile.class), any(), any(PageRange.class), any());
+        verify(priceInfoRepository, never()).saveAll(anyList());
     }
 
-    // findByProductCode Tests
     @Test
-    @DisplayName("Should find price info by product code successfully")
-    void testFindByProductCode_Success() {
-        when(priceInfoRepository.findByProductCode("LAP-001"))
-                .thenReturn(Collections.singletonList(samplePriceInfo));
+    @DisplayName("Should add the pages it parses to the reserved budget once the document is loaded")
+    void testExtractPricesFromPdf_AdmissionAddsPages() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("huge.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abcd".getBytes()));
+        when(pdfPriceExtractor.countPages(any(PdfSpoolFile.class))).thenReturn(40);
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("huge.pdf"), any(PageRange.class),
+                any(PriceRowSink.class))).thenReturn(new ExtractionSummary("huge.pdf", 40, 0));
 
-        List<PriceInfo> result = priceService.findByProductCode("LAP-001");
+        priceService.extractPricesFromPdf(multipartFile, PageRange.parse("30-"));
 
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals("LAP-001", result.get(0).getProductCode());
-        verify(priceInfoRepository, times(1)).findByProductCode("LAP-001");
+        verify(extractionAdmission).admit(4L, 0);
+        verify(permit).addPages(11);
+        verify(permit).close();
     }
 
     @Test
-    @DisplayName("Should return empty list when product code not found")
-    void testFindByProductCode_NotFound() {
-        when(priceInfoRepository.findByProductCode("INVALID")).thenReturn(Collections.emptyList());
+    @DisplayName("Should admit an upload up front and stream it under that permit")
+    void testStreamPrices_AdmittedUpload() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("prices.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abcd".getBytes()));
+        when(pdfPriceExtractor.countPages(any(PdfSpoolFile.class))).thenReturn(3);
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("prices.pdf"), any(PriceRowSink.class)))
+                .thenReturn(new ExtractionSummary("prices.pdf", 3, 0));
 
-        List<PriceInfo> result = priceService.findByProductCode("INVALID");
+        try (AdmittedUpload upload = priceService.admitUpload(multipartFile)) {
+            verify(permit).addPages(3);
+            verify(pdfPriceExtractor, never()).extractPrices(any(PdfSpoolFile.class), any(), any(PriceRowSink.class));
 
-        assertNotNull(result);
-        assertEquals(0, result.size());
-        verify(priceInfoRepository, times(1)).findByProductCode("INVALID");
+            ExtractionSummary summary = priceService.streamPrices(upload, (page, rows) -> { });
+
+            assertEquals(3, summary.getPageCount());
+        }
+
+        verify(extractionAdmission, times(1)).admit(4L, 0);
+        verify(permit, atLeastOnce()).close();
     }
 
-    // findByCategory Tests
     @Test
-    @DisplayName("Should find price info by category successfully")
-    void testFindByCategory_Success() {
-        when(priceInfoRepository.findByCategory("Electronics"))
-                .thenReturn(Collections.singletonList(samplePriceInfo));
+    @DisplayName("Should refuse an upload up front when admission rejects it")
+    void testAdmitUpload_Rejected() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abcd".getBytes()));
+        when(extractionAdmission.admit(4L, 0))
+                .thenThrow(new ExtractionRejectedException("Not enough memory to parse the PDF now", 30));
 
-        List<PriceInfo> result = priceService.findByCategory("Electronics");
+        assertThrows(ExtractionRejectedException.class, () -> priceService.admitUpload(multipartFile));
 
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals("Electronics", result.get(0).getCategory());
-        verify(priceInfoRepository, times(1)).findByCategory("Electronics");
+        verify(pdfPriceExtractor, never()).countPages(any(PdfSpoolFile.class));
     }
 
     @Test
-    @DisplayName("Should return empty list when category not found")
-    void testFindByCategory_NotFound() {
-        when(priceInfoRepository.findByCategory("Unknown")).thenReturn(Collections.emptyList());
+    @DisplayName("Should not reserve budget for an upload that will be replayed")
+    void testAdmitUpload_StoredUpload() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abcd".getBytes()));
+        when(pdfUploadRepository.existsById(anyString())).thenReturn(true);
 
-        List<PriceInfo> result = priceService.findByCategory("Unknown");
+        try (AdmittedUpload upload = priceService.admitUpload(multipartFile)) {
+            assertNull(upload.getPermit());
+        }
 
-        assertNotNull(result);
-        assertEquals(0, result.size());
-        verify(priceInfoRepository, times(1)).findByCategory("Unknown");
+        verifyNoInteractions(extractionAdmission);
     }
 
-    // findBySupplier Tests
     @Test
-    @DisplayName("Should find price info by supplier successfully")
-    void testFindBySupplier_Success() {
-        when(priceInfoRepository.findBySupplier("Tech Corp"))
-                .thenReturn(Collections.singletonList(samplePriceInfo));
+    @DisplayName("Should cut preview ranges to the preview page limit")
+    void testResolvePreviewRange() {
+        ReflectionTestUtils.setField(priceService, "previewMaxPages", 3);
 
-        List<PriceInfo> result = priceService.findBySupplier("Tech Corp");
+        assertEquals(PageRange.of(1, 3), priceService.resolvePreviewRange(null));
+        assertEquals(PageRange.of(10, 12), priceService.resolvePreviewRange(PageRange.parse("10-")));
+        assertEquals(PageRange.of(4, 5), priceService.resolvePreviewRange(PageRange.of(4, 5)));
 
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals("Tech Corp", result.get(0).getSupplier());
-        verify(priceInfoRepository, times(1)).findBySupplier("Tech Corp");
+        ReflectionTestUtils.setField(priceService, "previewMaxPages", 0);
+        assertEquals(PageRange.ALL, priceService.resolvePreviewRange(null));
     }
 
+    // Incremental re-extraction Tests
     @Test
-    @DisplayName("Should return empty list when supplier not found")
-    void testFindBySupplier_NotFound() {
-        when(priceInfoRepository.findBySupplier("Unknown Supplier")).thenReturn(Collections.emptyList());
+    @DisplayName("Should record the page hashes of a document seen for the first time")
+    void testExtractPricesFromPdf_RecordsLineage() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("catalog.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abc".getBytes()));
+        when(pdfPriceExtractor.fingerprint(any(PdfSpoolFile.class)))
+                .thenReturn(new PdfFingerprint("Acme", Arrays.asList("h1", "h2")));
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("catalog.pdf"), eq(PageRange.ALL),
+                any(PriceRowSink.class)))
+                .thenReturn(new ExtractionSummary("catalog.pdf", 2, 0));
+        when(priceInfoRepository.saveAll(anyList())).thenReturn(Collections.emptyList());
 
-        List<PriceInfo> result = priceService.findBySupplier("Unknown Supplier");
+        priceService.extractPricesFromPdf(multipartFile);
+
+        ArgumentCaptor<PdfLineage> lineage = ArgumentCaptor.forClass(PdfLineage.class);
+        verify(pdfLineageRepository).findById("Acme/catalog.pdf");
+        verify(pdfLineageRepository).save(lineage.capture());
+        assertEquals("Acme/catalog.pdf", lineage.getValue().getId());
+        assertEquals(Arrays.asList("h1", "h2"), lineage.getValue().getPageHashes());
+        String sha256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        assertEquals(sha256, lineage.getValue().getContentHash());
+        assertEquals(Arrays.asList(sha256, sha256), lineage.getValue().getPageSources());
+        ArgumentCaptor<PdfUpload> upload = ArgumentCaptor.forClass(PdfUpload.class);
+        verify(pdfUploadRepository).save(upload.capture());
+        assertEquals("Acme/catalog.pdf", upload.getValue().getLineageId());
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(PriceInfo.class));
+    }
 
-        assertNotNull(result);
-        assertEquals(0, result.size());
-        verify(priceInfoRepository, times(1)).findBySupplier("Unknown Supplier");
+    @Test
+    @DisplayName("Should re-parse only changed pages and replace their rows in one bulk write")
+    void testExtractPricesFromPdf_ChangedPagesOnly() throws Exception {
+        PdfLineage previous = new PdfLineage();
+        previous.setId("catalog.pdf");
+        previous.setContentHash("old-hash");
+        previous.setPageHashes(Arrays.asList("h1", "h2", "h3", "h4", "h5"));
+        samplePriceInfo.setPageNumber(2);
+        anotherPriceInfo.setPageNumber(3);
+
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("catalog.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abc".getBytes()));
+        when(pdfPriceExtractor.fingerprint(any(PdfSpoolFile.class)))
+                .thenReturn(new PdfFingerprint(null, Arrays.asList("h1", "x2", "x3", "h4")));
+        when(pdfLineageRepository.findById("catalog.pdf")).thenReturn(Optional.of(previous));
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("catalog.pdf"),
+                eq(Arrays.asList(PageRange.of(2, 3))), any(PriceRowSink.class)))
+                .thenAnswer(invocation -> {
+                    PriceRowSink sink = invocation.getArgument(3);
+                    sink.onPage(2, Arrays.asList(samplePriceInfo));
+                    sink.onPage(3, Arrays.asList(anotherPriceInfo));
+                    return new ExtractionSummary("catalog.pdf", 4, 2);
+                });
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, PriceInfo.class)).thenReturn(bulkOperations);
+        when(mongoTemplate.count(any(Query.class), eq(PriceInfo.class))).thenReturn(7L);
+
+        List<PriceInfo> result = priceService.extractPricesFromPdf(multipartFile);
+
+        String sha256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        assertEquals(Arrays.asList(samplePriceInfo, anotherPriceInfo), result);
+        assertEquals(sha256, samplePriceInfo.getSourceHash());
+        assertNotNull(samplePriceInfo.getId());
+
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOperations, times(2)).remove(removed.capture());
+        assertEquals(sha256, removed.getAllValues().get(0).getQueryObject().get("sourceHash"));
+        assertEquals(Arrays.asList(2, 3),
+                removed.getAllValues().get(0).getQueryObject().get("pageNumber", Document.class).get("$in"));
+        assertEquals(Arrays.asList(2, 3, 5),
+                removed.getAllValues().get(1).getQueryObject().get("pageNumber", Document.class).get("$in"));
+        assertEquals("old-hash", removed.getAllValues().get(1).getQueryObject().get("sourceHash"));
+        verify(bulkOperations, never()).updateMulti(any(Query.class), any(Update.class));
+        verify(bulkOperations).insert(Arrays.asList(samplePriceInfo, anotherPriceInfo));
+        verify(bulkOperations).execute();
+        verify(priceInfoRepository, never()).saveAll(anyList());
+
+        ArgumentCaptor<PdfUpload> upload = ArgumentCaptor.forClass(PdfUpload.class);
+        verify(pdfUploadRepository).deleteById("old-hash");
+        verify(pdfUploadRepository).save(upload.capture());
+        assertEquals(7L, upload.getValue().getExtractedCount());
+        assertEquals("catalog.pdf", upload.getValue().getLineageId());
+        ArgumentCaptor<PdfLineage> lineage = ArgumentCaptor.forClass(PdfLineage.class);
+        verify(pdfLineageRepository).save(lineage.capture());
+        assertEquals(Arrays.asList("old-hash", sha256, sha256, "old-hash"), lineage.getValue().getPageSources());
     }
 
-    // findByPriceRange Tests
     @Test
-    @DisplayName("Should find price info by price range successfully")
-    void testFindByPriceRange_Success() {
-        BigDecimal minPrice = new BigDecimal("20.00");
-        BigDecimal maxPrice = new BigDecimal("50.00");
+    @DisplayName("Should delete the replaced rows of each earlier revision a page came from")
+    void testExtractPricesFromPdf_ChangedPagesOfSeveralRevisions() throws Exception {
+        PdfLineage previous = new PdfLineage();
+        previous.setId("catalog.pdf");
+        previous.setFileName("catalog.pdf");
+        previous.setContentHash("rev-2");
+        previous.setPageHashes(Arrays.asList("h1", "h2", "h3"));
+        previous.setPageSources(Arrays.asList("rev-1", "rev-2", "rev-1"));
 
-        when(priceInfoRepository.findByPriceBetween(minPrice, maxPrice))
-                .thenReturn(Collections.singletonList(anotherPriceInfo));
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("catalog.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abc".getBytes()));
+        when(pdfPriceExtractor.fingerprint(any(PdfSpoolFile.class)))
+                .thenReturn(new PdfFingerprint(null, Arrays.asList("h1", "x2", "x3")));
+        when(pdfLineageRepository.findById("catalog.pdf")).thenReturn(Optional.of(previous));
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("catalog.pdf"),
+                eq(Arrays.asList(PageRange.of(2, 3))), any(PriceRowSink.class)))
+                .thenReturn(new ExtractionSummary("catalog.pdf", 3, 0));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, PriceInfo.class)).thenReturn(bulkOperations);
+
+        priceService.extractPricesFromPdf(multipartFile);
+
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOperations, times(2)).remove(removed.capture());
+        Document replaced = removed.getAllValues().get(1).getQueryObject();
+        assertEquals("catalog.pdf", replaced.get("pdfFileName"));
+        List<?> bySource = replaced.get("$or", List.class);
+        assertEquals(2, bySource.size());
+        assertEquals("rev-2", ((Document) bySource.get(0)).get("sourceHash"));
+        assertEquals(Arrays.asList(2), ((Document) bySource.get(0)).get("pageNumber", Document.class).get("$in"));
+        assertEquals("rev-1", ((Document) bySource.get(1)).get("sourceHash"));
+        assertEquals(Arrays.asList(3), ((Document) bySource.get(1)).get("pageNumber", Document.class).get("$in"));
+
+        String sha256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        ArgumentCaptor<PdfLineage> lineage = ArgumentCaptor.forClass(PdfLineage.class);
+        verify(pdfLineageRepository).save(lineage.capture());
+        assertEquals(Arrays.asList("rev-1", sha256, sha256), lineage.getValue().getPageSources());
+        verify(pdfUploadRepository).deleteById("rev-2");
+    }
 
-        List<PriceInfo> result = priceService.findByPriceRange(minPrice, maxPrice);
+    @Test
+    @DisplayName("Should replay a revision through its lineage, page by page from the revision that holds it")
+    void testStreamPricesFromPdf_DuplicateRevision() throws Exception {
+        String sha256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        PdfUpload previous = new PdfUpload();
+        previous.setContentHash(sha256);
+        previous.setLineageId("Acme/catalog.pdf");
+        previous.setPageCount(2);
+        PdfLineage lineage = new PdfLineage();
+        lineage.setFileName("catalog.pdf");
+        lineage.setContentHash(sha256);
+        lineage.setPageSources(Arrays.asList("rev-1", sha256));
+        samplePriceInfo.setPageNumber(1);
+        anotherPriceInfo.setPageNumber(2);
+        List<PriceInfo> forwarded = new ArrayList<>();
 
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(priceInfoRepository, times(1)).findByPriceBetween(minPrice, maxPrice);
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("catalog.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abc".getBytes()));
+        when(pdfUploadRepository.findById(sha256)).thenReturn(Optional.of(previous));
+        when(pdfLineageRepository.findById("Acme/catalog.pdf")).thenReturn(Optional.of(lineage));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(PriceInfo.class)))
+                .thenReturn(Arrays.asList(samplePriceInfo, anotherPriceInfo));
+
+        ExtractionSummary summary = priceService.streamPricesFromPdf(multipartFile, (page, rows) -> forwarded.addAll(rows));
+
+        assertEquals(Arrays.asList(samplePriceInfo, anotherPriceInfo), forwarded);
+        assertEquals(2, summary.getExtractedCount());
+        assertEquals("catalog.pdf", query.getValue().getQueryObject().get("pdfFileName"));
+        assertEquals(2, query.getValue().getQueryObject().get("$or", List.class).size());
+        assertEquals(new Document("pageNumber", 1).append("id", 1), query.getValue().getSortObject());
+        verify(priceInfoRepository, never()).findBySourceHashOrderByPageNumberAscIdAsc(anyString());
     }
 
     @Test
-    @DisplayName("Should return empty list when no prices in range")
-    void testFindByPriceRange_NoResults() {
-        BigDecimal minPrice = new BigDecimal("5000.00");
-        BigDecimal maxPrice = new BigDecimal("10000.00");
+    @DisplayName("Should parse nothing when no page of a revision changed")
+    void testExtractPricesFromPdf_NoPagesChanged() throws Exception {
+        ReflectionTestUtils.setField(priceService, "deduplicate", false);
+        PdfLineage previous = new PdfLineage();
+        previous.setContentHash("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+        previous.setPageHashes(Arrays.asList("h1", "h2"));
+
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("catalog.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abc".getBytes()));
+        when(pdfPriceExtractor.fingerprint(any(PdfSpoolFile.class)))
+                .thenReturn(new PdfFingerprint(null, Arrays.asList("h1", "h2")));
+        when(pdfLineageRepository.findById("catalog.pdf")).thenReturn(Optional.of(previous));
 
-        when(priceInfoRepository.findByPriceBetween(minPrice, maxPrice))
-                .thenReturn(Collections.emptyList());
+        List<PriceInfo> result = priceService.extractPricesFromPdf(multipartFile);
 
-        List<PriceInfo> result = priceService.findByPriceRange(minPrice, maxPrice);
+        assertTrue(result.isEmpty());
+        verify(pdfPriceExtractor, never()).extractPrices(any(PdfSpoolFile.class), any(), anyList(), any());
+        // Only the kept rows are counted for the upload record; nothing is removed or inserted
+        verify(mongoTemplate, times(1)).count(any(Query.class), eq(PriceInfo.class));
+        verifyNoMoreInteractions(mongoTemplate);
+        verify(pdfUploadRepository, never()).deleteById(anyString());
+    }
 
-        assertNotNull(result);
-        assertEquals(0, result.size());
-        verify(priceInfoRepository, times(1)).findByPriceBetween(minPrice, maxPrice);
+    @Test
+    @DisplayName("Should stream only the rows of changed pages for a revised document")
+    void testStreamPricesFromPdf_ChangedPagesOnly() throws Exception {
+        PdfLineage previous = new PdfLineage();
+        previous.setContentHash("old-hash");
+        previous.setPageHashes(Arrays.asList("h1", "h2", "h3"));
+        samplePriceInfo.setPageNumber(3);
+        List<Integer> pages = new ArrayList<>();
+
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("catalog.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abc".getBytes()));
+        when(pdfPriceExtractor.fingerprint(any(PdfSpoolFile.class)))
+                .thenReturn(new PdfFingerprint(null, Arrays.asList("h1", "h2", "x3")));
+        when(pdfLineageRepository.findById("catalog.pdf")).thenReturn(Optional.of(previous));
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("catalog.pdf"),
+                eq(Arrays.asList(PageRange.of(3, 3))), any(PriceRowSink.class)))
+                .thenAnswer(invocation -> {
+                    PriceRowSink sink = invocation.getArgument(3);
+                    sink.onPage(3, Arrays.asList(samplePriceInfo));
+                    return new ExtractionSummary("catalog.pdf", 3, 1);
+                });
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, PriceInfo.class)).thenReturn(bulkOperations);
+
+        ExtractionSummary summary = priceService.streamPricesFromPdf(multipartFile, (page, rows) -> pages.add(page));
+
+        assertEquals(Arrays.asList(3), pages);
+        assertEquals(3, summary.getPageCount());
+        assertEquals(1, summary.getExtractedCount());
+        verify(bulkOperations).execute();
+        verify(pdfPriceExtractor, never()).extractPrices(any(PdfSpoolFile.class), any(), any(PriceRowSink.class));
     }
 
     @Test
-    @DisplayName("Should handle null price range values")
-    void testFindByPriceRange_NullValues() {
-        when(priceInfoRepository.findByPriceBetween(null, null)).thenReturn(Collections.emptyList());
+    @DisplayName("Should extract every page when incremental extraction is disabled")
+    void testExtractPricesFromPdf_IncrementalDisabled() throws Exception {
+        ReflectionTestUtils.setField(priceService, "incremental", false);
 
-        List<PriceInfo> result = priceService.findByPriceRange(null, null);
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("catalog.pdf");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("abc".getBytes()));
+        when(pdfPriceExtractor.extractPrices(any(PdfSpoolFile.class), eq("catalog.pdf"), eq(PageRange.ALL),
+                any(PriceRowSink.class)))
+                .thenReturn(new ExtractionSummary("catalog.pdf", 1, 0));
+        when(priceInfoRepository.saveAll(anyList())).thenReturn(Collections.emptyList());
 
-        assertNotNull(result);
-        verify(priceInfoRepository, times(1)).findByPriceBetween(null, null);
+        priceService.extractPricesFromPdf(multipartFile);
+
+        verify(pdfPriceExtractor, never()).fingerprint(any(PdfSpoolFile.class));
+        verifyNoInteractions(pdfLineageRepository);
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(PriceInfo.class));
     }
 
-    // searchByKeyword Tests
+    // getPriceInfoById Tests
     @Test
-    @DisplayName("Should search by keyword successfully")
-    void testSearchByKeyword_Success() {
-        when(priceInfoRepository.findByProductNameContaining("Lap"))
-                .thenReturn(Collections.singletonList(samplePriceInfo));
+    @DisplayName("Should get price info by id successfully")
+    void testGetPriceInfoById_Success() {
+        when(priceInfoRepository.findById("1")).thenReturn(Optional.of(samplePriceInfo));
 
-        List<PriceInfo> result = priceService.searchByKeyword("Lap");
+        PriceInfo result = priceService.getPriceInfoById("1");
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertTrue(result.get(0).getProductName().contains("Lap"));
-        verify(priceInfoRepository, times(1)).findByProductNameContaining("Lap");
+        assertEquals("1", result.getId());
+        assertEquals("Laptop", result.getProductName());
+        verify(priceInfoRepository, times(1)).findById("1");
     }
 
     @Test
-    @DisplayName("Should return empty list when keyword not found")
-    void testSearchByKeyword_NotFound() {
-        when(priceInfoRepository.findByProductNameContaining("xyz")).thenReturn(Collections.emptyList());
+    @DisplayName("Should throw exception when price info not found by id")
+    void testGetPriceInfoById_NotFound() {
+        when(priceInfoRepository.findById("999")).thenReturn(Optional.empty());
 
-        List<PriceInfo> result = priceService.searchByKeyword("xyz");
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            priceService.getPriceInfoById("999");
+        });
 
-        assertNotNull(result);
-        assertEquals(0, result.size());
-        verify(priceInfoRepository, times(1)).findByProductNameContaining("xyz");
+        assertTrue(exception.getMessage().contains("PriceInfo not found with id: 999"));
+        verify(priceInfoRepository, times(1)).findById("999");
     }
 
     @Test
-    @DisplayName("Should handle null keyword")
-    void testSearchByKeyword_Null() {
-        when(priceInfoRepository.findByProductNameContaining(null)).thenReturn(Collections.emptyList());
+    @DisplayName("Should handle null id in getPriceInfoById")
+    void testGetPriceInfoById_NullId() {
+        when(priceInfoRepository.findById(null)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> {
+            priceService.getPriceInfoById(null);
+        });
 
-        List<PriceInfo> result = priceService.searchByKeyword(null);
+        verify(priceInfoRepository, times(1)).findById(null);
+    }
 
-        assertNotNull(result);
-        verify(priceInfoRepository, times(1)).findByProductNameContaining(null);
+    // Keyset pagination Tests
+    @Test
+    @DisplayName("Should fetch one row past the page and return a cursor after the last row kept")
+    void testGetAllPriceInfo_PageWithNextCursor() {
+        PriceInfo first = pagedRow("65a000000000000000000001", "10.00");
+        PriceInfo second = pagedRow("65a000000000000000000002", "20.00");
+        PriceInfo third = pagedRow("65a000000000000000000003", "30.00");
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(PriceInfo.class))).thenReturn(Arrays.asList(first, second, third));
+
+        PricePage page = priceService.getAllPriceInfo(null, 2, PriceFields.DEFAULT);
+
+        assertEquals(Arrays.asList(first, second), page.getItems());
+        assertEquals("65a000000000000000000002", PriceCursor.decode(page.getNextCursor()).getId());
+        assertEquals(3, query.getValue().getLimit());
+        assertEquals(new Document("id", new Document("$gt", "000000000000000000000000")),
+                query.getValue().getQueryObject());
+        assertEquals(new Document("id", 1), query.getValue().getSortObject());
+    }
+
+    @Test
+    @DisplayName("Should continue after the cursor and end without a cursor on the last page")
+    void testFindByCategory_LastPage() {
+        String cursor = PriceCursor.after(pagedRow("65a000000000000000000002", "20.00"), false).encode();
+        PriceInfo last = pagedRow("65a000000000000000000003", "30.00");
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(PriceInfo.class))).thenReturn(Collections.singletonList(last));
+
+        PricePage page = priceService.findByCategory("Electronics", cursor, 2, PriceFields.DEFAULT);
+
+        assertEquals(Collections.singletonList(last), page.getItems());
+        assertNull(page.getNextCursor());
+        assertEquals(new Document("category", "Electronics")
+                        .append("id", new Document("$gt", "65a000000000000000000002")),
+                query.getValue().getQueryObject());
+    }
+
+    @Test
+    @DisplayName("Should apply the default page size and cap larger limits")
+    void testSearchByKeyword_PageSizeBounds() {
+        ReflectionTestUtils.setField(priceService, "defaultPageSize", 5);
+        ReflectionTestUtils.setField(priceService, "maxPageSize", 10);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(PriceInfo.class))).thenReturn(Collections.emptyList());
+
+        priceService.searchByKeyword("Lap", null, 0, PriceFields.DEFAULT);
+        priceService.searchByKeyword("Lap", null, 50000, PriceFields.DEFAULT);
+
+        assertEquals(6, query.getAllValues().get(0).getLimit());
+        assertEquals(11, query.getAllValues().get(1).getLimit());
+    }
+
+    @Test
+    @DisplayName("Should page price ranges by price and id, starting after the last price seen")
+    void testFindByPriceRange_Paged() {
+        BigDecimal minPrice = new BigDecimal("10.00");
+        BigDecimal maxPrice = new BigDecimal("100.00");
+        PriceInfo first = pagedRow("65a000000000000000000005", "20.00");
+        PriceInfo second = pagedRow("65a000000000000000000001", "25.00");
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(PriceInfo.class)))
+                .thenReturn(Arrays.asList(first, second), Collections.singletonList(second));
+
+        PricePage page = priceService.findByPriceRange(minPrice, maxPrice, null, 1, PriceFields.DEFAULT);
+
+        assertEquals(Collections.singletonList(first), page.getItems());
+        assertEquals(new Document("price", 1).append("id", 1), query.getValue().getSortObject());
+        PriceCursor next = PriceCursor.decode(page.getNextCursor());
+        assertEquals("65a000000000000000000005", next.getId());
+        assertEquals(new BigDecimal("20.00"), next.getPrice());
+
+        PricePage nextPage = priceService.findByPriceRange(minPrice, maxPrice, page.getNextCursor(), 1,
+                PriceFields.DEFAULT);
+
+        assertEquals(Collections.singletonList(second), nextPage.getItems());
+        assertNull(nextPage.getNextCursor());
+        assertEquals(new Document("price", new Document("$gt", minPrice).append("$lt", maxPrice))
+                        .append("$or", Arrays.asList(
+                                new Document("price", new Document("$gt", new BigDecimal("20.00"))),
+                                new Document("price", new BigDecimal("20.00"))
+                                        .append("id", new Document("$gt", "65a000000000000000000005")))),
+                query.getValue().getQueryObject());
+    }
+
+    @Test
+    @DisplayName("Should page an upload's rows by its hash when it has no lineage")
+    void testGetUploadRows_Paged() {
+        PriceInfo first = pagedRow("65a000000000000000000001", "10.00");
+        PriceInfo second = pagedRow("65a000000000000000000002", "20.00");
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(PriceInfo.class))).thenReturn(Arrays.asList(first, second));
+
+        PricePage page = priceService.getUploadRows(TEST_HASH, null, 1, PriceFields.DEFAULT);
+
+        assertEquals(Collections.singletonList(first), page.getItems());
+        assertEquals("65a000000000000000000001", PriceCursor.decode(page.getNextCursor()).getId());
+        assertEquals(new Document("sourceHash", TEST_HASH)
+                        .append("id", new Document("$gt", "000000000000000000000000")),
+                query.getValue().getQueryObject());
+        assertEquals(new Document("id", 1), query.getValue().getSortObject());
+        verify(priceInfoRepository, never()).findBySourceHashOrderByPageNumberAscIdAsc(anyString());
+    }
+
+    @Test
+    @DisplayName("Should reject a cursor it did not issue")
+    void testGetAllPriceInfo_InvalidCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> priceService.getAllPriceInfo("not-a-cursor", 10, PriceFields.DEFAULT));
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    // Field projection Tests
+    @Test
+    @DisplayName("Should read every field but rawText by default")
+    void testGetAllPriceInfo_DefaultProjection() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(PriceInfo.class))).thenReturn(Collections.emptyList());
+
+        priceService.getAllPriceInfo(null, 0, PriceFields.DEFAULT);
+
+        Document projection = query.getValue().getFieldsObject();
+        assertEquals(1, projection.get("productName"));
+        assertEquals(1, projection.get("description"));
+        assertFalse(projection.containsKey("rawText"));
+    }
+
+    @Test
+    @DisplayName("Should read only the requested fields, plus the price a price range cursor needs")
+    void testFindByPriceRange_SelectedFields() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(PriceInfo.class))).thenReturn(Collections.emptyList());
+
+        priceService.findByPriceRange(BigDecimal.ONE, BigDecimal.TEN, null, 0, PriceFields.parse("productName"));
+
+        assertEquals(new Document("id", 1).append("productName", 1).append("price", 1),
+                query.getValue().getFieldsObject());
     }
 
     // deletePriceInfo Tests
@@ -566,4 +1282,11 @@ class PriceServiceImplTest {
 
         verify(priceInfoRepository, never()).save(any());
     }
+
+    private static PriceInfo pagedRow(String id, String price) {
+        PriceInfo row = new PriceInfo();
+        row.setId(id);
+        row.setPrice(new BigDecimal(price));
+        return row;
+    }
 }
@@ -0,0 +1,126 @@
+package com.example.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BoundedResourceCache.
+ * Tests lookups by resource type, least-recently-used eviction, hit/miss counting and fonts
+ * shared with earlier documents.
+ */
+@DisplayName("BoundedResourceCache Tests")
+class BoundedResourceCacheTest {
+
+    private SimpleMeterRegistry registry;
+
+    private BoundedResourceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new BoundedResourceCache(2, new ExtractionMetrics(registry));
+    }
+
+    @Test
+    @DisplayName("Should return a cached resource only as its own type")
+    void testGet_ByType() {
+        COSObject fontObject = new COSObject(new COSDictionary());
+        PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        cache.put(fontObject, font);
+
+        assertSame(font, cache.getFont(fontObject));
+        assertNull(cache.getExtGState(fontObject));
+        assertNull(cache.getFont(new COSObject(new COSDictionary())));
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used resource beyond the limit")
+    void testPut_EvictsLeastRecentlyUsed() {
+        COSObject first = new COSObject(new COSDictionary());
+        COSObject second = new COSObject(new COSDictionary());
+        COSObject third = new COSObject(new COSDictionary());
+        cache.put(first, new PDType1Font(Standard14Fonts.FontName.HELVETICA));
+        cache.put(second, new PDExtendedGraphicsState());
+        cache.getFont(first);
+        cache.put(third, new PDType1Font(Standard14Fonts.FontName.COURIER));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.getFont(first));
+        assertNull(cache.getExtGState(second));
+        assertNotNull(cache.getFont(third));
+    }
+
+    @Test
+    @DisplayName("Should count hits and misses by resource type")
+    void testGet_CountsHitsAndMisses() {
+        COSObject fontObject = new COSObject(new COSDictionary());
+        cache.getFont(fontObject);
+        cache.put(fontObject, new PDType1Font(Standard14Fonts.FontName.HELVETICA));
+        cache.getFont(fontObject);
+        cache.getFont(fontObject);
+        cache.getXObject(new COSObject(new COSDictionary()));
+
+        assertEquals(2, registry.get("pdf.extraction.resource.cache").tag("type", "font").tag("result", "hit")
+                .counter().count());
+        assertEquals(1, registry.get("pdf.extraction.resource.cache").tag("type", "font").tag("result", "miss")
+                .counter().count());
+        assertEquals(1, registry.get("pdf.extraction.resource.cache").tag("type", "xobject").tag("result", "miss")
+                .counter().count());
+    }
+
+    @Test
+    @DisplayName("Should keep form XObjects but not images")
+    void testPut_SkipsImages() throws Exception {
+        try (PDDocument document = new PDDocument()) {
+            COSObject formObject = new COSObject(new COSDictionary());
+            COSObject imageObject = new COSObject(new COSDictionary());
+            PDFormXObject form = new PDFormXObject(document);
+            cache.put(formObject, form);
+            cache.put(imageObject, new PDImageXObject(document));
+
+            assertSame(form, cache.getXObject(formObject));
+            assertNull(cache.getXObject(imageObject));
+            assertEquals(1, cache.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve a font another document already parsed from the shared cache")
+    void testGetFont_SharedWithEarlierDocument() {
+        ExtractionMetrics metrics = new ExtractionMetrics(registry);
+        SharedFontCache sharedFonts = new SharedFontCache(1024 * 1024, metrics);
+        BoundedResourceCache firstDocument = new BoundedResourceCache(2, sharedFonts, metrics);
+        BoundedResourceCache secondDocument = new BoundedResourceCache(2, sharedFonts, metrics);
+
+        PDFont first = firstDocument.getFont(new COSObject(helvetica()));
+        PDFont second = secondDocument.getFont(new COSObject(helvetica()));
+
+        assertNotNull(first);
+        assertSame(first, second);
+        assertEquals(1, secondDocument.size());
+        assertEquals(1, registry.get("pdf.extraction.resource.cache").tag("type", "shared-font").tag("result", "hit")
+                .counter().count());
+    }
+
+    private static COSDictionary helvetica() {
+        COSDictionary font = new COSDictionary();
+        font.setItem(COSName.TYPE, COSName.FONT);
+        font.setItem(COSName.SUBTYPE, COSName.TYPE1);
+        font.setName(COSName.BASE_FONT, "Helvetica");
+        return font;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CandidateLineFilter Tests")
+class CandidateLineFilterTest {
+
+    @Test
+    @DisplayName("Should pass every line when disabled")
+    void testSelect_Disabled() {
+        CandidateLineFilter filter = CandidateLineFilter.select(false, true);
+
+        assertSame(CandidateLineFilter.NONE, filter);
+        assertTrue(filter.mayContainPrice("no digits".toCharArray(), 0, 9));
+    }
+
+    @Test
+    @DisplayName("Should use the scalar filter when the Vector API is not preferred")
+    void testSelect_Scalar() {
+        assertSame(CandidateLineFilter.SCALAR, CandidateLineFilter.select(true, false));
+    }
+
+    @Test
+    @DisplayName("Should use the Vector API filter when its module is present")
+    void testSelect_Vector() {
+        CandidateLineFilter filter = CandidateLineFilter.select(true, true);
+
+        if (CandidateLineFilter.isVectorApiAvailable()) {
+            assertEquals("vector", filter.name());
+        } else {
+            assertSame(CandidateLineFilter.SCALAR, filter);
+        }
+    }
+
+    @Test
+    @DisplayName("Should only accept lines with an ASCII digit")
+    void testScalar_Digits() {
+        CandidateLineFilter filter = CandidateLineFilter.SCALAR;
+
+        assertTrue(accepts(filter, "Price $19.99"));
+        assertTrue(accepts(filter, "0"));
+        assertTrue(accepts(filter, "nine 9"));
+        assertFalse(accepts(filter, ""));
+        assertFalse(accepts(filter, "Product: Widget $ € £"));
+        assertFalse(accepts(filter, "/:"));
+    }
+
+    @Test
+    @DisplayName("Should only look at the given range")
+    void testScalar_Range() {
+        char[] chars = "12 no digits here 34".toCharArray();
+
+        assertFalse(CandidateLineFilter.SCALAR.mayContainPrice(chars, 2, 18));
+        assertTrue(CandidateLineFilter.SCALAR.mayContainPrice(chars, 2, 19));
+    }
+
+    @Test
+    @DisplayName("Should agree with the scalar filter on random lines")
+    void testVector_MatchesScalar() {
+        CandidateLineFilter vector = CandidateLineFilter.select(true, true);
+        Random random = new Random(7);
+        // Neighbours of the digit range, to catch off-by-one range checks
+        char[] alphabet = "/:;.,$€£ abcXYZ\t-0123456789٠０".toCharArray();
+
+        for (int n = 0; n < 5000; n++) {
+            char[] chars = new char[random.nextInt(120)];
+            boolean digitsAllowed = random.nextBoolean();
+            for (int i = 0; i < chars.length; i++) {
+                char c = alphabet[random.nextInt(alphabet.length)];
+                chars[i] = !digitsAllowed && c >= '0' && c <= '9' ? 'x' : c;
+            }
+            int from = chars.length == 0 ? 0 : random.nextInt(chars.length);
+            int to = from + random.nextInt(chars.length - from + 1);
+
+            assertEquals(CandidateLineFilter.SCALAR.mayContainPrice(chars, from, to),
+                    vector.mayContainPrice(chars, from, to),
+                    () -> "Mismatch for \"" + new String(chars, from, to - from) + "\"");
+        }
+    }
+
+    private static boolean accepts(CandidateLineFilter filter, String line) {
+        return filter.mayContainPrice(line.toCharArray(), 0, line.length());
+    }
+}
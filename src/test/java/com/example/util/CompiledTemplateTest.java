@@ -0,0 +1,96 @@
+package com.example.util;
+
+import com.example.data.ExtractionTemplate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CompiledTemplate.
+ * Covers validation of stored templates and matching against document features.
+ */
+@DisplayName("CompiledTemplate Tests")
+class CompiledTemplateTest {
+
+    @Test
+    @DisplayName("Should match Producer and Creator patterns against the whole entry")
+    void testMatchesMetadata() {
+        ExtractionTemplate template = template();
+        template.setProducerPattern("AcmeExport \\d+\\.\\d+");
+        CompiledTemplate compiled = CompiledTemplate.compile(template);
+
+        assertTrue(compiled.matchesMetadata("AcmeExport 2.1", "Word"));
+        assertTrue(compiled.matchesMetadata("AcmeExport 2.1", null));
+        assertFalse(compiled.matchesMetadata("AcmeExport 2.1 beta", null));
+        assertFalse(compiled.matchesMetadata(null, null));
+        assertFalse(compiled.hasFirstPageMarker());
+        assertTrue(compiled.matchesFirstPage("anything"));
+    }
+
+    @Test
+    @DisplayName("Should look for the first page marker anywhere in the text")
+    void testMatchesFirstPage() {
+        ExtractionTemplate template = template();
+        template.setFirstPageMarker("Acme Ltd");
+        CompiledTemplate compiled = CompiledTemplate.compile(template);
+
+        assertTrue(compiled.hasFirstPageMarker());
+        assertTrue(compiled.matchesFirstPage("Price list\nAcme Ltd, Leeds"));
+        assertFalse(compiled.matchesFirstPage("Acme Limited"));
+        assertFalse(compiled.matchesFirstPage("Acme"));
+        assertTrue(compiled.matchesMetadata(null, null));
+    }
+
+    @Test
+    @DisplayName("Should only accept codes in the supplier's format")
+    void testAcceptsCode() {
+        ExtractionTemplate template = template();
+        template.setFirstPageMarker("Acme");
+        template.setCodePattern("[A-Z]{2}-\\d{3}");
+        CompiledTemplate compiled = CompiledTemplate.compile(template);
+
+        assertTrue(compiled.acceptsCode("AC-100"));
+        assertFalse(compiled.acceptsCode("Subtotal"));
+        assertFalse(compiled.acceptsCode(null));
+
+        template.setCodePattern(null);
+        assertTrue(CompiledTemplate.compile(template).acceptsCode(null));
+    }
+
+    @Test
+    @DisplayName("Should reject templates that cannot be applied")
+    void testCompile_Invalid() {
+        ExtractionTemplate template = template();
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile(template));
+
+        template.setFirstPageMarker("Acme");
+        template.setPriceColumn(null);
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile(template));
+
+        template.setPriceColumn(3);
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile(template));
+
+        template.setPriceColumn(2);
+        template.setColumnBounds(List.of(300f, 120f));
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile(template));
+
+        template.setColumnBounds(List.of(120f, 300f));
+        template.setCodePattern("[A-Z");
+        assertThrows(PatternSyntaxException.class, () -> CompiledTemplate.compile(template));
+
+        template.setCodePattern(null);
+        assertEquals(2, CompiledTemplate.compile(template).getPriceColumn());
+    }
+
+    private static ExtractionTemplate template() {
+        ExtractionTemplate template = new ExtractionTemplate();
+        template.setColumnBounds(List.of(120f, 300f));
+        template.setCodeColumn(0);
+        template.setPriceColumn(2);
+        return template;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ExtractionAdmission.
+ * Tests cost estimates, reserving, growing and releasing budget, waiting in line and rejection.
+ */
+@DisplayName("ExtractionAdmission Tests")
+class ExtractionAdmissionTest {
+
+    private SimpleMeterRegistry registry;
+
+    private ExtractionAdmission admission;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        admission = new ExtractionAdmission();
+        ReflectionTestUtils.setField(admission, "extractionMetrics", new ExtractionMetrics(registry));
+        ReflectionTestUtils.setField(admission, "budgetBytes", 1000L);
+        ReflectionTestUtils.setField(admission, "fileSizeFactor", 2.0);
+        ReflectionTestUtils.setField(admission, "bytesPerPage", 100L);
+        ReflectionTestUtils.setField(admission, "maxWaitMillis", 5000L);
+    }
+
+    @Test
+    @DisplayName("Should estimate the cost from file size and pages")
+    void testEstimateCost() {
+        assertEquals(2 * 150 + 3 * 100, admission.estimateCost(150, 3));
+    }
+
+    @Test
+    @DisplayName("Should reserve budget until the permit is closed")
+    void testAdmit_ReservesAndReleases() throws Exception {
+        try (ExtractionAdmission.Permit first = admission.admit(100, 2)) {
+            assertEquals(400, first.getCost());
+            assertEquals(400, admission.getUsedBytes());
+            assertEquals(400, registry.get("pdf.admission.used").gauge().value());
+            assertEquals(1000, registry.get("pdf.admission.budget").gauge().value());
+        }
+        assertEquals(0, admission.getUsedBytes());
+    }
+
+    @Test
+    @DisplayName("Should admit a job larger than the budget when nothing else is running")
+    void testAdmit_CapsCostAtBudget() throws Exception {
+        try (ExtractionAdmission.Permit permit = admission.admit(10_000, 50)) {
+            assertEquals(1000, permit.getCost());
+        }
+    }
+
+    @Test
+    @DisplayName("Should add the pages to a permit without waiting, up to the budget")
+    void testAddPages() throws Exception {
+        try (ExtractionAdmission.Permit running = admission.admit(0, 5);
+             ExtractionAdmission.Permit permit = admission.admit(100, 0)) {
+            assertEquals(200, permit.getCost());
+
+            permit.addPages(2);
+            assertEquals(400, permit.getCost());
+            assertEquals(900, admission.getUsedBytes());
+
+            permit.addPages(20);
+            assertEquals(1000, permit.getCost());
+        }
+        assertEquals(0, admission.getUsedBytes());
+    }
+
+    @Test
+    @DisplayName("Should make a job wait until enough budget is released")
+    void testAdmit_WaitsForBudget() throws Exception {
+        ExtractionAdmission.Permit running = admission.admit(0, 8);
+        CompletableFuture<ExtractionAdmission.Permit> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return admission.admit(0, 5);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        while (admission.getQueuedCount() == 0) {
+            Thread.sleep(5);
+        }
+        assertFalse(waiting.isDone());
+        assertEquals(1, registry.get("pdf.admission.queued").gauge().value());
+
+        running.close();
+        try (ExtractionAdmission.Permit admitted = waiting.get(5, TimeUnit.SECONDS)) {
+            assertEquals(500, admitted.getCost());
+            assertEquals(500, admission.getUsedBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject when the wait queue is full or the wait times out")
+    void testAdmit_Rejects() throws Exception {
+        ReflectionTestUtils.setField(admission, "maxWaitMillis", 20L);
+        try (ExtractionAdmission.Permit running = admission.admit(0, 10)) {
+            ExtractionRejectedException timedOut = assertThrows(ExtractionRejectedException.class,
+                    () -> admission.admit(0, 1));
+            assertEquals(30, timedOut.getRetryAfterSeconds());
+
+            ReflectionTestUtils.setField(admission, "maxQueued", 0);
+            assertThrows(ExtractionRejectedException.class, () -> admission.admit(0, 1));
+        }
+
+        assertEquals(2, registry.get("pdf.admission.rejected").counter().count());
+        assertEquals(0, admission.getQueuedCount());
+    }
+}
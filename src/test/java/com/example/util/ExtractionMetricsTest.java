@@ -0,0 +1,74 @@
+package com.example.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ExtractionMetrics.
+ * Tests stage timers and volume counters and the outcome they are tagged with.
+ */
+@DisplayName("ExtractionMetrics Tests")
+class ExtractionMetricsTest {
+
+    private SimpleMeterRegistry registry;
+
+    private ExtractionMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new ExtractionMetrics(registry);
+    }
+
+    @Test
+    @DisplayName("Should add stage samples to a timer per stage and outcome")
+    void testRecordStage() {
+        metrics.recordStage(ExtractionMetrics.STAGE_PARSE, ExtractionMetrics.OUTCOME_SUCCESS, 2_000_000);
+        metrics.recordStage(ExtractionMetrics.STAGE_PARSE, ExtractionMetrics.OUTCOME_SUCCESS, 3_000_000);
+
+        assertEquals(2, registry.get("pdf.extraction.stage").tag("stage", "parse").tag("outcome", "success")
+                .timer().count());
+        assertEquals(5, registry.get("pdf.extraction.stage").tag("stage", "parse").timer()
+                .totalTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should tag a timed stage as a failure when it throws")
+    void testTimeStage() {
+        assertEquals("saved", metrics.timeStage(ExtractionMetrics.STAGE_SAVE, () -> "saved"));
+        assertThrows(IllegalStateException.class, () -> metrics.timeStage(ExtractionMetrics.STAGE_SAVE, () -> {
+            throw new IllegalStateException("write failed");
+        }));
+
+        assertEquals(1, registry.get("pdf.extraction.stage").tag("outcome", "success").timer().count());
+        assertEquals(1, registry.get("pdf.extraction.stage").tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should add volumes to the page, line, candidate line and row counters")
+    void testRecordVolumes() {
+        metrics.recordVolumes(ExtractionMetrics.OUTCOME_SUCCESS, 3, 120, 40, 35);
+        metrics.recordVolumes(ExtractionMetrics.OUTCOME_SUCCESS, 1, 10, 5, 5);
+
+        assertEquals(4, registry.get("pdf.extraction.pages").counter().count());
+        assertEquals(130, registry.get("pdf.extraction.lines").counter().count());
+        assertEquals(45, registry.get("pdf.extraction.candidate.lines").counter().count());
+        assertEquals(40, registry.get("pdf.extraction.rows").tag("outcome", "success").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should add skipped operators to a counter per outcome")
+    void testRecordSkippedOperators() {
+        metrics.recordSkippedOperators(ExtractionMetrics.OUTCOME_SUCCESS, 120);
+        metrics.recordSkippedOperators(ExtractionMetrics.OUTCOME_SUCCESS, 30);
+
+        assertEquals(150, registry.get("pdf.extraction.skipped.operators").tag("outcome", "success")
+                .counter().count());
+    }
+}
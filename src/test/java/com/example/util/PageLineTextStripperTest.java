@@ -0,0 +1,243 @@
+package com.example.util;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDFormContentStream;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.util.Matrix;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PageLineTextStripper.
+ * Checks that pages are delivered one at a time, in order, split into lines.
+ */
+@DisplayName("PageLineTextStripper Tests")
+class PageLineTextStripperTest {
+
+    @Test
+    @DisplayName("Should deliver the lines of every page in a single pass")
+    void testProcess_DeliversLinesPerPage() throws Exception {
+        byte[] pdf = PdfPriceExtractorTest.createPdf(new String[][] {
+                {"First line", "Second line"},
+                {"Only line on page two"}
+        });
+        List<Integer> pageNumbers = new ArrayList<>();
+        List<List<String>> pageLines = new ArrayList<>();
+
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            PageLineTextStripper stripper = new PageLineTextStripper((page, pageText) -> {
+                pageNumbers.add(page);
+                pageLines.add(lines(pageText));
+            });
+            stripper.process(document);
+        }
+
+        assertEquals(List.of(1, 2), pageNumbers);
+        assertEquals(List.of("First line", "Second line"), pageLines.get(0));
+        assertEquals(List.of("Only line on page two"), pageLines.get(1));
+    }
+
+    @Test
+    @DisplayName("Should only deliver pages inside the configured range")
+    void testProcess_RespectsPageRange() throws Exception {
+        byte[] pdf = PdfPriceExtractorTest.createPdf(new String[][] {{"one"}, {"two"}, {"three"}});
+        List<Integer> pageNumbers = new ArrayList<>();
+
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            PageLineTextStripper stripper = new PageLineTextStripper((page, pageText) -> pageNumbers.add(page));
+            stripper.setStartPage(2);
+            stripper.setEndPage(3);
+            stripper.process(document);
+        }
+
+        assertEquals(List.of(2, 3), pageNumbers);
+    }
+
+    @Test
+    @DisplayName("Should produce the same lines as getText for a page")
+    void testProcess_MatchesGetText() throws Exception {
+        byte[] pdf = PdfPriceExtractorTest.createPdf(new String[][] {{"SKU: A-1", "", "Price $5.00"}});
+        List<String> streamed = new ArrayList<>();
+
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            new PageLineTextStripper((page, pageText) -> streamed.addAll(lines(pageText))).process(document);
+
+            PageLineTextStripper plain = new PageLineTextStripper((page, pageText) -> { });
+            String text = plain.getText(document);
+            assertEquals(List.of(text.split("\\r?\\n")), streamed);
+        }
+    }
+
+    @Test
+    @DisplayName("Should record word positions when collecting words")
+    void testProcess_CollectsWords() throws Exception {
+        byte[] pdf = PdfPriceExtractorTest.createTablePdf(new float[] {50, 300}, new String[][][] {{
+                {"Desk Lamp", "$12.00"},
+                {"Chair", "$80.00"}}});
+        List<String> words = new ArrayList<>();
+        List<Integer> wordLines = new ArrayList<>();
+        List<Float> wordXs = new ArrayList<>();
+
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            PageLineTextStripper stripper = new PageLineTextStripper((page, pageText) -> {
+                for (int w = 0; w < pageText.wordCount(); w++) {
+                    words.add(pageText.subSequence(pageText.wordStart(w), pageText.wordEnd(w)).toString());
+                    wordLines.add(pageText.wordLine(w));
+                    wordXs.add(pageText.wordX(w));
+                    assertTrue(pageText.wordEndX(w) > pageText.wordX(w));
+                }
+            });
+            stripper.setCollectWords(true);
+            stripper.process(document);
+        }
+
+        assertEquals(List.of("Desk Lamp", "$12.00", "Chair", "$80.00"), words);
+        assertEquals(List.of(0, 0, 1, 1), wordLines);
+        assertEquals(50f, wordXs.get(0), 0.5f);
+        assertEquals(300f, wordXs.get(1), 0.5f);
+    }
+
+    @Test
+    @DisplayName("Should not record words unless asked to")
+    void testProcess_NoWordsByDefault() throws Exception {
+        byte[] pdf = PdfPriceExtractorTest.createPdf(new String[][] {{"Price $5.00"}});
+        List<Integer> wordCounts = new ArrayList<>();
+
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            new PageLineTextStripper((page, pageText) -> wordCounts.add(pageText.wordCount())).process(document);
+        }
+
+        assertEquals(List.of(0), wordCounts);
+    }
+
+    @Test
+    @DisplayName("Should extract the same words when skipping images and graphics-only blocks")
+    void testProcess_SkipImagesKeepsText() throws Exception {
+        byte[] pdf = createImagePdf();
+        List<String> plainLines = new ArrayList<>();
+        List<String> plainWords = new ArrayList<>();
+        List<String> skippingWords = new ArrayList<>();
+
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            PageLineTextStripper plain = new PageLineTextStripper((page, pageText) -> {
+                plainLines.addAll(lines(pageText));
+                plainWords.addAll(words(pageText));
+            });
+            plain.setCollectWords(true);
+            plain.process(document);
+
+            PageLineTextStripper skipping = new PageLineTextStripper(
+                    (page, pageText) -> skippingWords.addAll(words(pageText)));
+            skipping.setCollectWords(true);
+            skipping.setSkipImages(true);
+            skipping.process(document);
+
+            assertEquals(0, plain.getSkippedOperators());
+            assertTrue(skipping.getSkippedOperators() > 0);
+        }
+
+        assertEquals(List.of("Desk Lamp $12.00", "Chair $80.00", "Shelf $45.00"), plainLines);
+        assertEquals(plainWords, skippingWords);
+    }
+
+    @Test
+    @DisplayName("Should split standalone page text into lines, keeping blank ones")
+    void testPageTextOf() {
+        PageLineTextStripper.PageText pageText = PageLineTextStripper.PageText.of("Widget\n\nPrice $5.00\n");
+
+        assertEquals(List.of("Widget", "", "Price $5.00"), lines(pageText));
+        assertEquals(0, pageText.wordCount());
+    }
+
+    /**
+     * A page with an image and a framed box drawn in their own q ... Q blocks, text inside a
+     * transformed q ... Q block, and text inside a form XObject.
+     */
+    private static byte[] createImagePdf() throws Exception {
+        PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+
+            PDFormXObject form = new PDFormXObject(document);
+            form.setBBox(new PDRectangle(0, 0, 400, 40));
+            // The form's font is registered in its own resources
+            form.setResources(new PDResources());
+            try (PDFormContentStream formContent = new PDFormContentStream(form)) {
+                formContent.beginText();
+                formContent.setFont(font, 12);
+                formContent.newLineAtOffset(0, 10);
+                formContent.showText("Shelf $45.00");
+                formContent.endText();
+            }
+
+            PDImageXObject photo = LosslessFactory.createFromImage(document,
+                    new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB));
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.drawImage(photo, 50, 600, 200, 150);
+
+                content.saveGraphicsState();
+                content.setStrokingColor(0.5f, 0.5f, 0.5f);
+                content.addRect(45, 595, 210, 160);
+                content.stroke();
+                content.restoreGraphicsState();
+
+                content.beginText();
+                content.setFont(font, 12);
+                content.newLineAtOffset(50, 560);
+                content.showText("Desk Lamp $12.00");
+                content.endText();
+
+                content.saveGraphicsState();
+                content.transform(Matrix.getTranslateInstance(0, -20));
+                content.beginText();
+                content.setFont(font, 12);
+                content.newLineAtOffset(50, 560);
+                content.showText("Chair $80.00");
+                content.endText();
+                content.restoreGraphicsState();
+
+                content.saveGraphicsState();
+                content.transform(Matrix.getTranslateInstance(50, 500));
+                content.drawForm(form);
+                content.restoreGraphicsState();
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    // Each word with its line and rounded x position, so that a moved word shows up as a difference
+    private static List<String> words(PageLineTextStripper.PageText pageText) {
+        List<String> words = new ArrayList<>();
+        for (int w = 0; w < pageText.wordCount(); w++) {
+            words.add(pageText.wordLine(w) + ":" + pageText.subSequence(pageText.wordStart(w), pageText.wordEnd(w))
+                    + "@" + Math.round(pageText.wordX(w)));
+        }
+        return words;
+    }
+
+    private static List<String> lines(PageLineTextStripper.PageText pageText) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < pageText.lineCount(); i++) {
+            lines.add(pageText.subSequence(pageText.lineStart(i), pageText.lineEnd(i)).toString());
+        }
+        return lines;
+    }
+}
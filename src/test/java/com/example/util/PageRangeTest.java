@@ -0,0 +1,63 @@
+package com.example.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PageRange.
+ * Tests parsing, clamping to the document length, the preview limit and grouping pages into ranges.
+ */
+@DisplayName("PageRange Tests")
+class PageRangeTest {
+
+    @Test
+    @DisplayName("Should parse single pages, closed and open ranges")
+    void testParse() {
+        assertEquals(PageRange.of(7, 7), PageRange.parse("7"));
+        assertEquals(PageRange.of(1, 5), PageRange.parse(" 1 - 5 "));
+        assertEquals(10, PageRange.parse("10-").getFirstPage());
+        assertEquals(40, PageRange.parse("10-").getLastPage(40));
+        assertEquals("10-", PageRange.parse("10-").toString());
+        assertEquals("1-5", PageRange.parse("1-5").toString());
+        assertEquals("7", PageRange.parse("7").toString());
+    }
+
+    @Test
+    @DisplayName("Should treat a missing range as every page")
+    void testParse_All() {
+        assertTrue(PageRange.parse(null).isAll());
+        assertTrue(PageRange.parse(" ").isAll());
+        assertTrue(PageRange.parse("1-").isAll());
+        assertFalse(PageRange.parse("2-").isAll());
+    }
+
+    @Test
+    @DisplayName("Should reject malformed ranges")
+    void testParse_Invalid() {
+        assertThrows(IllegalArgumentException.class, () -> PageRange.parse("abc"));
+        assertThrows(IllegalArgumentException.class, () -> PageRange.parse("0-3"));
+        assertThrows(IllegalArgumentException.class, () -> PageRange.parse("5-2"));
+        assertThrows(IllegalArgumentException.class, () -> PageRange.parse("-3"));
+    }
+
+    @Test
+    @DisplayName("Should cut a range to a maximum number of pages")
+    void testLimit() {
+        assertEquals(PageRange.of(1, 5), PageRange.ALL.limit(5));
+        assertEquals(PageRange.of(3, 4), PageRange.of(3, 4).limit(5));
+        assertEquals(PageRange.of(10, 14), PageRange.parse("10-").limit(5));
+        assertSame(PageRange.ALL, PageRange.ALL.limit(0));
+    }
+
+    @Test
+    @DisplayName("Should group ascending pages into contiguous ranges")
+    void testRunsOf() {
+        assertEquals(List.of(PageRange.of(1, 3), PageRange.of(5, 5), PageRange.of(8, 9)),
+                PageRange.runsOf(List.of(1, 2, 3, 5, 8, 9)));
+        assertTrue(PageRange.runsOf(List.of()).isEmpty());
+    }
+}
@@ -1,20 +1,40 @@
 package com.example.util;
 
+import com.example.data.ExtractionTemplate;
 import com.example.data.PriceInfo;
+import com.example.service.ExtractionTemplateService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.io.TempDir;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * Comprehensive unit tests for PdfPriceExtractor.
@@ -455,4 +475,619 @@ class PdfPriceExtractorTest {
     void testExtraction_ProcessesAllPages() {
         assertTrue(true); // Placeholder
     }
+
+    // Parallel Extraction Tests
+    @Test
+    @DisplayName("Should extract prices from a generated PDF")
+    void testExtractPricesFromPdf_GeneratedPdf() throws Exception {
+        byte[] pdf = createPdf(new String[][] {
+                {"SKU: ABC-XYZ", "Name: Widget $19.99"},
+                {"Item: Gadget EUR 1,250.00"}
+        });
+
+        List<PriceInfo> result = extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "catalog.pdf");
+
+        assertEquals(2, result.size());
+        assertEquals(new BigDecimal("19.99"), result.get(0).getPrice());
+        assertEquals("USD", result.get(0).getCurrency());
+        assertEquals("ABC-XYZ", result.get(0).getProductCode());
+        assertEquals(1, result.get(0).getPageNumber());
+        assertEquals(new BigDecimal("1250.00"), result.get(1).getPrice());
+        assertEquals("EUR", result.get(1).getCurrency());
+        assertEquals(2, result.get(1).getPageNumber());
+        assertEquals("catalog.pdf", result.get(1).getPdfFileName());
+    }
+
+    @Test
+    @DisplayName("Should return the same rows in page order when extracting in parallel")
+    void testExtractPricesFromPdf_ParallelMatchesSequential() throws Exception {
+        String[][] pages = new String[40][];
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = new String[] {"SKU: P-" + i, "Price $" + (i + 1) + ".50"};
+        }
+        byte[] pdf = createPdf(pages);
+
+        List<PriceInfo> sequential = extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "seq.pdf");
+
+        ReflectionTestUtils.setField(extractor, "parallelEnabled", true);
+        ReflectionTestUtils.setField(extractor, "maxThreads", 4);
+        ReflectionTestUtils.setField(extractor, "minPagesPerWorker", 5);
+        List<PriceInfo> parallel = extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "seq.pdf");
+        extractor.shutdown();
+
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.get(i).getPageNumber(), parallel.get(i).getPageNumber());
+            assertEquals(sequential.get(i).getPrice(), parallel.get(i).getPrice());
+            assertEquals(sequential.get(i).getProductCode(), parallel.get(i).getProductCode());
+        }
+    }
+
+    @Test
+    @DisplayName("Should push pages to the sink in page order when extracting in parallel")
+    void testExtractPrices_ParallelPushesPagesInOrder() throws Exception {
+        String[][] pages = new String[23][];
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = new String[] {"Price $" + (i + 1) + ".00"};
+        }
+        byte[] pdf = createPdf(pages);
+        List<Integer> pageNumbers = new ArrayList<>();
+
+        ReflectionTestUtils.setField(extractor, "parallelEnabled", true);
+        ReflectionTestUtils.setField(extractor, "maxThreads", 3);
+        ReflectionTestUtils.setField(extractor, "minPagesPerWorker", 2);
+        ExtractionSummary summary = extractor.extractPrices(new ByteArrayInputStream(pdf), "push.pdf",
+                (page, rows) -> pageNumbers.add(page));
+        extractor.shutdown();
+
+        assertEquals(23, summary.getPageCount());
+        assertEquals(23, summary.getExtractedCount());
+        for (int i = 0; i < pageNumbers.size(); i++) {
+            assertEquals(i + 1, pageNumbers.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should stop parallel extraction when the sink fails")
+    void testExtractPrices_ParallelSinkFailure() throws Exception {
+        String[][] pages = new String[20][];
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = new String[] {"Price $" + (i + 1) + ".00"};
+        }
+        byte[] pdf = createPdf(pages);
+
+        ReflectionTestUtils.setField(extractor, "parallelEnabled", true);
+        ReflectionTestUtils.setField(extractor, "maxThreads", 4);
+        ReflectionTestUtils.setField(extractor, "minPagesPerWorker", 2);
+
+        assertThrows(IOException.class, () -> extractor.extractPrices(new ByteArrayInputStream(pdf), "fail.pdf",
+                (page, rows) -> {
+                    throw new IOException("client went away");
+                }));
+        extractor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should extract only the pages in the requested range")
+    void testExtractPrices_PageRange() throws Exception {
+        String[][] pages = new String[30][];
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = new String[] {"Price $" + (i + 1) + ".00"};
+        }
+        byte[] pdf = createPdf(pages);
+        List<Integer> pageNumbers = new ArrayList<>();
+
+        ReflectionTestUtils.setField(extractor, "parallelEnabled", true);
+        ReflectionTestUtils.setField(extractor, "maxThreads", 3);
+        ReflectionTestUtils.setField(extractor, "minPagesPerWorker", 4);
+        ExtractionSummary summary;
+        try (PdfSpoolFile spoolFile = PdfSpoolFile.spool(new ByteArrayInputStream(pdf), null)) {
+            summary = extractor.extractPrices(spoolFile, "range.pdf", PageRange.parse("11-25"),
+                    (page, rows) -> pageNumbers.add(page));
+            assertThrows(IllegalArgumentException.class, () -> extractor.extractPrices(spoolFile, "range.pdf",
+                    PageRange.parse("31-"), (page, rows) -> { }));
+        }
+        extractor.shutdown();
+
+        assertEquals(30, summary.getPageCount());
+        assertEquals(15, summary.getExtractedCount());
+        assertEquals(15, pageNumbers.size());
+        for (int i = 0; i < pageNumbers.size(); i++) {
+            assertEquals(11 + i, pageNumbers.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should extract several page ranges from one load of the document")
+    void testExtractPrices_MultiplePageRanges() throws Exception {
+        String[][] pages = new String[10][];
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = new String[] {"Price $" + (i + 1) + ".00"};
+        }
+        byte[] pdf = createPdf(pages);
+        List<Integer> pageNumbers = new ArrayList<>();
+
+        ExtractionSummary summary;
+        try (PdfSpoolFile spoolFile = PdfSpoolFile.spool(new ByteArrayInputStream(pdf), null)) {
+            summary = extractor.extractPrices(spoolFile, "ranges.pdf", PageRange.runsOf(List.of(2, 3, 7, 10)),
+                    (page, rows) -> pageNumbers.add(page));
+        }
+
+        assertEquals(10, summary.getPageCount());
+        assertEquals(4, summary.getExtractedCount());
+        assertEquals(List.of(2, 3, 7, 10), pageNumbers);
+    }
+
+    @Test
+    @DisplayName("Should hash pages so that only edited pages differ between revisions")
+    void testFingerprint_ChangedPages() throws Exception {
+        byte[] original = createPdf(new String[][] {{"SKU: A-1 $10.00"}, {"SKU: B-2 $20.00"}, {"SKU: C-3 $30.00"}});
+        byte[] revised = createPdf(new String[][] {{"SKU: A-1 $10.00"}, {"SKU: B-2 $25.00"}, {"SKU: C-3 $30.00"},
+                {"SKU: D-4 $40.00"}});
+
+        PdfFingerprint before;
+        PdfFingerprint after;
+        try (PdfSpoolFile first = PdfSpoolFile.spool(new ByteArrayInputStream(original), null);
+             PdfSpoolFile second = PdfSpoolFile.spool(new ByteArrayInputStream(revised), null)) {
+            before = extractor.fingerprint(first);
+            after = extractor.fingerprint(second);
+        }
+
+        assertNull(after.getSupplier());
+        assertEquals(3, before.getPageCount());
+        assertEquals(4, after.getPageCount());
+        assertEquals(List.of(2, 4), after.changedPages(before.getPageHashes()));
+    }
+
+    @Test
+    @DisplayName("Should parse stripped page text into the same rows as a full extraction")
+    void testParsePages_MatchesExtraction() throws Exception {
+        byte[] pdf = createPdf(new String[][] {{"Product: Widget", "SKU: W-1 Price $10.00"}, {"Item: Gadget $4.50"}});
+        List<PriceInfo> extracted = extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "parse.pdf");
+
+        List<PageLineTextStripper.PageText> pages = new ArrayList<>();
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            new PageLineTextStripper((page, pageText) -> {
+                StringBuilder text = new StringBuilder();
+                for (int i = 0; i < pageText.lineCount(); i++) {
+                    text.append(pageText, pageText.lineStart(i), pageText.lineEnd(i)).append('\n');
+                }
+                pages.add(PageLineTextStripper.PageText.of(text));
+            }).process(document);
+        }
+        List<PriceInfo> parsed = new ArrayList<>();
+        long count = extractor.parsePages(pages, "parse.pdf", (page, rows) -> parsed.addAll(rows));
+
+        assertEquals(extracted.size(), count);
+        for (int i = 0; i < extracted.size(); i++) {
+            assertEquals(extracted.get(i).getPageNumber(), parsed.get(i).getPageNumber());
+            assertEquals(extracted.get(i).getPrice(), parsed.get(i).getPrice());
+            assertEquals(extracted.get(i).getProductCode(), parsed.get(i).getProductCode());
+        }
+    }
+
+    // Allocation Tests
+    @Test
+    @DisplayName("Should report parse-stage allocation per extracted row")
+    void testExtractPrices_ReportsParseAllocation() throws Exception {
+        String[] lines = new String[40];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = "Item: Part " + i + " $" + (i + 1) + ".99";
+        }
+        byte[] pdf = createPdf(new String[][] {lines, lines});
+
+        ExtractionSummary summary = extractor.extractPrices(new ByteArrayInputStream(pdf), "alloc.pdf",
+                (page, rows) -> { });
+
+        assertTrue(summary.getExtractedCount() > 0);
+        assertTrue(summary.getParseAllocatedBytes() > 0);
+        assertTrue(summary.getParseBytesPerRow() > 0);
+        assertEquals(summary.getParseAllocatedBytes(), extractor.getTotalParseAllocatedBytes());
+        assertEquals(summary.getExtractedCount(), extractor.getTotalParsedRows());
+    }
+
+    // Metrics Tests
+    @Test
+    @DisplayName("Should time each stage and count pages, lines, candidate lines and rows")
+    void testExtractPrices_RecordsMetrics() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(extractor, "extractionMetrics", new ExtractionMetrics(registry));
+        byte[] pdf = createPdf(new String[][] {{"Catalog", "Item: Widget $10.00"}, {"Item: Gadget $4.50"}});
+
+        extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "metrics.pdf");
+
+        for (String stage : List.of(ExtractionMetrics.STAGE_LOAD, ExtractionMetrics.STAGE_STRIP,
+                ExtractionMetrics.STAGE_PARSE)) {
+            assertEquals(1, registry.get("pdf.extraction.stage").tag("stage", stage)
+                    .tag("outcome", ExtractionMetrics.OUTCOME_SUCCESS).timer().count());
+        }
+        assertEquals(2, registry.get("pdf.extraction.pages").tag("outcome", "success").counter().count());
+        assertTrue(registry.get("pdf.extraction.lines").tag("outcome", "success").counter().count() >= 3);
+        assertEquals(2, registry.get("pdf.extraction.candidate.lines").tag("outcome", "success").counter().count());
+        assertEquals(2, registry.get("pdf.extraction.rows").tag("outcome", "success").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should load a spooled document once for its page count, fingerprint and extraction")
+    void testExtractPrices_LoadsSpooledDocumentOnce() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(extractor, "extractionMetrics", new ExtractionMetrics(registry));
+        byte[] pdf = createPdf(new String[][] {{"Price $1.00"}, {"Price $2.00"}});
+
+        try (PdfSpoolFile spoolFile = PdfSpoolFile.spool(new ByteArrayInputStream(pdf), null)) {
+            assertEquals(2, extractor.countPages(spoolFile));
+            assertEquals(2, extractor.fingerprint(spoolFile).getPageCount());
+            ExtractionSummary summary = extractor.extractPrices(spoolFile, "once.pdf", (page, rows) -> { });
+
+            assertEquals(2, summary.getExtractedCount());
+            assertNotNull(spoolFile.getDocument());
+        }
+
+        assertEquals(1, registry.get("pdf.extraction.stage").tag("stage", ExtractionMetrics.STAGE_LOAD)
+                .tag("outcome", ExtractionMetrics.OUTCOME_SUCCESS).timer().count());
+    }
+
+    @Test
+    @DisplayName("Should tag the metrics of a failed extraction as a failure")
+    void testExtractPrices_RecordsFailureMetrics() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(extractor, "extractionMetrics", new ExtractionMetrics(registry));
+        byte[] pdf = createPdf(new String[][] {{"Price $1.00"}, {"Price $2.00"}});
+
+        assertThrows(IOException.class, () -> extractor.extractPrices(new ByteArrayInputStream(pdf), "fail.pdf",
+                (page, rows) -> {
+                    throw new IOException("client went away");
+                }));
+
+        assertEquals(1, registry.get("pdf.extraction.stage").tag("stage", ExtractionMetrics.STAGE_PARSE)
+                .tag("outcome", ExtractionMetrics.OUTCOME_FAILURE).timer().count());
+        assertEquals(1, registry.get("pdf.extraction.pages").tag("outcome", "failure").counter().count());
+        assertNull(registry.find("pdf.extraction.pages").tag("outcome", "success").counter());
+    }
+
+    @Test
+    @DisplayName("Should parse a font shared by several pages once per document")
+    void testExtractPrices_ReusesSharedFont() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(extractor, "extractionMetrics", new ExtractionMetrics(registry));
+        byte[] pdf = createPdf(new String[][] {{"Price $1.00"}, {"Price $2.00"}, {"Price $3.00"}});
+
+        extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "fonts.pdf");
+
+        assertEquals(1, registry.get("pdf.extraction.resource.cache").tag("type", "font").tag("result", "miss")
+                .counter().count());
+        assertTrue(registry.get("pdf.extraction.resource.cache").tag("type", "font").tag("result", "hit")
+                .counter().count() >= 2);
+    }
+
+    // Limits Tests
+    @Test
+    @DisplayName("Should refuse documents with more pages than the limit before parsing them")
+    void testExtractPrices_PageLimit() throws Exception {
+        ReflectionTestUtils.setField(extractor, "maxPages", 2);
+        byte[] pdf = createPdf(new String[][] {{"Price $1.00"}, {"Price $2.00"}, {"Price $3.00"}});
+        List<Integer> pageNumbers = new ArrayList<>();
+
+        ExtractionLimitException e = assertThrows(ExtractionLimitException.class, () -> extractor.extractPrices(
+                new ByteArrayInputStream(pdf), "long.pdf", (page, rows) -> pageNumbers.add(page)));
+
+        assertTrue(e.getMessage().contains("3 pages"));
+        assertTrue(pageNumbers.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should refuse a page whose content stream is over the limit")
+    void testExtractPrices_PageContentLimit() throws Exception {
+        ReflectionTestUtils.setField(extractor, "maxPageContentBytes", 10L);
+        byte[] pdf = createPdf(new String[][] {{"Price $1.00"}});
+
+        assertThrows(ExtractionLimitException.class,
+                () -> extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "dense.pdf"));
+    }
+
+    @Test
+    @DisplayName("Should abandon a document between pages once its time budget is used up")
+    void testExtractPrices_TimeBudget() throws Exception {
+        ReflectionTestUtils.setField(extractor, "maxDurationMillis", 20L);
+        String[][] pages = new String[10][];
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = new String[] {"Price $" + (i + 1) + ".00"};
+        }
+        byte[] pdf = createPdf(pages);
+        List<Integer> pageNumbers = new ArrayList<>();
+
+        assertThrows(ExtractionBudgetExceededException.class, () -> extractor.extractPrices(
+                new ByteArrayInputStream(pdf), "slow.pdf", (page, rows) -> {
+                    pageNumbers.add(page);
+                    long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(30);
+                    while (System.nanoTime() < until) {
+                        LockSupport.parkNanos(until - System.nanoTime());
+                    }
+                }));
+
+        assertEquals(List.of(1), pageNumbers);
+    }
+
+    @Test
+    @DisplayName("Should stop at the next page when the extracting thread is interrupted")
+    void testExtractPrices_Interrupted() throws Exception {
+        byte[] pdf = createPdf(new String[][] {{"Price $1.00"}, {"Price $2.00"}, {"Price $3.00"}});
+        List<Integer> pageNumbers = new ArrayList<>();
+
+        try {
+            assertThrows(InterruptedIOException.class, () -> extractor.extractPrices(new ByteArrayInputStream(pdf),
+                    "cancelled.pdf", (page, rows) -> {
+                        pageNumbers.add(page);
+                        Thread.currentThread().interrupt();
+                    }));
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertEquals(List.of(1), pageNumbers);
+    }
+
+    @Test
+    @DisplayName("Should stamp every row of a document with the same extraction time")
+    void testExtractPricesFromPdf_SharedTimestamp() throws Exception {
+        byte[] pdf = createPdf(new String[][] {{"Price $1.00", "Price $2.00"}, {"Price $3.00"}});
+
+        List<PriceInfo> result = extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "time.pdf");
+
+        assertEquals(3, result.size());
+        assertNotNull(result.get(0).getExtractedDate());
+        assertSame(result.get(0).getExtractedDate(), result.get(2).getExtractedDate());
+    }
+
+    // File-backed Loading Tests
+    @Test
+    @DisplayName("Should remove the spooled upload after extraction")
+    void testExtractPricesFromPdf_CleansUpSpoolFile(@TempDir Path spoolDir) throws Exception {
+        byte[] pdf = createPdf(new String[][] {{"Price $10.00"}});
+        ReflectionTestUtils.setField(extractor, "spoolDir", spoolDir.toString());
+
+        List<PriceInfo> result = extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "spool.pdf");
+
+        assertEquals(1, result.size());
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should extract the same rows with buffered file access")
+    void testExtractPricesFromPdf_BufferedFileAccess() throws Exception {
+        byte[] pdf = createPdf(new String[][] {{"Price $10.00"}, {"Price $20.00"}});
+        List<PriceInfo> mapped = extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "a.pdf");
+
+        ReflectionTestUtils.setField(extractor, "memoryMapped", false);
+        List<PriceInfo> buffered = extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "a.pdf");
+
+        assertEquals(2, buffered.size());
+        assertEquals(mapped.get(1).getPrice(), buffered.get(1).getPrice());
+    }
+
+    @Test
+    @DisplayName("Should extract the same rows with and without the line pre-filter")
+    void testExtractPricesFromPdf_PrefilterKeepsFallbacks() throws Exception {
+        byte[] pdf = createPdf(new String[][] {
+                {"Product: Deluxe Widget", "SKU: ABC-XYZ", "Price $19.99"},
+                {"Catalogue notes without figures", "Item: Gadget", "USD 5.00 and $7.25"},
+                {"", "Price $3.10"}});
+
+        List<PriceInfo> filtered = extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "f.pdf");
+
+        ReflectionTestUtils.setField(extractor, "prefilterEnabled", false);
+        ReflectionTestUtils.setField(extractor, "candidateLineFilter", null);
+        List<PriceInfo> unfiltered = extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "f.pdf");
+
+        assertEquals("none", extractor.getCandidateLineFilter().name());
+        assertEquals(unfiltered.size(), filtered.size());
+        for (int i = 0; i < unfiltered.size(); i++) {
+            assertEquals(unfiltered.get(i).getPrice(), filtered.get(i).getPrice());
+            assertEquals(unfiltered.get(i).getCurrency(), filtered.get(i).getCurrency());
+            assertEquals(unfiltered.get(i).getProductCode(), filtered.get(i).getProductCode());
+            assertEquals(unfiltered.get(i).getProductName(), filtered.get(i).getProductName());
+            assertEquals(unfiltered.get(i).getRawText(), filtered.get(i).getRawText());
+        }
+        assertEquals("ABC-XYZ", filtered.get(0).getProductCode());
+        assertEquals("Gadget", filtered.get(1).getProductName());
+    }
+
+    @Test
+    @DisplayName("Should read price tables by column in layout mode")
+    void testExtractPricesFromPdf_LayoutMode() throws Exception {
+        byte[] pdf = createTablePdf(new float[] {50, 130, 330, 400}, new String[][][] {{
+                {"Acme Supplies price list 2024"},
+                {"SKU", "Description", "Qty", "Unit Price"},
+                {"AB-100", "Cable 2m pack of 3", "12", "$4.50"},
+                {"AB-200", "Desk Lamp", "1", "1,299.00"},
+                {"Subtotal for section 7"}}});
+
+        ReflectionTestUtils.setField(extractor, "extractionMode", ExtractionMode.LAYOUT);
+        List<PriceInfo> result = extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "table.pdf");
+
+        assertEquals(2, result.size());
+        assertEquals("AB-100", result.get(0).getProductCode());
+        assertEquals("Cable 2m pack of 3", result.get(0).getProductName());
+        assertEquals(new BigDecimal("4.50"), result.get(0).getPrice());
+        assertEquals("AB-200", result.get(1).getProductCode());
+        assertEquals("Desk Lamp", result.get(1).getProductName());
+        assertEquals(new BigDecimal("1299.00"), result.get(1).getPrice());
+        assertEquals(1, result.get(1).getPageNumber());
+        assertEquals("table.pdf", result.get(1).getPdfFileName());
+    }
+
+    @Test
+    @DisplayName("Should take the currency from the price column header in layout mode")
+    void testExtractPricesFromPdf_LayoutModeHeaderCurrency() throws Exception {
+        byte[] pdf = createTablePdf(new float[] {50, 200}, new String[][][] {{
+                {"Product Name", "Price (EUR)"},
+                {"Espresso Machine", "349.00"},
+                {"Milk Jug", "GBP 12.00"}}});
+
+        ReflectionTestUtils.setField(extractor, "extractionMode", ExtractionMode.LAYOUT);
+        List<PriceInfo> result = extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "eur.pdf");
+
+        assertEquals(2, result.size());
+        assertEquals("EUR", result.get(0).getCurrency());
+        assertEquals("GBP", result.get(1).getCurrency());
+        assertNull(result.get(0).getProductCode());
+    }
+
+    @Test
+    @DisplayName("Should read pages without a table header as text in layout mode")
+    void testExtractPricesFromPdf_LayoutModeFallsBackToText() throws Exception {
+        byte[] pdf = createPdf(new String[][] {{"SKU: ABC-XYZ", "Price $19.99"}});
+
+        List<PriceInfo> text = extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "plain.pdf");
+        ReflectionTestUtils.setField(extractor, "extractionMode", ExtractionMode.LAYOUT);
+        List<PriceInfo> layout = extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "plain.pdf");
+
+        assertEquals(1, layout.size());
+        assertEquals(text.get(0).getPrice(), layout.get(0).getPrice());
+        assertEquals(text.get(0).getProductCode(), layout.get(0).getProductCode());
+    }
+
+    @Test
+    @DisplayName("Should read a document matching a supplier template by its columns")
+    void testExtractPricesFromPdf_SupplierTemplate() throws Exception {
+        byte[] pdf = createTablePdf(new float[] {50, 130, 400}, new String[][][] {{
+                {"Acme Supplies - trade prices"},
+                {"AC-100", "Cable 2m pack of 3", "4.50"},
+                {"AC-200", "Desk Lamp", "GBP 12.00"},
+                {"Subtotal", null, "16.50"}}});
+        useTemplates(template("Acme", "Acme Supplies"));
+
+        List<PriceInfo> result = extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "acme.pdf");
+
+        assertEquals(2, result.size());
+        assertEquals("AC-100", result.get(0).getProductCode());
+        assertEquals("Cable 2m pack of 3", result.get(0).getProductName());
+        assertEquals(new BigDecimal("4.50"), result.get(0).getPrice());
+        assertEquals("EUR", result.get(0).getCurrency());
+        assertEquals("Acme", result.get(0).getSupplier());
+        assertEquals("GBP", result.get(1).getCurrency());
+        assertEquals(1, result.get(1).getPageNumber());
+    }
+
+    @Test
+    @DisplayName("Should use the generic extraction when no template matches")
+    void testExtractPricesFromPdf_TemplateNotMatched() throws Exception {
+        byte[] pdf = createPdf(new String[][] {{"Other Supplier Ltd", "SKU: ABC-XYZ", "Price $19.99"}});
+        useTemplates(template("Acme", "Acme Supplies"));
+
+        List<PriceInfo> result = extractor.extractPricesFromPdf(new ByteArrayInputStream(pdf), "other.pdf");
+
+        assertEquals(1, result.size());
+        assertEquals("ABC-XYZ", result.get(0).getProductCode());
+        assertNull(result.get(0).getSupplier());
+    }
+
+    @Test
+    @DisplayName("Should pick the first candidate template whose marker is on the first page")
+    void testFindTemplate() throws Exception {
+        byte[] pdf = createPdf(new String[][] {{"Beta Trading price list"}, {"Acme Supplies"}});
+        CompiledTemplate acme = template("Acme", "Acme Supplies");
+        CompiledTemplate beta = template("Beta", "Beta Trading");
+
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            assertNull(extractor.findTemplate(document));
+
+            useTemplates(acme, beta);
+            assertSame(beta, extractor.findTemplate(document));
+
+            useTemplates(acme);
+            assertNull(extractor.findTemplate(document));
+        }
+    }
+
+    private void useTemplates(CompiledTemplate... templates) {
+        ExtractionTemplateService templateService = mock(ExtractionTemplateService.class);
+        when(templateService.findCandidates(any(), any())).thenReturn(List.of(templates));
+        ReflectionTestUtils.setField(extractor, "extractionTemplateService", templateService);
+    }
+
+    private static CompiledTemplate template(String supplier, String marker) {
+        ExtractionTemplate template = new ExtractionTemplate();
+        template.setSupplier(supplier);
+        template.setFirstPageMarker(marker);
+        template.setColumnBounds(List.of(120f, 390f));
+        template.setCodeColumn(0);
+        template.setNameColumn(1);
+        template.setPriceColumn(2);
+        template.setCurrency("EUR");
+        template.setCodePattern("[A-Z]{2}-\\d+");
+        return CompiledTemplate.compile(template);
+    }
+
+    @Test
+    @DisplayName("Should pick parallelism from page count and available threads")
+    void testResolveParallelism() {
+        assertEquals(1, extractor.resolveParallelism(1000));
+
+        ReflectionTestUtils.setField(extractor, "parallelEnabled", true);
+        ReflectionTestUtils.setField(extractor, "maxThreads", 8);
+        ReflectionTestUtils.setField(extractor, "minPagesPerWorker", 25);
+
+        assertEquals(1, extractor.resolveParallelism(1));
+        assertEquals(1, extractor.resolveParallelism(30));
+        assertEquals(4, extractor.resolveParallelism(100));
+        assertEquals(8, extractor.resolveParallelism(2000));
+    }
+
+    static byte[] createPdf(String[][] pages) throws IOException {
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (String[] lines : pages) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 12);
+                    content.setLeading(16);
+                    content.newLineAtOffset(50, 700);
+                    for (String line : lines) {
+                        content.showText(line);
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Builds a PDF whose pages are tables: each row is drawn cell by cell at the given column
+     * positions. Null cells are left empty.
+     */
+    static byte[] createTablePdf(float[] columnX, String[][][] pages) throws IOException {
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (String[][] rows : pages) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    float y = 740;
+                    for (String[] cells : rows) {
+                        for (int c = 0; c < cells.length; c++) {
+                            if (cells[c] == null) {
+                                continue;
+                            }
+                            content.beginText();
+                            content.setFont(font, 10);
+                            content.newLineAtOffset(columnX[c], y);
+                            content.showText(cells[c]);
+                            content.endText();
+                        }
+                        y -= 14;
+                    }
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
 }
@@ -0,0 +1,75 @@
+package com.example.util;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PdfSanityCheck.
+ * Tests the header and cross-reference pre-check and the page and object limits.
+ */
+@DisplayName("PdfSanityCheck Tests")
+class PdfSanityCheckTest {
+
+    @Test
+    @DisplayName("Should accept a well-formed PDF")
+    void testCheckFile_Valid(@TempDir Path dir) throws Exception {
+        Path pdf = Files.write(dir.resolve("valid.pdf"),
+                PdfPriceExtractorTest.createPdf(new String[][] {{"Price $1.00"}}));
+
+        assertDoesNotThrow(() -> PdfSanityCheck.checkFile(pdf, true));
+    }
+
+    @Test
+    @DisplayName("Should reject files without a PDF header")
+    void testCheckFile_NoHeader(@TempDir Path dir) throws Exception {
+        Path file = Files.write(dir.resolve("text.pdf"), "just some text\nstartxref\n0\n%%EOF".getBytes(
+                StandardCharsets.US_ASCII));
+
+        ExtractionLimitException e = assertThrows(ExtractionLimitException.class,
+                () -> PdfSanityCheck.checkFile(file, false));
+        assertTrue(e.getMessage().contains("header"));
+    }
+
+    @Test
+    @DisplayName("Should reject truncated files without a cross-reference offset only when it is required")
+    void testCheckFile_Truncated(@TempDir Path dir) throws Exception {
+        byte[] pdf = PdfPriceExtractorTest.createPdf(new String[][] {{"Price $1.00"}});
+        Path truncated = Files.write(dir.resolve("truncated.pdf"), Arrays.copyOf(pdf, pdf.length - 40));
+
+        assertThrows(ExtractionLimitException.class, () -> PdfSanityCheck.checkFile(truncated, true));
+        assertDoesNotThrow(() -> PdfSanityCheck.checkFile(truncated, false));
+    }
+
+    @Test
+    @DisplayName("Should find the cross-reference offset before data appended after the end of the file")
+    void testCheckFile_TrailingData(@TempDir Path dir) throws Exception {
+        byte[] pdf = PdfPriceExtractorTest.createPdf(new String[][] {{"Price $1.00"}});
+        byte[] padded = Arrays.copyOf(pdf, pdf.length + 8 * 1024);
+        Arrays.fill(padded, pdf.length, padded.length, (byte) ' ');
+        Path file = Files.write(dir.resolve("padded.pdf"), padded);
+
+        assertDoesNotThrow(() -> PdfSanityCheck.checkFile(file, true));
+    }
+
+    @Test
+    @DisplayName("Should check page and object counts against their limits")
+    void testCheckStructure() throws Exception {
+        byte[] pdf = PdfPriceExtractorTest.createPdf(new String[][] {{"Price $1.00"}, {"Price $2.00"}});
+
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            assertDoesNotThrow(() -> PdfSanityCheck.checkStructure(document, 2, 0));
+            assertThrows(ExtractionLimitException.class, () -> PdfSanityCheck.checkStructure(document, 1, 0));
+            assertThrows(ExtractionLimitException.class, () -> PdfSanityCheck.checkStructure(document, 0, 1));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.util;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PdfSpoolFile.
+ * Tests spooling to disk and clean-up of the temporary file and the document parsed from it.
+ */
+@DisplayName("PdfSpoolFile Tests")
+class PdfSpoolFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should copy the stream to a temporary file")
+    void testSpool_CopiesContent() throws Exception {
+        byte[] content = "%PDF-1.4 test".getBytes();
+
+        try (PdfSpoolFile spoolFile = PdfSpoolFile.spool(new ByteArrayInputStream(content), tempDir)) {
+            assertEquals(tempDir, spoolFile.getPath().getParent());
+            assertEquals(content.length, spoolFile.getSize());
+            assertArrayEquals(content, Files.readAllBytes(spoolFile.getPath()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should hash the content while copying")
+    void testSpool_HashesContent() throws Exception {
+        try (PdfSpoolFile first = PdfSpoolFile.spool(new ByteArrayInputStream("abc".getBytes()), tempDir);
+             PdfSpoolFile second = PdfSpoolFile.spool(new ByteArrayInputStream("abc".getBytes()), tempDir);
+             PdfSpoolFile other = PdfSpoolFile.spool(new ByteArrayInputStream("abd".getBytes()), tempDir)) {
+            assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", first.getSha256());
+            assertEquals(first.getSha256(), second.getSha256());
+            assertNotEquals(first.getSha256(), other.getSha256());
+        }
+    }
+
+    @Test
+    @DisplayName("Should delete the temporary file on close")
+    void testClose_DeletesFile() throws Exception {
+        PdfSpoolFile spoolFile = PdfSpoolFile.spool(new ByteArrayInputStream(new byte[10]), tempDir);
+        Path path = spoolFile.getPath();
+
+        spoolFile.close();
+
+        assertFalse(Files.exists(path));
+    }
+
+    @Test
+    @DisplayName("Should release the document parsed from the file on close")
+    void testClose_ReleasesDocument() throws Exception {
+        PdfSpoolFile spoolFile = PdfSpoolFile.spool(new ByteArrayInputStream(new byte[10]), tempDir);
+        AtomicBoolean released = new AtomicBoolean();
+        PDDocument document = new PDDocument();
+        spoolFile.setDocument(document, () -> {
+            document.close();
+            released.set(true);
+        });
+
+        spoolFile.close();
+
+        assertTrue(released.get());
+        assertNull(spoolFile.getDocument());
+        assertFalse(Files.exists(spoolFile.getPath()));
+    }
+
+    @Test
+    @DisplayName("Should reject a null stream")
+    void testSpool_NullStream() {
+        assertThrows(IllegalArgumentException.class, () -> PdfSpoolFile.spool(null, tempDir));
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.util;
+
+import com.example.data.PriceInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PriceBulkWriter.
+ * Tests chunking into unordered bulk inserts, the limit on writes in flight and failures.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PriceBulkWriter Tests")
+class PriceBulkWriterTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        lenient().when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PriceInfo.class))
+                .thenReturn(bulkOperations);
+    }
+
+    @Test
+    @DisplayName("Should insert full chunks as rows arrive and the rest on finish")
+    @SuppressWarnings("unchecked")
+    void testFinish_WritesChunks() throws Exception {
+        PriceBulkWriter writer = new PriceBulkWriter(mongoTemplate, Runnable::run, 2, 4,
+                new ExtractionMetrics(registry));
+
+        writer.onPage(1, rows(3));
+        verify(bulkOperations, times(1)).insert(anyList());
+        writer.onPage(2, rows(2));
+        verify(bulkOperations, times(2)).insert(anyList());
+
+        assertEquals(5, writer.finish());
+
+        ArgumentCaptor<List<PriceInfo>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(bulkOperations, times(3)).insert(chunks.capture());
+        assertEquals(List.of(2, 2, 1), chunks.getAllValues().stream().map(List::size).toList());
+        for (List<PriceInfo> chunk : chunks.getAllValues()) {
+            chunk.forEach(row -> assertNotNull(row.getId()));
+        }
+        verify(bulkOperations, times(3)).execute();
+        assertEquals(3, registry.get("pdf.extraction.stage").tag("stage", ExtractionMetrics.STAGE_SAVE)
+                .timer().count());
+    }
+
+    @Test
+    @DisplayName("Should block the producer while the maximum number of chunks is in flight")
+    void testOnPage_BoundsWritesInFlight() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(bulkOperations.execute()).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            release.await(5, TimeUnit.SECONDS);
+            running.decrementAndGet();
+            return null;
+        });
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            PriceBulkWriter writer = new PriceBulkWriter(mongoTemplate, executor, 1, 2,
+                    new ExtractionMetrics(registry));
+            Thread producer = new Thread(() -> {
+                try {
+                    writer.onPage(1, rows(3));
+                    writer.finish();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            producer.start();
+
+            // The third chunk waits for one of the first two to finish
+            producer.join(200);
+            assertTrue(producer.isAlive());
+            release.countDown();
+            producer.join(5000);
+            assertFalse(producer.isAlive());
+            assertEquals(2, maxRunning.get());
+            verify(bulkOperations, times(3)).execute();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should rethrow a failed write and stop writing further chunks")
+    void testFinish_RethrowsFailure() throws Exception {
+        when(bulkOperations.execute()).thenThrow(new IllegalStateException("Mongo unavailable"));
+        PriceBulkWriter writer = new PriceBulkWriter(mongoTemplate, Runnable::run, 1, 2,
+                new ExtractionMetrics(registry));
+
+        writer.onPage(1, rows(1));
+
+        assertThrows(IllegalStateException.class, () -> writer.onPage(2, rows(1)));
+        assertThrows(IllegalStateException.class, writer::finish);
+        verify(bulkOperations, times(1)).execute();
+    }
+
+    @Test
+    @DisplayName("Should drop buffered rows when closed without finishing")
+    void testClose_DropsBufferedRows() throws Exception {
+        PriceBulkWriter writer = new PriceBulkWriter(mongoTemplate, Runnable::run, 10, 2,
+                new ExtractionMetrics(registry));
+
+        writer.onPage(1, rows(3));
+        writer.close();
+
+        verify(bulkOperations, never()).insert(anyList());
+    }
+
+    private static List<PriceInfo> rows(int count) {
+        List<PriceInfo> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            PriceInfo row = new PriceInfo();
+            row.setProductCode("SKU-" + i);
+            rows.add(row);
+        }
+        return rows;
+    }
+}
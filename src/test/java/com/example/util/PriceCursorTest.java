@@ -0,0 +1,50 @@
+package com.example.util;
+
+import com.example.data.PriceInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PriceCursor.
+ * Tests encoding round trips, the start of a listing and rejection of foreign tokens.
+ */
+@DisplayName("PriceCursor Tests")
+class PriceCursorTest {
+
+    @Test
+    @DisplayName("Should round trip the id, and the price when paging by price")
+    void testEncodeDecode() {
+        PriceInfo row = new PriceInfo();
+        row.setId("65a1b2c3d4e5f6a7b8c9d0e1");
+        row.setPrice(new BigDecimal("19.90"));
+
+        PriceCursor byId = PriceCursor.decode(PriceCursor.after(row, false).encode());
+        assertEquals("65a1b2c3d4e5f6a7b8c9d0e1", byId.getId());
+        assertNull(byId.getPrice());
+
+        PriceCursor byPrice = PriceCursor.decode(PriceCursor.after(row, true).encode());
+        assertEquals("65a1b2c3d4e5f6a7b8c9d0e1", byPrice.getId());
+        assertEquals(new BigDecimal("19.90"), byPrice.getPrice());
+    }
+
+    @Test
+    @DisplayName("Should start before every id when no cursor is given")
+    void testDecode_First() {
+        assertEquals("000000000000000000000000", PriceCursor.decode(null).getId());
+        assertEquals("000000000000000000000000", PriceCursor.decode("").getId());
+        assertNull(PriceCursor.decode(null).getPrice());
+    }
+
+    @Test
+    @DisplayName("Should reject tokens it did not produce")
+    void testDecode_Invalid() {
+        assertThrows(IllegalArgumentException.class, () -> PriceCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> PriceCursor.decode("bm90LWFuLWlk"));
+        assertThrows(IllegalArgumentException.class,
+                () -> PriceCursor.decode("NjVhMWIyYzNkNGU1ZjZhN2I4YzlkMGUxfGFiYw"));
+    }
+}
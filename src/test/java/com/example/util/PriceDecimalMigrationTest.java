@@ -0,0 +1,83 @@
+package com.example.util;
+
+import com.example.data.PriceInfo;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PriceDecimalMigration.
+ * Tests that only string prices are matched and that they are converted on the server,
+ * leaving strings that are not numbers unchanged.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PriceDecimalMigration Tests")
+class PriceDecimalMigrationTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private PriceDecimalMigration migration;
+
+    @Test
+    @DisplayName("Should convert string prices with a single pipeline update")
+    void testMigrate() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(PriceInfo.class)))
+                .thenReturn(UpdateResult.acknowledged(3, 3L, null));
+
+        assertEquals(3, migration.migrate());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).updateMulti(query.capture(), update.capture(), eq(PriceInfo.class));
+        assertEquals(new Document("price", new Document("$type", 2)), query.getValue().getQueryObject());
+        List<Document> pipeline = assertInstanceOf(AggregationUpdate.class, update.getValue())
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(new Document("$set", new Document("price", new Document("$convert",
+                        new Document("input", "$price").append("to", "decimal").append("onError", "$price")))),
+                pipeline.get(0));
+    }
+
+    @Test
+    @DisplayName("Should leave a price string that is not a number unchanged and count it")
+    void testMigrate_UnparseablePrice() {
+        // "N/A" fails to convert and keeps its value through onError, so only "999.99" is modified
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(PriceInfo.class)))
+                .thenReturn(UpdateResult.acknowledged(2, 1L, null));
+        when(mongoTemplate.count(any(Query.class), eq(PriceInfo.class))).thenReturn(1L);
+
+        assertEquals(1, migration.migrate());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).count(query.capture(), eq(PriceInfo.class));
+        assertEquals(new Document("price", new Document("$type", 2)), query.getValue().getQueryObject());
+    }
+
+    @Test
+    @DisplayName("Should report nothing to do once every price is Decimal128")
+    void testMigrate_AlreadyMigrated() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(PriceInfo.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertEquals(0, migration.migrate());
+    }
+}
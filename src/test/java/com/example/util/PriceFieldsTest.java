@@ -0,0 +1,54 @@
+package com.example.util;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PriceFields.
+ * Tests parsing, the default selection without rawText and the projection applied to queries.
+ */
+@DisplayName("PriceFields Tests")
+class PriceFieldsTest {
+
+    @Test
+    @DisplayName("Should select every field but rawText when none are given")
+    void testParse_Default() {
+        assertSame(PriceFields.DEFAULT, PriceFields.parse(null));
+        assertSame(PriceFields.DEFAULT, PriceFields.parse(" "));
+        assertTrue(PriceFields.DEFAULT.contains("description"));
+        assertFalse(PriceFields.DEFAULT.contains("rawText"));
+        assertTrue(PriceFields.ALL.contains("rawText"));
+    }
+
+    @Test
+    @DisplayName("Should always include the id and ignore blanks and repeats")
+    void testParse_Selected() {
+        PriceFields fields = PriceFields.parse(" price, productName,,price ");
+
+        assertEquals(List.of("id", "price", "productName"), List.copyOf(fields.getNames()));
+        assertEquals(PriceFields.parse("id,price,productName"), fields);
+        assertEquals("id,price,productName", fields.toString());
+    }
+
+    @Test
+    @DisplayName("Should reject names that are not fields of a price row")
+    void testParse_Unknown() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> PriceFields.parse("productName,secret"));
+        assertTrue(e.getMessage().startsWith("Unknown field: secret"));
+    }
+
+    @Test
+    @DisplayName("Should project queries onto the selected and required fields")
+    void testApplyTo() {
+        Query query = PriceFields.parse("productCode").applyTo(new Query(), "price");
+
+        assertEquals(new Document("id", 1).append("productCode", 1).append("price", 1), query.getFieldsObject());
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PriceLineScanner.
+ * Checks individual cases and compares the scanner against the regexes it replaced.
+ */
+@DisplayName("PriceLineScanner Tests")
+class PriceLineScannerTest {
+
+    // The patterns PdfPriceExtractor used before the scanner, kept as a reference implementation
+    private static final Pattern PRICE_PATTERN = Pattern.compile(
+            "(?:[$£€¥₹]\\s*)?([0-9]{1,3}(?:,?[0-9]{3})*(?:\\.[0-9]{2})?)"
+    );
+
+    private static final Pattern CURRENCY_PATTERN = Pattern.compile(
+            "(USD|EUR|GBP|JPY|INR|\\$|£|€|¥|₹)"
+    );
+
+    private static final Pattern PRODUCT_CODE_PATTERN = Pattern.compile(
+            "(?:SKU|Code|Item|Product\\s*#?)\\s*:?\\s*([A-Z0-9-]+)",
+            Pattern.CASE_INSENSITIVE
+    );
+
+    private static final Pattern PRODUCT_NAME_PATTERN = Pattern.compile(
+            "(?:Product|Item|Name)\\s*:?\\s*([A-Za-z0-9\\s\\-]+)",
+            Pattern.CASE_INSENSITIVE
+    );
+
+    private static final String[] FRAGMENTS = {
+            "SKU", "sku", "Code", "CODE", "Item", "item", "Product", "product #", "Name", "name",
+            "USD", "EUR", "GBP", "JPY", "INR", "usd", "$", "£", "€", "¥", "₹",
+            ":", " ", "  ", "\t", "#", "-", ",", ".", "Widget", "x", "Z9",
+            "1", "12", "123", "1234", "12345", "1,234", "12,345.67", "0.99", ".5", "1,23", "999,999,999"
+    };
+
+    private PriceLineScanner scanner;
+
+    @BeforeEach
+    void setUp() {
+        scanner = new PriceLineScanner();
+    }
+
+    @Test
+    @DisplayName("Should report every price on the line")
+    void testScan_Prices() {
+        scanner.scan("Widget $1,234.56 or EUR 99.00");
+
+        assertEquals(2, scanner.getPriceCount());
+        assertEquals(new BigDecimal("1234.56"), scanner.getPrice(0));
+        assertEquals(new BigDecimal("99.00"), scanner.getPrice(1));
+        assertEquals("USD", scanner.getCurrency());
+    }
+
+    @Test
+    @DisplayName("Should report currency, code and name in one pass")
+    void testScan_Fields() {
+        scanner.scan("Item: Deluxe Lamp SKU: LMP-42 GBP 30");
+
+        assertEquals("GBP", scanner.getCurrency());
+        assertTrue(scanner.isCurrencyFound());
+        assertEquals("Deluxe", scanner.getProductCode());
+        assertEquals("Deluxe Lamp SKU", scanner.getProductName());
+    }
+
+    @Test
+    @DisplayName("Should default the currency to USD and leave code and name empty")
+    void testScan_Defaults() {
+        scanner.scan("nothing to see here");
+
+        assertEquals(0, scanner.getPriceCount());
+        assertEquals("USD", scanner.getCurrency());
+        assertFalse(scanner.isCurrencyFound());
+        assertNull(scanner.getProductCode());
+        assertNull(scanner.getProductName());
+    }
+
+    @Test
+    @DisplayName("Should only scan the requested range of a shared buffer")
+    void testScan_Range() {
+        String buffer = "SKU: AAA $1.00\nName: Lamp 25.50\n";
+
+        scanner.scan(buffer, 15, 31);
+
+        assertEquals(1, scanner.getPriceCount());
+        assertEquals(new BigDecimal("25.50"), scanner.getPrice(0));
+        assertNull(scanner.getProductCode());
+        assertEquals("Lamp 25", scanner.getProductName());
+    }
+
+    @Test
+    @DisplayName("Should parse prices too long for a long")
+    void testScan_VeryLongPrice() {
+        scanner.scan("123,456,789,012,345,678,901.25");
+
+        assertEquals(1, scanner.getPriceCount());
+        assertEquals(new BigDecimal("123456789012345678901.25"), scanner.getPrice(0));
+    }
+
+    @Test
+    @DisplayName("Should scan long digit runs in linear time")
+    void testScan_LongDigitRun() {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            line.append("1,");
+        }
+        line.append("x");
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> scanner.scan(line));
+        assertEquals(20000, scanner.getPriceCount());
+    }
+
+    @Test
+    @DisplayName("Should match the original regexes on random lines")
+    void testScan_MatchesRegexes() {
+        Random random = new Random(42);
+
+        for (int n = 0; n < 20000; n++) {
+            StringBuilder line = new StringBuilder();
+            int parts = 1 + random.nextInt(8);
+            for (int k = 0; k < parts; k++) {
+                line.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            String text = line.toString();
+
+            scanner.scan(text);
+
+            List<BigDecimal> expectedPrices = new ArrayList<>();
+            Matcher priceMatcher = PRICE_PATTERN.matcher(text);
+            while (priceMatcher.find()) {
+                expectedPrices.add(new BigDecimal(priceMatcher.group(1).replace(",", "")));
+            }
+            List<BigDecimal> actualPrices = new ArrayList<>();
+            for (int i = 0; i < scanner.getPriceCount(); i++) {
+                actualPrices.add(scanner.getPrice(i));
+            }
+
+            assertEquals(expectedPrices, actualPrices, "prices for: " + text);
+            assertEquals(regexCurrency(text), scanner.getCurrency(), "currency for: " + text);
+            assertEquals(regexGroup(PRODUCT_CODE_PATTERN, text), scanner.getProductCode(), "code for: " + text);
+            assertEquals(regexGroup(PRODUCT_NAME_PATTERN, text), scanner.getProductName(), "name for: " + text);
+        }
+    }
+
+    private static String regexCurrency(String text) {
+        Matcher matcher = CURRENCY_PATTERN.matcher(text);
+        if (!matcher.find()) {
+            return "USD";
+        }
+        switch (matcher.group(1)) {
+            case "$":
+                return "USD";
+            case "£":
+                return "GBP";
+            case "€":
+                return "EUR";
+            case "¥":
+                return "JPY";
+            case "₹":
+                return "INR";
+            default:
+                return matcher.group(1);
+        }
+    }
+
+    private static String regexGroup(Pattern pattern, String text) {
+        Matcher matcher = pattern.matcher(text);
+        return matcher.find() ? matcher.group(1).trim() : null;
+    }
+}
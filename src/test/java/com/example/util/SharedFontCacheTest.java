@@ -0,0 +1,121 @@
+package com.example.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SharedFontCache.
+ * Tests matching fonts by content, the fonts left out and the byte bound.
+ */
+@DisplayName("SharedFontCache Tests")
+class SharedFontCacheTest {
+
+    private ExtractionMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new ExtractionMetrics(new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Should return the same font for dictionaries with the same content")
+    void testGet_SameContent() throws Exception {
+        SharedFontCache cache = new SharedFontCache(1024 * 1024, metrics);
+
+        PDFont first = cache.get(font("Helvetica", "program"));
+        PDFont second = cache.get(font("Helvetica", "program"));
+        PDFont other = cache.get(font("Helvetica", "another program"));
+
+        assertNotNull(first);
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should build shared fonts from a copy that does not read the document")
+    void testGet_CopiesIndirectObjects() throws Exception {
+        SharedFontCache cache = new SharedFontCache(1024 * 1024, metrics);
+        COSDictionary dictionary = font("Helvetica", "program");
+        COSDictionary descriptor = (COSDictionary) dictionary.getDictionaryObject(COSName.FONT_DESC);
+        dictionary.setItem(COSName.FONT_DESC, new COSObject(descriptor));
+
+        PDFont font = cache.get(dictionary);
+
+        assertNotSame(dictionary, font.getCOSObject());
+        assertNotSame(descriptor, font.getCOSObject().getDictionaryObject(COSName.FONT_DESC));
+        assertEquals("Helvetica", font.getName());
+    }
+
+    @Test
+    @DisplayName("Should not share Type 3 fonts")
+    void testGet_Type3() {
+        SharedFontCache cache = new SharedFontCache(1024 * 1024, metrics);
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setItem(COSName.TYPE, COSName.FONT);
+        dictionary.setItem(COSName.SUBTYPE, COSName.TYPE3);
+
+        assertNull(cache.get(dictionary));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used fonts beyond the byte limit")
+    void testGet_EvictsByBytes() throws Exception {
+        SharedFontCache cache = new SharedFontCache(2 * 1024 + 100, metrics);
+
+        PDFont first = cache.get(font("Helvetica", "a"));
+        cache.get(font("Helvetica", "b"));
+        cache.get(font("Helvetica", "c"));
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.getBytes() <= 2 * 1024 + 100);
+        assertNotSame(first, cache.get(font("Helvetica", "a")));
+    }
+
+    @Test
+    @DisplayName("Should hand a released cache to the next document")
+    void testPool_ReusesReleasedCache() {
+        SharedFontCache.Pool pool = new SharedFontCache.Pool(1024, metrics);
+        SharedFontCache first = pool.take();
+        SharedFontCache concurrent = pool.take();
+        pool.release(first);
+
+        assertNotSame(first, concurrent);
+        assertSame(first, pool.take());
+    }
+
+    /**
+     * A standard 14 font whose descriptor carries {@code program} in a metadata stream, so fonts
+     * can differ only in their stream content.
+     */
+    private static COSDictionary font(String baseFont, String program) throws Exception {
+        COSStream metadata = new COSStream();
+        try (OutputStream out = metadata.createRawOutputStream()) {
+            out.write(program.getBytes(StandardCharsets.US_ASCII));
+        }
+        COSDictionary descriptor = new COSDictionary();
+        descriptor.setItem(COSName.TYPE, COSName.FONT_DESC);
+        descriptor.setName(COSName.FONT_NAME, baseFont);
+        descriptor.setItem(COSName.METADATA, metadata);
+
+        COSDictionary font = new COSDictionary();
+        font.setItem(COSName.TYPE, COSName.FONT);
+        font.setItem(COSName.SUBTYPE, COSName.TYPE1);
+        font.setName(COSName.BASE_FONT, baseFont);
+        font.setItem(COSName.FONT_DESC, descriptor);
+        return font;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.util;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TableLayoutReader.
+ * Pages are drawn with cells at fixed column positions and read back with word positions.
+ */
+@DisplayName("TableLayoutReader Tests")
+class TableLayoutReaderTest {
+
+    @Test
+    @DisplayName("Should find the header row and read cells by column")
+    void testReadRow_ByColumn() throws Exception {
+        List<String[]> rows = read(new float[] {50, 130, 330, 400}, new String[][] {
+                {"Spring catalogue 2024"},
+                {"Part", "Description", "Qty", "Cost"},
+                {"X-1", "Bolts M8 x 40", "200", "0.35"},
+                {"X-2", "Washers", "50"}});
+
+        assertEquals(1, rows.size());
+        assertArrayEquals(new String[] {"X-1", "Bolts M8 x 40", "0.35", "USD", "X-1 Bolts M8 x 40 200 0.35"},
+                rows.get(0));
+    }
+
+    @Test
+    @DisplayName("Should treat Product Code as a code column and Item Price as the price column")
+    void testFindColumns_LabelOrder() throws Exception {
+        List<String[]> rows = read(new float[] {50, 200, 400}, new String[][] {
+                {"Product Code", "Product Name", "Item Price"},
+                {"PC-9", "Keyboard", "EUR 45.00"}});
+
+        assertEquals(1, rows.size());
+        assertEquals("PC-9", rows.get(0)[0]);
+        assertEquals("Keyboard", rows.get(0)[1]);
+        assertEquals("45.00", rows.get(0)[2]);
+        assertEquals("EUR", rows.get(0)[3]);
+    }
+
+    @Test
+    @DisplayName("Should not find a header without a price column")
+    void testFindColumns_NoPriceColumn() throws Exception {
+        assertNull(read(new float[] {50, 200}, new String[][] {
+                {"SKU", "Description"},
+                {"A-1", "Widget"}}));
+    }
+
+    @Test
+    @DisplayName("Should not take a line with figures for the header")
+    void testFindColumns_HeaderWithoutDigits() throws Exception {
+        assertNull(read(new float[] {50, 200}, new String[][] {
+                {"Item 2024", "Price 2024"},
+                {"A-1", "$1.00"}}));
+    }
+
+    // Rows read after the header as {code, name, price, currency, raw text}; null without a header
+    private static List<String[]> read(float[] columns, String[][] rows) throws Exception {
+        byte[] pdf = PdfPriceExtractorTest.createTablePdf(columns, new String[][][] {rows});
+        TableLayoutReader reader = new TableLayoutReader();
+        List<String[]> result = new ArrayList<>();
+        boolean[] found = new boolean[1];
+
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            PageLineTextStripper stripper = new PageLineTextStripper((page, pageText) -> {
+                found[0] = reader.findColumns(pageText);
+                if (!found[0]) {
+                    return;
+                }
+                for (int line = reader.getHeaderLine() + 1; line < pageText.lineCount(); line++) {
+                    if (reader.readRow(line)) {
+                        BigDecimal price = reader.getPrice();
+                        result.add(new String[] {reader.getProductCode(), reader.getProductName(),
+                                price.toPlainString(), reader.getCurrency(), reader.getRawText()});
+                    }
+                }
+            });
+            stripper.setCollectWords(true);
+            stripper.process(document);
+        }
+        return found[0] ? result : null;
+    }
+}